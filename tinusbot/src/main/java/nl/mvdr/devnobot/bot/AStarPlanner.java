@@ -0,0 +1,369 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.SpatialIndex;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.WallMap;
+
+/**
+ * A* search for the first move of a fastest path to a firing position.
+ * 
+ * The cost of an edge is the time the action takes, in milliseconds. Every action of a tank takes the same time, its
+ * action duration, so the fastest path is also a shortest one.
+ * 
+ * The heuristic is a lower bound on the time needed to get a target in the line of fire, ignoring walls and other
+ * tanks. A bullet spawns in the middle of the tank and flies along a row or a column, so it can only hit a target if it
+ * overlaps the target's rows (when fired east or west) or columns (when fired north or south). Moving forward or
+ * backward shifts the bullet's spawn location by the tank's distance per step; turning does not shift it at all, but
+ * is needed to face the right way. The heuristic counts the moves needed to reach the nearest row or column aligned
+ * with a target, plus the turns needed to face along it. This never overestimates, so the path found is a shortest
+ * one; with a heuristic of zero, the search visits the nodes in the same order as {@link BreadthFirstPlanner}.
+ * 
+ * Nodes are tested as firing positions when they are taken from the open set rather than when they are found. The open
+ * set is a binary heap of longs, which hold a node's estimated total cost in the upper half and its index in the lower
+ * half, so that nodes with the same estimate are taken in order of discovery. When a cheaper path to a node is found,
+ * the node is updated and added to the heap once more; outdated heap entries are skipped.
+ * 
+ * When there are several shortest paths, A* may find a different one than {@link BreadthFirstPlanner}, which finds the
+ * first one in the order of {@link #MOVES}. To return the same first move, the A* search only determines the length of
+ * a shortest path. A second, breadth-first pass then looks for a firing position at that distance, leaving out every
+ * node whose distance from the start plus estimate is larger. Every node on a shortest path to a firing position is
+ * within that bound, since the estimate is a lower bound, and so is every shortest path to such a node. The second
+ * pass therefore visits those nodes in the same order as a full breadth-first search, and finds the same path, while
+ * visiting roughly the same nodes as the A* pass.
+ * 
+ * @author Martijn van de Rijdt
+ */
+class AStarPlanner extends FiringPositionPlanner {
+    /** Initial capacity of the heap. */
+    private static final int INITIAL_HEAP_CAPACITY = 1024;
+    /** Mask for the node index in a heap entry. */
+    private static final long NODE_MASK = 0xFFFFFFFFL;
+
+    /** Cost of the cheapest known path from the start node to each node, in milliseconds. */
+    private int[] nodeCost = new int[nodeX.length];
+    /** Heuristic estimate of the remaining cost from each node to a firing position, in milliseconds. */
+    private int[] nodeEstimate = new int[nodeX.length];
+    /** Open set: a binary min-heap of entries containing the estimated total cost and the index of a node. */
+    private long[] heap = new long[INITIAL_HEAP_CAPACITY];
+    /** Number of entries in the heap. */
+    private int heapSize;
+
+    /** Leftmost x coordinate of each target. */
+    private int[] targetMinX = new int[0];
+    /** Rightmost x coordinate (exclusive) of each target. */
+    private int[] targetMaxX = new int[0];
+    /** Topmost y coordinate of each target. */
+    private int[] targetMinY = new int[0];
+    /** Bottommost y coordinate (exclusive) of each target. */
+    private int[] targetMaxY = new int[0];
+    /** Number of targets in the latest search. */
+    private int targetCount;
+    /** Number of nodes found by the A* pass of the latest search; 0 if there was no second pass. */
+    private int firstPassNodeCount;
+
+    /** {@inheritDoc} */
+    @Override
+    List<Action> plan(Tank tank, Set<Action> firstMoves, GameState state, SpatialIndex<Tank> targets,
+            WallMap walls, LevelBoundary boundary) {
+        reset(tank, targets, walls, boundary);
+        heapSize = 0;
+        setTargets(targets.getObjects());
+        int start = addNode(tank.getX(), tank.getY(), tank.getLastKnownOrientation().ordinal(), -1, -1);
+        nodeCost[start] = 0;
+        nodeEstimate[start] = tank.getActionDuration() * estimateMoves(tank, start);
+        push(nodeEstimate[start], start);
+
+        firstPassNodeCount = 0;
+        int goal = -1;
+        while (goal == -1 && heapSize != 0) {
+            long entry = pop();
+            int node = (int) (entry & NODE_MASK);
+            // Skip outdated entries: a cheaper path to their node was found after they were added to the heap.
+            if ((int) (entry >>> 32) == nodeCost[node] + nodeEstimate[node]) {
+                if (0 < nodeParent[node]
+                        && isFiringPosition(nodeX[node], nodeY[node], computeWidth(tank, node),
+                                computeHeight(tank, node), nodeOrientation[node], state, targets, walls, boundary)) {
+                    goal = node;
+                } else {
+                    expand(tank, node, firstMoves, walls, boundary);
+                }
+            }
+        }
+
+        if (goal != -1) {
+            int length = 0;
+            for (int node = goal; node != 0; node = nodeParent[node]) {
+                length++;
+            }
+            firstPassNodeCount = getNodeCount();
+            clearNodes();
+            goal = searchBreadthFirst(tank, firstMoves, state, targets, walls, boundary, length);
+        }
+
+        return buildResult(goal);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Includes the nodes found by both passes.
+     */
+    @Override
+    public int getNodeCount() {
+        return firstPassNodeCount + super.getNodeCount();
+    }
+
+    /**
+     * Breadth-first search for a firing position at the given distance, which skips the nodes which cannot be on a path
+     * of that length according to the heuristic. Uses {@link #nodeCost} for the nodes' distances from the start, in
+     * actions, and {@link #nodeEstimate} for their estimates.
+     * 
+     * @param tank
+     *            tank
+     * @param firstMoves
+     *            actions allowed as the first move
+     * @param state
+     *            game state
+     * @param targets
+     *            index of the tanks to be considered targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     * @param length
+     *            number of actions in a shortest path to a firing position
+     * @return index of the goal node, or -1 if none was found
+     */
+    private int searchBreadthFirst(Tank tank, Set<Action> firstMoves, GameState state, SpatialIndex<Tank> targets,
+            WallMap walls, LevelBoundary boundary, int length) {
+        int start = addNode(tank.getX(), tank.getY(), tank.getLastKnownOrientation().ordinal(), -1, -1);
+        nodeCost[start] = 0;
+        nodeEstimate[start] = 0;
+
+        int goal = -1;
+        int head = 0;
+        while (goal == -1 && head != super.getNodeCount()) {
+            int node = head;
+            head++;
+            // Nodes beyond the bound are kept in the visited set, but not expanded.
+            for (int i = 0; goal == -1 && nodeCost[node] + nodeEstimate[node] <= length && i != MOVES.length; i++) {
+                Action move = MOVES[i];
+                move(tank, node, move);
+                if (isAllowed(node, move, firstMoves, walls, boundary)) {
+                    int index = addNode(moveX, moveY, moveOrientation, node, move.ordinal());
+                    if (0 <= index) {
+                        nodeCost[index] = nodeCost[node] + 1;
+                        nodeEstimate[index] = estimateMoves(tank, index);
+                        if (node != 0
+                                && nodeCost[index] + nodeEstimate[index] <= length
+                                && isFiringPosition(moveX, moveY, moveWidth, moveHeight, moveOrientation, state,
+                                        targets, walls, boundary)) {
+                            goal = index;
+                        }
+                    }
+                }
+            }
+        }
+        return goal;
+    }
+
+    /**
+     * Adds the neighbours of the given node to the heap, or updates them if the path through this node is cheaper.
+     * 
+     * @param tank
+     *            tank, as it was at the start of the search
+     * @param node
+     *            node index
+     * @param firstMoves
+     *            actions allowed as the first move
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    private void expand(Tank tank, int node, Set<Action> firstMoves, WallMap walls, LevelBoundary boundary) {
+        int cost = nodeCost[node] + tank.getActionDuration();
+        for (Action move : MOVES) {
+            move(tank, node, move);
+            if (isAllowed(node, move, firstMoves, walls, boundary)) {
+                int index = addNode(moveX, moveY, moveOrientation, node, move.ordinal());
+                if (0 <= index) {
+                    nodeCost[index] = cost;
+                    nodeEstimate[index] = tank.getActionDuration() * estimateMoves(tank, index);
+                    push(cost + nodeEstimate[index], index);
+                } else if (cost < nodeCost[-index - 1]) {
+                    index = -index - 1;
+                    nodeParent[index] = node;
+                    nodeAction[index] = (byte) move.ordinal();
+                    nodeCost[index] = cost;
+                    push(cost + nodeEstimate[index], index);
+                }
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void grow(int capacity) {
+        super.grow(capacity);
+        nodeCost = Arrays.copyOf(nodeCost, capacity);
+        nodeEstimate = Arrays.copyOf(nodeEstimate, capacity);
+    }
+
+    /**
+     * Stores the bounds of the targets in primitive form, for use by the heuristic.
+     * 
+     * @param targets
+     *            targets
+     */
+    private void setTargets(List<Tank> targets) {
+        targetCount = targets.size();
+        if (targetMinX.length < targetCount) {
+            targetMinX = new int[targetCount];
+            targetMaxX = new int[targetCount];
+            targetMinY = new int[targetCount];
+            targetMaxY = new int[targetCount];
+        }
+        for (int i = 0; i != targetCount; i++) {
+            Tank target = targets.get(i);
+            targetMinX[i] = target.getX();
+            targetMaxX[i] = target.computeMaxX();
+            targetMinY[i] = target.getY();
+            targetMaxY[i] = target.computeMaxY();
+        }
+    }
+
+    /**
+     * Estimates the number of actions needed to get from the given node to a position where a target is in the line
+     * of fire. Never overestimates.
+     * 
+     * @param tank
+     *            tank, as it was at the start of the search
+     * @param node
+     *            node index
+     * @return lower bound on the number of actions; 0 if there are no targets
+     */
+    private int estimateMoves(Tank tank, int node) {
+        int distance = Math.max(1, tank.getDistancePerStep());
+        int bulletWidth = Bullet.getBulletWidth();
+        int bulletHeight = Bullet.getBulletHeight();
+        // Same spawn location as Tank.computeBulletSpawnLocation().
+        int bulletX = nodeX[node] + computeWidth(tank, node) / 2 - bulletWidth / 2;
+        int bulletY = nodeY[node] + computeHeight(tank, node) / 2 - bulletHeight / 2;
+        boolean vertical = ORIENTATIONS[nodeOrientation[node]].getXMultiplier() == 0;
+
+        int result = Integer.MAX_VALUE;
+        for (int i = 0; i != targetCount; i++) {
+            // Firing north or south: the bullet has to overlap the target's columns.
+            int columnMoves = estimateAxisMoves(bulletX, bulletX + bulletWidth, targetMinX[i], targetMaxX[i],
+                    distance, vertical);
+            // Firing east or west: the bullet has to overlap the target's rows.
+            int rowMoves = estimateAxisMoves(bulletY, bulletY + bulletHeight, targetMinY[i], targetMaxY[i], distance,
+                    !vertical);
+            result = Math.min(result, Math.min(columnMoves, rowMoves));
+        }
+        if (result == Integer.MAX_VALUE) {
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Computes a lower bound on the number of actions needed to make the bullet's range overlap the target's range
+     * along one axis, while facing along the other axis.
+     * 
+     * @param bulletMin
+     *            minimum coordinate of the bullet
+     * @param bulletMax
+     *            maximum coordinate (exclusive) of the bullet
+     * @param targetMin
+     *            minimum coordinate of the target
+     * @param targetMax
+     *            maximum coordinate (exclusive) of the target
+     * @param distance
+     *            distance per step
+     * @param facing
+     *            whether the tank currently faces along the other axis, in the direction it would fire
+     * @return lower bound on the number of actions
+     */
+    private static int estimateAxisMoves(int bulletMin, int bulletMax, int targetMin, int targetMax, int distance,
+            boolean facing) {
+        int gap;
+        if (bulletMax <= targetMin) {
+            gap = targetMin - bulletMax + 1;
+        } else if (targetMax <= bulletMin) {
+            gap = bulletMin - targetMax + 1;
+        } else {
+            gap = 0;
+        }
+
+        int result;
+        if (gap == 0 && facing) {
+            result = 0;
+        } else if (gap == 0 || !facing) {
+            // Either turn to face the target's way, or move along this axis and then turn.
+            result = (gap + distance - 1) / distance + 1;
+        } else {
+            // Turn to move along this axis, move, and turn back.
+            result = (gap + distance - 1) / distance + 2;
+        }
+        return result;
+    }
+
+    /**
+     * Adds an entry to the heap.
+     * 
+     * @param estimate
+     *            estimated total cost of a path through the node
+     * @param node
+     *            node index
+     */
+    private void push(int estimate, int node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, 2 * heapSize);
+        }
+        long entry = (long) estimate << 32 | node;
+        int i = heapSize;
+        heapSize++;
+        while (0 < i && entry < heap[(i - 1) / 2]) {
+            heap[i] = heap[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * Removes the smallest entry from the heap.
+     * 
+     * @return entry; the heap must not be empty
+     */
+    private long pop() {
+        long result = heap[0];
+        heapSize--;
+        long last = heap[heapSize];
+        int i = 0;
+        int child = 1;
+        while (child < heapSize) {
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] < last) {
+                heap[i] = heap[child];
+                i = child;
+                child = 2 * i + 1;
+            } else {
+                child = heapSize;
+            }
+        }
+        heap[i] = last;
+        return result;
+    }
+}
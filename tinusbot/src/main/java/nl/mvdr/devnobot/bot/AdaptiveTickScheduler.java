@@ -0,0 +1,238 @@
+package nl.mvdr.devnobot.bot;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Tank;
+
+/**
+ * Scheduler which times its requests to arrive at the server just after the server publishes a new world status.
+ * 
+ * The server does not update the world status continuously: it caches it, and publishes a new version periodically.
+ * Requesting the world status at a fixed interval means that the status is on average half a period old when it is
+ * received, and that some requests return the same status as the previous one. This scheduler estimates the server's
+ * publication period and phase from the moments at which the world status is seen to change, and the round-trip time
+ * from the request timings. It then sends each request so that it arrives at the server a small margin after the next
+ * expected publication.
+ * 
+ * Times on the server are estimated as the midpoint between sending a request and receiving the response. A change in
+ * the world status means that it was published between the previous request and the current one. Only changes seen
+ * shortly after the previous request, which pin down the publication time closely, are used to estimate the period
+ * and phase. To make sure these keep occurring, the scheduler aims earlier after every request that is on time, by an
+ * amount that doubles every time; once a request arrives too early, it retries shortly afterwards and measures the
+ * publication time again. This also corrects a period estimate which is too long within a few requests.
+ * 
+ * Until the period has been estimated, and whenever the estimate no longer seems to match the server's behaviour, the
+ * scheduler polls at a fraction of the fallback period to calibrate. Requests are never more than twice the fallback
+ * period apart.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+class AdaptiveTickScheduler implements TickScheduler {
+    /** Initial time between the expected publication and the request arriving at the server, in milliseconds. */
+    private static final int MARGIN = 15;
+    /** Amount by which the first request after a measured publication is aimed earlier, in milliseconds. */
+    private static final int INITIAL_DRIFT = 1;
+    /** Minimum time between requests, in milliseconds. */
+    private static final int MIN_INTERVAL = 20;
+    /** Weight of a new sample in the moving averages. */
+    private static final double SMOOTHING = 0.2;
+    /** Number of publications to be measured while calibrating before the estimate is used. */
+    private static final int MIN_SAMPLES = 4;
+    /** Number of requests per fallback period while calibrating. */
+    private static final int CALIBRATION_RATE = 5;
+    /** Number of unchanged world statuses in a row after which the scheduler starts calibrating again. */
+    private static final int MAX_UNCHANGED = 10;
+
+    /** Time between requests when the server's period is unknown, in milliseconds. */
+    private final int fallbackPeriod;
+
+    /** Fingerprint of the latest world status. */
+    private long fingerprint;
+    /** Whether any world status has been received. */
+    private boolean initialized;
+    /** Estimated server time of the latest request. */
+    private long lastSeen;
+    /** Whether any publication time has been measured since the last (re)calibration. */
+    private boolean hasAnchor;
+    /** Estimated server time of the latest measured publication. */
+    private long anchor;
+    /** Estimated publication period in milliseconds; 0 if unknown. */
+    @Getter(AccessLevel.PACKAGE)
+    private double period;
+    /** Number of measured publications since the last (re)calibration. */
+    private int samples;
+    /** Time between the expected publication and the next request arriving at the server, in milliseconds. */
+    private int offset;
+    /** Amount by which the next request is aimed earlier if the latest one was on time; doubles every time. */
+    private int drift;
+    /** Estimated round-trip time in milliseconds; negative if unknown. */
+    private double roundTripTime;
+    /** Number of requests which returned an unchanged world status since the latest change. */
+    private int unchanged;
+    /** Number of publications seen since the anchor. */
+    private int published;
+
+    /**
+     * Constructor.
+     * 
+     * @param fallbackPeriod
+     *            time between requests when the server's period is unknown, in milliseconds
+     */
+    AdaptiveTickScheduler(int fallbackPeriod) {
+        super();
+        this.fallbackPeriod = fallbackPeriod;
+        this.roundTripTime = -1;
+    }
+
+    /**
+     * Computes a fingerprint of the given game state. Two different game states are very unlikely to have the same
+     * fingerprint.
+     * 
+     * @param state
+     *            game state
+     * @return fingerprint
+     */
+    static long computeFingerprint(GameState state) {
+        long result = 17;
+        for (Tank tank : state.getTanks()) {
+            result = 31 * result + tank.getX();
+            result = 31 * result + tank.getY();
+            result = 31 * result + tank.getWidth();
+            result = 31 * result + tank.getQueueLength();
+            if (tank.getLastKnownOrientation() != null) {
+                result = 31 * result + tank.getLastKnownOrientation().ordinal();
+            }
+            if (tank.getPlayer() != null) {
+                result = 31 * result + tank.getPlayer().hashCode();
+            }
+        }
+        for (Bullet bullet : state.getBullets()) {
+            result = 31 * result + bullet.getX();
+            result = 31 * result + bullet.getY();
+        }
+        return result;
+    }
+
+    /** @return whether the period and phase have been estimated */
+    boolean isCalibrated() {
+        return MIN_SAMPLES <= samples;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(long requestTime, long responseTime, GameState state) {
+        long roundTrip = Math.max(0, responseTime - requestTime);
+        if (roundTripTime < 0) {
+            roundTripTime = roundTrip;
+        } else {
+            roundTripTime = roundTripTime + SMOOTHING * (roundTrip - roundTripTime);
+        }
+        long serverTime = requestTime + roundTrip / 2;
+        long newFingerprint = computeFingerprint(state);
+
+        if (!initialized) {
+            initialized = true;
+        } else if (newFingerprint == fingerprint) {
+            unchanged++;
+            if (MAX_UNCHANGED <= unchanged && isCalibrated()) {
+                log.info("World status unchanged after {} requests; recalibrating.", "" + unchanged);
+                recalibrate();
+            }
+        } else {
+            published++;
+            if (!isCalibrated() || unchanged != 0) {
+                // The previous request returned the old status, so the publication time is known quite precisely.
+                measure(lastSeen + (serverTime - lastSeen) / 2);
+            } else if (-period / 2 < offset - drift) {
+                offset = offset - drift;
+                drift = 2 * drift;
+            } else {
+                // Requests aimed well before the expected publication are still on time; the server probably
+                // publishes more often than estimated.
+                log.info("World status published earlier than expected; recalibrating.");
+                recalibrate();
+            }
+            unchanged = 0;
+        }
+
+        fingerprint = newFingerprint;
+        lastSeen = serverTime;
+    }
+
+    /** Discards the period and phase estimates. */
+    private void recalibrate() {
+        samples = 0;
+        period = 0;
+        hasAnchor = false;
+    }
+
+    /**
+     * Registers a measured publication time, and updates the period and phase estimates.
+     * 
+     * While calibrating, the anchor is kept at the first measured publication, so that the error in the period
+     * estimate shrinks with every publication. Afterwards the anchor moves to every measured publication, and the
+     * period estimate is a moving average.
+     * 
+     * @param publication
+     *            estimated publication time
+     */
+    private void measure(long publication) {
+        boolean moveAnchor;
+        if (!hasAnchor) {
+            moveAnchor = true;
+        } else if (!isCalibrated()) {
+            period = (double) (publication - anchor) / published;
+            samples++;
+            moveAnchor = isCalibrated();
+            if (moveAnchor && log.isDebugEnabled()) {
+                log.debug("Calibrated: period {} ms, round trip time {} ms", "" + period, "" + roundTripTime);
+            }
+        } else {
+            double sample = (double) (publication - anchor) / published;
+            period = period + SMOOTHING * (sample - period);
+            moveAnchor = true;
+        }
+        if (moveAnchor) {
+            hasAnchor = true;
+            anchor = publication;
+            published = 0;
+        }
+        offset = MARGIN;
+        drift = INITIAL_DRIFT;
+    }
+
+    /**
+     * Computes the first expected publication after the given time.
+     * 
+     * @param time
+     *            time
+     * @return expected publication time
+     */
+    private long computeNextPublication(long time) {
+        long count = (long) Math.floor((time - anchor) / period) + 1;
+        return anchor + Math.round(Math.max(1, count) * period);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long computeNextRequestTime(long requestTime, long now) {
+        long result;
+        if (!isCalibrated()) {
+            result = requestTime + fallbackPeriod / CALIBRATION_RATE;
+        } else if (unchanged != 0) {
+            // The previous request was too early; the new world status is due any moment, so try again shortly.
+            result = requestTime + Math.max(MIN_INTERVAL, Math.round(period / 20));
+        } else {
+            // The latest request may have been aimed before the expected publication it saw, so skip half a period.
+            long publication = computeNextPublication(lastSeen + Math.round(period / 2));
+            result = publication + offset - Math.round(roundTripTime / 2);
+        }
+        result = Math.max(result, requestTime + MIN_INTERVAL);
+        result = Math.min(result, requestTime + 2 * fallbackPeriod);
+        return result;
+    }
+}
@@ -1,18 +1,30 @@
 package nl.mvdr.devnobot.bot;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.clientapi.AsyncClientApi;
+import nl.mvdr.devnobot.clientapi.AsyncClientApiAdapter;
 import nl.mvdr.devnobot.clientapi.ClientApi;
 import nl.mvdr.devnobot.clientapi.ClientApiImpl;
+import nl.mvdr.devnobot.metrics.Phase;
+import nl.mvdr.devnobot.metrics.Timings;
 import nl.mvdr.devnobot.model.Action;
 import nl.mvdr.devnobot.model.GameState;
 import nl.mvdr.devnobot.model.Leaderboard;
@@ -23,20 +35,35 @@ import nl.mvdr.devnobot.model.Wall;
 @Slf4j
 @RequiredArgsConstructor
 abstract class BotArtificialIntelligence implements Runnable {
-    /** Default value for sleep duration. */
+    /**
+     * Name of the system property selecting the tick scheduler: "adaptive" (the default) synchronizes requests with the
+     * server's world status updates, "fixed" requests the world status at a fixed interval.
+     */
+    public static final String SCHEDULER_SYSTEM_PROPERTY = "devnobot.bot.scheduler";
+    /** Value of the scheduler system property for the fixed-period scheduler. */
+    public static final String FIXED_SCHEDULER = "fixed";
+
+    /** Default value for sleep duration. Used as the fallback period by the adaptive tick scheduler. */
     private static final int DEFAULT_THREAD_SLEEP_DURATION = 550; // determined experimentally
     /**
-     * The approximate number of milliseconds between logging the leaderboard.
+     * The number of milliseconds between refreshing and logging the leaderboard.
      * 
-     * The bot periodically logs the leaderboards but not in every iteration of the game loop.
+     * The leaderboard is refreshed by a background task, not in the game loop. There is no need to refresh it more
+     * often, since the server doesn't update it more than once per second.
      */
     private static final int LEADERBOARD_INTERVAL = 1000;
 
+    /** The approximate number of milliseconds between logging the timings. */
+    private static final int TIMINGS_INTERVAL = 60000;
+    /** Number of nanoseconds in a millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     /** Maximum number of failed actions in a row. */
     private static final int MAX_FAILED_ACTIONS = 10;
 
     /** Client API, used to make backend calls. */
     @NonNull
+    @Getter(AccessLevel.PACKAGE)
     private final ClientApi api;
     /** Player name. */
     @NonNull
@@ -44,13 +71,42 @@ abstract class BotArtificialIntelligence implements Runnable {
     private final String name;
     /** Tank colour as a hex string. */
     @NonNull
+    @Getter(AccessLevel.PACKAGE)
     private final String color;
     /** Sleep duration between executions of the main game loop in milliseconds. */
+    @Getter(AccessLevel.PACKAGE)
     private final int threadSleepDuration;
 
+    /** Duration of each phase of the game loop. */
+    @Getter
+    private final Timings<Phase> phaseTimings = new Timings<>(Phase.class);
+
+    /** Non-blocking view of the client API, used in the game loop. Created when the bot starts running. */
+    private AsyncClientApi asyncApi;
+
+    /** Decides when to request the world status. Created when the bot starts running. */
+    private TickScheduler tickScheduler;
+
     /** Timestamp when the bot started running. */
     private long startTime;
 
+    /** Current player's id. Generated when the bot starts running. */
+    private String id;
+    /** Obstacles in the level; null until the level has been read. */
+    private Collection<Wall> walls;
+    /** Whether the bot is connected to the server. */
+    private boolean connected;
+    /** Latest leaderboard, published by the background task; contains null until the first refresh succeeds. */
+    private final AtomicReference<Leaderboard> leaderboard = new AtomicReference<>();
+    /** Number of failed actions in a row. */
+    private int failedActionCount;
+    /** Actions submitted during the previous iteration; null if nothing was submitted. */
+    private List<Action> pendingActions;
+    /** Pending results of the actions submitted during the previous iteration; null if nothing was submitted. */
+    private Future<List<Boolean>> pendingResults;
+    /** Timestamp when the timings were last logged. */
+    private long timingsTimestamp;
+
     /**
      * Return the colour as a hex String.
      * 
@@ -135,38 +191,132 @@ abstract class BotArtificialIntelligence implements Runnable {
         this(new ClientApiImpl(host), name, color);
     }
 
-    /** {@inheritDoc} */
+    /**
+     * {@inheritDoc}
+     * 
+     * Runs the bot on the current thread, with its own background threads for server calls. This method never returns.
+     * To run many bots without a thread per bot, use a {@link BotRuntime} instead.
+     */
     @Override
     public void run() {
-        startTime = System.currentTimeMillis();
-        // First we read the level contents to get a view of the positions of the walls on this map.
-        // Maps are static, so we only read this once, at startup.
-        Collection<Wall> walls = readLevel();
-        // Connect to the server and create our bot.
-        String id = generateId();
-        connect(id);
-        // Start the actual processing.
-        gameLoop(walls, id);
+        ScheduledExecutorService backgroundExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, name + " leaderboard");
+                result.setDaemon(true);
+                return result;
+            }
+        });
+        start(new AsyncClientApiAdapter(api, name), backgroundExecutor);
+        while (true) {
+            long nextTimestamp = step();
+            long sleepTime = nextTimestamp - System.currentTimeMillis();
+            if (0 < sleepTime) {
+                long sleepNanos = System.nanoTime();
+                sleep(sleepTime);
+                long overshoot = System.nanoTime() - sleepNanos - sleepTime * NANOS_PER_MILLI;
+                phaseTimings.record(Phase.SLEEP_OVERSHOOT, overshoot);
+            }
+        }
     }
 
     /**
-     * Reads the level.
+     * Prepares the bot for running, and starts refreshing the leaderboard in the background. Must be called once,
+     * before the first call to {@link #step()}.
      * 
-     * @return level
+     * @param asyncClientApi
+     *            non-blocking view of the client API, to be used in the game loop
+     * @param backgroundExecutor
+     *            executor for the task which periodically refreshes the leaderboard
      */
-    private Collection<Wall> readLevel() {
-        Collection<Wall> result = null;
+    void start(AsyncClientApi asyncClientApi, ScheduledExecutorService backgroundExecutor) {
+        startTime = System.currentTimeMillis();
+        timingsTimestamp = startTime;
+        asyncApi = asyncClientApi;
+        tickScheduler = createTickScheduler();
+        id = generateId();
+        backgroundExecutor.scheduleWithFixedDelay(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                refreshLeaderboard();
+            }
+        }, 0, LEADERBOARD_INTERVAL, TimeUnit.MILLISECONDS);
+    }
 
-        while (result == null) {
-            try {
-                log.info("Reading level");
-                result = this.api.readLevel();
-            } catch (Exception e) {
-                log.error("Failed to read level.", e);
-                sleep(threadSleepDuration);
+    /**
+     * Performs a single step of the bot's life: reading the level, connecting to the server, or a single iteration of
+     * the game loop. Steps must not be performed concurrently.
+     * 
+     * First we read the level contents to get a view of the positions of the walls on this map. Maps are static, so we
+     * only read this once, at startup. Then we connect to the server and create our bot. After that, every step is an
+     * iteration of the game loop. If too many actions fail in a row, the bot reconnects.
+     * 
+     * @return timestamp when the next step should take place
+     */
+    long step() {
+        long result;
+        if (walls == null) {
+            walls = readLevel();
+            result = retryTimestamp(walls != null);
+        } else if (!connected) {
+            connected = connect();
+            result = retryTimestamp(connected);
+            if (connected) {
+                failedActionCount = 0;
             }
+        } else {
+            result = iterate();
+        }
+        return result;
+    }
+
+    /**
+     * Determines when to take the next step after reading the level or connecting.
+     * 
+     * @param success
+     *            whether the step was successful
+     * @return timestamp of the next step: immediately on success, after the sleep duration on failure
+     */
+    private long retryTimestamp(boolean success) {
+        long result = System.currentTimeMillis();
+        if (!success) {
+            result = result + threadSleepDuration;
         }
+        return result;
+    }
 
+    /**
+     * Creates the tick scheduler, as selected by the system property "devnobot.bot.scheduler".
+     * 
+     * @return tick scheduler
+     */
+    private TickScheduler createTickScheduler() {
+        TickScheduler result;
+        if (FIXED_SCHEDULER.equals(System.getProperty(SCHEDULER_SYSTEM_PROPERTY))) {
+            result = new FixedPeriodTickScheduler(threadSleepDuration);
+        } else {
+            result = new AdaptiveTickScheduler(threadSleepDuration);
+        }
+        log.info("Using tick scheduler: {}", result.getClass().getSimpleName());
+        return result;
+    }
+
+    /**
+     * Reads the level.
+     * 
+     * @return level, or null if reading the level failed
+     */
+    private Collection<Wall> readLevel() {
+        Collection<Wall> result;
+        try {
+            log.info("Reading level");
+            result = this.api.readLevel();
+        } catch (Exception e) {
+            log.error("Failed to read level.", e);
+            result = null;
+        }
         return result;
     }
 
@@ -182,89 +332,181 @@ abstract class BotArtificialIntelligence implements Runnable {
     /**
      * Connects to the server.
      * 
-     * @param id
-     *            id to be used
+     * @return whether connecting was successful
      */
-    private void connect(String id) {
-        boolean success = false;
-        while (!success) {
-            try {
-                log.info("Connecting for player {}, color: {}, id: {}", new Object[] { name, color, id });
-                success = api.createPlayer(name, color, id);
-            } catch (Exception e) {
-                log.error("Failed to connect.", e);
-                sleep(threadSleepDuration);
-            }
+    private boolean connect() {
+        boolean result;
+        try {
+            log.info("Connecting for player {}, color: {}, id: {}", new Object[] { name, color, id });
+            result = api.createPlayer(name, color, id);
+        } catch (Exception e) {
+            log.error("Failed to connect.", e);
+            result = false;
         }
+        return result;
     }
 
     /**
-     * The main game loop.
+     * A single iteration of the main game loop.
      * 
-     * @param walls
-     *            obstacles in the level
-     * @param id
-     *            current player's id
+     * Server calls are pipelined: actions are submitted in the background, while the bot goes on to wait for its next
+     * iteration. Their results are only collected at the start of the next iteration, after the request for the next
+     * world status has already been sent. If they failed, the next iteration takes place immediately rather than
+     * waiting for the next tick.
+     * 
+     * @return timestamp when the next iteration should take place
      */
-    private void gameLoop(Collection<Wall> walls, String id) {
-        Leaderboard leaderboard = createLeaderboard(null);
-        // number of failed actions in a row
-        int failedActionCount = 0;
-        while (true) {
-            // timestamp at the start of this iteration
-            long startTimestamp = System.currentTimeMillis();
-            // timestamp when the next iteration should take place
-            long nextTimestamp = startTimestamp + threadSleepDuration;
+    private long iterate() {
+        // timestamp at the start of this iteration, for measuring the phases
+        long startNanos = System.nanoTime();
+        // timestamp at the start of this iteration
+        long startTimestamp = System.currentTimeMillis();
+        // timestamp when the next iteration should take place; refined by the tick scheduler once the world status
+        // has been received
+        long nextTimestamp = startTimestamp + threadSleepDuration;
+        // whether the previous actions failed, in which case the next iteration should take place immediately
+        boolean retry = false;
 
-            try {
-                if (MAX_FAILED_ACTIONS <= failedActionCount) {
-                    log.warn("Attempting to reconnect after {} failed actions.", "" + failedActionCount);
-                    connect(id);
+        try {
+            // Start retrieving a current view of the world
+            Future<GameState> stateFuture = asyncApi.readWorldStatus();
+
+            // Meanwhile, check how the previous actions fared
+            if (pendingResults != null) {
+                Future<List<Boolean>> results = pendingResults;
+                pendingResults = null;
+                long resultsNanos = System.nanoTime();
+                boolean success = retrieveResults(pendingActions, results);
+                phaseTimings.recordSince(Phase.RESULTS, resultsNanos);
+                if (success) {
                     failedActionCount = 0;
+                } else {
+                    failedActionCount++;
+                    log.warn("Actions failed: {}, number of failures in a row: {}", pendingActions, ""
+                            + failedActionCount);
+                    retry = true;
                 }
+            }
 
-                // Retrieve a current view of the world
-                GameState state = api.readWorldStatus();
-
-                if (state != null) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(state.toString());
-                    }
-
-                    // Determine what to do!
-                    List<Action> actions;
-                    if (state.retrieveTankForPlayerName(name).getQueueLength() < 1) {
-                        actions = determineNextAction(walls, state, leaderboard);
-                    } else {
-                        // Already enqueued actions, no point in determining a new one.
-                        // Do nothing.
-                        actions = Collections.emptyList();
-                    }
-                    boolean success = perform(id, actions);
-
-                    if (success) {
-                        failedActionCount = 0;
-                    } else {
-                        failedActionCount++;
-                        log.warn("Actions failed: {}, number of failures in a row: {}", actions, "" + failedActionCount);
-                        // retry immediately
-                        nextTimestamp = System.currentTimeMillis();
-                    }
-                } else {
-                    log.info("No World information available.");
+            GameState state = retrieve(stateFuture);
+            long phaseNanos = phaseTimings.recordSince(Phase.FETCH, startNanos);
+
+            if (MAX_FAILED_ACTIONS <= failedActionCount) {
+                log.warn("Attempting to reconnect after {} failed actions.", "" + failedActionCount);
+                connected = false;
+                // reconnect immediately
+                nextTimestamp = System.currentTimeMillis();
+            } else if (state != null) {
+                long responseTimestamp = System.currentTimeMillis();
+                tickScheduler.update(startTimestamp, responseTimestamp, state);
+                nextTimestamp = tickScheduler.computeNextRequestTime(startTimestamp, responseTimestamp);
+                if (retry) {
                     // retry immediately
                     nextTimestamp = System.currentTimeMillis();
                 }
 
-                leaderboard = refreshLeaderboard(leaderboard, nextTimestamp);
-            } catch (Exception e) {
-                failedActionCount++;
-                // Log the exception, but don't crash the thread; try to keep going.
-                log.error("Unexpected exception!", e);
+                if (log.isDebugEnabled()) {
+                    log.debug(state.toString());
+                }
+
+                // Determine what to do!
+                Leaderboard currentLeaderboard = leaderboard.get();
+                observe(walls, state, currentLeaderboard);
+                List<Action> actions;
+                if (state.retrieveTankForPlayerName(name).getQueueLength() < 1) {
+                    actions = determineNextAction(walls, state, currentLeaderboard);
+                    phaseNanos = phaseTimings.recordSince(Phase.DECIDE, phaseNanos);
+                } else {
+                    // Already enqueued actions, no point in determining a new one.
+                    // Do nothing.
+                    actions = Collections.emptyList();
+                }
+                pendingActions = new ArrayList<>(actions);
+                pendingActions.removeAll(Collections.singleton(null));
+                pendingResults = perform(id, pendingActions);
+                if (pendingResults == null) {
+                    // Nothing to do, so nothing failed.
+                    failedActionCount = 0;
+                } else {
+                    phaseTimings.recordSince(Phase.SUBMIT, phaseNanos);
+                }
+            } else {
+                log.info("No World information available.");
+                // retry immediately
+                nextTimestamp = System.currentTimeMillis();
             }
+        } catch (Exception e) {
+            failedActionCount++;
+            // Log the exception, but don't crash the bot; try to keep going.
+            log.error("Unexpected exception!", e);
+        }
+        phaseTimings.recordSince(Phase.ITERATION, startNanos);
+
+        if (timingsTimestamp + TIMINGS_INTERVAL <= System.currentTimeMillis()) {
+            logTimings();
+            timingsTimestamp = System.currentTimeMillis();
+        }
+
+        return nextTimestamp;
+    }
 
-            sleep(nextTimestamp - System.currentTimeMillis());
+    /** Logs the timings of the game loop and, if available, of the server calls. */
+    private void logTimings() {
+        log.info("Game loop timings for {}:{}", name, phaseTimings.format());
+        if (api instanceof ClientApiImpl) {
+            ClientApiImpl clientApiImpl = (ClientApiImpl) api;
+            log.info("Server request timings:{}", clientApiImpl.getRequestTimings().format());
+            log.info("Server response decoding timings:{}", clientApiImpl.getDecodeTimings().format());
+        }
+    }
+
+    /**
+     * Waits for the given future to complete and returns its value.
+     * 
+     * @param future
+     *            future
+     * @return value
+     * @throws Exception
+     *             the exception thrown by the underlying server call, if any
+     */
+    private static <T> T retrieve(Future<T> future) throws Exception {
+        T result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            } else {
+                throw e;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Waits for the results of the given submitted actions.
+     * 
+     * @param actions
+     *            submitted actions
+     * @param results
+     *            future for the results of the submitted actions
+     * @return whether all actions were executed succesfully
+     */
+    private boolean retrieveResults(List<Action> actions, Future<List<Boolean>> results) {
+        boolean result = true;
+        try {
+            List<Boolean> successes = retrieve(results);
+            for (int i = 0; i != successes.size(); i++) {
+                if (!successes.get(i).booleanValue()) {
+                    log.warn("Action failed: {}", actions.get(i));
+                    result = false;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Performing actions failed.", e);
+            result = false;
         }
+        return result;
     }
 
     /**
@@ -287,52 +529,27 @@ abstract class BotArtificialIntelligence implements Runnable {
     }
 
     /**
-     * Optionally creates a new leaderboard and logs it.
+     * Creates a new leaderboard, publishes it to the game loop and logs it. Any exceptions are caught and logged; the
+     * game loop keeps using the previous leaderboard in that case.
      * 
-     * There is no need to refresh the leaderboard every single iteration of the game loop, since the server doesn't
-     * update it more than once per second. This method only does so if there is time to, and if it has been a while
-     * since the last time the leaderboard has been refreshed.
-     * 
-     * @param previousLeaderboard
-     *            previous leaderboard; may be null
-     * @param nextTimestamp
-     *            when the next action is supposed to be taken in the game; if this is too soon, logging the leaderboard
-     *            is skipped
-     * @return refreshed leaderboard, or the value of previousLeaderboard if no succesful refresh was performed
+     * Runs on a background task, so a slow response from the server never delays the game loop.
      */
-    private Leaderboard refreshLeaderboard(Leaderboard previousLeaderboard, long nextTimestamp) {
-        Leaderboard result;
-        long now = System.currentTimeMillis();
-        if (now < nextTimestamp
-                && (previousLeaderboard == null || previousLeaderboard.getCreationTime() + LEADERBOARD_INTERVAL < now)) {
-            result = createLeaderboard(previousLeaderboard);
-        } else {
-            result = previousLeaderboard;
-        }
-        return result;
-    }
-
-    /**
-     * Creates and logs the leaderboard. Any exceptions are caught and logged.
-     * 
-     * @param previousLeaderboard
-     *            previous version of the leaderboard; null if there is none
-     * @return new leaderboard, or the value of previousLeaderboard if anything went wrong
-     */
-    private Leaderboard createLeaderboard(Leaderboard previousLeaderboard) {
-        Leaderboard result;
+    private void refreshLeaderboard() {
+        long startNanos = System.nanoTime();
         try {
             Collection<Player> players = api.readPlayers();
             long now = System.currentTimeMillis();
-            result = new Leaderboard(now, players);
-            logTimePassed();
-            log.info(result.toString());
+            Leaderboard result = new Leaderboard(now, players);
+            leaderboard.set(result);
+            if (log.isInfoEnabled()) {
+                logTimePassed();
+                log.info(result.toString());
+            }
         } catch (Exception e) {
             // Whatever, logging the leaderboard is not very important.
             log.info("Creating and logging the leaderboard failed.", e);
-            result = previousLeaderboard;
         }
-        return result;
+        phaseTimings.recordSince(Phase.LEADERBOARD, startNanos);
     }
 
     /** Logs the amount of time that has passed since the bot was started. */
@@ -347,32 +564,42 @@ abstract class BotArtificialIntelligence implements Runnable {
     /**
      * Performs the given actions.
      * 
-     * Actions are added to the action queue, except for {@link Action#SUICIDE}, which is executed immediately,
+     * Actions are added to the action queue in a single batch, except for {@link Action#SUICIDE}, which is executed
+     * immediately. This method does not wait for the server to respond.
      * 
      * @param id
      *            player id
      * @param actions
-     *            actions to be performed
-     * @return whether all operations were executed succesfully
+     *            actions to be performed; may not contain null
+     * @return future for the results of the submitted actions, or null if there was nothing to submit
      */
-    private boolean perform(String id, List<Action> actions) {
-        boolean result = true;
-        Iterator<Action> actionIterator = actions.iterator();
-        while (result && actionIterator.hasNext()) {
-            Action action = actionIterator.next();
-            log.info("Performing action: " + action);
-            if (action == Action.SUICIDE) {
-                result = api.suicide(id);
-            } else if (action != null) {
-                result = api.addAction(action, id);
-            } else {
-                // do nothing
-                result = true;
-            }
+    private Future<List<Boolean>> perform(String id, List<Action> actions) {
+        Future<List<Boolean>> result;
+        if (actions.isEmpty()) {
+            result = null;
+        } else {
+            log.info("Performing actions: " + actions);
+            result = asyncApi.addActions(actions, id);
         }
         return result;
     }
 
+    /**
+     * Takes note of a new world status. Called for every world status the bot receives, before
+     * {@link #determineNextAction(Collection, GameState, Leaderboard)}, which is only called when the bot's action
+     * queue is empty. Does nothing by default.
+     * 
+     * @param obstacles
+     *            obstacles
+     * @param state
+     *            game state
+     * @param leaderboard
+     *            current leaderboard; may be null
+     */
+    protected void observe(Collection<Wall> obstacles, GameState state, Leaderboard leaderboard) {
+        // Nothing to observe by default.
+    }
+
     /**
      * Determines the next action to take.
      * 
@@ -0,0 +1,203 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.clientapi.AsyncClientApiAdapter;
+import nl.mvdr.devnobot.clientapi.SerialExecutor;
+import nl.mvdr.devnobot.metrics.Phase;
+
+/**
+ * Runs any number of bots in a single JVM, using a fixed number of threads.
+ * 
+ * Instead of giving every bot a thread of its own, which spends nearly all of its time sleeping, each step of a bot's
+ * life (see {@link BotArtificialIntelligence#step()}) is a task on a shared scheduled executor. When a step is done,
+ * the next one is scheduled at the time requested by the bot. Server calls are made on a second, shared thread pool;
+ * every bot gets its own {@link SerialExecutor} on top of that pool, so that its actions still arrive in order. The
+ * bots' background tasks, which refresh the leaderboard, share a single thread of their own, so that a slow players
+ * request never holds up a step.
+ * 
+ * A step blocks its thread while it waits for the world status, so the number of scheduler threads limits how many
+ * bots can wait for a response at the same time. This is typically a small fraction of the number of bots, since a
+ * round trip is short compared to the time between steps. The number of threads in both pools can be configured
+ * using system properties.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class BotRuntime {
+    /** Name of the system property containing the number of threads which perform the bots' steps. */
+    public static final String THREADS_SYSTEM_PROPERTY = "devnobot.runtime.threads";
+    /** Name of the system property containing the number of threads which make the server calls. */
+    public static final String IO_THREADS_SYSTEM_PROPERTY = "devnobot.runtime.ioThreads";
+    /** Default number of threads which make the server calls. */
+    public static final int DEFAULT_IO_THREADS = 16;
+
+    /** Executor which performs the bots' steps. */
+    private final ScheduledExecutorService scheduler;
+    /** Executor which makes the server calls. */
+    private final ExecutorService ioExecutor;
+    /** Executor which runs the bots' background tasks. */
+    private final ScheduledExecutorService backgroundExecutor;
+    /** Number of bots which have been added. */
+    private final AtomicInteger botCount = new AtomicInteger();
+
+    /**
+     * Constructor.
+     * 
+     * @param threads
+     *            number of threads which perform the bots' steps
+     * @param ioThreads
+     *            number of threads which make the server calls
+     */
+    public BotRuntime(int threads, int ioThreads) {
+        super();
+        // Non-daemon threads, so that the runtime keeps the JVM alive like a bot's own thread would.
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, createThreadFactory(
+                "Bot runtime", false));
+        // Steps which have been scheduled but not started are dropped on shutdown.
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = executor;
+        this.ioExecutor = Executors.newFixedThreadPool(ioThreads, createThreadFactory("Bot runtime I/O", true));
+        this.backgroundExecutor = Executors.newSingleThreadScheduledExecutor(createThreadFactory(
+                "Bot runtime background", true));
+        log.info("Bot runtime created with {} threads and {} I/O threads.", "" + threads, "" + ioThreads);
+    }
+
+    /**
+     * Creates a runtime, configured using the system properties "devnobot.runtime.threads" (default: the number of
+     * available processors) and "devnobot.runtime.ioThreads" (default: 16).
+     * 
+     * @return new runtime
+     */
+    public static BotRuntime createDefault() {
+        int threads = Integer.getInteger(THREADS_SYSTEM_PROPERTY, Runtime.getRuntime().availableProcessors())
+                .intValue();
+        int ioThreads = Integer.getInteger(IO_THREADS_SYSTEM_PROPERTY, DEFAULT_IO_THREADS).intValue();
+        return new BotRuntime(threads, ioThreads);
+    }
+
+    /**
+     * Creates a thread factory.
+     * 
+     * @param threadName
+     *            base name for the threads
+     * @param daemon
+     *            whether the threads should be daemon threads
+     * @return thread factory
+     */
+    private static ThreadFactory createThreadFactory(final String threadName, final boolean daemon) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, threadName + " " + count.incrementAndGet());
+                result.setDaemon(daemon);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Adds a bot to the runtime, and starts running it.
+     * 
+     * A bot may only be added to one runtime, once, and should not be run on a thread of its own as well.
+     * 
+     * @param bot
+     *            bot
+     */
+    public void add(BotArtificialIntelligence bot) {
+        bot.start(new AsyncClientApiAdapter(bot.getApi(), ioExecutor, new SerialExecutor(ioExecutor)),
+                backgroundExecutor);
+        scheduler.execute(new StepTask(bot, System.nanoTime()));
+        int count = botCount.incrementAndGet();
+        log.info("Started bot {} in the bot runtime; number of bots: {}", bot.getName(), "" + count);
+    }
+
+    /** @return number of bots which have been added */
+    public int getBotCount() {
+        return botCount.get();
+    }
+
+    /** Stops running all bots. Steps which are in progress are completed, but no new steps are started. */
+    public void shutdown() {
+        log.info("Shutting down the bot runtime.");
+        scheduler.shutdown();
+        ioExecutor.shutdown();
+        backgroundExecutor.shutdown();
+    }
+
+    /**
+     * Waits for the runtime's threads to finish after {@link #shutdown()}.
+     * 
+     * @param timeout
+     *            maximum time to wait, in milliseconds
+     * @return whether all threads have finished
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        boolean result = scheduler.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        long remaining = Math.max(0, deadline - System.currentTimeMillis());
+        result = ioExecutor.awaitTermination(remaining, TimeUnit.MILLISECONDS) && result;
+        remaining = Math.max(0, deadline - System.currentTimeMillis());
+        result = backgroundExecutor.awaitTermination(remaining, TimeUnit.MILLISECONDS) && result;
+        return result;
+    }
+
+    /** Task which performs a single step of a bot, and schedules the next one. */
+    private class StepTask implements Runnable {
+        /** Bot. */
+        private final BotArtificialIntelligence bot;
+        /** Time at which this task is supposed to start, as in {@link System#nanoTime()}. */
+        private final long plannedNanos;
+
+        /**
+         * Constructor.
+         * 
+         * @param bot
+         *            bot
+         * @param plannedNanos
+         *            time at which this task is supposed to start, as in {@link System#nanoTime()}
+         */
+        private StepTask(BotArtificialIntelligence bot, long plannedNanos) {
+            super();
+            this.bot = bot;
+            this.plannedNanos = plannedNanos;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            bot.getPhaseTimings().record(Phase.SLEEP_OVERSHOOT, startNanos - plannedNanos);
+            long delay;
+            try {
+                long nextTimestamp = bot.step();
+                delay = Math.max(0, nextTimestamp - System.currentTimeMillis());
+            } catch (RuntimeException e) {
+                // Keep the bot alive, as its own thread would.
+                log.error("Unexpected exception in bot " + bot.getName(), e);
+                delay = bot.getThreadSleepDuration();
+            }
+            try {
+                long delayNanos = TimeUnit.MILLISECONDS.toNanos(delay);
+                scheduler.schedule(new StepTask(bot, System.nanoTime() + delayNanos), delayNanos,
+                        TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Bot runtime shut down; bot {} stops running.", bot.getName());
+                }
+            }
+        }
+    }
+}
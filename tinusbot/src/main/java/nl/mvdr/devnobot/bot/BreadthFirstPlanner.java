@@ -0,0 +1,51 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.List;
+import java.util.Set;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.SpatialIndex;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.WallMap;
+
+/**
+ * Breadth-first search for the first move of a shortest path to a firing position.
+ * 
+ * Every action counts as one step. The nodes' arrays double as the search's queue; nodes are tested as firing
+ * positions as soon as they are found.
+ * 
+ * @author Martijn van de Rijdt
+ */
+class BreadthFirstPlanner extends FiringPositionPlanner {
+    /** {@inheritDoc} */
+    @Override
+    List<Action> plan(Tank tank, Set<Action> firstMoves, GameState state, SpatialIndex<Tank> targets,
+            WallMap walls, LevelBoundary boundary) {
+        reset(tank, targets, walls, boundary);
+        addNode(tank.getX(), tank.getY(), tank.getLastKnownOrientation().ordinal(), -1, -1);
+
+        int goal = -1;
+        int head = 0;
+        while (goal == -1 && head != getNodeCount()) {
+            int node = head;
+            head++;
+            for (int i = 0; goal == -1 && i != MOVES.length; i++) {
+                Action move = MOVES[i];
+                move(tank, node, move);
+                if (isAllowed(node, move, firstMoves, walls, boundary)) {
+                    int index = addNode(moveX, moveY, moveOrientation, node, move.ordinal());
+                    if (0 <= index
+                            && node != 0
+                            && isFiringPosition(moveX, moveY, moveWidth, moveHeight, moveOrientation, state,
+                                    targets, walls, boundary)) {
+                        goal = index;
+                    }
+                }
+            }
+        }
+
+        return buildResult(goal);
+    }
+}
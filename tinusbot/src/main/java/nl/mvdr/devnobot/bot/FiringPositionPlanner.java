@@ -0,0 +1,417 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import lombok.Getter;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.FiringPositions;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.SpatialIndex;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.WallMap;
+
+/**
+ * Search for the first move of a shortest path to a firing position.
+ * 
+ * The nodes are positions (including orientation) that a tank can reach; the edges are the actions that move the
+ * tank: forward, backward, turn right and turn left. Subclasses determine the order in which the nodes are visited.
+ * 
+ * Positions are kept in primitive form: the search does not create tanks, maps or paths for the positions it visits.
+ * Every node is stored in a set of parallel arrays, by its index in order of discovery, along with the index of its
+ * parent node and the action leading to it from the parent. Visited positions are encoded in a long and kept in a hash
+ * table with open addressing, which maps them to their node indices.
+ * 
+ * A tank's width and height are swapped whenever it turns, so they follow from its orientation and the orientation and
+ * size of the tank at the start of the search. Position and orientation are therefore enough to identify a node.
+ * 
+ * Goal tests are lookups in a set of {@link FiringPositions}, which is computed backwards from the targets at the start
+ * of every search, instead of simulating a shot from every position the search looks at.
+ * 
+ * The arrays are reused between searches, so that a planner which is used every turn only allocates memory when a
+ * search visits more positions than any search before it. Instances are not thread-safe.
+ * 
+ * @author Martijn van de Rijdt
+ */
+abstract class FiringPositionPlanner {
+    /** Movement actions, in the order in which they are tried. */
+    protected static final Action[] MOVES = { Action.FORWARD, Action.BACKWARD, Action.TURN_RIGHT, Action.TURN_LEFT };
+    /** All orientations, by ordinal. */
+    protected static final Orientation[] ORIENTATIONS = Orientation.values();
+    /** All actions, by ordinal. */
+    private static final Action[] ACTIONS = Action.values();
+    /** Initial number of nodes for which space is reserved. */
+    private static final int INITIAL_CAPACITY = 1024;
+    /** Mask for the coordinates in an encoded position. */
+    private static final long COORDINATE_MASK = 0x3FFFFFFFL;
+    /** Bit which is set in every encoded position, so that an empty slot in the visited set (0) is never a position. */
+    private static final long PRESENT = 1L << 62;
+
+    /** X coordinates of the nodes. */
+    protected int[] nodeX = new int[INITIAL_CAPACITY];
+    /** Y coordinates of the nodes. */
+    protected int[] nodeY = new int[INITIAL_CAPACITY];
+    /** Orientations of the nodes, as ordinals. */
+    protected byte[] nodeOrientation = new byte[INITIAL_CAPACITY];
+    /** Index of the parent node of each node; -1 for the start node. */
+    protected int[] nodeParent = new int[INITIAL_CAPACITY];
+    /** Action leading from the parent node to each node, as an ordinal. */
+    protected byte[] nodeAction = new byte[INITIAL_CAPACITY];
+    /** Number of nodes found by the latest search. */
+    @Getter
+    private int nodeCount;
+    /** Number of actions in the path found by the latest search; 0 if no path was found. */
+    @Getter
+    private int pathLength;
+    /** Visited set: encoded positions, or 0 for an empty slot. The length is a power of two. */
+    private long[] visited = new long[4 * INITIAL_CAPACITY];
+    /** Node index of each position in the visited set. */
+    private int[] visitedNodes = new int[4 * INITIAL_CAPACITY];
+    /** Number of positions in the visited set. */
+    private int visitedCount;
+    /** Positions from which a target would be hit, for the latest search. */
+    private final FiringPositions firingPositions = new FiringPositions();
+
+    /** X coordinate resulting from the latest call to {@link #move(Tank, int, Action)}. */
+    protected int moveX;
+    /** Y coordinate resulting from the latest call to {@link #move(Tank, int, Action)}. */
+    protected int moveY;
+    /** Width resulting from the latest call to {@link #move(Tank, int, Action)}. */
+    protected int moveWidth;
+    /** Height resulting from the latest call to {@link #move(Tank, int, Action)}. */
+    protected int moveHeight;
+    /** Orientation ordinal resulting from the latest call to {@link #move(Tank, int, Action)}. */
+    protected int moveOrientation;
+
+    /**
+     * Determines the first move of a shortest path to a position from which the given tank would hit a target.
+     * 
+     * Moves into walls and out of the level are not allowed. The first move is limited to the given actions, so that
+     * the caller can rule out moves which would be dangerous; positions after the first move are only checked for walls
+     * and the level boundary. Positions are tested as firing positions from the second move on.
+     * 
+     * @param tank
+     *            tank
+     * @param firstMoves
+     *            actions allowed as the first move
+     * @param state
+     *            game state
+     * @param targets
+     *            index of the tanks to be considered targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     * @return the first action of the path, followed by the second one if the first is a move forward or backward and
+     *         the second is a turn; empty if no firing position can be reached
+     */
+    abstract List<Action> plan(Tank tank, Set<Action> firstMoves, GameState state, SpatialIndex<Tank> targets,
+            WallMap walls, LevelBoundary boundary);
+
+    /**
+     * Clears the nodes and the visited set, and computes the firing positions for a new search.
+     * 
+     * @param tank
+     *            tank
+     * @param targets
+     *            index of the tanks to be considered targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    protected void reset(Tank tank, SpatialIndex<Tank> targets, WallMap walls, LevelBoundary boundary) {
+        clearNodes();
+        firingPositions.update(tank, targets, walls, boundary);
+    }
+
+    /** Clears the nodes and the visited set, keeping the firing positions, so that the same search can start over. */
+    protected void clearNodes() {
+        nodeCount = 0;
+        pathLength = 0;
+        visitedCount = 0;
+        Arrays.fill(visited, 0L);
+    }
+
+    /**
+     * Determines whether the tank would hit a target when firing from the given node.
+     * 
+     * @param x
+     *            x coordinate of the node
+     * @param y
+     *            y coordinate of the node
+     * @param width
+     *            width of the tank in the node
+     * @param height
+     *            height of the tank in the node
+     * @param orientation
+     *            orientation ordinal of the node
+     * @param state
+     *            game state
+     * @param targets
+     *            index of the tanks to be considered targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     * @return whether a target would be hit
+     */
+    protected boolean isFiringPosition(int x, int y, int width, int height, int orientation, GameState state,
+            SpatialIndex<Tank> targets, WallMap walls, LevelBoundary boundary) {
+        boolean result;
+        if (firingPositions.isEnabled()) {
+            // Same spawn location as Tank.computeBulletSpawnLocation().
+            result = firingPositions.contains(x + width / 2 - Bullet.getBulletWidth() / 2,
+                    y + height / 2 - Bullet.getBulletHeight() / 2, orientation);
+        } else {
+            result = state.wouldHitEnemy(x, y, width, height, ORIENTATIONS[orientation], targets, walls, boundary);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the width of the given tank in the given node's orientation.
+     * 
+     * @param tank
+     *            tank, as it was at the start of the search
+     * @param node
+     *            node index
+     * @return width
+     */
+    protected int computeWidth(Tank tank, int node) {
+        int result;
+        if ((nodeOrientation[node] - tank.getLastKnownOrientation().ordinal()) % 2 == 0) {
+            result = tank.getWidth();
+        } else {
+            result = tank.getHeight();
+        }
+        return result;
+    }
+
+    /**
+     * Computes the height of the given tank in the given node's orientation.
+     * 
+     * @param tank
+     *            tank, as it was at the start of the search
+     * @param node
+     *            node index
+     * @return height
+     */
+    protected int computeHeight(Tank tank, int node) {
+        int result;
+        if ((nodeOrientation[node] - tank.getLastKnownOrientation().ordinal()) % 2 == 0) {
+            result = tank.getHeight();
+        } else {
+            result = tank.getWidth();
+        }
+        return result;
+    }
+
+    /**
+     * Computes the position which results from performing the given move in the given node. The result is stored in
+     * {@link #moveX}, {@link #moveY}, {@link #moveWidth}, {@link #moveHeight} and {@link #moveOrientation}.
+     * 
+     * @param tank
+     *            tank, as it was at the start of the search
+     * @param node
+     *            node index
+     * @param move
+     *            move
+     */
+    protected void move(Tank tank, int node, Action move) {
+        int x = nodeX[node];
+        int y = nodeY[node];
+        int orientation = nodeOrientation[node];
+        int width = computeWidth(tank, node);
+        int height = computeHeight(tank, node);
+        // Same movement as Tank.computeNextPosition().
+        if (move == Action.FORWARD || move == Action.BACKWARD) {
+            int distance = tank.getDistancePerStep();
+            moveX = x + distance * ORIENTATIONS[orientation].getXMultiplier() * move.getDirection();
+            moveY = y + distance * ORIENTATIONS[orientation].getYMultiplier() * move.getDirection();
+            moveWidth = width;
+            moveHeight = height;
+            moveOrientation = orientation;
+        } else {
+            moveX = x + width / 2 - height / 2;
+            moveY = y + height / 2 - width / 2;
+            moveWidth = height;
+            moveHeight = width;
+            moveOrientation = ORIENTATIONS[orientation].newOrientation(move).ordinal();
+        }
+    }
+
+    /**
+     * Determines whether the move computed by the latest call to {@link #move(Tank, int, Action)} is allowed: it must
+     * be allowed as a first move if it is made from the start node, stay within the level and, unless it is a turn, not
+     * run into a wall.
+     * 
+     * @param node
+     *            index of the node the move is made from
+     * @param move
+     *            move
+     * @param firstMoves
+     *            actions allowed as the first move
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     * @return whether the move is allowed
+     */
+    protected boolean isAllowed(int node, Action move, Set<Action> firstMoves, WallMap walls, LevelBoundary boundary) {
+        return (node != 0 || firstMoves.contains(move))
+                && boundary.getX() < moveX + moveWidth && moveX < boundary.computeMaxX()
+                && boundary.getY() < moveY + moveHeight && moveY < boundary.computeMaxY()
+                && (moveOrientation != nodeOrientation[node] || !walls.overlaps(moveX, moveY, moveWidth, moveHeight));
+    }
+
+    /**
+     * Adds a node, unless its position has been visited before.
+     * 
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @param orientation
+     *            orientation ordinal
+     * @param parent
+     *            index of the parent node
+     * @param action
+     *            ordinal of the action leading from the parent to this node
+     * @return index of the new node; if the position was visited before, (-(index of the existing node) - 1), in the
+     *         same way as {@link Arrays#binarySearch(int[], int)}; the existing node is left unchanged
+     */
+    protected int addNode(int x, int y, int orientation, int parent, int action) {
+        int existing = markVisited(PRESENT | (x & COORDINATE_MASK) << 32 | (y & COORDINATE_MASK) << 2 | orientation,
+                nodeCount);
+        int result;
+        if (existing == -1) {
+            if (nodeCount == nodeX.length) {
+                grow(2 * nodeCount);
+            }
+            nodeX[nodeCount] = x;
+            nodeY[nodeCount] = y;
+            nodeOrientation[nodeCount] = (byte) orientation;
+            nodeParent[nodeCount] = parent;
+            nodeAction[nodeCount] = (byte) action;
+            result = nodeCount;
+            nodeCount++;
+        } else {
+            result = -existing - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Enlarges the node arrays. Subclasses which keep additional information per node should override this method to
+     * enlarge their own arrays as well.
+     * 
+     * @param capacity
+     *            new capacity
+     */
+    protected void grow(int capacity) {
+        nodeX = Arrays.copyOf(nodeX, capacity);
+        nodeY = Arrays.copyOf(nodeY, capacity);
+        nodeOrientation = Arrays.copyOf(nodeOrientation, capacity);
+        nodeParent = Arrays.copyOf(nodeParent, capacity);
+        nodeAction = Arrays.copyOf(nodeAction, capacity);
+    }
+
+    /**
+     * Converts the path from the start node to the given goal node into the result of
+     * {@link #plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)}.
+     * 
+     * @param goal
+     *            index of the goal node, or -1 if no firing position was found
+     * @return the first action of the path, followed by the second one if the first is a move forward or backward and
+     *         the second is a turn; empty if the goal is -1
+     */
+    protected List<Action> buildResult(int goal) {
+        List<Action> result = new ArrayList<>(2);
+        if (goal != -1) {
+            // Walk back to the first node after the start node, remembering the node after it.
+            int first = goal;
+            int second = -1;
+            pathLength = 1;
+            while (nodeParent[first] != 0) {
+                second = first;
+                first = nodeParent[first];
+                pathLength++;
+            }
+            Action firstAction = ACTIONS[nodeAction[first]];
+            result.add(firstAction);
+            // Add the second action as well, in case it exists, the first action is move forward or backward, and the
+            // second action is turn left or right. This prevents the bot from repeatedly moving back and forth instead
+            // of just turning and shooting.
+            if (second != -1 && (firstAction == Action.FORWARD || firstAction == Action.BACKWARD)) {
+                Action secondAction = ACTIONS[nodeAction[second]];
+                if (secondAction == Action.TURN_LEFT || secondAction == Action.TURN_RIGHT) {
+                    result.add(secondAction);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds an encoded position to the visited set.
+     * 
+     * @param position
+     *            encoded position; must not be 0
+     * @param node
+     *            node index to be stored for the position
+     * @return -1 if the position was added, or the node index stored for it if it was already present
+     */
+    private int markVisited(long position, int node) {
+        if (visited.length < 2 * (visitedCount + 1)) {
+            // Keep the load factor at most one half, so that probe sequences stay short.
+            long[] old = visited;
+            int[] oldNodes = visitedNodes;
+            visited = new long[2 * old.length];
+            visitedNodes = new int[2 * old.length];
+            for (int i = 0; i != old.length; i++) {
+                if (old[i] != 0L) {
+                    insert(old[i], oldNodes[i]);
+                }
+            }
+        }
+        int result = insert(position, node);
+        if (result == -1) {
+            visitedCount++;
+        }
+        return result;
+    }
+
+    /**
+     * Inserts an encoded position into the visited set, using linear probing. Does not check the load factor.
+     * 
+     * @param position
+     *            encoded position; must not be 0
+     * @param node
+     *            node index to be stored for the position
+     * @return -1 if the position was added, or the node index stored for it if it was already present
+     */
+    private int insert(long position, int node) {
+        int mask = visited.length - 1;
+        // Mix the bits, so that neighbouring positions end up in different parts of the table.
+        long hash = position * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash >>> 32) & mask;
+        while (visited[slot] != 0L && visited[slot] != position) {
+            slot = (slot + 1) & mask;
+        }
+        int result;
+        if (visited[slot] == 0L) {
+            visited[slot] = position;
+            visitedNodes[slot] = node;
+            result = -1;
+        } else {
+            result = visitedNodes[slot];
+        }
+        return result;
+    }
+}
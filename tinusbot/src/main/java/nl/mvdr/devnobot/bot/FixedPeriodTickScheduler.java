@@ -0,0 +1,29 @@
+package nl.mvdr.devnobot.bot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.devnobot.model.GameState;
+
+/**
+ * Scheduler which requests the world status at a fixed interval, regardless of when the server updates it.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@ToString
+class FixedPeriodTickScheduler implements TickScheduler {
+    /** Time between requests, in milliseconds. */
+    private final int period;
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(long requestTime, long responseTime, GameState state) {
+        // The fixed schedule does not depend on the server.
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long computeNextRequestTime(long requestTime, long now) {
+        return requestTime + period;
+    }
+}
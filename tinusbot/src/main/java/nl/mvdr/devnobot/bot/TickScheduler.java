@@ -0,0 +1,33 @@
+package nl.mvdr.devnobot.bot;
+
+import nl.mvdr.devnobot.model.GameState;
+
+/**
+ * Decides when the game loop should next request the world status.
+ * 
+ * @author Martijn van de Rijdt
+ */
+interface TickScheduler {
+    /**
+     * Registers a world status received from the server.
+     * 
+     * @param requestTime
+     *            time the request was sent, in milliseconds
+     * @param responseTime
+     *            time the response was received, in milliseconds
+     * @param state
+     *            world status; not null
+     */
+    void update(long requestTime, long responseTime, GameState state);
+
+    /**
+     * Determines when to send the next request for the world status.
+     * 
+     * @param requestTime
+     *            time the previous request was sent, in milliseconds
+     * @param now
+     *            current time, in milliseconds
+     * @return time the next request should be sent, in milliseconds
+     */
+    long computeNextRequestTime(long requestTime, long now);
+}
@@ -4,25 +4,28 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 import nl.mvdr.devnobot.clientapi.ClientApi;
 import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.DangerField;
 import nl.mvdr.devnobot.model.GameObject;
 import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.GameStateDiff;
 import nl.mvdr.devnobot.model.Leaderboard;
 import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.PackedGameState;
 import nl.mvdr.devnobot.model.PlayerAndPosition;
+import nl.mvdr.devnobot.model.SpatialIndex;
 import nl.mvdr.devnobot.model.Tank;
 import nl.mvdr.devnobot.model.TankPosition;
 import nl.mvdr.devnobot.model.Wall;
+import nl.mvdr.devnobot.model.WallMap;
 
 /**
  * Main bot.
@@ -31,10 +34,35 @@ import nl.mvdr.devnobot.model.Wall;
  */
 @Slf4j
 public class Tinusbot extends BotArtificialIntelligence {
+    /**
+     * Number of snapshots for which a first move needs to stay clear of bullets, as a multiple of the distance bullets
+     * travel between two snapshots.
+     */
+    private static final int DANGER_HORIZON_TURNS = 2;
+    /**
+     * Distance for which a first move needs to stay clear of bullets as long as the bullet speed is unknown. About what
+     * {@link #DANGER_HORIZON_TURNS} amounts to with the contest server's settings.
+     */
+    private static final int DEFAULT_DANGER_HORIZON = 160;
+
     /** Action taken during the previous turn. Null at the start. */
     private Action previousAction;
     /** Name of the tank we last fired at. Null at the start. */
     private String previousTarget;
+    /** Precomputed map of the obstacles. The level is static, so this is only built once. Null at the start. */
+    private WallMap wallMap;
+    /** Cells which bullets are about to fly through. Rebuilt along with the wall map; null at the start. */
+    private DangerField dangerField;
+    /** Planner for moving into a firing position. Reused every turn. */
+    private final FiringPositionPlanner planner = new AStarPlanner();
+    /** Game state of the previous turn. Null at the start, and after the walls have changed. */
+    private GameState previousState;
+    /** Actions resulting from a search for a firing position in the previous turn. Null if there was no search. */
+    private List<Action> plannedActions;
+    /** Players who were considered targets in the search for {@link #plannedActions}. */
+    private Set<String> plannedTargets;
+    /** Leaderboard used in the search for {@link #plannedActions}. */
+    private Leaderboard plannedLeaderboard;
 
     /**
      * Returns the version number from the jar manifest file.
@@ -135,6 +163,15 @@ public class Tinusbot extends BotArtificialIntelligence {
         logVersion();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void observe(Collection<Wall> obstacles, GameState state, Leaderboard leaderboard) {
+        WallMap walls = retrieveWallMap(obstacles);
+        LevelBoundary boundary = walls.getBoundary().include(state.getTanks());
+        // Every snapshot rather than every decision, so that bullets are tracked from one snapshot to the next.
+        dangerField.update(state, getName(), retrieveThreats(state.retrieveEnemies(getName()), leaderboard), boundary);
+    }
+
     /** {@inheritDoc} */
     @Override
     protected List<Action> determineNextAction(Collection<Wall> obstacles, GameState state, Leaderboard leaderboard) {
@@ -143,10 +180,16 @@ public class Tinusbot extends BotArtificialIntelligence {
         Tank ownTank = state.retrieveTankForPlayerName(getName());
         Collection<Tank> enemies = state.retrieveEnemies(getName());
         Collection<Tank> targets = createTargets(enemies);
-        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(obstacles, state.getTanks());
+        WallMap walls = retrieveWallMap(obstacles);
+        // The walls' part of the boundary is computed once per level; only the tanks are added every turn.
+        LevelBoundary boundary = walls.getBoundary().include(state.getTanks());
+        // The tanks move, so their index is rebuilt every turn, using the same grid as the walls.
+        SpatialIndex<Tank> targetIndex = walls.createOverlay(targets);
+        List<Action> previousPlan = plannedActions;
+        plannedActions = null;
 
         if (!enemies.isEmpty()) {
-            GameObject target = state.wouldHit(ownTank, targets, obstacles, boundary);
+            GameObject target = state.wouldHit(ownTank, targetIndex, walls, boundary);
             if (target instanceof Tank) {
                 // Currently aiming at an enemy.
                 // FIRE!
@@ -154,10 +197,23 @@ public class Tinusbot extends BotArtificialIntelligence {
                 result = Arrays.asList(Action.FIRE);
                 previousTarget = ((Tank) target).getPlayer();
                 log.info("Firing at " + previousTarget);
+            } else if (previousPlan != null && leaderboard == plannedLeaderboard
+                    && plannedTargets.equals(retrievePlayers(targets))
+                    && isUnchanged(new GameStateDiff(previousState, state))) {
+                // None of the tanks or bullets have moved since the previous turn, so the search would give the same
+                // result.
+                result = previousPlan;
+                plannedActions = previousPlan;
+                if (log.isDebugEnabled()) {
+                    log.debug("Tanks unchanged; reusing planned actions: " + result);
+                }
             } else {
                 // Move toward a position where we can fire.
-                result = computeActionToMoveIntoFiringPosition(obstacles, state, ownTank, enemies, targets, boundary,
-                        leaderboard);
+                result = computeActionToMoveIntoFiringPosition(walls, new PackedGameState(state), ownTank, enemies,
+                        targetIndex, boundary, leaderboard);
+                plannedActions = result;
+                plannedTargets = retrievePlayers(targets);
+                plannedLeaderboard = leaderboard;
             }
         } else {
             // There are no enemies in the level (yet). But they should be here soon.
@@ -170,10 +226,62 @@ public class Tinusbot extends BotArtificialIntelligence {
         }
 
         previousAction = result.get(result.size() - 1);
+        previousState = state;
 
         return result;
     }
 
+    /**
+     * Retrieves the map of the given obstacles, building it if necessary.
+     * 
+     * @param obstacles
+     *            walls
+     * @return wall map
+     */
+    private WallMap retrieveWallMap(Collection<Wall> obstacles) {
+        if (wallMap == null || obstacles != wallMap.getWalls()) {
+            wallMap = new WallMap(obstacles);
+            // Anything planned for the previous turn was based on other walls.
+            previousState = null;
+            if (log.isDebugEnabled()) {
+                log.debug("Built map of {} walls: {}", "" + obstacles.size(), wallMap);
+            }
+            dangerField = new DangerField(wallMap);
+        }
+        return wallMap;
+    }
+
+    /**
+     * Determines whether the given differences leave everything the search for a firing position depends on unchanged.
+     * 
+     * @param diff
+     *            differences between the previous turn and this one
+     * @return whether tanks and bullets are unchanged
+     */
+    private static boolean isUnchanged(GameStateDiff diff) {
+        return diff.isTankPositionsUnchanged() && diff.getAppearedBullets().isEmpty()
+                && diff.getDisappearedBullets().isEmpty();
+    }
+
+    /**
+     * Retrieves the enemies which are a threat.
+     * 
+     * @param enemies
+     *            enemies
+     * @param leaderboard
+     *            current leaderboard; may be null
+     * @return threats
+     */
+    private Collection<Tank> retrieveThreats(Collection<Tank> enemies, Leaderboard leaderboard) {
+        Collection<Tank> result = new ArrayList<>();
+        for (Tank enemy : enemies) {
+            if (isAThreat(enemy, leaderboard)) {
+                result.add(enemy);
+            }
+        }
+        return result;
+    }
+
     /**
      * Determines whether a dangerous enemy is aiming at our tank.
      * 
@@ -181,12 +289,17 @@ public class Tinusbot extends BotArtificialIntelligence {
      * chance that a dummy will actually fire. Even if it does, it doesn't matter that it gets the kill, since they're
      * not a serious contender. The only downside is the death which only costs one point.
      * 
-     * @param obstacles
-     *            walls
+     * Only the enemies which are aiming in the direction of our tank are checked in detail. These are found in a single
+     * pass over the packed game state.
+     * 
+     * @param walls
+     *            map of the walls
      * @param state
-     *            game state
+     *            packed game state
      * @param ownTank
      *            own tank
+     * @param ownPlayer
+     *            player id of our own tank in the packed game state
      * @param enemies
      *            all enemy tanks
      * @param boundary
@@ -195,17 +308,20 @@ public class Tinusbot extends BotArtificialIntelligence {
      *            current leaderboard; may be null
      * @return whether a bot is aiming at us
      */
-    private boolean dangerousEnemyHasAShot(Collection<Wall> obstacles, GameState state, Tank ownTank,
+    private boolean dangerousEnemyHasAShot(WallMap walls, PackedGameState state, Tank ownTank, int ownPlayer,
             Collection<Tank> enemies, LevelBoundary boundary, Leaderboard leaderboard) {
+        int[] aiming = new int[state.getTankCount()];
+        int aimingCount = state.findTanksAimingAt(ownTank.getX(), ownTank.getY(), ownTank.getWidth(),
+                ownTank.getHeight(), aiming);
         boolean result = false;
-        Iterator<Tank> enemyIterator = enemies.iterator();
-        while (!result && enemyIterator.hasNext()) {
-            Tank enemy = enemyIterator.next();
-            Collection<Tank> enemiesOfEnemy = new HashSet<>(enemies);
-            enemiesOfEnemy.remove(enemy);
-            enemiesOfEnemy.add(ownTank);
-            result = isAThreat(enemy, leaderboard)
-                    && state.wouldHit(enemy, enemiesOfEnemy, obstacles, boundary) == ownTank;
+        for (int i = 0; !result && i != aimingCount; i++) {
+            Tank enemy = state.getTank(aiming[i]);
+            if (state.getTankPlayer(aiming[i]) != ownPlayer && isAThreat(enemy, leaderboard)) {
+                Collection<Tank> enemiesOfEnemy = new HashSet<>(enemies);
+                enemiesOfEnemy.remove(enemy);
+                enemiesOfEnemy.add(ownTank);
+                result = state.getState().wouldHit(enemy, enemiesOfEnemy, walls, boundary) == ownTank;
+            }
         }
         return result;
     }
@@ -242,91 +358,55 @@ public class Tinusbot extends BotArtificialIntelligence {
     /**
      * Determines the first move of a shortest path to a firing position.
      * 
-     * This method uses a variation of Dijkstra's shortest path algorithm. The game state is seen as a complete,
-     * directed graph. The nodes are positions (including orientation) that our own tank can reach. The edges are the
-     * following actions that move the tank: forward, backward, turn left and turn right.
+     * The game state is seen as a directed graph. The nodes are positions (including orientation) that our own tank
+     * can reach. The edges are the following actions that move the tank: forward, backward, turn left and turn right.
+     * The search itself is an A* search, done by an {@link AStarPlanner}.
      * 
-     * @param obstacles
-     *            walls
+     * @param walls
+     *            map of the walls
      * @param state
-     *            game state
+     *            packed game state
      * @param ownTank
      *            own tank
      * @param threats
      *            all enemy tanks that may fire on our own tank
      * @param targets
-     *            all enemy tanks that are to be considered a valid target; should be a subcollection of threats 
+     *            index of all enemy tanks that are to be considered a valid target; should be a subcollection of
+     *            threats
      * @param boundary
      *            bounds of the level
      * @param leaderboard
      *            current leaderboard; may be null
      * @return nonempty list of actions to be undertaken
      */
-    private List<Action> computeActionToMoveIntoFiringPosition(Collection<Wall> obstacles, GameState state, Tank ownTank,
-            Collection<Tank> threats, Collection<Tank> targets, LevelBoundary boundary, Leaderboard leaderboard) {
-        
-        List<Action> result = new ArrayList<>(2);
-
-        TankPosition startPosition = new TankPosition(ownTank);
-
-        // map from visited reachable tank positions to a shortest path to get there
-        Map<TankPosition, List<Action>> visited = new HashMap<>();
-        visited.put(startPosition, Collections.<Action>emptyList());
-
-        Map<Action, TankPosition> neighbours = startPosition.computeReachablePositions();
-        Collection<TankPosition> positions = new HashSet<>();
-        for (Entry<Action, TankPosition> entry : neighbours.entrySet()) {
-            if (entry.getValue().getTank().overlaps(boundary)
-                    && !dangerousEnemyHasAShot(obstacles, state, entry.getValue().getTank(), threats, boundary,
-                            leaderboard)
-                    && (!(entry.getKey() == Action.FORWARD || entry.getKey() == Action.BACKWARD) || (!entry.getValue()
-                            .getTank().overlaps(obstacles) && !entry.getValue().getTank().overlaps(threats)))) {
-                visited.put(entry.getValue(), Arrays.asList(entry.getKey()));
-                positions.add(entry.getValue());
+    private List<Action> computeActionToMoveIntoFiringPosition(WallMap walls, PackedGameState state, Tank ownTank,
+            Collection<Tank> threats, SpatialIndex<Tank> targets, LevelBoundary boundary, Leaderboard leaderboard) {
+        // Determine which first moves are safe. Only the first move is checked for threats, since the enemies will
+        // have moved by the time we make the second one.
+        int ownPlayer = state.retrievePlayerId(getName());
+        int horizon;
+        if (dangerField.getBulletSpeed() == 0) {
+            // Unknown bullet speed.
+            horizon = DEFAULT_DANGER_HORIZON;
+        } else {
+            horizon = DANGER_HORIZON_TURNS * dangerField.getBulletSpeed();
+        }
+        Set<Action> firstMoves = EnumSet.noneOf(Action.class);
+        for (Entry<Action, TankPosition> entry : new TankPosition(ownTank).computeReachablePositions().entrySet()) {
+            Tank tank = entry.getValue().getTank();
+            if (tank.overlaps(boundary)
+                    && dangerField.isSafe(tank, horizon)
+                    && !dangerousEnemyHasAShot(walls, state, tank, ownPlayer, threats, boundary, leaderboard)
+                    && (!(entry.getKey() == Action.FORWARD || entry.getKey() == Action.BACKWARD) || (!walls
+                            .overlaps(tank) && !state.overlapsEnemyTank(tank.getX(), tank.getY(), tank.getWidth(),
+                            tank.getHeight(), ownPlayer)))) {
+                firstMoves.add(entry.getKey());
             }
         }
 
-        while (result.isEmpty() && !positions.isEmpty()) {
-            Collection<TankPosition> newPositions = new HashSet<>();
-            Iterator<TankPosition> positionIterator = positions.iterator();
-            while (result.isEmpty() && positionIterator.hasNext()) {
-                TankPosition position = positionIterator.next();
-                List<Action> pathToPosition = visited.get(position);
-                neighbours = position.computeReachablePositions();
-                Iterator<Entry<Action, TankPosition>> directlyReachablePositionIterator = neighbours.entrySet()
-                        .iterator();
-                while (result.isEmpty() && directlyReachablePositionIterator.hasNext()) {
-                    Entry<Action, TankPosition> directlyReachablePosition = directlyReachablePositionIterator.next();
-                    if (directlyReachablePosition.getValue().getTank().overlaps(boundary)
-                            && !visited.containsKey(directlyReachablePosition.getValue())
-                            && (!(directlyReachablePosition.getKey() == Action.FORWARD || directlyReachablePosition
-                                    .getKey() == Action.BACKWARD) || !directlyReachablePosition.getValue().getTank()
-                                    .overlaps(obstacles))) {
-                        List<Action> newPath = new ArrayList<>(pathToPosition);
-                        newPath.add(directlyReachablePosition.getKey());
-                        if (state.wouldHitEnemy(directlyReachablePosition.getValue().getTank(), targets, obstacles,
-                                boundary)) {
-                            result.add(newPath.get(0));
-                            
-                            // Hack: add the second action as well, in case
-                            // * it exists,
-                            // * first action is move forward or backward, and
-                            // * second action is turn left or right.
-                            // This prevents the bot from repeatedly moving back and forth instead of just turning and
-                            // shooting.
-                            if (1 < newPath.size()
-                                    && (newPath.get(0) == Action.BACKWARD || newPath.get(0) == Action.FORWARD)
-                                    && (newPath.get(1) == Action.TURN_LEFT || newPath.get(1) == Action.TURN_RIGHT)) {
-                                result.add(newPath.get(1));
-                            }
-                        }
-
-                        visited.put(directlyReachablePosition.getValue(), newPath);
-                        newPositions.add(directlyReachablePosition.getValue());
-                    }
-                }
-            }
-            positions = newPositions;
+        List<Action> result = planner.plan(ownTank, firstMoves, state.getState(), targets, walls, boundary);
+        if (log.isDebugEnabled()) {
+            log.debug("Planner visited {} positions.", "" + planner.getNodeCount());
         }
 
         if (result.isEmpty()) {
@@ -338,6 +418,21 @@ public class Tinusbot extends BotArtificialIntelligence {
         return result;
     }
 
+    /**
+     * Retrieves the names of the players owning the given tanks.
+     * 
+     * @param tanks
+     *            tanks
+     * @return player names
+     */
+    private static Set<String> retrievePlayers(Collection<Tank> tanks) {
+        Set<String> result = new HashSet<>(tanks.size());
+        for (Tank tank : tanks) {
+            result.add(tank.getPlayer());
+        }
+        return result;
+    }
+
     /**
      * Constructs the collection of tanks to be considered a target.
      * 
@@ -0,0 +1,96 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Non-blocking counterpart of {@link ClientApi}.
+ * 
+ * Every method returns immediately; the actual server call is made in the background. This allows the caller to
+ * overlap network round-trips with other work, for instance by submitting actions and retrieving the next world status
+ * without waiting for either response in between.
+ * 
+ * Calls which modify the game (creating players, adding actions and suicides) are executed in the order in which they
+ * were made, so actions end up in the tank's action queue in the intended order. Reads carry no such guarantee.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface AsyncClientApi {
+    /**
+     * Retrieves all of the obstacles in the level.
+     * 
+     * @return future for the collection of obstacles
+     * @see ClientApi#readLevel()
+     */
+    Future<Collection<Wall>> readLevel();
+
+    /**
+     * Registers a new player for the game.
+     * 
+     * @param name
+     *            name
+     * @param color
+     *            tank color, as a hex string
+     * @param id
+     *            unique Id of the player
+     * @return future for whether creation was succesful
+     * @see ClientApi#createPlayer(String, String, String)
+     */
+    Future<Boolean> createPlayer(String name, String color, String id);
+
+    /**
+     * Retrieves a list of players, including their kill/death ratios.
+     * 
+     * @return future for the players
+     * @see ClientApi#readPlayers()
+     */
+    Future<Collection<Player>> readPlayers();
+
+    /**
+     * Add the given {@link Action} for the player with the given id to its queue.
+     * 
+     * @param action
+     *            action to be added to the queue
+     * @param playerId
+     *            player id, as passed in via the {@link #createPlayer(String, String, String)} method call
+     * @return future for whether the action was succesfully added to the queue
+     * @see ClientApi#addAction(Action, String)
+     */
+    Future<Boolean> addAction(Action action, String playerId);
+
+    /**
+     * Add the given {@link Action}s for the player with the given id to its queue, in the given order.
+     * 
+     * @param actions
+     *            actions to be added to the queue; may not contain null
+     * @param playerId
+     *            player id, as passed in via the {@link #createPlayer(String, String, String)} method call
+     * @return future for the success of each of the given actions, in the same order
+     * @see ClientApi#addActions(List, String)
+     */
+    Future<List<Boolean>> addActions(List<Action> actions, String playerId);
+
+    /**
+     * Retrieves the current state of the world.
+     * 
+     * @return future for the game state; the future's value may be null if no world information is available
+     * @see ClientApi#readWorldStatus()
+     */
+    Future<GameState> readWorldStatus();
+
+    /**
+     * Kill your bot.
+     * 
+     * @param playerId
+     *            player id, as passed in via the {@link #createPlayer(String, String, String)} method call
+     * @return future for whether your tank was suicided succesfully
+     * @see ClientApi#suicide(String)
+     */
+    Future<Boolean> suicide(String playerId);
+}
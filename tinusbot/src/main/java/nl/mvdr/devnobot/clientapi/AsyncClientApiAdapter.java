@@ -0,0 +1,198 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Implementation of {@link AsyncClientApi} which delegates to a blocking {@link ClientApi} on background threads.
+ * 
+ * Reads are executed by one executor, calls which modify the game by another. The latter should execute its tasks one
+ * at a time, so that these calls are executed in order. An instance is meant to be used by a single bot; bots should
+ * not share the executor for modifying calls, or they would have to wait on each other's round-trips. They can share an
+ * underlying thread pool though, by giving each bot its own {@link SerialExecutor} on top of it.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+public class AsyncClientApiAdapter implements AsyncClientApi {
+    /** Blocking API which makes the actual server calls. */
+    @NonNull
+    private final ClientApi api;
+    /** Executor for read-only calls. */
+    @NonNull
+    private final Executor readExecutor;
+    /** Executor for calls which modify the game. Should execute its tasks one at a time. */
+    @NonNull
+    private final Executor writeExecutor;
+
+    /**
+     * Constructor.
+     * 
+     * Creates a single daemon thread for reads and another one for modifying calls.
+     * 
+     * @param api
+     *            blocking API which makes the actual server calls
+     * @param name
+     *            name, used to name the background threads
+     */
+    public AsyncClientApiAdapter(ClientApi api, String name) {
+        this(api, Executors.newSingleThreadExecutor(createThreadFactory(name + " reader")), Executors
+                .newSingleThreadExecutor(createThreadFactory(name + " writer")));
+    }
+
+    /**
+     * Creates a thread factory for daemon threads with the given name. Daemon threads do not prevent the JVM from
+     * shutting down.
+     * 
+     * @param threadName
+     *            thread name
+     * @return thread factory
+     */
+    private static ThreadFactory createThreadFactory(final String threadName) {
+        return new ThreadFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, threadName);
+                result.setDaemon(true);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Submits the given task to the given executor.
+     * 
+     * @param executor
+     *            executor
+     * @param task
+     *            task
+     * @return future for the task's result
+     */
+    private static <T> Future<T> submit(Executor executor, Callable<T> task) {
+        FutureTask<T> result = new FutureTask<>(task);
+        executor.execute(result);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Collection<Wall>> readLevel() {
+        return submit(readExecutor, new Callable<Collection<Wall>>() {
+            /** {@inheritDoc} */
+            @Override
+            public Collection<Wall> call() {
+                return api.readLevel();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> createPlayer(final String name, final String color, final String id) {
+        return submit(writeExecutor, new Callable<Boolean>() {
+            /** {@inheritDoc} */
+            @Override
+            public Boolean call() {
+                return Boolean.valueOf(api.createPlayer(name, color, id));
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Collection<Player>> readPlayers() {
+        return submit(readExecutor, new Callable<Collection<Player>>() {
+            /** {@inheritDoc} */
+            @Override
+            public Collection<Player> call() {
+                return api.readPlayers();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> addAction(final Action action, final String playerId) {
+        return submit(writeExecutor, new Callable<Boolean>() {
+            /** {@inheritDoc} */
+            @Override
+            public Boolean call() {
+                return Boolean.valueOf(api.addAction(action, playerId));
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<List<Boolean>> addActions(final List<Action> actions, final String playerId) {
+        return submit(writeExecutor, new Callable<List<Boolean>>() {
+            /** {@inheritDoc} */
+            @Override
+            public List<Boolean> call() {
+                return api.addActions(actions, playerId);
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<GameState> readWorldStatus() {
+        return submit(readExecutor, new Callable<GameState>() {
+            /** {@inheritDoc} */
+            @Override
+            public GameState call() {
+                return api.readWorldStatus();
+            }
+        });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Future<Boolean> suicide(final String playerId) {
+        return submit(writeExecutor, new Callable<Boolean>() {
+            /** {@inheritDoc} */
+            @Override
+            public Boolean call() {
+                return Boolean.valueOf(api.suicide(playerId));
+            }
+        });
+    }
+
+    /**
+     * Shuts down both executors, if they are executor services. Calls which have already been submitted are still
+     * executed.
+     * 
+     * Do not call this method if the executors are shared with other users.
+     */
+    public void shutdown() {
+        shutdown(readExecutor);
+        shutdown(writeExecutor);
+    }
+
+    /**
+     * Shuts down the given executor, if it is an executor service.
+     * 
+     * @param executor
+     *            executor
+     */
+    private static void shutdown(Executor executor) {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package nl.mvdr.devnobot.clientapi;
 
 import java.util.Collection;
+import java.util.List;
 
 import nl.mvdr.devnobot.model.Action;
 import nl.mvdr.devnobot.model.GameState;
@@ -61,6 +62,21 @@ public interface ClientApi {
      */
     boolean addAction(Action action, String playerId);
 
+    /**
+     * Add the given {@link Action}s for the player with the given id to its queue, in the given order.
+     * 
+     * The actions are sent with as few round-trips as the server protocol allows. {@link Action#SUICIDE} is allowed
+     * here; it is executed immediately once all preceding actions have been sent, see {@link #suicide(String)}. Once an
+     * action fails, the remaining actions are not sent at all.
+     * 
+     * @param actions
+     *            actions to be added to the queue; may not contain null
+     * @param playerId
+     *            player id, as passed in via the {@link #createPlayer(String, String, String)} method call
+     * @return for each of the given actions, in the same order, whether it was succesfully added to the queue
+     */
+    List<Boolean> addActions(List<Action> actions, String playerId);
+
     /**
      * Read this in your game loop to see what's going on.
      * 
@@ -1,18 +1,20 @@
 package nl.mvdr.devnobot.clientapi;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
-import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.metrics.Endpoint;
+import nl.mvdr.devnobot.metrics.Timings;
 import nl.mvdr.devnobot.model.Action;
 import nl.mvdr.devnobot.model.GameState;
 import nl.mvdr.devnobot.model.Player;
@@ -20,25 +22,70 @@ import nl.mvdr.devnobot.model.Wall;
 
 import org.apache.http.HttpStatus;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
-import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
 
-import com.cgi.devnobot.api.GameObstacle;
 import com.cgi.devnobot.api.GamePlayer;
-import com.cgi.devnobot.api.World;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
 /**
  * Implements the REST/JSON Api of the server. Based on the contest's example implementation, but uses our custom data
  * model.
+ * 
+ * Unlike the example implementation, this class does not create a new REST client for every call. Instead, all calls
+ * go through a single long-lived {@link ResteasyClient} with a pool of keep-alive connections. By default this is the
+ * client from {@link SharedResteasyClient}, which is shared by all instances in the JVM.
+ * 
+ * Responses are decoded straight from the response stream into our own data model by {@link JsonModelReader}.
+ * 
+ * Every call is timed, per endpoint: the time until the response status is received is recorded in
+ * {@link #getRequestTimings()}, the time spent reading and decoding the response body in {@link #getDecodeTimings()}.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class ClientApiImpl implements ClientApi {
-    /** Base URL. */
-    @NonNull
-    private final String baseURL;
+    /** Target for the level resource. */
+    private final ResteasyWebTarget levelTarget;
+    /** Target for the player resource, used to create players. */
+    private final ResteasyWebTarget playerTarget;
+    /** Target for the players resource. */
+    private final ResteasyWebTarget playersTarget;
+    /** Target for the world resource. */
+    private final ResteasyWebTarget worldTarget;
+    /** Time until the response status is received, per endpoint. */
+    @Getter
+    private final Timings<Endpoint> requestTimings;
+    /** Time spent reading and decoding the response body, per endpoint. */
+    @Getter
+    private final Timings<Endpoint> decodeTimings;
+
+    /**
+     * Constructor.
+     * 
+     * Uses the client from {@link SharedResteasyClient}.
+     * 
+     * @param baseURL
+     *            base URL
+     */
+    public ClientApiImpl(String baseURL) {
+        this(baseURL, SharedResteasyClient.retrieve());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param baseURL
+     *            base URL
+     * @param resteasyClient
+     *            REST client to be used for all calls; this instance does not take ownership of the client, so the
+     *            caller is responsible for closing it
+     */
+    public ClientApiImpl(String baseURL, ResteasyClient resteasyClient) {
+        super();
+        this.levelTarget = resteasyClient.target(baseURL + "/devnobot/rest/level");
+        this.playerTarget = resteasyClient.target(baseURL + "/devnobot/rest/player");
+        this.playersTarget = resteasyClient.target(baseURL + "/devnobot/rest/players");
+        this.worldTarget = resteasyClient.target(baseURL + "/devnobot/rest/world");
+        this.requestTimings = new Timings<>(Endpoint.class);
+        this.decodeTimings = new Timings<>(Endpoint.class);
+    }
 
     /** {@inheritDoc} */
     @Override
@@ -47,27 +94,20 @@ public class ClientApiImpl implements ClientApi {
         if (log.isDebugEnabled()) {
             log.debug("Making a REST call to read the level");
         }
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/level");
-        Response response = resteasyWebTarget.request().get();
-        String levelAsString = response.readEntity(String.class);
-        response.close();
-        resteasyClient.close();
-
-        // Convert result from JSON to API object
-        Gson gson = new Gson();
-        Type collectionType = new TypeToken<List<GameObstacle>>() {
-            // anonymous inner class to create type token
-        }.getType();
-        List<GameObstacle> obstacles = gson.fromJson(levelAsString, collectionType);
-
-        // Convert to data model
-        List<Wall> result = new ArrayList<>(obstacles.size());
-        for (GameObstacle obstacle : obstacles) {
-            result.add(new Wall(obstacle));
+        long startTime = System.nanoTime();
+        Response response = levelTarget.request().get();
+        startTime = requestTimings.recordSince(Endpoint.LEVEL, startTime);
+        Collection<Wall> result;
+        try {
+            // Convert directly from the JSON stream to data model
+            result = JsonModelReader.readWalls(response.readEntity(InputStream.class));
+            decodeTimings.recordSince(Endpoint.LEVEL, startTime);
+        } catch (IOException e) {
+            throw new ProcessingException("Unable to read level.", e);
+        } finally {
+            response.close();
         }
-
-        return Collections.unmodifiableCollection(result);
+        return result;
     }
 
     /** {@inheritDoc} */
@@ -82,13 +122,15 @@ public class ClientApiImpl implements ClientApi {
         player.setName(name);
         player.setId(id);
 
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/player");
-        Response response = resteasyWebTarget.request().post(Entity.entity(player, MediaType.APPLICATION_JSON));
-        boolean result = (response.getStatus() == HttpStatus.SC_NO_CONTENT);
-        response.close();
-        resteasyClient.close();
-
+        long startTime = System.nanoTime();
+        Response response = playerTarget.request().post(Entity.entity(player, MediaType.APPLICATION_JSON));
+        requestTimings.recordSince(Endpoint.CREATE_PLAYER, startTime);
+        boolean result;
+        try {
+            result = response.getStatus() == HttpStatus.SC_NO_CONTENT;
+        } finally {
+            response.close();
+        }
         return result;
     }
 
@@ -99,27 +141,20 @@ public class ClientApiImpl implements ClientApi {
         if (log.isDebugEnabled()) {
             log.debug("Making a REST call to read players");
         }
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/players");
-        Response response = resteasyWebTarget.request().get();
-        String playersAsString = response.readEntity(String.class);
-        response.close();
-        resteasyClient.close();
-
-        // Convert from JSON to API objects
-        Gson gson = new Gson();
-        Type collectionType = new TypeToken<List<GamePlayer>>() {
-            // anonymous inner class to create type token
-        }.getType();
-        List<GamePlayer> players = gson.fromJson(playersAsString, collectionType);
-
-        // Convert to model
-        Collection<Player> result = new ArrayList<>(players.size());
-        for (GamePlayer player : players) {
-            result.add(new Player(player));
+        long startTime = System.nanoTime();
+        Response response = playersTarget.request().get();
+        startTime = requestTimings.recordSince(Endpoint.PLAYERS, startTime);
+        Collection<Player> result;
+        try {
+            // Convert directly from the JSON stream to data model
+            result = JsonModelReader.readPlayers(response.readEntity(InputStream.class));
+            decodeTimings.recordSince(Endpoint.PLAYERS, startTime);
+        } catch (IOException e) {
+            throw new ProcessingException("Unable to read players.", e);
+        } finally {
+            response.close();
         }
-
-        return Collections.unmodifiableCollection(result);
+        return result;
     }
 
     /** {@inheritDoc} */
@@ -128,13 +163,55 @@ public class ClientApiImpl implements ClientApi {
         if (log.isDebugEnabled()) {
             log.debug("Making a REST call to add action " + action + " to player " + playerId);
         }
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/player/" + playerId);
-        Response response = resteasyWebTarget.request().put(
-                Entity.entity(action.toAPIAction(), MediaType.APPLICATION_JSON));
-        boolean result = (response.getStatus() == HttpStatus.SC_NO_CONTENT);
-        response.close();
-        resteasyClient.close();
+        return put(playerTarget.path(playerId), action);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The server has no endpoint for adding multiple actions at once, so this implementation sends one request per
+     * action. The requests are sent back-to-back on the calling thread, so they reuse the same pooled keep-alive
+     * connection instead of each setting up their own.
+     */
+    @Override
+    public List<Boolean> addActions(List<Action> actions, String playerId) {
+        if (log.isDebugEnabled()) {
+            log.debug("Making REST calls to add actions " + actions + " to player " + playerId);
+        }
+        ResteasyWebTarget target = playerTarget.path(playerId);
+        List<Boolean> result = new ArrayList<>(actions.size());
+        boolean success = true;
+        for (Action action : actions) {
+            if (success && action == Action.SUICIDE) {
+                success = suicide(playerId);
+            } else if (success) {
+                success = put(target, action);
+            }
+            // else: a previous action failed; do not send this one
+            result.add(Boolean.valueOf(success));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the given action to the queue of the player corresponding to the given target.
+     * 
+     * @param target
+     *            web target for the player
+     * @param action
+     *            action to be added to the queue
+     * @return whether the action was succesfully added to the queue
+     */
+    private boolean put(ResteasyWebTarget target, Action action) {
+        long startTime = System.nanoTime();
+        Response response = target.request().put(Entity.entity(action.toAPIAction(), MediaType.APPLICATION_JSON));
+        requestTimings.recordSince(Endpoint.ADD_ACTION, startTime);
+        boolean result;
+        try {
+            result = response.getStatus() == HttpStatus.SC_NO_CONTENT;
+        } finally {
+            response.close();
+        }
         return result;
     }
 
@@ -145,25 +222,19 @@ public class ClientApiImpl implements ClientApi {
         if (log.isDebugEnabled()) {
             log.debug("Making a REST call to read the world status");
         }
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/world");
-        Response response = resteasyWebTarget.request().get();
-        String worldStatusAsString = response.readEntity(String.class);
-        response.close();
-        resteasyClient.close();
-
-        // Convert from JSON to API object
-        Gson gson = new Gson();
-        World world = gson.fromJson(worldStatusAsString, World.class);
-
-        // Convert to data model
+        long startTime = System.nanoTime();
+        Response response = worldTarget.request().get();
+        startTime = requestTimings.recordSince(Endpoint.WORLD, startTime);
         GameState result;
-        if (world != null) {
-            result = new GameState(world);
-        } else {
-            result = null;
+        try {
+            // Convert directly from the JSON stream to data model
+            result = JsonModelReader.readGameState(response.readEntity(InputStream.class));
+            decodeTimings.recordSince(Endpoint.WORLD, startTime);
+        } catch (IOException e) {
+            throw new ProcessingException("Unable to read the world status.", e);
+        } finally {
+            response.close();
         }
-
         return result;
     }
 
@@ -173,11 +244,16 @@ public class ClientApiImpl implements ClientApi {
         if (log.isDebugEnabled()) {
             log.debug("Making a REST call to suicide tank with player id " + playerId);
         }
-        ResteasyClient resteasyClient = new ResteasyClientBuilder().build();
-        ResteasyWebTarget resteasyWebTarget = resteasyClient.target(this.baseURL + "/devnobot/rest/player/" + playerId);
-        Response response = resteasyWebTarget.request().delete();
-        resteasyClient.close();
-
-        return response.getStatus() == HttpStatus.SC_NO_CONTENT;
+        long startTime = System.nanoTime();
+        Response response = playerTarget.path(playerId).request().delete();
+        requestTimings.recordSince(Endpoint.SUICIDE, startTime);
+        boolean result;
+        try {
+            result = response.getStatus() == HttpStatus.SC_NO_CONTENT;
+        } finally {
+            // Always close the response, or its connection is never returned to the pool.
+            response.close();
+        }
+        return result;
     }
 }
@@ -0,0 +1,369 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Streaming decoder for the JSON documents sent by the server.
+ * 
+ * Reads the response in a single pass and constructs our own data model directly, without reading the full response
+ * body into a string and without binding it to the intermediate com.cgi.devnobot.api objects first. Unknown properties
+ * are skipped, so the server is free to send additional data.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class JsonModelReader {
+    /** Character set used by the server. */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * Reads a world status document.
+     * 
+     * @param in
+     *            input stream containing a JSON representation of a com.cgi.devnobot.api.World
+     * @return game state, or null if the document is empty or null
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static GameState readGameState(InputStream in) throws IOException {
+        return readGameState(new InputStreamReader(in, UTF_8));
+    }
+
+    /**
+     * Reads a world status document.
+     * 
+     * @param in
+     *            reader containing a JSON representation of a com.cgi.devnobot.api.World
+     * @return game state, or null if the document is empty or null
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static GameState readGameState(Reader in) throws IOException {
+        JsonReader reader = createJsonReader(in);
+        GameState result;
+        if (isEmptyDocument(reader)) {
+            result = null;
+        } else {
+            Collection<Tank> tanks = Collections.emptyList();
+            Collection<Bullet> bullets = Collections.emptyList();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("bots".equals(name) && reader.peek() != JsonToken.NULL) {
+                    tanks = readTanks(reader);
+                } else if ("bullets".equals(name) && reader.peek() != JsonToken.NULL) {
+                    bullets = readBullets(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            result = new GameState(tanks, bullets);
+        }
+        return result;
+    }
+
+    /**
+     * Reads a level document.
+     * 
+     * @param in
+     *            input stream containing a JSON array of com.cgi.devnobot.api.GameObstacle
+     * @return unmodifiable collection of walls
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static Collection<Wall> readWalls(InputStream in) throws IOException {
+        return readWalls(new InputStreamReader(in, UTF_8));
+    }
+
+    /**
+     * Reads a level document.
+     * 
+     * @param in
+     *            reader containing a JSON array of com.cgi.devnobot.api.GameObstacle
+     * @return unmodifiable collection of walls
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static Collection<Wall> readWalls(Reader in) throws IOException {
+        JsonReader reader = createJsonReader(in);
+        List<Wall> result = new ArrayList<>();
+        if (!isEmptyDocument(reader)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(readWall(reader));
+            }
+            reader.endArray();
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Reads a players document.
+     * 
+     * @param in
+     *            input stream containing a JSON array of com.cgi.devnobot.api.GamePlayer
+     * @return unmodifiable collection of players
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static Collection<Player> readPlayers(InputStream in) throws IOException {
+        return readPlayers(new InputStreamReader(in, UTF_8));
+    }
+
+    /**
+     * Reads a players document.
+     * 
+     * @param in
+     *            reader containing a JSON array of com.cgi.devnobot.api.GamePlayer
+     * @return unmodifiable collection of players
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    public static Collection<Player> readPlayers(Reader in) throws IOException {
+        JsonReader reader = createJsonReader(in);
+        List<Player> result = new ArrayList<>();
+        if (!isEmptyDocument(reader)) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                result.add(readPlayer(reader));
+            }
+            reader.endArray();
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Creates a JSON reader. Like Gson's own deserialization, the reader is lenient.
+     * 
+     * @param in
+     *            underlying reader
+     * @return JSON reader
+     */
+    private static JsonReader createJsonReader(Reader in) {
+        JsonReader result = new JsonReader(in);
+        result.setLenient(true);
+        return result;
+    }
+
+    /**
+     * Checks whether the document is empty or contains only a JSON null. In the latter case, the null is consumed.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the document
+     * @return whether the document is empty
+     * @throws IOException
+     *             if the stream cannot be read
+     */
+    private static boolean isEmptyDocument(JsonReader reader) throws IOException {
+        boolean result;
+        try {
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                result = true;
+            } else {
+                result = false;
+            }
+        } catch (EOFException e) {
+            // Completely empty document. Gson treats this as null as well.
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Reads an array of bots.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the array
+     * @return tanks
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static List<Tank> readTanks(JsonReader reader) throws IOException {
+        List<Tank> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(readTank(reader));
+        }
+        reader.endArray();
+        return result;
+    }
+
+    /**
+     * Reads a single bot.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the object
+     * @return tank
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static Tank readTank(JsonReader reader) throws IOException {
+        int x = 0;
+        int y = 0;
+        int width = 0;
+        int height = 0;
+        Orientation orientation = null;
+        int actionDuration = 0;
+        int distancePerStep = 0;
+        String player = null;
+        int queueLength = 0;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if ("x".equals(name)) {
+                x = reader.nextInt();
+            } else if ("y".equals(name)) {
+                y = reader.nextInt();
+            } else if ("width".equals(name)) {
+                width = reader.nextInt();
+            } else if ("height".equals(name)) {
+                height = reader.nextInt();
+            } else if ("lastKnownOrientation".equals(name)) {
+                orientation = Orientation.fromAPIOrientation(com.cgi.devnobot.api.Orientation.valueOf(reader
+                        .nextString()));
+            } else if ("actionDurationInMs".equals(name)) {
+                actionDuration = reader.nextInt();
+            } else if ("distancePerStep".equals(name)) {
+                distancePerStep = reader.nextInt();
+            } else if ("player".equals(name)) {
+                player = reader.nextString();
+            } else if ("queueLength".equals(name)) {
+                queueLength = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Tank(x, y, width, height, orientation, actionDuration, distancePerStep, player, queueLength);
+    }
+
+    /**
+     * Reads an array of bullets.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the array
+     * @return bullets
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static List<Bullet> readBullets(JsonReader reader) throws IOException {
+        List<Bullet> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            int[] bounds = readBounds(reader);
+            result.add(new Bullet(bounds[0], bounds[1], bounds[2], bounds[3]));
+        }
+        reader.endArray();
+        return result;
+    }
+
+    /**
+     * Reads a single obstacle.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the object
+     * @return wall
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static Wall readWall(JsonReader reader) throws IOException {
+        int[] bounds = readBounds(reader);
+        return new Wall(bounds[0], bounds[1], bounds[2], bounds[3]);
+    }
+
+    /**
+     * Reads the position and size of a plain game object, such as a bullet or an obstacle.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the object
+     * @return array containing x, y, width and height, in that order
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static int[] readBounds(JsonReader reader) throws IOException {
+        int[] result = new int[4];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if ("x".equals(name)) {
+                result[0] = reader.nextInt();
+            } else if ("y".equals(name)) {
+                result[1] = reader.nextInt();
+            } else if ("width".equals(name)) {
+                result[2] = reader.nextInt();
+            } else if ("height".equals(name)) {
+                result[3] = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return result;
+    }
+
+    /**
+     * Reads a single player.
+     * 
+     * @param reader
+     *            JSON reader, positioned at the start of the object
+     * @return player
+     * @throws IOException
+     *             if the stream cannot be read or does not contain valid JSON
+     */
+    private static Player readPlayer(JsonReader reader) throws IOException {
+        String name = null;
+        int kills = 0;
+        int deaths = 0;
+        String color = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String property = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+            } else if ("name".equals(property)) {
+                name = reader.nextString();
+            } else if ("kills".equals(property)) {
+                kills = reader.nextInt();
+            } else if ("deads".equals(property)) {
+                deaths = reader.nextInt();
+            } else if ("color".equals(property)) {
+                color = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new Player(name, kills, deaths, color);
+    }
+}
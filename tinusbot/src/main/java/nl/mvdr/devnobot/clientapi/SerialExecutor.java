@@ -0,0 +1,72 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executor which runs its tasks one at a time, in the order in which they were submitted, on another executor.
+ * 
+ * This gives the ordering guarantee of a single-threaded executor without a dedicated thread: many instances can share
+ * the same thread pool. A task which throws an exception does not prevent the next task from running. If the
+ * underlying executor rejects a task, for instance because it is shutting down, the exception is passed on and the
+ * task is dropped; tasks submitted later are handed to the underlying executor again.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class SerialExecutor implements Executor {
+    /** Executor which actually runs the tasks. */
+    @NonNull
+    private final Executor executor;
+    /** Tasks waiting to be run. */
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    /** Task which is currently handed to the underlying executor; null if there is none. */
+    private Runnable active;
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void execute(final Runnable command) {
+        tasks.add(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    log.error("Task failed; continuing with the next one.", e);
+                } finally {
+                    scheduleNext();
+                }
+            }
+        });
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    /**
+     * Hands the next task, if any, to the underlying executor.
+     * 
+     * @throws RejectedExecutionException
+     *             if the underlying executor rejects the task
+     */
+    private synchronized void scheduleNext() {
+        active = tasks.poll();
+        if (active != null) {
+            try {
+                executor.execute(active);
+            } catch (RejectedExecutionException e) {
+                // The task will never run, so it must not keep later tasks waiting.
+                active = null;
+                throw e;
+            }
+        }
+    }
+}
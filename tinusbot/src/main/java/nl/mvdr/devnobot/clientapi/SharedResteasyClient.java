@@ -0,0 +1,125 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+
+/**
+ * Holder for a single, long-lived {@link ResteasyClient} which can be shared by all {@link ClientApiImpl} instances in
+ * the JVM.
+ * 
+ * The client keeps a pool of keep-alive connections to the server, so that the game loop does not pay for a TCP
+ * handshake and provider bootstrap on every call. Pool size and timeouts can be configured using system properties. The
+ * client is closed when the JVM shuts down, or earlier by calling {@link #close()}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Slf4j
+public class SharedResteasyClient {
+    /** Name of the system property containing the maximum number of pooled connections. */
+    public static final String POOL_SIZE_SYSTEM_PROPERTY = "devnobot.client.poolSize";
+    /** Name of the system property containing the connect timeout in milliseconds. */
+    public static final String CONNECT_TIMEOUT_SYSTEM_PROPERTY = "devnobot.client.connectTimeout";
+    /** Name of the system property containing the socket (read) timeout in milliseconds. */
+    public static final String SOCKET_TIMEOUT_SYSTEM_PROPERTY = "devnobot.client.socketTimeout";
+    /** Name of the system property containing the maximum time to live of a pooled connection in milliseconds. */
+    public static final String CONNECTION_TTL_SYSTEM_PROPERTY = "devnobot.client.connectionTTL";
+
+    /** Default value for the pool size. Enough for a handful of bots and a leaderboard display. */
+    public static final int DEFAULT_POOL_SIZE = 20;
+    /** Default value for the connect timeout in milliseconds. */
+    public static final int DEFAULT_CONNECT_TIMEOUT = 2000;
+    /** Default value for the socket timeout in milliseconds. */
+    public static final int DEFAULT_SOCKET_TIMEOUT = 5000;
+    /** Default value for the connection time to live in milliseconds. */
+    public static final int DEFAULT_CONNECTION_TTL = 60000;
+
+    /** Shared client instance; null until first requested, or after it has been closed. */
+    private static ResteasyClient client;
+    /** Whether the shutdown hook has been registered. */
+    private static boolean shutdownHookRegistered;
+
+    /**
+     * Retrieves the shared client, creating it if necessary.
+     * 
+     * The client is configured using the system properties "devnobot.client.poolSize",
+     * "devnobot.client.connectTimeout", "devnobot.client.socketTimeout" and "devnobot.client.connectionTTL". Default
+     * values are used for any properties which are not specified.
+     * 
+     * @return shared client
+     */
+    public static synchronized ResteasyClient retrieve() {
+        if (client == null) {
+            int poolSize = Integer.getInteger(POOL_SIZE_SYSTEM_PROPERTY, DEFAULT_POOL_SIZE).intValue();
+            int connectTimeout = Integer.getInteger(CONNECT_TIMEOUT_SYSTEM_PROPERTY, DEFAULT_CONNECT_TIMEOUT)
+                    .intValue();
+            int socketTimeout = Integer.getInteger(SOCKET_TIMEOUT_SYSTEM_PROPERTY, DEFAULT_SOCKET_TIMEOUT).intValue();
+            int connectionTTL = Integer.getInteger(CONNECTION_TTL_SYSTEM_PROPERTY, DEFAULT_CONNECTION_TTL).intValue();
+            log.info("Creating shared REST client. Pool size: {}, connect timeout: {} ms, socket timeout: {} ms, "
+                    + "connection TTL: {} ms", new Object[] { "" + poolSize, "" + connectTimeout, "" + socketTimeout,
+                    "" + connectionTTL });
+            client = build(poolSize, connectTimeout, socketTimeout, connectionTTL);
+            registerShutdownHook();
+        }
+        return client;
+    }
+
+    /**
+     * Builds a new client with a pool of keep-alive connections.
+     * 
+     * All of the pooled connections may be used for the same route, since all requests go to the same server.
+     * 
+     * @param poolSize
+     *            maximum number of pooled connections; should be at least the number of threads using the client
+     * @param connectTimeout
+     *            connect timeout in milliseconds
+     * @param socketTimeout
+     *            socket (read) timeout in milliseconds
+     * @param connectionTTL
+     *            maximum time to live of a pooled connection in milliseconds
+     * @return new client; the caller is responsible for closing it
+     */
+    public static ResteasyClient build(int poolSize, int connectTimeout, int socketTimeout, int connectionTTL) {
+        return new ResteasyClientBuilder()
+                .connectionPoolSize(poolSize)
+                .maxPooledPerRoute(poolSize)
+                .connectionTTL(connectionTTL, TimeUnit.MILLISECONDS)
+                .establishConnectionTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+                .socketTimeout(socketTimeout, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Closes the shared client, releasing all pooled connections. Does nothing if there is no open shared client.
+     * 
+     * A subsequent call to {@link #retrieve()} creates a new client. Note that any {@link ClientApiImpl} instances
+     * still holding on to the old client can no longer be used.
+     */
+    public static synchronized void close() {
+        if (client != null) {
+            log.info("Closing shared REST client.");
+            client.close();
+            client = null;
+        }
+    }
+
+    /** Registers a shutdown hook which closes the shared client, unless this has already been done. */
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    close();
+                }
+            }, "SharedResteasyClient shutdown"));
+            shutdownHookRegistered = true;
+        }
+    }
+}
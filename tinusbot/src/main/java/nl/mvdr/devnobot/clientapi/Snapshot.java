@@ -0,0 +1,24 @@
+package nl.mvdr.devnobot.clientapi;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * A value retrieved from the server, as published by a {@link SnapshotChannel}.
+ * 
+ * @param <T>
+ *            value type; should be immutable, since the same value is handed out to all subscribers
+ * @author Martijn van de Rijdt
+ */
+@ToString
+@Getter
+@RequiredArgsConstructor
+public class Snapshot<T> {
+    /** Value. */
+    private final T value;
+    /** Version number; each snapshot published by the same channel has a higher version than the previous one. */
+    private final long version;
+    /** Timestamp when the value was retrieved. */
+    private final long timestamp;
+}
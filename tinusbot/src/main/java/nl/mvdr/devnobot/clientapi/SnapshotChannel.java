@@ -0,0 +1,102 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the latest version of a value, and hands it out to any number of readers.
+ * 
+ * Readers are never given a backlog: they either retrieve the latest snapshot, wait for a snapshot newer than the one
+ * they have already seen, or are notified of every new snapshot as a {@link SnapshotListener}. Since snapshots are
+ * shared, their values should be immutable.
+ * 
+ * @param <T>
+ *            value type
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class SnapshotChannel<T> {
+    /** Listeners. */
+    private final List<SnapshotListener<T>> listeners = new CopyOnWriteArrayList<>();
+    /** Latest snapshot; null if nothing has been published yet. */
+    private volatile Snapshot<T> latest;
+
+    /**
+     * Publishes a new value.
+     * 
+     * @param value
+     *            value
+     * @return new snapshot
+     */
+    public Snapshot<T> publish(T value) {
+        Snapshot<T> result;
+        synchronized (this) {
+            long version;
+            if (latest == null) {
+                version = 1;
+            } else {
+                version = latest.getVersion() + 1;
+            }
+            result = new Snapshot<>(value, version, System.currentTimeMillis());
+            latest = result;
+            notifyAll();
+        }
+        for (SnapshotListener<T> listener : listeners) {
+            try {
+                listener.snapshotPublished(result);
+            } catch (RuntimeException e) {
+                log.error("Snapshot listener failed: " + listener, e);
+            }
+        }
+        return result;
+    }
+
+    /** @return latest snapshot, or null if nothing has been published yet */
+    public Snapshot<T> retrieve() {
+        return latest;
+    }
+
+    /**
+     * Waits until a snapshot newer than the given version is available, or until the timeout expires.
+     * 
+     * @param version
+     *            version of the latest snapshot the caller has seen; 0 if none
+     * @param timeout
+     *            maximum time to wait in milliseconds
+     * @return latest snapshot, which is older than requested if the timeout expired; null if nothing has been
+     *         published yet
+     * @throws InterruptedException
+     *             if interrupted while waiting
+     */
+    public synchronized Snapshot<T> awaitNewer(long version, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        long remaining = timeout;
+        while ((latest == null || latest.getVersion() <= version) && 0 < remaining) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return latest;
+    }
+
+    /**
+     * Registers a listener, which is notified of every snapshot published from now on.
+     * 
+     * @param listener
+     *            listener
+     */
+    public void subscribe(SnapshotListener<T> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     * 
+     * @param listener
+     *            listener
+     */
+    public void unsubscribe(SnapshotListener<T> listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,214 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Polls the world status and the players once for all bots in the JVM, and shares the results.
+ * 
+ * Without the hub, every co-located bot (and the leaderboard display) polls the server on its own schedule, so server
+ * load and response decoding grow with the number of bots. The hub polls each endpoint at a fixed interval and
+ * publishes the results through a {@link SnapshotChannel} per endpoint. Bots use a view of the hub created by
+ * {@link #createClientApi()}, which serves reads from the latest snapshots and passes modifying calls on to the
+ * server.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SnapshotHub {
+    /** Name of the system property containing the interval between world status requests in milliseconds. */
+    public static final String WORLD_INTERVAL_SYSTEM_PROPERTY = "devnobot.hub.worldInterval";
+    /** Name of the system property containing the interval between players requests in milliseconds. */
+    public static final String PLAYERS_INTERVAL_SYSTEM_PROPERTY = "devnobot.hub.playersInterval";
+    /** Default interval between world status requests in milliseconds. */
+    public static final int DEFAULT_WORLD_INTERVAL = 100;
+    /** Default interval between players requests in milliseconds. The server updates these once per second. */
+    public static final int DEFAULT_PLAYERS_INTERVAL = 1000;
+
+    /** Client API which makes the actual server calls. */
+    @NonNull
+    private final ClientApi api;
+    /** Executor which performs the polls. */
+    @NonNull
+    private final ScheduledExecutorService executor;
+    /** Interval between world status requests in milliseconds. */
+    private final int worldInterval;
+    /** Interval between players requests in milliseconds. */
+    private final int playersInterval;
+
+    /** Latest world status. */
+    @Getter
+    private final SnapshotChannel<GameState> worldStatus = new SnapshotChannel<>();
+    /** Latest players. */
+    @Getter
+    private final SnapshotChannel<Collection<Player>> players = new SnapshotChannel<>();
+    /** Level; null until first read. The level never changes, so it is only read once. */
+    private Collection<Wall> level;
+
+    /**
+     * Creates a hub with its own polling threads, configured using the system properties "devnobot.hub.worldInterval"
+     * (default: 100 ms) and "devnobot.hub.playersInterval" (default: 1000 ms). The hub does not start polling until
+     * {@link #start()} is called.
+     * 
+     * @param api
+     *            client API which makes the actual server calls
+     * @return new hub
+     */
+    public static SnapshotHub create(ClientApi api) {
+        int worldInterval = Integer.getInteger(WORLD_INTERVAL_SYSTEM_PROPERTY, DEFAULT_WORLD_INTERVAL).intValue();
+        int playersInterval = Integer.getInteger(PLAYERS_INTERVAL_SYSTEM_PROPERTY, DEFAULT_PLAYERS_INTERVAL)
+                .intValue();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, "Snapshot hub");
+                result.setDaemon(true);
+                return result;
+            }
+        });
+        return new SnapshotHub(api, executor, worldInterval, playersInterval);
+    }
+
+    /** Starts polling the server. */
+    public void start() {
+        log.info("Starting snapshot hub. World status interval: {} ms, players interval: {} ms", "" + worldInterval,
+                "" + playersInterval);
+        executor.scheduleWithFixedDelay(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                try {
+                    GameState state = api.readWorldStatus();
+                    if (state != null) {
+                        worldStatus.publish(state);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to read the world status.", e);
+                }
+            }
+        }, 0, worldInterval, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                try {
+                    // Shared by all bots, so make sure nobody can modify it.
+                    players.publish(Collections.unmodifiableCollection(api.readPlayers()));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to read the players.", e);
+                }
+            }
+        }, 0, playersInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /** Stops polling the server. */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Creates a view of this hub for a single bot.
+     * 
+     * Calls to {@link ClientApi#readWorldStatus()} on the view return the latest world status without waiting, so
+     * they may return the same status as the previous call; bots already have to cope with that, since the server
+     * caches the world status as well. Players are taken from the latest snapshot too. Until the hub has read a
+     * value, reads are passed on to the server, as are all other calls.
+     * 
+     * @return client API
+     */
+    public ClientApi createClientApi() {
+        return new HubClientApi();
+    }
+
+    /**
+     * Retrieves the level, reading it from the server if this has not been done before.
+     * 
+     * @return level
+     */
+    private synchronized Collection<Wall> readLevel() {
+        Collection<Wall> result = level;
+        if (result == null) {
+            result = api.readLevel();
+            level = result;
+        }
+        return result;
+    }
+
+    /** View of the hub for a single bot. */
+    private class HubClientApi implements ClientApi {
+        /** {@inheritDoc} */
+        @Override
+        public Collection<Wall> readLevel() {
+            return SnapshotHub.this.readLevel();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean createPlayer(String name, String color, String id) {
+            return api.createPlayer(name, color, id);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Collection<Player> readPlayers() {
+            Snapshot<Collection<Player>> snapshot = players.retrieve();
+            Collection<Player> result;
+            if (snapshot == null) {
+                // The hub has not read the players yet.
+                result = api.readPlayers();
+            } else {
+                result = snapshot.getValue();
+            }
+            return result;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean addAction(Action action, String playerId) {
+            return api.addAction(action, playerId);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public List<Boolean> addActions(List<Action> actions, String playerId) {
+            return api.addActions(actions, playerId);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public GameState readWorldStatus() {
+            // Never wait for a newer snapshot: the caller may be a thread which is shared with other bots.
+            Snapshot<GameState> snapshot = worldStatus.retrieve();
+            GameState result;
+            if (snapshot == null) {
+                // The hub has not read the world status yet.
+                result = api.readWorldStatus();
+            } else {
+                result = snapshot.getValue();
+            }
+            return result;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean suicide(String playerId) {
+            return api.suicide(playerId);
+        }
+    }
+}
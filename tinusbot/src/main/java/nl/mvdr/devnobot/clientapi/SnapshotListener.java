@@ -0,0 +1,19 @@
+package nl.mvdr.devnobot.clientapi;
+
+/**
+ * Listener which is notified of every snapshot published by a {@link SnapshotChannel}.
+ * 
+ * @param <T>
+ *            value type
+ * @author Martijn van de Rijdt
+ */
+public interface SnapshotListener<T> {
+    /**
+     * Called when a new snapshot has been published. Called on the publishing thread, so implementations should return
+     * quickly.
+     * 
+     * @param snapshot
+     *            new snapshot
+     */
+    void snapshotPublished(Snapshot<T> snapshot);
+}
@@ -1,9 +1,18 @@
 package nl.mvdr.devnobot.launcher;
 
+import java.awt.Color;
+import java.io.IOException;
+import java.nio.file.Paths;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.bot.BotRuntime;
 import nl.mvdr.devnobot.bot.Tinusbot;
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.clientapi.ClientApiImpl;
+import nl.mvdr.devnobot.replay.RecordingClientApi;
+import nl.mvdr.devnobot.replay.ReplayLogWriter;
 
 /**
  * Main launcher for the application.
@@ -17,11 +26,13 @@ public class Launcher {
     public static final String BASE_URL_SYSTEM_PROPERTY = "devnobot.server.baseURL";
     /** Default value for base URL. */
     public static final String DEFAULT_BASE_URL = "http://localhost:7080";
+    /** Name of the system property containing the path of the replay log to be created. */
+    public static final String REPLAY_FILE_SYSTEM_PROPERTY = "devnobot.replay.file";
 
     /**
      * Main method.
      * 
-     * Starts a single instance of {@link Tinusbot} on its own thread.
+     * Starts a single instance of {@link Tinusbot} in a {@link BotRuntime}.
      * 
      * The bot will connect to a server specified using the system property "devnobot.server.baseURL", or to
      * http://localhost:7080 if the system property is not specified.
@@ -36,12 +47,15 @@ public class Launcher {
     }
 
     /**
-     * Starts a single instance of {@link Tinusbot} on its own thread.
+     * Starts a single instance of {@link Tinusbot} in a {@link BotRuntime}.
      * 
      * The bot will connect to a server specified using the system property "devnobot.server.baseURL", or to
      * http://localhost:7080 if the system property is not specified.
      * 
-     * The bot does not terminate on its own, its thread must be killed externally.
+     * If the system property "devnobot.replay.file" is specified, all communication with the server is recorded in a
+     * replay log at that location.
+     * 
+     * The bot does not terminate on its own; the runtime's threads keep running until the process is killed.
      */
     public static void launch() {
         log.info("Determining Devnobot server base URL. "
@@ -49,8 +63,48 @@ public class Launcher {
                 BASE_URL_SYSTEM_PROPERTY);
         String serverBaseURL = System.getProperty(BASE_URL_SYSTEM_PROPERTY, DEFAULT_BASE_URL);
         log.info("Base URL: " + serverBaseURL);
-        Tinusbot bot = new Tinusbot(serverBaseURL, Tinusbot.retrieveDefaultName(), "#FFC800");
-        log.info("Starting bot {} on its own thread!", bot.getName());
-        new Thread(bot, bot.getName()).start();
+        ClientApi api = new ClientApiImpl(serverBaseURL);
+        String replayFile = System.getProperty(REPLAY_FILE_SYSTEM_PROPERTY);
+        if (replayFile != null) {
+            api = record(api, replayFile);
+        }
+        // Color.ORANGE is #FFC800.
+        Tinusbot bot = new Tinusbot(api, Tinusbot.retrieveDefaultName(), Color.ORANGE);
+        log.info("Starting bot {}!", bot.getName());
+        BotRuntime.createDefault().add(bot);
+    }
+
+    /**
+     * Wraps the given client API so that all calls are recorded in a replay log. If the log cannot be created, the
+     * bot runs without recording.
+     * 
+     * @param api
+     *            client API
+     * @param replayFile
+     *            path of the replay log to be created
+     * @return recording client API, or the given API if the replay log cannot be created
+     */
+    private static ClientApi record(ClientApi api, String replayFile) {
+        ClientApi result;
+        try {
+            final ReplayLogWriter writer = ReplayLogWriter.create(Paths.get(replayFile));
+            Runtime.getRuntime().addShutdownHook(new Thread("Replay log shutdown hook") {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        log.error("Unable to close the replay log.", e);
+                    }
+                }
+            });
+            log.info("Recording replay log: " + replayFile);
+            result = new RecordingClientApi(api, writer);
+        } catch (IOException e) {
+            log.error("Unable to create replay log " + replayFile + "; running without recording.", e);
+            result = api;
+        }
+        return result;
     }
 }
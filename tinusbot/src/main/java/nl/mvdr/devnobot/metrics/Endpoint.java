@@ -0,0 +1,21 @@
+package nl.mvdr.devnobot.metrics;
+
+/**
+ * Server calls made through the client API.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public enum Endpoint {
+    /** Reading the level. */
+    LEVEL,
+    /** Creating a player. */
+    CREATE_PLAYER,
+    /** Reading the players. */
+    PLAYERS,
+    /** Adding an action to the queue. */
+    ADD_ACTION,
+    /** Reading the world status. */
+    WORLD,
+    /** Suiciding a tank. */
+    SUICIDE
+}
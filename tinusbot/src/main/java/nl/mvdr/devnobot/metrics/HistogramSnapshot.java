@@ -0,0 +1,85 @@
+package nl.mvdr.devnobot.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Immutable snapshot of a {@link LatencyHistogram}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class HistogramSnapshot {
+    /** Number of nanoseconds in a millisecond. */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /** Number of values per bucket. */
+    private final long[] counts;
+    /** Number of values. */
+    @Getter
+    private final long count;
+    /** Sum of all values, in nanoseconds. */
+    @Getter
+    private final long total;
+    /** Smallest value in nanoseconds; 0 if there are no values. */
+    @Getter
+    private final long min;
+    /** Largest value in nanoseconds; 0 if there are no values. */
+    @Getter
+    private final long max;
+
+    /** @return mean value in nanoseconds; 0 if there are no values */
+    public double computeMean() {
+        double result;
+        if (count == 0) {
+            result = 0;
+        } else {
+            result = (double) total / count;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the value at the given percentile. The result is the highest value in the bucket containing the
+     * percentile, capped at the maximum recorded value.
+     * 
+     * @param percentile
+     *            percentile, between 0 and 100
+     * @return value in nanoseconds; 0 if there are no values
+     */
+    public long computePercentile(double percentile) {
+        long result = 0;
+        if (count != 0) {
+            // Number of values at or below the requested percentile; at least 1.
+            long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            int index = 0;
+            while (seen < target && index != counts.length) {
+                seen = seen + counts[index];
+                index++;
+            }
+            result = Math.min(max, LatencyHistogram.computeHighestValue(index - 1));
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.2f p50=%.2f p90=%.2f p99=%.2f max=%.2f ms", Long.valueOf(count),
+                Double.valueOf(computeMean() / NANOS_PER_MILLI), toMillis(computePercentile(50)),
+                toMillis(computePercentile(90)), toMillis(computePercentile(99)), toMillis(max));
+    }
+
+    /**
+     * Converts nanoseconds to milliseconds.
+     * 
+     * @param nanos
+     *            duration in nanoseconds
+     * @return duration in milliseconds
+     */
+    private static Double toMillis(long nanos) {
+        return Double.valueOf(nanos / NANOS_PER_MILLI);
+    }
+}
@@ -0,0 +1,154 @@
+package nl.mvdr.devnobot.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, with a bounded relative error.
+ * 
+ * Values are counted in log-linear buckets, as in HdrHistogram: every power of two is divided into
+ * {@value #SUB_BUCKET_HALF_COUNT} buckets of equal width, so any recorded value can be reconstructed to within about
+ * 1.6%. Values below 2 * {@value #SUB_BUCKET_HALF_COUNT} are counted exactly. The bucket array has a fixed size and
+ * covers all non-negative long values.
+ * 
+ * Recording a value does not allocate and does not lock, so it is cheap enough to be done for every server call and
+ * every iteration of the game loop, from any number of threads. Snapshots are not atomic: a value recorded while a
+ * snapshot is being taken may or may not be included.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LatencyHistogram {
+    /** Number of bits of precision per power of two. */
+    private static final int SUB_BUCKET_BITS = 6;
+    /** Number of buckets per power of two. */
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_BITS;
+    /** Total number of buckets, enough for {@link Long#MAX_VALUE}. */
+    static final int BUCKET_COUNT = ((62 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS) + 2 * SUB_BUCKET_HALF_COUNT;
+
+    /** Number of values per bucket. */
+    private final AtomicLongArray counts;
+    /** Sum of all values. */
+    private final AtomicLong total;
+    /** Smallest value. */
+    private final AtomicLong min;
+    /** Largest value. */
+    private final AtomicLong max;
+
+    /** Constructor. */
+    public LatencyHistogram() {
+        super();
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.total = new AtomicLong();
+        this.min = new AtomicLong(Long.MAX_VALUE);
+        this.max = new AtomicLong(0);
+    }
+
+    /**
+     * Determines the bucket for the given value.
+     * 
+     * @param value
+     *            non-negative value
+     * @return bucket index
+     */
+    static int computeBucketIndex(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = Math.max(0, exponent - SUB_BUCKET_BITS);
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Determines the smallest value that is counted in the given bucket.
+     * 
+     * @param index
+     *            bucket index
+     * @return lowest value in the bucket
+     */
+    static long computeLowestValue(int index) {
+        long result;
+        if (index < 2 * SUB_BUCKET_HALF_COUNT) {
+            result = index;
+        } else {
+            int shift = (index >> SUB_BUCKET_BITS) - 1;
+            result = (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * Determines the largest value that is counted in the given bucket.
+     * 
+     * @param index
+     *            bucket index
+     * @return highest value in the bucket
+     */
+    static long computeHighestValue(int index) {
+        long result;
+        if (index == BUCKET_COUNT - 1) {
+            result = Long.MAX_VALUE;
+        } else {
+            result = computeLowestValue(index + 1) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Records a duration.
+     * 
+     * @param nanos
+     *            duration in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(computeBucketIndex(value));
+        total.addAndGet(value);
+        long currentMin = min.get();
+        while (value < currentMin && !min.compareAndSet(currentMin, value)) {
+            currentMin = min.get();
+        }
+        long currentMax = max.get();
+        while (currentMax < value && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     * 
+     * @param startNanos
+     *            start time, as returned by {@link System#nanoTime()}
+     * @return the current time, as returned by {@link System#nanoTime()}; convenient as start time for the next
+     *         measurement
+     */
+    public long recordSince(long startNanos) {
+        long now = System.nanoTime();
+        record(now - startNanos);
+        return now;
+    }
+
+    /** @return snapshot of the values recorded so far */
+    public HistogramSnapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        long snapshotCount = 0;
+        for (int i = 0; i != BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            snapshotCount = snapshotCount + snapshotCounts[i];
+        }
+        long snapshotMin;
+        if (snapshotCount == 0) {
+            snapshotMin = 0;
+        } else {
+            snapshotMin = min.get();
+        }
+        return new HistogramSnapshot(snapshotCounts, snapshotCount, total.get(), snapshotMin, max.get());
+    }
+
+    /** Clears all recorded values. */
+    public void reset() {
+        for (int i = 0; i != BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        total.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+}
@@ -0,0 +1,26 @@
+package nl.mvdr.devnobot.metrics;
+
+/**
+ * Phases of a single iteration of the game loop.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public enum Phase {
+    /**
+     * Waiting for the world status, from sending the request until the decoded game state is available. Includes the
+     * time spent decoding the response, which is also measured separately by the client API.
+     */
+    FETCH,
+    /** Waiting for the results of the actions submitted in the previous iteration. */
+    RESULTS,
+    /** Determining the next actions. */
+    DECIDE,
+    /** Submitting the actions. */
+    SUBMIT,
+    /** Refreshing the leaderboard. Done by a background task, so not part of the iteration. */
+    LEADERBOARD,
+    /** Total time spent in an iteration, excluding the sleep at the end. */
+    ITERATION,
+    /** Time spent sleeping beyond the requested sleep duration, or waiting for a scheduler thread beyond it. */
+    SLEEP_OVERSHOOT
+}
@@ -0,0 +1,102 @@
+package nl.mvdr.devnobot.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A set of {@link LatencyHistogram}s, one for each value of an enum.
+ * 
+ * All histograms are created up front, so recording a value never allocates.
+ * 
+ * @param <K>
+ *            enum type, listing the things being timed
+ * @author Martijn van de Rijdt
+ */
+public class Timings<K extends Enum<K>> {
+    /** Enum class. */
+    private final Class<K> keyType;
+    /** Histograms. */
+    private final Map<K, LatencyHistogram> histograms;
+
+    /**
+     * Constructor.
+     * 
+     * @param keyType
+     *            enum class
+     */
+    public Timings(Class<K> keyType) {
+        super();
+        this.keyType = keyType;
+        this.histograms = new EnumMap<>(keyType);
+        for (K key : keyType.getEnumConstants()) {
+            histograms.put(key, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records a duration.
+     * 
+     * @param key
+     *            what was timed
+     * @param nanos
+     *            duration in nanoseconds
+     */
+    public void record(K key, long nanos) {
+        histograms.get(key).record(nanos);
+    }
+
+    /**
+     * Records the time elapsed since the given start time.
+     * 
+     * @param key
+     *            what was timed
+     * @param startNanos
+     *            start time, as returned by {@link System#nanoTime()}
+     * @return the current time, as returned by {@link System#nanoTime()}
+     */
+    public long recordSince(K key, long startNanos) {
+        return histograms.get(key).recordSince(startNanos);
+    }
+
+    /**
+     * Retrieves the histogram for the given key.
+     * 
+     * @param key
+     *            key
+     * @return histogram
+     */
+    public LatencyHistogram retrieve(K key) {
+        return histograms.get(key);
+    }
+
+    /** @return snapshots of all histograms, in the enum's declaration order */
+    public Map<K, HistogramSnapshot> snapshot() {
+        Map<K, HistogramSnapshot> result = new EnumMap<>(keyType);
+        for (Map.Entry<K, LatencyHistogram> entry : histograms.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    /** Clears all histograms. */
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Formats the snapshots of all histograms which contain at least one value, one per line.
+     * 
+     * @return string representation
+     */
+    public String format() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<K, HistogramSnapshot> entry : snapshot().entrySet()) {
+            if (entry.getValue().getCount() != 0) {
+                result.append(String.format("%n%-16s %s", entry.getKey(), entry.getValue()));
+            }
+        }
+        return result.toString();
+    }
+}
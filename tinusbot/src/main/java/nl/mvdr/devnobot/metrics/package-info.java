@@ -0,0 +1,6 @@
+/**
+ * Contains low-overhead latency measurements for the client API and the game loop.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.devnobot.metrics;
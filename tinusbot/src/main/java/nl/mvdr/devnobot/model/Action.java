@@ -57,4 +57,31 @@ public enum Action {
         }
         return result;
     }
+
+    /**
+     * Converts a CGI action to an instance of this enum.
+     * 
+     * @param action
+     *            CGI action
+     * @return action
+     */
+    public static Action fromAPIAction(com.cgi.devnobot.api.Action action) {
+        Action result;
+        if (action == com.cgi.devnobot.api.Action.FORWARD) {
+            result = FORWARD;
+        } else if (action == com.cgi.devnobot.api.Action.BACKWARD) {
+            result = BACKWARD;
+        } else if (action == com.cgi.devnobot.api.Action.TURN_RIGHT) {
+            result = TURN_RIGHT;
+        } else if (action == com.cgi.devnobot.api.Action.TURN_LEFT) {
+            result = TURN_LEFT;
+        } else if (action == com.cgi.devnobot.api.Action.FIRE) {
+            result = FIRE;
+        } else if (action == null) {
+            result = null;
+        } else {
+            throw new IllegalArgumentException("Unexpected action: " + action);
+        }
+        return result;
+    }
 }
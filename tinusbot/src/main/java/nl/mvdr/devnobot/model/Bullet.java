@@ -12,20 +12,29 @@ import com.cgi.devnobot.api.GameBullet;
  */
 @ToString(callSuper = true)
 public class Bullet extends GameObject {
+    /** Initial width and height of a bullet. */
+    private static final int DEFAULT_BULLET_SIZE = 4;
+
     /**
      * Width of a bullet.
      * 
      * Seems to be 4 in all of my tests so that is the initial value. Updated whenever a new bullet is instantiated.
      */
     @Getter
-    private static int bulletWidth = 4;
+    private static int bulletWidth = DEFAULT_BULLET_SIZE;
     /**
      * Width of a bullet.
      * 
      * Seems to be 4 in all of my tests so that is the initial value. Updated whenever a new bullet is instantiated.
      */
     @Getter
-    private static int bulletHeight = 4;
+    private static int bulletHeight = DEFAULT_BULLET_SIZE;
+
+    /** Resets the static bullet size fields to their initial values. Meant for unit tests. */
+    public static void resetBulletSize() {
+        bulletWidth = DEFAULT_BULLET_SIZE;
+        bulletHeight = DEFAULT_BULLET_SIZE;
+    }
 
     /** Updates the static bullet size fields based on this bullet's size. */
     private void updateBulletSize() {
@@ -56,7 +65,7 @@ public class Bullet extends GameObject {
      * @param height
      *            height
      */
-    Bullet(int x, int y, int width, int height) {
+    public Bullet(int x, int y, int width, int height) {
         super(x, y, width, height);
         updateBulletSize();
     }
@@ -0,0 +1,219 @@
+package nl.mvdr.devnobot.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Trajectory of a bullet, for computing analytically where it would hit an object.
+ * 
+ * The trajectory is defined by the stepping in {@link GameState#wouldHit(Tank, java.util.Collection,
+ * java.util.Collection, LevelBoundary)}: the bullet starts at its spawn location and moves by
+ * {@link Bullet#moveBulletLength(Orientation)} until it overlaps an object or leaves the level boundary. Bullets only
+ * move along an axis, so the steps at which the bullet overlaps a given object form an interval, which can be computed
+ * directly instead of by stepping. This class computes the first of those steps, without creating any bullets.
+ * 
+ * Coordinates are split into the moving axis (the x axis for east and west, the y axis for north and south) and the
+ * fixed cross axis.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString
+@Getter
+class BulletRay {
+    /** Whether the bullet moves along the x axis. */
+    private final boolean horizontal;
+    /** Direction of movement along the moving axis: 1 or -1. */
+    private final int sign;
+    /** Distance the bullet moves in every step. */
+    private final int distance;
+    /** Coordinate of the bullet along the moving axis, at step 0. */
+    private final int start;
+    /** Size of the bullet along the moving axis. */
+    private final int length;
+    /** Coordinate of the bullet along the cross axis. */
+    private final int crossStart;
+    /** Size of the bullet along the cross axis. */
+    private final int crossLength;
+    /** Last step at which the bullet is still within the level boundary; -1 if it is not even there at step 0. */
+    private final int maxStep;
+
+    /**
+     * Constructor.
+     * 
+     * @param bullet
+     *            bullet at its spawn location
+     * @param direction
+     *            direction in which the bullet moves
+     * @param boundary
+     *            level boundary
+     */
+    BulletRay(Bullet bullet, Orientation direction, GameObject boundary) {
+        this(bullet.getX(), bullet.getY(), bullet.getWidth(), bullet.getHeight(), direction, boundary);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param bulletX
+     *            x coordinate of the bullet at its spawn location
+     * @param bulletY
+     *            y coordinate of the bullet at its spawn location
+     * @param bulletWidth
+     *            width of the bullet
+     * @param bulletHeight
+     *            height of the bullet
+     * @param direction
+     *            direction in which the bullet moves
+     * @param boundary
+     *            level boundary
+     */
+    BulletRay(int bulletX, int bulletY, int bulletWidth, int bulletHeight, Orientation direction,
+            GameObject boundary) {
+        super();
+        this.horizontal = direction == Orientation.EAST || direction == Orientation.WEST;
+        this.sign = direction.getXMultiplier() + direction.getYMultiplier();
+        // Same distance as Bullet.moveBulletLength().
+        if (horizontal) {
+            this.distance = bulletHeight;
+            this.start = bulletX;
+            this.length = bulletWidth;
+            this.crossStart = bulletY;
+            this.crossLength = bulletHeight;
+        } else {
+            this.distance = bulletWidth;
+            this.start = bulletY;
+            this.length = bulletHeight;
+            this.crossStart = bulletX;
+            this.crossLength = bulletWidth;
+        }
+
+        // Same condition as the stepping loop in GameState.wouldHit(), which uses the bullet's width on both axes.
+        boolean inBoundary = boundary.getX() < bulletX + bulletWidth
+                && bulletX < boundary.computeMaxX()
+                && boundary.getY() < bulletY + bulletWidth
+                && bulletY < boundary.computeMaxY();
+        int step;
+        if (!inBoundary) {
+            step = -1;
+        } else if (distance <= 0) {
+            // The bullet does not move at all.
+            step = 0;
+        } else {
+            int remaining;
+            if (0 < sign && horizontal) {
+                remaining = boundary.computeMaxX() - bulletX;
+            } else if (0 < sign) {
+                remaining = boundary.computeMaxY() - bulletY;
+            } else if (horizontal) {
+                remaining = bulletX + bulletWidth - boundary.getX();
+            } else {
+                remaining = bulletY + bulletWidth - boundary.getY();
+            }
+            // Largest step which is still less than remaining.
+            step = (remaining - 1) / distance;
+        }
+        this.maxStep = step;
+    }
+
+    /**
+     * Constructor, which copies the given trajectory but limits it to another number of steps.
+     * 
+     * @param ray
+     *            trajectory to be copied
+     * @param maxStep
+     *            last step to consider
+     */
+    BulletRay(BulletRay ray, int maxStep) {
+        super();
+        this.horizontal = ray.horizontal;
+        this.sign = ray.sign;
+        this.distance = ray.distance;
+        this.start = ray.start;
+        this.length = ray.length;
+        this.crossStart = ray.crossStart;
+        this.crossLength = ray.crossLength;
+        this.maxStep = maxStep;
+    }
+
+    /**
+     * Computes the coordinate of the bullet along the moving axis at the given step.
+     * 
+     * @param step
+     *            step
+     * @return coordinate
+     */
+    int computePosition(int step) {
+        return start + sign * step * distance;
+    }
+
+    /**
+     * Computes the first step at which the bullet overlaps the given object.
+     * 
+     * @param object
+     *            object
+     * @return first step, between 0 and {@link #maxStep} (inclusive), or -1 if the bullet does not overlap the object
+     *         before leaving the level
+     */
+    int computeFirstStep(GameObject object) {
+        int objectStart;
+        int objectEnd;
+        int objectCrossStart;
+        int objectCrossEnd;
+        if (horizontal) {
+            objectStart = object.getX();
+            objectEnd = object.computeMaxX();
+            objectCrossStart = object.getY();
+            objectCrossEnd = object.computeMaxY();
+        } else {
+            objectStart = object.getY();
+            objectEnd = object.computeMaxY();
+            objectCrossStart = object.getX();
+            objectCrossEnd = object.computeMaxX();
+        }
+
+        int result;
+        if (objectCrossStart < crossStart + crossLength && crossStart < objectCrossEnd) {
+            // The object is in the bullet's path. The bullet overlaps it at step k if and only if
+            // objectStart < position(k) + length and position(k) < objectEnd.
+            // Compute the gap that the bullet needs to close before it overlaps the object.
+            int gap;
+            if (0 < sign) {
+                gap = objectStart - start - length;
+            } else {
+                gap = start - objectEnd;
+            }
+            if (gap < 0) {
+                result = 0;
+            } else if (distance <= 0) {
+                result = -1;
+            } else {
+                result = gap / distance + 1;
+            }
+            if (maxStep < result) {
+                result = -1;
+            } else if (result != -1 && !overlapsAlongAxis(result, objectStart, objectEnd)) {
+                // The bullet passes the object in a single step, or the object is behind the bullet.
+                result = -1;
+            }
+        } else {
+            result = -1;
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the bullet overlaps the given interval along the moving axis at the given step.
+     * 
+     * @param step
+     *            step
+     * @param objectStart
+     *            start of the interval
+     * @param objectEnd
+     *            end of the interval (exclusive)
+     * @return whether the bullet overlaps
+     */
+    private boolean overlapsAlongAxis(int step, int objectStart, int objectEnd) {
+        int position = computePosition(step);
+        return objectStart < position + length && position < objectEnd;
+    }
+}
@@ -0,0 +1,492 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Raster of the parts of the level which bullets are about to fly through.
+ * 
+ * For every cell, the field contains the shortest distance that any bullet still needs to travel before it enters the
+ * cell. Since all bullets move at the same speed, this distance is a measure of time: the cells a bullet sweeps are
+ * ordered by when it reaches them. Two kinds of bullets are taken into account: bullets in flight, and the bullets
+ * that a given set of tanks would fire right now. A bullet's path ends at the first wall, or at the level boundary.
+ * 
+ * The api does not say in which direction a bullet in flight is moving. The direction follows from earlier snapshots:
+ * a bullet which is in line with a bullet in the previous snapshot has moved along that line. Bullets are paired with
+ * the previous ones nearest first, and every previous bullet is paired at most once. Once the bullet speed is known, a
+ * bullet which would have moved more than a few times that distance is not paired at all. A bullet which is not paired
+ * has just been fired; it is moving in the direction of the tank in whose line of fire it is. Bullets whose direction
+ * cannot be determined either way are left out. Bullets fired by the given player are left out as well, since they
+ * cannot hurt the player's own tank.
+ * 
+ * The bullet speed is the distance a bullet moves between two updates. Each update measures the median distance moved
+ * by its paired bullets, and the speed is the median of the latest measurements, so that a wrong pairing or a skipped
+ * snapshot does not throw it off.
+ * 
+ * The field is meant to be updated with every snapshot, so that bullets are paired across as short a time as possible.
+ * Only the cells which were marked in the previous update are cleared, so an update takes time in the number of cells
+ * swept by bullets, not in the size of the level. Queries look at the cells overlapping a rectangle; for a tank this
+ * is a small, fixed number of cells.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "columns", "rows", "bulletCount", "bulletSpeed" })
+public class DangerField {
+    /** Distance for a cell which no bullet will enter. */
+    public static final int SAFE = Integer.MAX_VALUE;
+    /** Width and height of a cell. */
+    private static final int CELL_SIZE = 8;
+    /** Direction value for a bullet whose direction is unknown. */
+    private static final int UNKNOWN = -1;
+    /** Largest distance a bullet may have moved between two updates to be paired, as a multiple of the speed. */
+    private static final int MAX_PAIRING_STEPS = 3;
+    /** Number of measurements the bullet speed is based on. */
+    private static final int SPEED_SAMPLES = 9;
+    /** All orientations, by ordinal. */
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+    /** Map of the walls. */
+    private final WallMap walls;
+    /** X coordinate of the top left corner of the raster. */
+    private final int originX;
+    /** Y coordinate of the top left corner of the raster. */
+    private final int originY;
+    /** Number of columns of cells. */
+    private final int columns;
+    /** Number of rows of cells. */
+    private final int rows;
+    /** Distance per cell, at index row * columns + column. */
+    private final int[] distances;
+    /** Indices of the cells whose distance is not {@link #SAFE}. */
+    private int[] marked;
+    /** Number of entries in {@link #marked}. */
+    private int markedCount;
+
+    /** X coordinates of the bullets in the latest snapshot. */
+    private int[] bulletX;
+    /** Y coordinates of the bullets in the latest snapshot. */
+    private int[] bulletY;
+    /** Directions of the bullets in the latest snapshot, as orientation ordinals, or {@link #UNKNOWN}. */
+    private int[] bulletDirection;
+    /** Whether each bullet in the latest snapshot was fired by the player. */
+    private boolean[] bulletOwn;
+    /** Number of bullets in the latest snapshot. */
+    @Getter
+    private int bulletCount;
+    /** Distance travelled by a bullet between two updates; 0 if no bullet has been seen moving yet. */
+    @Getter
+    private int bulletSpeed;
+    /** Latest measurements of the bullet speed, as a ring buffer. */
+    private final int[] speedSamples;
+    /** Number of measurements in {@link #speedSamples}. */
+    private int speedSampleCount;
+    /** Index in {@link #speedSamples} for the next measurement. */
+    private int nextSpeedSample;
+
+    /**
+     * Constructor.
+     * 
+     * @param walls
+     *            map of the walls in the level
+     */
+    public DangerField(WallMap walls) {
+        super();
+        this.walls = walls;
+        LevelBoundary area = walls.getBoundary();
+        this.originX = area.getX();
+        this.originY = area.getY();
+        this.columns = (Math.max(area.getWidth(), 0) + CELL_SIZE - 1) / CELL_SIZE;
+        this.rows = (Math.max(area.getHeight(), 0) + CELL_SIZE - 1) / CELL_SIZE;
+        this.distances = new int[columns * rows];
+        Arrays.fill(distances, SAFE);
+        this.marked = new int[64];
+        this.markedCount = 0;
+        this.bulletX = new int[0];
+        this.bulletY = new int[0];
+        this.bulletDirection = new int[0];
+        this.bulletOwn = new boolean[0];
+        this.bulletCount = 0;
+        this.bulletSpeed = 0;
+        this.speedSamples = new int[SPEED_SAMPLES];
+        this.speedSampleCount = 0;
+        this.nextSpeedSample = 0;
+    }
+
+    /**
+     * Updates the field to a new snapshot of the game state.
+     * 
+     * @param state
+     *            game state
+     * @param player
+     *            name of the player whose own bullets are to be ignored
+     * @param shooters
+     *            tanks which are to be considered to fire right now
+     * @param boundary
+     *            level boundary
+     */
+    public void update(GameState state, String player, Collection<Tank> shooters, LevelBoundary boundary) {
+        for (int i = 0; i != markedCount; i++) {
+            distances[marked[i]] = SAFE;
+        }
+        markedCount = 0;
+
+        int count = state.getBullets().size();
+        int[] newX = new int[count];
+        int[] newY = new int[count];
+        int[] newDirection = new int[count];
+        boolean[] newOwn = new boolean[count];
+        int i = 0;
+        for (Bullet bullet : state.getBullets()) {
+            newX[i] = bullet.getX();
+            newY[i] = bullet.getY();
+            i++;
+        }
+        int[] previous = pair(newX, newY, count);
+
+        // Distances moved by the paired bullets, for measuring the speed.
+        int[] moved = new int[count];
+        int movedCount = 0;
+        i = 0;
+        for (Bullet bullet : state.getBullets()) {
+            int j = previous[i];
+            if (j != -1) {
+                newDirection[i] = computeDirection(bulletX[j], bulletY[j], bullet.getX(), bullet.getY(),
+                        bulletDirection[j]);
+                newOwn[i] = bulletOwn[j];
+                int distance = Math.abs(bullet.getX() - bulletX[j]) + Math.abs(bullet.getY() - bulletY[j]);
+                if (distance != 0) {
+                    moved[movedCount] = distance;
+                    movedCount++;
+                }
+            } else {
+                Tank tank = findShooter(bullet, state.getTanks());
+                if (tank != null) {
+                    newDirection[i] = tank.getLastKnownOrientation().ordinal();
+                    newOwn[i] = tank.belongsToPlayer(player);
+                } else {
+                    newDirection[i] = UNKNOWN;
+                    newOwn[i] = false;
+                }
+            }
+            if (newDirection[i] != UNKNOWN && !newOwn[i]) {
+                mark(new BulletRay(bullet, ORIENTATIONS[newDirection[i]], boundary));
+            }
+            i++;
+        }
+        this.bulletX = newX;
+        this.bulletY = newY;
+        this.bulletDirection = newDirection;
+        this.bulletOwn = newOwn;
+        this.bulletCount = count;
+        if (movedCount != 0) {
+            speedSamples[nextSpeedSample] = computeMedian(moved, movedCount);
+            nextSpeedSample = (nextSpeedSample + 1) % SPEED_SAMPLES;
+            speedSampleCount = Math.min(speedSampleCount + 1, SPEED_SAMPLES);
+            this.bulletSpeed = computeMedian(speedSamples, speedSampleCount);
+        }
+
+        for (Tank shooter : shooters) {
+            if (shooter.getLastKnownOrientation() != null) {
+                mark(new BulletRay(shooter.computeBulletSpawnLocation(), shooter.getLastKnownOrientation(), boundary));
+            }
+        }
+    }
+
+    /**
+     * Pairs the given bullets with the bullets in the previous snapshot. Candidate pairs are bullets in line with each
+     * other, where the previous bullet is not moving away from the current one; they are taken nearest first, and each
+     * bullet ends up in at most one pair.
+     * 
+     * @param x
+     *            x coordinates of the current bullets
+     * @param y
+     *            y coordinates of the current bullets
+     * @param count
+     *            number of current bullets
+     * @return index of the previous bullet paired with each current bullet, or -1 if there is none
+     */
+    private int[] pair(int[] x, int[] y, int count) {
+        // Candidate pairs, as the distance in the upper half and the pair's index in the lower half, so that sorting
+        // puts the nearest first.
+        long[] candidates = new long[16];
+        int candidateCount = 0;
+        long maxDistance;
+        if (bulletSpeed == 0) {
+            maxDistance = Integer.MAX_VALUE;
+        } else {
+            maxDistance = (long) MAX_PAIRING_STEPS * bulletSpeed;
+        }
+        for (int i = 0; i != count; i++) {
+            for (int j = 0; j != bulletCount; j++) {
+                if (bulletX[j] == x[i] || bulletY[j] == y[i]) {
+                    int direction = computeDirection(bulletX[j], bulletY[j], x[i], y[i], bulletDirection[j]);
+                    int distance = Math.abs(x[i] - bulletX[j]) + Math.abs(y[i] - bulletY[j]);
+                    boolean consistent = bulletDirection[j] == UNKNOWN || direction == bulletDirection[j];
+                    if (consistent && distance <= maxDistance) {
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+                        }
+                        candidates[candidateCount] = (long) distance << 32 | (long) i * bulletCount + j;
+                        candidateCount++;
+                    }
+                }
+            }
+        }
+        Arrays.sort(candidates, 0, candidateCount);
+
+        int[] result = new int[count];
+        Arrays.fill(result, -1);
+        boolean[] paired = new boolean[bulletCount];
+        for (int k = 0; k != candidateCount; k++) {
+            int index = (int) candidates[k];
+            int i = index / bulletCount;
+            int j = index % bulletCount;
+            if (result[i] == -1 && !paired[j]) {
+                result[i] = j;
+                paired[j] = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the median of the given values. For an even number of values, the lower of the two middle ones is used.
+     * 
+     * @param values
+     *            values; not modified
+     * @param count
+     *            number of values to use, from the start of the array; must be positive
+     * @return median
+     */
+    private static int computeMedian(int[] values, int count) {
+        int[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        return sorted[(count - 1) / 2];
+    }
+
+    /**
+     * Computes the direction of a bullet which moved from one position to another along a line.
+     * 
+     * @param fromX
+     *            previous x coordinate
+     * @param fromY
+     *            previous y coordinate
+     * @param toX
+     *            current x coordinate
+     * @param toY
+     *            current y coordinate
+     * @param previousDirection
+     *            previously known direction, for a bullet which has not moved
+     * @return direction as an orientation ordinal, or {@link #UNKNOWN}
+     */
+    private static int computeDirection(int fromX, int fromY, int toX, int toY, int previousDirection) {
+        int result;
+        if (fromX < toX) {
+            result = Orientation.EAST.ordinal();
+        } else if (toX < fromX) {
+            result = Orientation.WEST.ordinal();
+        } else if (fromY < toY) {
+            result = Orientation.SOUTH.ordinal();
+        } else if (toY < fromY) {
+            result = Orientation.NORTH.ordinal();
+        } else {
+            result = previousDirection;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the tank which is most likely to have fired the given bullet: the nearest tank in whose line of fire the
+     * bullet is.
+     * 
+     * @param bullet
+     *            bullet
+     * @param tanks
+     *            tanks
+     * @return tank, or null if there is none
+     */
+    private static Tank findShooter(Bullet bullet, Collection<Tank> tanks) {
+        Tank result = null;
+        int nearest = Integer.MAX_VALUE;
+        for (Tank tank : tanks) {
+            Orientation orientation = tank.getLastKnownOrientation();
+            if (orientation != null) {
+                Bullet spawn = tank.computeBulletSpawnLocation();
+                // Distance along the line of fire; negative if the bullet is behind the tank or not in line with it.
+                int distance;
+                if (orientation.getXMultiplier() == 0 && spawn.getX() == bullet.getX()) {
+                    distance = orientation.getYMultiplier() * (bullet.getY() - spawn.getY());
+                } else if (orientation.getYMultiplier() == 0 && spawn.getY() == bullet.getY()) {
+                    distance = orientation.getXMultiplier() * (bullet.getX() - spawn.getX());
+                } else {
+                    distance = -1;
+                }
+                if (0 <= distance && distance < nearest) {
+                    result = tank;
+                    nearest = distance;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the cells swept by a bullet, up to the first wall or the level boundary.
+     * 
+     * @param ray
+     *            bullet trajectory
+     */
+    private void mark(BulletRay ray) {
+        if (ray.getMaxStep() != -1) {
+            Wall wall = walls.findFirstHit(ray);
+            int lastStep;
+            if (wall == null) {
+                lastStep = ray.getMaxStep();
+            } else {
+                lastStep = ray.computeFirstStep(wall);
+            }
+            int start = ray.getStart();
+            int end = ray.computePosition(lastStep);
+            int front = start + ray.getLength();
+
+            int x;
+            int y;
+            int width;
+            int height;
+            int along = Math.min(start, end);
+            int alongLength = Math.max(start, end) + ray.getLength() - along;
+            if (ray.isHorizontal()) {
+                x = along;
+                y = ray.getCrossStart();
+                width = alongLength;
+                height = ray.getCrossLength();
+            } else {
+                x = ray.getCrossStart();
+                y = along;
+                width = ray.getCrossLength();
+                height = alongLength;
+            }
+
+            int minColumn = computeFirstCell(x, originX);
+            int maxColumn = computeEndCell(x + width, originX, columns);
+            int minRow = computeFirstCell(y, originY);
+            int maxRow = computeEndCell(y + height, originY, rows);
+            for (int row = minRow; row < maxRow; row++) {
+                for (int column = minColumn; column < maxColumn; column++) {
+                    // Distance the bullet travels before it enters this cell.
+                    int cellStart;
+                    if (ray.isHorizontal()) {
+                        cellStart = originX + column * CELL_SIZE;
+                    } else {
+                        cellStart = originY + row * CELL_SIZE;
+                    }
+                    int distance;
+                    if (0 < ray.getSign()) {
+                        distance = Math.max(cellStart - front, 0);
+                    } else {
+                        distance = Math.max(start - cellStart - CELL_SIZE, 0);
+                    }
+                    markCell(row * columns + column, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowers the distance of a cell.
+     * 
+     * @param cell
+     *            cell index
+     * @param distance
+     *            distance
+     */
+    private void markCell(int cell, int distance) {
+        if (distances[cell] == SAFE) {
+            if (markedCount == marked.length) {
+                marked = Arrays.copyOf(marked, 2 * marked.length);
+            }
+            marked[markedCount] = cell;
+            markedCount++;
+        }
+        distances[cell] = Math.min(distances[cell], distance);
+    }
+
+    /**
+     * Computes the first cell overlapping a range.
+     * 
+     * @param start
+     *            start of the range
+     * @param origin
+     *            origin of the raster
+     * @return index of the first cell
+     */
+    private static int computeFirstCell(int start, int origin) {
+        return Math.max(start - origin, 0) / CELL_SIZE;
+    }
+
+    /**
+     * Computes the index after the last cell overlapping a range.
+     * 
+     * @param end
+     *            end of the range (exclusive)
+     * @param origin
+     *            origin of the raster
+     * @param cells
+     *            number of cells
+     * @return index after the last cell
+     */
+    private static int computeEndCell(int end, int origin, int cells) {
+        int result;
+        if (end <= origin) {
+            result = 0;
+        } else {
+            result = Math.min((end - origin + CELL_SIZE - 1) / CELL_SIZE, cells);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the shortest distance any bullet needs to travel before it enters the given rectangle.
+     * 
+     * The distance is computed per cell, so it may be somewhat shorter than the actual distance.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @return distance, or {@link #SAFE} if no bullet will enter the rectangle
+     */
+    public int computeDistance(int x, int y, int width, int height) {
+        int minColumn = computeFirstCell(x, originX);
+        int maxColumn = computeEndCell(x + width, originX, columns);
+        int minRow = computeFirstCell(y, originY);
+        int maxRow = computeEndCell(y + height, originY, rows);
+        int result = SAFE;
+        for (int row = minRow; row < maxRow; row++) {
+            for (int column = minColumn; column < maxColumn; column++) {
+                result = Math.min(result, distances[row * columns + column]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given rectangle is safe from bullets for a while.
+     * 
+     * @param object
+     *            object
+     * @param horizon
+     *            distance a bullet travels in the period of interest
+     * @return true if no bullet will enter the rectangle before it has travelled the given distance
+     */
+    public boolean isSafe(GameObject object, int horizon) {
+        return horizon < computeDistance(object.getX(), object.getY(), object.getWidth(), object.getHeight());
+    }
+}
@@ -0,0 +1,467 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Set of the positions from which a tank would hit a target, computed backwards from the targets.
+ * 
+ * A position is described by the tank's bullet spawn location and orientation. The spawn location is in the middle of
+ * the tank and does not change when the tank turns; moving forward or backward shifts it by the tank's distance per
+ * step. The spawn locations a tank can reach therefore lie on a lattice, with the tank's current spawn location as one
+ * of its points and the distance per step as its spacing. The set is a bitmap over the lattice points within the level
+ * boundary, with one bit per point and orientation.
+ * 
+ * For every target and direction, the lattice rows (or columns) which overlap the target are marked, going outward
+ * from the target until the first wall. Along such a row, the positions which hit the target usually form an
+ * interval: a bullet that is fired from further away sweeps the same path and more, so once a wall is in the way it
+ * stays in the way. This fails when a wall overlaps the row within a bullet length of the target, for instance a wall
+ * bordering the target on the side. A bullet moves a bullet length per step, and whether the step in which it reaches
+ * the target also overlaps the wall, which then takes precedence, depends on where along the row it was fired from; so
+ * hits and misses may alternate. Rows with such a wall are checked position by position, using the same hit test as
+ * {@link GameState#wouldHitEnemy(int, int, int, int, Orientation, SpatialIndex, WallMap, LevelBoundary)}. In the other
+ * rows, the outer end of the interval is predicted by casting a ray outward from the target, and then checked exactly
+ * against the same hit test. Bullets which hit another target on the way still count as hits.
+ * 
+ * The argument requires bullets to sweep their path without gaps, which holds when a bullet is square, so that it
+ * moves by its own length each step. For other bullet sizes, and for tanks which cannot move, the set is disabled and
+ * callers should fall back to the hit test. The argument also assumes that targets do not overlap walls.
+ * 
+ * An update takes time in the number of positions marked, plus a few ray casts per row, or one per position in rows
+ * next to a wall. Instances are meant to be reused every turn; they are not thread-safe.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "distance", "columns", "rows", "enabled", "count" })
+public class FiringPositions {
+    /** Largest number of bits in the bitmap; about 2 MB. */
+    private static final long MAX_BITS = 1L << 24;
+    /** All orientations, by ordinal. */
+    private static final Orientation[] ORIENTATIONS = Orientation.values();
+
+    /** Width and height of a bullet. */
+    private int bulletSize;
+    /** Spacing of the lattice. */
+    private int distance;
+    /** X coordinate of the spawn locations in column 0. */
+    private int originX;
+    /** Y coordinate of the spawn locations in row 0. */
+    private int originY;
+    /** Number of columns of the lattice. */
+    private int columns;
+    /** Number of rows of the lattice. */
+    private int rows;
+    /** Bitmap, at bit index (orientation * rows + row) * columns + column. */
+    private long[] bits = new long[0];
+    /** Whether the set was computed by the latest update; if false, {@link #contains(int, int, int)} is meaningless. */
+    @Getter
+    private boolean enabled;
+    /** Number of positions in the set, counting each orientation separately. */
+    @Getter
+    private int count;
+
+    /**
+     * Recomputes the set for the given tank and targets.
+     * 
+     * @param tank
+     *            tank which is to fire
+     * @param targets
+     *            index of the tanks to be considered targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    public void update(Tank tank, SpatialIndex<Tank> targets, WallMap walls, LevelBoundary boundary) {
+        Bullet spawn = tank.computeBulletSpawnLocation();
+        bulletSize = spawn.getWidth();
+        distance = tank.getDistancePerStep();
+        count = 0;
+        enabled = 0 < distance && 0 < bulletSize && spawn.getWidth() == spawn.getHeight();
+        if (enabled) {
+            // Spawn locations within the boundary, using the same condition as BulletRay.
+            originX = spawn.getX() + distance
+                    * divideRoundingUp(boundary.getX() - bulletSize + 1 - spawn.getX(), distance);
+            originY = spawn.getY() + distance
+                    * divideRoundingUp(boundary.getY() - bulletSize + 1 - spawn.getY(), distance);
+            columns = Math.max(0, divideRoundingDown(boundary.computeMaxX() - 1 - originX, distance) + 1);
+            rows = Math.max(0, divideRoundingDown(boundary.computeMaxY() - 1 - originY, distance) + 1);
+            long size = (long) ORIENTATIONS.length * columns * rows;
+            enabled = size <= MAX_BITS;
+            if (enabled) {
+                int words = (int) ((size + 63) / 64);
+                if (bits.length < words) {
+                    bits = new long[words];
+                } else {
+                    Arrays.fill(bits, 0, words, 0L);
+                }
+                for (Tank target : targets.getObjects()) {
+                    for (Orientation direction : ORIENTATIONS) {
+                        mark(target, direction, targets, walls, boundary);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks the positions from which a bullet fired in the given direction would hit the given target.
+     * 
+     * @param target
+     *            target
+     * @param direction
+     *            direction in which the bullet is fired
+     * @param targets
+     *            index of all targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    private void mark(Tank target, Orientation direction, SpatialIndex<Tank> targets, WallMap walls,
+            LevelBoundary boundary) {
+        boolean horizontal = direction == Orientation.EAST || direction == Orientation.WEST;
+        int sign = direction.getXMultiplier() + direction.getYMultiplier();
+        int start;
+        int end;
+        int crossStart;
+        int crossEnd;
+        int origin;
+        int crossOrigin;
+        int cells;
+        int crossCells;
+        if (horizontal) {
+            start = target.getX();
+            end = target.computeMaxX();
+            crossStart = target.getY();
+            crossEnd = target.computeMaxY();
+            origin = originX;
+            crossOrigin = originY;
+            cells = columns;
+            crossCells = rows;
+        } else {
+            start = target.getY();
+            end = target.computeMaxY();
+            crossStart = target.getX();
+            crossEnd = target.computeMaxX();
+            origin = originY;
+            crossOrigin = originX;
+            cells = rows;
+            crossCells = columns;
+        }
+
+        // The innermost position is the closest one to the target from which the target is not behind the bullet.
+        // Positions further out are at innermost - sign * i, for i from 0 up to (but not including) available. The
+        // first few of them overlap the target along the moving axis.
+        int innermost;
+        int available;
+        int overlapping;
+        if (0 < sign) {
+            innermost = Math.min(divideRoundingDown(end - 1 - origin, distance), cells - 1);
+            available = innermost + 1;
+            overlapping = innermost - divideRoundingUp(start - bulletSize + 1 - origin, distance) + 1;
+        } else {
+            innermost = Math.max(divideRoundingUp(start - bulletSize + 1 - origin, distance), 0);
+            available = cells - innermost;
+            overlapping = divideRoundingDown(end - 1 - origin, distance) - innermost + 1;
+        }
+        int firstCross = Math.max(divideRoundingUp(crossStart - bulletSize + 1 - crossOrigin, distance), 0);
+        int lastCross = Math.min(divideRoundingDown(crossEnd - 1 - crossOrigin, distance), crossCells - 1);
+
+        for (int cross = firstCross; 0 < available && cross <= lastCross; cross++) {
+            if (isNextToWall(start, end, crossOrigin + cross * distance, horizontal, walls)) {
+                markEach(innermost, available, sign, cross, horizontal, direction, targets, walls, boundary);
+            } else {
+                markInterval(innermost, available, overlapping, sign, cross, origin, crossOrigin, horizontal,
+                        direction, targets, walls, boundary);
+            }
+        }
+    }
+
+    /**
+     * Determines whether a lattice row's bullets could hit a wall in the same step in which they first reach the
+     * target: whether a wall overlaps the row within one bullet length of the target along the moving axis. Such a
+     * wall borders the target on the side, since targets do not overlap walls.
+     * 
+     * @param start
+     *            minimum coordinate of the target along the moving axis
+     * @param end
+     *            maximum coordinate (exclusive) of the target along the moving axis
+     * @param crossPosition
+     *            coordinate of the row's bullets along the cross axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     * @param walls
+     *            map of the walls
+     * @return whether there is such a wall
+     */
+    private boolean isNextToWall(int start, int end, int crossPosition, boolean horizontal, WallMap walls) {
+        int along = start - bulletSize;
+        int alongLength = end - start + 2 * bulletSize;
+        boolean result;
+        if (horizontal) {
+            result = walls.overlaps(along, crossPosition, alongLength, bulletSize);
+        } else {
+            result = walls.overlaps(crossPosition, along, bulletSize, alongLength);
+        }
+        return result;
+    }
+
+    /**
+     * Marks the positions in a lattice row which hit the target, checking every position.
+     * 
+     * @param innermost
+     *            innermost position of the row
+     * @param available
+     *            number of positions from the innermost one outward
+     * @param sign
+     *            1 if the bullets move in the positive direction, -1 otherwise
+     * @param cross
+     *            lattice index of the row along the cross axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     * @param direction
+     *            direction in which the bullets are fired
+     * @param targets
+     *            index of all targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    private void markEach(int innermost, int available, int sign, int cross, boolean horizontal,
+            Orientation direction, SpatialIndex<Tank> targets, WallMap walls, LevelBoundary boundary) {
+        for (int i = 0; i != available; i++) {
+            int cell = innermost - sign * i;
+            if (hits(cell, cross, horizontal, direction, targets, walls, boundary)) {
+                set(direction.ordinal(), cross, cell, horizontal);
+            }
+        }
+    }
+
+    /**
+     * Marks the positions in a lattice row which hit the target, assuming that they form an interval.
+     * 
+     * @param innermost
+     *            innermost position of the row
+     * @param available
+     *            number of positions from the innermost one outward
+     * @param overlapping
+     *            number of positions from the innermost one outward which overlap the target along the moving axis
+     * @param sign
+     *            1 if the bullets move in the positive direction, -1 otherwise
+     * @param cross
+     *            lattice index of the row along the cross axis
+     * @param origin
+     *            coordinate of lattice index 0 along the moving axis
+     * @param crossOrigin
+     *            coordinate of lattice index 0 along the cross axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     * @param direction
+     *            direction in which the bullets are fired
+     * @param targets
+     *            index of all targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     */
+    private void markInterval(int innermost, int available, int overlapping, int sign, int cross, int origin,
+            int crossOrigin, boolean horizontal, Orientation direction, SpatialIndex<Tank> targets, WallMap walls,
+            LevelBoundary boundary) {
+        // Positions which overlap the target may also overlap a wall next to it, which then takes precedence.
+        // Find the first position which hits; if it does not overlap the target, there is a wall in between.
+        int offset = 0;
+        boolean hit = hits(innermost, cross, horizontal, direction, targets, walls, boundary);
+        while (!hit && offset < overlapping && offset + 1 < available) {
+            offset++;
+            hit = hits(innermost - sign * offset, cross, horizontal, direction, targets, walls, boundary);
+        }
+
+        if (hit) {
+            int first = innermost - sign * offset;
+            int remaining = available - offset;
+            // Cast a ray outward from the target to find the first wall behind the first position, and predict
+            // the number of positions which hit the target.
+            BulletRay ray = createRay(origin + first * distance, crossOrigin + cross * distance, horizontal,
+                    direction.turnRight().turnRight(), boundary);
+            Wall wall = walls.findFirstHit(ray);
+            int length;
+            if (wall == null) {
+                length = remaining;
+            } else if (0 < sign && horizontal) {
+                length = first - divideRoundingUp(wall.computeMaxX() - origin, distance) + 1;
+            } else if (0 < sign) {
+                length = first - divideRoundingUp(wall.computeMaxY() - origin, distance) + 1;
+            } else if (horizontal) {
+                length = divideRoundingDown(wall.getX() - bulletSize - origin, distance) - first + 1;
+            } else {
+                length = divideRoundingDown(wall.getY() - bulletSize - origin, distance) - first + 1;
+            }
+            length = Math.max(1, Math.min(length, remaining));
+
+            // Correct the prediction by checking the positions at the end of the interval.
+            while (1 < length
+                    && !hits(first - sign * (length - 1), cross, horizontal, direction, targets, walls, boundary)) {
+                length--;
+            }
+            while (length < remaining
+                    && hits(first - sign * length, cross, horizontal, direction, targets, walls, boundary)) {
+                length++;
+            }
+
+            for (int i = 0; i != length; i++) {
+                set(direction.ordinal(), cross, first - sign * i, horizontal);
+            }
+        }
+    }
+
+    /**
+     * Determines whether a bullet fired from the given lattice point would hit a target.
+     * 
+     * @param cell
+     *            lattice index along the moving axis
+     * @param cross
+     *            lattice index along the cross axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     * @param direction
+     *            direction in which the bullet is fired
+     * @param targets
+     *            index of the targets
+     * @param walls
+     *            map of the walls
+     * @param boundary
+     *            level boundary
+     * @return whether the first object hit is a target
+     */
+    private boolean hits(int cell, int cross, boolean horizontal, Orientation direction, SpatialIndex<Tank> targets,
+            WallMap walls, LevelBoundary boundary) {
+        int position;
+        int crossPosition;
+        if (horizontal) {
+            position = originX + cell * distance;
+            crossPosition = originY + cross * distance;
+        } else {
+            position = originY + cell * distance;
+            crossPosition = originX + cross * distance;
+        }
+        BulletRay ray = createRay(position, crossPosition, horizontal, direction, boundary);
+        return GameState.findFirstHit(ray, targets, walls) instanceof Tank;
+    }
+
+    /**
+     * Creates the trajectory of a bullet.
+     * 
+     * @param position
+     *            coordinate of the bullet along the moving axis of the lattice row
+     * @param crossPosition
+     *            coordinate of the bullet along the cross axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     * @param direction
+     *            direction in which the bullet moves
+     * @param boundary
+     *            level boundary
+     * @return trajectory
+     */
+    private BulletRay createRay(int position, int crossPosition, boolean horizontal, Orientation direction,
+            LevelBoundary boundary) {
+        BulletRay result;
+        if (horizontal) {
+            result = new BulletRay(position, crossPosition, bulletSize, bulletSize, direction, boundary);
+        } else {
+            result = new BulletRay(crossPosition, position, bulletSize, bulletSize, direction, boundary);
+        }
+        return result;
+    }
+
+    /**
+     * Adds a position to the set.
+     * 
+     * @param orientation
+     *            orientation ordinal
+     * @param cross
+     *            lattice index along the cross axis
+     * @param cell
+     *            lattice index along the moving axis
+     * @param horizontal
+     *            whether the moving axis is the x axis
+     */
+    private void set(int orientation, int cross, int cell, boolean horizontal) {
+        int row;
+        int column;
+        if (horizontal) {
+            row = cross;
+            column = cell;
+        } else {
+            row = cell;
+            column = cross;
+        }
+        int index = (orientation * rows + row) * columns + column;
+        long mask = 1L << index;
+        if ((bits[index >>> 6] & mask) == 0L) {
+            bits[index >>> 6] |= mask;
+            count++;
+        }
+    }
+
+    /**
+     * Determines whether a tank would hit a target when firing from the given position. Only meaningful if the set is
+     * {@link #isEnabled() enabled}.
+     * 
+     * @param bulletX
+     *            x coordinate of the tank's bullet spawn location
+     * @param bulletY
+     *            y coordinate of the tank's bullet spawn location
+     * @param orientation
+     *            orientation ordinal of the tank
+     * @return whether the position is in the set; false for spawn locations which are not on the lattice
+     */
+    public boolean contains(int bulletX, int bulletY, int orientation) {
+        int dx = bulletX - originX;
+        int dy = bulletY - originY;
+        boolean result;
+        if (0 <= dx && 0 <= dy && dx % distance == 0 && dy % distance == 0 && dx / distance < columns
+                && dy / distance < rows) {
+            int index = (orientation * rows + dy / distance) * columns + dx / distance;
+            result = (bits[index >>> 6] & 1L << index) != 0L;
+        } else {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * Divides, rounding down (towards negative infinity).
+     * 
+     * @param dividend
+     *            dividend
+     * @param divisor
+     *            divisor; must be positive
+     * @return quotient, rounded down
+     */
+    private static int divideRoundingDown(int dividend, int divisor) {
+        int result = dividend / divisor;
+        if (dividend % divisor < 0) {
+            result--;
+        }
+        return result;
+    }
+
+    /**
+     * Divides, rounding up (towards positive infinity).
+     * 
+     * @param dividend
+     *            dividend
+     * @param divisor
+     *            divisor; must be positive
+     * @return quotient, rounded up
+     */
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return -divideRoundingDown(-dividend, divisor);
+    }
+}
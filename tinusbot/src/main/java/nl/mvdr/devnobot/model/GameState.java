@@ -53,14 +53,14 @@ public class GameState {
     }
 
     /**
-     * Constructor. Intended for use in unit tests.
+     * Constructor.
      * 
      * @param tanks
      *            tanks
      * @param bullets
      *            bullets
      */
-    GameState(Collection<Tank> tanks, Collection<Bullet> bullets) {
+    public GameState(Collection<Tank> tanks, Collection<Bullet> bullets) {
         super();
         this.tanks = Collections.unmodifiableCollection(tanks);
         this.bullets = Collections.unmodifiableCollection(bullets);
@@ -143,6 +143,9 @@ public class GameState {
     /**
      * Determines which, if any, game object the given tank would hit if it fired right now.
      * 
+     * Follows the bullet step by step. This is the reference for the faster versions of this method, which take a
+     * {@link WallMap}.
+     * 
      * @param tank
      *            tank which would fire
      * @param enemies
@@ -176,6 +179,104 @@ public class GameState {
         return result;
     }
 
+    /**
+     * Determines which, if any, game object the given tank would hit if it fired right now.
+     * 
+     * Gives the same result as {@link #wouldHit(Tank, Collection, Collection, LevelBoundary)}, provided the wall map
+     * contains the same walls in the same order. Instead of moving the bullet step by step, the step at which it would
+     * hit each object is computed directly, and only walls near the bullet's trajectory are considered.
+     * 
+     * @param tank
+     *            tank which would fire
+     * @param enemies
+     *            tank's enemies
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @param boundary
+     *            level boundary
+     * @return game object which would be hit, or null if there is none
+     */
+    public GameObject wouldHit(Tank tank, Collection<Tank> enemies, WallMap walls, LevelBoundary boundary) {
+        BulletRay ray = new BulletRay(tank.computeBulletSpawnLocation(), tank.getLastKnownOrientation(), boundary);
+        GameObject result = walls.findFirstHit(ray);
+        int maxStep = computeMaxEnemyStep(ray, result);
+        for (Tank enemy : enemies) {
+            int step = ray.computeFirstStep(enemy);
+            // At equal steps, the enemy that comes last wins, as in the unindexed version.
+            if (step != -1 && step <= maxStep) {
+                result = enemy;
+                maxStep = step;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines which, if any, game object the given tank would hit if it fired right now.
+     * 
+     * Gives the same result as {@link #wouldHit(Tank, Collection, Collection, LevelBoundary)}, provided the index
+     * and wall map contain the same objects in the same order. Instead of moving the bullet step by step, the step at
+     * which it would hit each object is computed directly, and only objects near the bullet's trajectory are
+     * considered.
+     * 
+     * @param tank
+     *            tank which would fire
+     * @param enemies
+     *            index of the tank's enemies, typically an overlay created by the wall map
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @param boundary
+     *            level boundary
+     * @return game object which would be hit, or null if there is none
+     */
+    public GameObject wouldHit(Tank tank, SpatialIndex<Tank> enemies, WallMap walls,
+            LevelBoundary boundary) {
+        BulletRay ray = new BulletRay(tank.computeBulletSpawnLocation(), tank.getLastKnownOrientation(), boundary);
+        return findFirstHit(ray, enemies, walls);
+    }
+
+    /**
+     * Finds the object which a bullet would hit first.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @param enemies
+     *            index of the enemy tanks
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @return game object which would be hit, or null if there is none
+     */
+    static GameObject findFirstHit(BulletRay ray, SpatialIndex<Tank> enemies, WallMap walls) {
+        GameObject result = walls.findFirstHit(ray);
+        Tank enemy = enemies.findFirstHit(ray, computeMaxEnemyStep(ray, result));
+        if (enemy != null) {
+            result = enemy;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the last step at which a bullet can hit an enemy, given the wall it would hit.
+     * 
+     * When the bullet overlaps both a wall and a tank at the same step, the wall takes precedence, as in the stepping
+     * loop of {@link #wouldHit(Tank, Collection, Collection, LevelBoundary)}.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @param wall
+     *            wall which the bullet would hit; may be null
+     * @return last step
+     */
+    private static int computeMaxEnemyStep(BulletRay ray, GameObject wall) {
+        int result;
+        if (wall == null) {
+            result = ray.getMaxStep();
+        } else {
+            result = ray.computeFirstStep(wall) - 1;
+        }
+        return result;
+    }
+
     /**
      * Determines which, if any, game object the given player's tank would hit if it fired right now.
      * 
@@ -189,12 +290,49 @@ public class GameState {
      *             if there is no matching tank for the given player name
      */
     public GameObject wouldHit(String playerName, Collection<Wall> walls) {
+        return wouldHit(playerName, walls, LevelBoundary.buildLevelBoundary(walls, tanks));
+    }
+
+    /**
+     * Determines which, if any, game object the given player's tank would hit if it fired right now.
+     * 
+     * @param playerName
+     *            player name; should be non-null and unique; if not unique, the first tank matching the player name is
+     *            returned
+     * @param walls
+     *            walls / obstacles in the level
+     * @param boundary
+     *            level boundary, including the tanks in this game state
+     * @return game object which would be hit, or null if there is none
+     * @throws IllegalArgumentException
+     *             if there is no matching tank for the given player name
+     */
+    public GameObject wouldHit(String playerName, Collection<Wall> walls, LevelBoundary boundary) {
         Tank tank = retrieveTankForPlayerName(playerName);
         Collection<Tank> enemies = retrieveEnemies(tank.getPlayer());
-        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
         return wouldHit(tank, enemies, walls, boundary);
     }
 
+    /**
+     * Determines which, if any, game object the given player's tank would hit if it fired right now.
+     * 
+     * The level boundary is derived from the wall map's precomputed boundary, so that the walls need not be looked at.
+     * 
+     * @param playerName
+     *            player name; should be non-null and unique; if not unique, the first tank matching the player name is
+     *            returned
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @return game object which would be hit, or null if there is none
+     * @throws IllegalArgumentException
+     *             if there is no matching tank for the given player name
+     */
+    public GameObject wouldHit(String playerName, WallMap walls) {
+        Tank tank = retrieveTankForPlayerName(playerName);
+        Collection<Tank> enemies = retrieveEnemies(tank.getPlayer());
+        return wouldHit(tank, enemies, walls, walls.getBoundary().include(tanks));
+    }
+
     /**
      * Determines whether the given tank would hit an enemy if it fired right now.
      * 
@@ -226,4 +364,56 @@ public class GameState {
     public boolean wouldHitEnemy(Tank tank, Collection<Tank> enemies, Collection<Wall> walls) {
         return wouldHit(tank, enemies, walls, LevelBoundary.buildLevelBoundary(walls, tanks)) instanceof Tank;
     }
+
+    /**
+     * Determines whether the given tank would hit an enemy if it fired right now.
+     * 
+     * @param tank
+     *            tank
+     * @param enemies
+     *            index of the tank's enemies
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @param boundary
+     *            level boundary
+     * @return whether an enemy would be hit
+     */
+    public boolean wouldHitEnemy(Tank tank, SpatialIndex<Tank> enemies, WallMap walls,
+            LevelBoundary boundary) {
+        return wouldHit(tank, enemies, walls, boundary) instanceof Tank;
+    }
+
+    /**
+     * Determines whether a tank in the given position would hit an enemy if it fired right now.
+     * 
+     * Equivalent to {@link #wouldHitEnemy(Tank, SpatialIndex, WallMap, LevelBoundary)}, for a hypothetical tank which
+     * is only described by its position, so that searches need not create a tank for every position they look at.
+     * 
+     * @param x
+     *            x coordinate of the tank
+     * @param y
+     *            y coordinate of the tank
+     * @param width
+     *            width of the tank
+     * @param height
+     *            height of the tank
+     * @param orientation
+     *            orientation of the tank
+     * @param enemies
+     *            index of the tank's enemies
+     * @param walls
+     *            map of the walls / obstacles in the level
+     * @param boundary
+     *            level boundary
+     * @return whether an enemy would be hit
+     */
+    public boolean wouldHitEnemy(int x, int y, int width, int height, Orientation orientation,
+            SpatialIndex<Tank> enemies, WallMap walls, LevelBoundary boundary) {
+        // Same spawn location as Tank.computeBulletSpawnLocation().
+        int bulletWidth = Bullet.getBulletWidth();
+        int bulletHeight = Bullet.getBulletHeight();
+        BulletRay ray = new BulletRay(x + width / 2 - bulletWidth / 2, y + height / 2 - bulletHeight / 2, bulletWidth,
+                bulletHeight, orientation, boundary);
+        return findFirstHit(ray, enemies, walls) instanceof Tank;
+    }
 }
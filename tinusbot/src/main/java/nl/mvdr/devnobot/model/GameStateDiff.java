@@ -0,0 +1,188 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Differences between two snapshots of the game state, typically those of consecutive turns.
+ * 
+ * Tanks are matched by player name, which is assumed to be unique. A tank which turned also changes its position and
+ * size, since its width and height are swapped; it is reported as turned, not as moved. A tank which died and respawned
+ * between the snapshots is reported as moved.
+ * 
+ * Bullets have no identity, so they are matched by position. A bullet which moved between the snapshots is reported
+ * as having disappeared from its old position and appeared in its new one.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Getter
+@ToString
+public class GameStateDiff {
+    /** Tanks which occur in the current state but not in the previous one. */
+    private final List<Tank> spawnedTanks;
+    /** Tanks which occur in the previous state but not in the current one, as they were in the previous state. */
+    private final List<Tank> diedTanks;
+    /** Tanks which changed position without turning, as they are in the current state. */
+    private final List<Tank> movedTanks;
+    /** Tanks which changed orientation, as they are in the current state. */
+    private final List<Tank> turnedTanks;
+    /** Tanks whose action queue length changed, as they are in the current state. */
+    private final List<Tank> queueLengthChangedTanks;
+    /** Bullets in the current state which were not in the same position in the previous state. */
+    private final List<Bullet> appearedBullets;
+    /** Bullets in the previous state which are not in the same position in the current state. */
+    private final List<Bullet> disappearedBullets;
+
+    /**
+     * Constructor.
+     * 
+     * @param previous
+     *            previous game state; may be null, in which case everything in the current state is new
+     * @param current
+     *            current game state
+     */
+    public GameStateDiff(GameState previous, GameState current) {
+        super();
+        Collection<Tank> previousTanks;
+        Collection<Bullet> previousBullets;
+        if (previous == null) {
+            previousTanks = Collections.emptyList();
+            previousBullets = Collections.emptyList();
+        } else {
+            previousTanks = previous.getTanks();
+            previousBullets = previous.getBullets();
+        }
+
+        // Tanks.
+        Map<String, Tank> unmatched = new LinkedHashMap<>();
+        for (Tank tank : previousTanks) {
+            if (!unmatched.containsKey(tank.getPlayer())) {
+                unmatched.put(tank.getPlayer(), tank);
+            }
+        }
+        List<Tank> spawned = new ArrayList<>();
+        List<Tank> moved = new ArrayList<>();
+        List<Tank> turned = new ArrayList<>();
+        List<Tank> queueLengthChanged = new ArrayList<>();
+        for (Tank tank : current.getTanks()) {
+            Tank previousTank = unmatched.remove(tank.getPlayer());
+            if (previousTank == null) {
+                spawned.add(tank);
+            } else {
+                if (previousTank.getLastKnownOrientation() != tank.getLastKnownOrientation()) {
+                    turned.add(tank);
+                } else if (previousTank.getX() != tank.getX() || previousTank.getY() != tank.getY()
+                        || previousTank.getWidth() != tank.getWidth() || previousTank.getHeight() != tank.getHeight()) {
+                    moved.add(tank);
+                }
+                if (previousTank.getQueueLength() != tank.getQueueLength()) {
+                    queueLengthChanged.add(tank);
+                }
+            }
+        }
+        this.spawnedTanks = Collections.unmodifiableList(spawned);
+        this.diedTanks = Collections.unmodifiableList(new ArrayList<>(unmatched.values()));
+        this.movedTanks = Collections.unmodifiableList(moved);
+        this.turnedTanks = Collections.unmodifiableList(turned);
+        this.queueLengthChangedTanks = Collections.unmodifiableList(queueLengthChanged);
+
+        // Bullets. Count the previous bullets per position, then match the current ones against them. The counts that
+        // remain are those of the bullets which disappeared.
+        Map<Long, Integer> remaining = new HashMap<>();
+        for (Bullet bullet : previousBullets) {
+            add(remaining, computeKey(bullet), 1);
+        }
+        List<Bullet> appeared = new ArrayList<>();
+        for (Bullet bullet : current.getBullets()) {
+            Long key = computeKey(bullet);
+            if (0 < count(remaining, key)) {
+                add(remaining, key, -1);
+            } else {
+                appeared.add(bullet);
+            }
+        }
+        List<Bullet> disappeared = new ArrayList<>();
+        for (Bullet bullet : previousBullets) {
+            Long key = computeKey(bullet);
+            if (0 < count(remaining, key)) {
+                add(remaining, key, -1);
+                disappeared.add(bullet);
+            }
+        }
+        this.appearedBullets = Collections.unmodifiableList(appeared);
+        this.disappearedBullets = Collections.unmodifiableList(disappeared);
+    }
+
+    /**
+     * Computes the key by which a bullet is matched.
+     * 
+     * @param bullet
+     *            bullet
+     * @return key, based on the bullet's position
+     */
+    private static Long computeKey(Bullet bullet) {
+        return Long.valueOf((long) bullet.getX() << 32 | bullet.getY() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Looks up a count.
+     * 
+     * @param counts
+     *            counts
+     * @param key
+     *            key
+     * @return count, or 0 if the key is absent
+     */
+    private static int count(Map<Long, Integer> counts, Long key) {
+        Integer count = counts.get(key);
+        int result;
+        if (count == null) {
+            result = 0;
+        } else {
+            result = count.intValue();
+        }
+        return result;
+    }
+
+    /**
+     * Adds to a count.
+     * 
+     * @param counts
+     *            counts
+     * @param key
+     *            key
+     * @param delta
+     *            number to be added
+     */
+    private static void add(Map<Long, Integer> counts, Long key, int delta) {
+        counts.put(key, Integer.valueOf(count(counts, key) + delta));
+    }
+
+    /**
+     * Determines whether the tanks are where they were: no tank spawned, died, moved or turned. Changes in queue length
+     * are not taken into account.
+     * 
+     * @return whether the positions of the tanks are unchanged
+     */
+    public boolean isTankPositionsUnchanged() {
+        return spawnedTanks.isEmpty() && diedTanks.isEmpty() && movedTanks.isEmpty() && turnedTanks.isEmpty();
+    }
+
+    /**
+     * Determines whether the snapshots are the same, as far as this diff can tell.
+     * 
+     * @return whether there are no differences at all
+     */
+    public boolean isEmpty() {
+        return isTankPositionsUnchanged() && queueLengthChangedTanks.isEmpty() && appearedBullets.isEmpty()
+                && disappearedBullets.isEmpty();
+    }
+}
@@ -5,7 +5,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -14,6 +13,9 @@ import lombok.Getter;
 /**
  * Leaderboard.
  * 
+ * A leaderboard is immutable. Everything the bot looks up during a turn is indexed when the leaderboard is created:
+ * the sorted positions, each player's position by name, and the rendered table.
+ * 
  * @author Martijn van de Rijdt
  */
 public class Leaderboard {
@@ -31,6 +33,12 @@ public class Leaderboard {
     private final long creationTime;
     /** Map of the players, using their position as index. */
     private final Map<Integer, Collection<Player>> playersByPosition;
+    /** All positions, in increasing order. */
+    private final List<Integer> positions;
+    /** Players and their positions, indexed by player name. */
+    private final Map<String, PlayerAndPosition> positionsByName;
+    /** Leaderboard table, as returned by {@link #toString()}. */
+    private final String table;
 
     /**
      * Constructor.
@@ -66,6 +74,23 @@ public class Leaderboard {
             position = position + playersForScore.size();
         }
         this.playersByPosition = Collections.unmodifiableMap(tempPlayersByPosition);
+
+        List<Integer> tempPositions = new ArrayList<>(playersByPosition.keySet());
+        Collections.sort(tempPositions);
+        this.positions = Collections.unmodifiableList(tempPositions);
+
+        // In case of duplicate names, the player in the best position wins.
+        Map<String, PlayerAndPosition> tempPositionsByName = new HashMap<>(players.size());
+        for (Integer tempPosition : positions) {
+            for (Player player : playersByPosition.get(tempPosition)) {
+                if (!tempPositionsByName.containsKey(player.getName())) {
+                    tempPositionsByName.put(player.getName(), new PlayerAndPosition(player, tempPosition.intValue()));
+                }
+            }
+        }
+        this.positionsByName = tempPositionsByName;
+
+        this.table = buildTable();
     }
 
     /**
@@ -83,16 +108,23 @@ public class Leaderboard {
         return result;
     }
 
-    /** @return a list of all positions in increasing order */
+    /** @return an unmodifiable list of all positions in increasing order */
     public List<Integer> retrievePositions() {
-        List<Integer> positions = new ArrayList<>(playersByPosition.keySet());
-        Collections.sort(positions);
         return positions;
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString() {
+        return table;
+    }
+
+    /**
+     * Renders the leaderboard as a table.
+     * 
+     * @return table
+     */
+    private String buildTable() {
         StringBuffer result = new StringBuffer();
         if (playersByPosition.isEmpty()) {
             result.append("No players!");
@@ -110,7 +142,6 @@ public class Leaderboard {
                     maxDeathsLength = Math.max(maxDeathsLength, ("" + player.getDeaths()).length());
                 }
             }
-            List<Integer> positions = retrievePositions();
             int maxPositionLength = Math.max(("" + positions.get(positions.size() - 1)).length(), 3);
 
             // Table header
@@ -171,18 +202,6 @@ public class Leaderboard {
      * @return player and their position, or null if unavailable
      */
     public PlayerAndPosition retrievePosition(String playerName) {
-        PlayerAndPosition result = null;
-        Iterator<Integer> positionsIterator = retrievePositions().iterator();
-        while (result == null && positionsIterator.hasNext()) {
-            Integer position = positionsIterator.next();
-            Iterator<Player> playerIterator = this.playersByPosition.get(position).iterator();
-            while (result == null && playerIterator.hasNext()) {
-                Player player = playerIterator.next();
-                if (playerName.equals(player.getName())) {
-                    result = new PlayerAndPosition(player, position.intValue());
-                }
-            }
-        }
-        return result;
+        return positionsByName.get(playerName);
     }
 }
@@ -1,6 +1,5 @@
 package nl.mvdr.devnobot.model;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 import lombok.ToString;
@@ -8,6 +7,11 @@ import lombok.ToString;
 /**
  * Representation of the boundaries of the playing field.
  * 
+ * The boundary consists of a static part, determined by the walls, and a dynamic part, determined by the tanks. Since
+ * the walls never change, the boundary of the walls can be computed once per level, using
+ * {@link #buildLevelBoundary(Collection)}, after which the tanks of every snapshot are folded in using
+ * {@link #include(Collection)}.
+ * 
  * @author Martijn van de Rijdt
  */
 @ToString(callSuper = true)
@@ -26,25 +30,61 @@ public class LevelBoundary extends GameObject {
      * @return level boundaries
      */
     public static LevelBoundary buildLevelBoundary(Collection<Wall> walls, Collection<Tank> tanks) {
-        // build a single collection containing both tanks and walls
-        Collection<GameObject> objects = new ArrayList<>(tanks.size() + walls.size());
-        objects.addAll(tanks);
-        objects.addAll(walls);
+        return buildLevelBoundary(walls).include(tanks);
+    }
 
+    /**
+     * Constructs the static part of the level boundaries, which only depends on the walls.
+     * 
+     * @param walls
+     *            walls in the level
+     * @return level boundaries for the walls alone
+     */
+    public static LevelBoundary buildLevelBoundary(Collection<Wall> walls) {
         int minX = Integer.MAX_VALUE;
         int maxX = Integer.MIN_VALUE;
         int minY = Integer.MAX_VALUE;
         int maxY = Integer.MIN_VALUE;
-        for (GameObject object : objects) {
-            minX = Math.min(minX, object.getX());
-            maxX = Math.max(maxX, object.computeMaxX());
-            minY = Math.min(minY, object.getY());
-            maxY = Math.max(maxY, object.computeMaxY());
+        for (Wall wall : walls) {
+            minX = Math.min(minX, wall.getX());
+            maxX = Math.max(maxX, wall.computeMaxX());
+            minY = Math.min(minY, wall.getY());
+            maxY = Math.max(maxY, wall.computeMaxY());
         }
 
         return new LevelBoundary(minX, minY, maxX - minX, maxY - minY);
     }
 
+    /**
+     * Extends these level boundaries to include the given tanks.
+     * 
+     * @param tanks
+     *            current tanks in the level
+     * @return level boundaries including the tanks; this object itself if all tanks are already within bounds
+     */
+    public LevelBoundary include(Collection<Tank> tanks) {
+        // Note that for a boundary without any walls, the maximum coordinates overflow to Integer.MIN_VALUE, so that
+        // the result is the bounding box of the tanks.
+        int minX = getX();
+        int maxX = computeMaxX();
+        int minY = getY();
+        int maxY = computeMaxY();
+        for (Tank tank : tanks) {
+            minX = Math.min(minX, tank.getX());
+            maxX = Math.max(maxX, tank.computeMaxX());
+            minY = Math.min(minY, tank.getY());
+            maxY = Math.max(maxY, tank.computeMaxY());
+        }
+
+        LevelBoundary result;
+        if (minX == getX() && maxX == computeMaxX() && minY == getY() && maxY == computeMaxY()) {
+            result = this;
+        } else {
+            result = new LevelBoundary(minX, minY, maxX - minX, maxY - minY);
+        }
+        return result;
+    }
+
     /**
      * Constructor.
      * 
@@ -0,0 +1,172 @@
+package nl.mvdr.devnobot.model;
+
+import lombok.ToString;
+
+/**
+ * Table containing, for every bullet spawn location in the level and every direction, the first wall the bullet would
+ * hit.
+ * 
+ * Walls are static, so the first wall in a bullet's path only depends on its spawn location and direction. Entries
+ * are computed the first time they are needed, by a ray cast through the walls' {@link SpatialIndex}, and reused for
+ * the rest of the game. The table holds an unsigned 16 bit entry per pixel of the walls' bounding box per direction;
+ * the table for a direction is only allocated when it is first used.
+ * 
+ * Entries are computed without the level boundary, since it depends on the positions of the tanks. The boundary is
+ * applied when an entry is looked up: if the bullet leaves the level before it reaches the first wall, it does not hit
+ * any wall at all.
+ * 
+ * Lookups for bullets outside of the walls' bounding box, or of a different size than when the table was created, fall
+ * back to a ray cast.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "width", "height", "bulletWidth", "bulletHeight", "enabled" })
+class LineOfFireTable {
+    /** Entry value for an entry which has not been computed yet. */
+    private static final int UNKNOWN = 0;
+    /** Entry value for a bullet which does not hit any wall. Other values are the wall's index plus two. */
+    private static final int NO_WALL = 1;
+    /** Largest number of walls which can be represented in an entry. */
+    private static final int MAX_WALLS = 0xFFFF - 2;
+    /** Largest number of entries per direction; about 8 MB. */
+    private static final int MAX_ENTRIES = 1 << 22;
+
+    /** Index of the walls. */
+    private final SpatialIndex<Wall> index;
+    /** X coordinate of the top left corner of the table. */
+    private final int originX;
+    /** Y coordinate of the top left corner of the table. */
+    private final int originY;
+    /** Width of the table. */
+    private final int width;
+    /** Height of the table. */
+    private final int height;
+    /** Bullet width for which the table is valid. */
+    private final int bulletWidth;
+    /** Bullet height for which the table is valid. */
+    private final int bulletHeight;
+    /** Whether the table is used at all. If not, all lookups are ray casts. */
+    private final boolean enabled;
+    /** Entries, per direction; see {@link #computeDirection(BulletRay)}. Null until the first lookup. */
+    private final short[][] entries;
+
+    /**
+     * Constructor.
+     * 
+     * @param index
+     *            index of the walls
+     * @param area
+     *            bounding box of the walls
+     */
+    LineOfFireTable(SpatialIndex<Wall> index, GameObject area) {
+        super();
+        this.index = index;
+        this.originX = area.getX();
+        this.originY = area.getY();
+        this.width = Math.max(area.getWidth(), 0);
+        this.height = Math.max(area.getHeight(), 0);
+        this.bulletWidth = Bullet.getBulletWidth();
+        this.bulletHeight = Bullet.getBulletHeight();
+        this.enabled = 0 < width && 0 < height && (long) width * height <= MAX_ENTRIES
+                && index.getObjects().size() <= MAX_WALLS && 0 < bulletWidth && 0 < bulletHeight;
+        this.entries = new short[Orientation.values().length][];
+    }
+
+    /**
+     * Finds the wall which the given bullet would hit first.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @return wall which would be hit, or null if there is none
+     */
+    Wall findFirstHit(BulletRay ray) {
+        int x;
+        int y;
+        int rayWidth;
+        int rayHeight;
+        if (ray.isHorizontal()) {
+            x = ray.getStart();
+            y = ray.getCrossStart();
+            rayWidth = ray.getLength();
+            rayHeight = ray.getCrossLength();
+        } else {
+            x = ray.getCrossStart();
+            y = ray.getStart();
+            rayWidth = ray.getCrossLength();
+            rayHeight = ray.getLength();
+        }
+
+        Wall result;
+        if (enabled && rayWidth == bulletWidth && rayHeight == bulletHeight && originX <= x && x < originX + width
+                && originY <= y && y < originY + height) {
+            int direction = computeDirection(ray);
+            if (entries[direction] == null) {
+                entries[direction] = new short[width * height];
+            }
+            int position = (y - originY) * width + x - originX;
+            int entry = entries[direction][position] & 0xFFFF;
+            if (entry == UNKNOWN) {
+                entry = computeEntry(ray);
+                entries[direction][position] = (short) entry;
+            }
+            if (entry == NO_WALL) {
+                result = null;
+            } else {
+                result = index.get(entry - 2);
+                if (ray.computeFirstStep(result) == -1) {
+                    // The bullet leaves the level before reaching the wall.
+                    result = null;
+                }
+            }
+        } else {
+            result = index.findFirstHit(ray, ray.getMaxStep());
+        }
+        return result;
+    }
+
+    /**
+     * Computes the direction of the given trajectory, as an index in {@link #entries}.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @return index between 0 and 3
+     */
+    private static int computeDirection(BulletRay ray) {
+        int result;
+        if (ray.isHorizontal()) {
+            result = 2;
+        } else {
+            result = 0;
+        }
+        if (0 < ray.getSign()) {
+            result++;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the entry for the given trajectory, ignoring the level boundary.
+     * 
+     * @param ray
+     *            bullet trajectory, starting within the table
+     * @return entry value
+     */
+    private int computeEntry(BulletRay ray) {
+        int extent;
+        if (ray.isHorizontal()) {
+            extent = width;
+        } else {
+            extent = height;
+        }
+        // Enough steps to leave the bounding box of the walls, from any position within the table.
+        int maxStep = (extent + ray.getLength()) / ray.getDistance() + 1;
+        int wall = index.findIndexOfFirstHit(new BulletRay(ray, maxStep), maxStep);
+        int result;
+        if (wall == -1) {
+            result = NO_WALL;
+        } else {
+            result = wall + 2;
+        }
+        return result;
+    }
+}
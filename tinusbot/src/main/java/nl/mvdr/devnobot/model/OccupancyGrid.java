@@ -0,0 +1,238 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Raster of the cells in a level which are occupied by walls, for constant time overlap queries.
+ * 
+ * The resolution of the raster is the greatest common divisor of the walls' coordinates and sizes, relative to the top
+ * left corner of the level. In typical levels, where everything is aligned to a grid, this is the size of a grid cell
+ * or of a tank's step. Every cell is then either completely covered by walls or not at all, which makes the raster
+ * exact: an object overlaps a wall if and only if it overlaps an occupied cell.
+ * 
+ * The raster is built as a bitmap and then stored as a summed-area table, which contains for every cell the number of
+ * occupied cells above and to the left of it. The number of occupied cells in any rectangle follows from four entries
+ * of the table. Since walls never change, the table is built once per level.
+ * 
+ * Walls which are not aligned to a common grid can drive the resolution down to a single pixel. If the table would
+ * then get too large, the raster is disabled and the caller has to fall back to another way of answering queries.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "resolution", "columns", "rows", "enabled" })
+public class OccupancyGrid {
+    /** Largest number of entries in the summed-area table; about 4 MB. */
+    private static final long MAX_ENTRIES = 1L << 20;
+
+    /** X coordinate of the top left corner of the raster. */
+    private final int originX;
+    /** Y coordinate of the top left corner of the raster. */
+    private final int originY;
+    /** Width and height of a cell. */
+    @Getter
+    private final int resolution;
+    /** Number of columns of cells. */
+    private final int columns;
+    /** Number of rows of cells. */
+    private final int rows;
+    /** Whether the raster is used at all; if false, {@link #overlaps(GameObject)} is meaningless. */
+    @Getter
+    private final boolean enabled;
+    /**
+     * Summed-area table. The entry for (column, row), at index row * (columns + 1) + column, contains the number of
+     * occupied cells in the columns before column and the rows before row.
+     */
+    private final int[] table;
+
+    /**
+     * Constructor.
+     * 
+     * @param walls
+     *            walls
+     * @param area
+     *            area containing all walls, typically the level boundary for the walls
+     */
+    public OccupancyGrid(Collection<Wall> walls, GameObject area) {
+        super();
+        this.originX = area.getX();
+        this.originY = area.getY();
+        int size = Math.max(area.getWidth(), 0);
+        size = gcd(size, Math.max(area.getHeight(), 0));
+        for (Wall wall : walls) {
+            size = gcd(size, wall.getX() - originX);
+            size = gcd(size, wall.computeMaxX() - originX);
+            size = gcd(size, wall.getY() - originY);
+            size = gcd(size, wall.computeMaxY() - originY);
+        }
+        this.resolution = Math.max(size, 1);
+        int width = Math.max(area.getWidth(), 0) / resolution;
+        int height = Math.max(area.getHeight(), 0) / resolution;
+        this.enabled = (width + 1L) * (height + 1L) <= MAX_ENTRIES;
+        if (enabled) {
+            this.columns = width;
+            this.rows = height;
+        } else {
+            this.columns = 0;
+            this.rows = 0;
+        }
+
+        // Bitmap of the occupied cells, one row after the other.
+        BitSet occupied = new BitSet(columns * rows);
+        for (Wall wall : walls) {
+            int minColumn = Math.max(0, (wall.getX() - originX) / resolution);
+            int maxColumn = Math.min(columns, (wall.computeMaxX() - originX) / resolution);
+            int minRow = Math.max(0, (wall.getY() - originY) / resolution);
+            int maxRow = Math.min(rows, (wall.computeMaxY() - originY) / resolution);
+            for (int row = minRow; row < maxRow; row++) {
+                if (minColumn < maxColumn) {
+                    occupied.set(row * columns + minColumn, row * columns + maxColumn);
+                }
+            }
+        }
+
+        this.table = new int[(columns + 1) * (rows + 1)];
+        for (int row = 0; row != rows; row++) {
+            int rowSum = 0;
+            for (int column = 0; column != columns; column++) {
+                if (occupied.get(row * columns + column)) {
+                    rowSum++;
+                }
+                table[(row + 1) * (columns + 1) + column + 1] = table[row * (columns + 1) + column + 1] + rowSum;
+            }
+        }
+    }
+
+    /**
+     * Computes the greatest common divisor.
+     * 
+     * @param a
+     *            first number
+     * @param b
+     *            second number
+     * @return greatest common divisor of the absolute values of a and b; 0 if both are 0
+     */
+    private static int gcd(int a, int b) {
+        int result = Math.abs(a);
+        int remainder = Math.abs(b);
+        while (remainder != 0) {
+            int next = result % remainder;
+            result = remainder;
+            remainder = next;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the index of the first cell which ends after the given offset from the origin, clamped to the raster.
+     * 
+     * @param offset
+     *            offset from the origin
+     * @param count
+     *            number of cells in the raster, in the relevant direction
+     * @return cell index between 0 and count (inclusive)
+     */
+    private int computeFirstCell(int offset, int count) {
+        int result;
+        if (offset <= 0) {
+            result = 0;
+        } else {
+            result = Math.min(offset / resolution, count);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the index of the first cell which starts at or after the given offset from the origin, clamped to the
+     * raster.
+     * 
+     * @param offset
+     *            offset from the origin
+     * @param count
+     *            number of cells in the raster, in the relevant direction
+     * @return cell index between 0 and count (inclusive)
+     */
+    private int computeEndCell(int offset, int count) {
+        int result;
+        if (offset <= 0) {
+            result = 0;
+        } else {
+            result = Math.min((offset + resolution - 1) / resolution, count);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the occupied cells which overlap with the given object.
+     * 
+     * @param object
+     *            object
+     * @return number of occupied cells
+     */
+    public int countOccupiedCells(GameObject object) {
+        return countOccupiedCells(object.getX(), object.getY(), object.getWidth(), object.getHeight());
+    }
+
+    /**
+     * Counts the occupied cells which overlap with the given rectangle.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @return number of occupied cells
+     */
+    public int countOccupiedCells(int x, int y, int width, int height) {
+        int minColumn = computeFirstCell(x - originX, columns);
+        int maxColumn = computeEndCell(x + width - originX, columns);
+        int minRow = computeFirstCell(y - originY, rows);
+        int maxRow = computeEndCell(y + height - originY, rows);
+        int result;
+        if (minColumn < maxColumn && minRow < maxRow) {
+            result = table[maxRow * (columns + 1) + maxColumn] - table[minRow * (columns + 1) + maxColumn]
+                    - table[maxRow * (columns + 1) + minColumn] + table[minRow * (columns + 1) + minColumn];
+        } else {
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given object overlaps with any of the walls, in constant time.
+     * 
+     * Equivalent to {@link GameObject#overlaps(Collection)} on the walls, provided the raster is enabled and the object
+     * and the walls all have a positive width and height.
+     * 
+     * @param object
+     *            object, such as a tank in a position it might move to
+     * @return whether the object overlaps with a wall
+     */
+    public boolean overlaps(GameObject object) {
+        return countOccupiedCells(object) != 0;
+    }
+
+    /**
+     * Determines whether the given rectangle overlaps with any of the walls, in constant time. Only meaningful if the
+     * raster is enabled.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle; must be positive
+     * @param height
+     *            height of the rectangle; must be positive
+     * @return whether the rectangle overlaps with a wall
+     */
+    public boolean overlaps(int x, int y, int width, int height) {
+        return countOccupiedCells(x, y, width, height) != 0;
+    }
+}
@@ -54,6 +54,27 @@ public enum Orientation {
         return result;
     }
 
+    /**
+     * Returns the corresponding CGI orientation.
+     * 
+     * @return CGI orientation
+     */
+    public com.cgi.devnobot.api.Orientation toAPIOrientation() {
+        com.cgi.devnobot.api.Orientation result;
+        if (this == NORTH) {
+            result = com.cgi.devnobot.api.Orientation.UP;
+        } else if (this == EAST) {
+            result = com.cgi.devnobot.api.Orientation.RIGHT;
+        } else if (this == SOUTH) {
+            result = com.cgi.devnobot.api.Orientation.DOWN;
+        } else if (this == WEST) {
+            result = com.cgi.devnobot.api.Orientation.LEFT;
+        } else {
+            throw new IllegalStateException("Unexpected orientation: " + this);
+        }
+        return result;
+    }
+
     /**
      * Determines the next orientation when turning right.
      * 
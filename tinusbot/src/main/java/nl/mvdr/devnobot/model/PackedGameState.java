@@ -0,0 +1,358 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Read-only representation of a {@link GameState} as parallel arrays of primitives, for bulk queries over all tanks or
+ * bullets.
+ * 
+ * Every tank and bullet is identified by its index, in the iteration order of the game state's collections. Positions
+ * and sizes are kept in int arrays, orientations as ordinals, and player names are interned into small int ids, so that
+ * queries over all tanks are tight loops over arrays instead of iterations over objects. The object model remains
+ * available: {@link #getTank(int)} and {@link #getBullet(int)} return the original objects.
+ * 
+ * The batch queries are written without branches in the loop body, so that the JIT compiler can compile them into
+ * vector instructions where the platform supports it.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "tankCount", "bulletCount", "players" })
+public class PackedGameState {
+    /** Orientation value for a tank whose orientation is unknown. */
+    public static final int UNKNOWN_ORIENTATION = -1;
+    /** Player id for a player name which does not occur in the game state. */
+    public static final int UNKNOWN_PLAYER = -1;
+
+    /** Game state. */
+    @Getter
+    @NonNull
+    private final GameState state;
+    /** Tanks, by index. */
+    private final Tank[] tanks;
+    /** Bullets, by index. */
+    private final Bullet[] bullets;
+    /** Number of tanks. */
+    @Getter
+    private final int tankCount;
+    /** Number of bullets. */
+    @Getter
+    private final int bulletCount;
+
+    /** X coordinates of the tanks. */
+    private final int[] tankX;
+    /** Y coordinates of the tanks. */
+    private final int[] tankY;
+    /** Widths of the tanks. */
+    private final int[] tankWidth;
+    /** Heights of the tanks. */
+    private final int[] tankHeight;
+    /** Orientations of the tanks, as ordinals, or {@link #UNKNOWN_ORIENTATION}. */
+    private final int[] tankOrientation;
+    /** Player ids of the tanks. */
+    private final int[] tankPlayer;
+
+    /** X coordinates of the bullets. */
+    private final int[] bulletX;
+    /** Y coordinates of the bullets. */
+    private final int[] bulletY;
+    /** Widths of the bullets. */
+    private final int[] bulletWidth;
+    /** Heights of the bullets. */
+    private final int[] bulletHeight;
+
+    /** Player names, by id. */
+    private final List<String> players;
+    /** Player ids, by name. */
+    private final Map<String, Integer> playerIds;
+
+    /**
+     * Constructor.
+     * 
+     * @param state
+     *            game state
+     */
+    public PackedGameState(GameState state) {
+        super();
+        this.state = state;
+        this.tanks = state.getTanks().toArray(new Tank[state.getTanks().size()]);
+        this.bullets = state.getBullets().toArray(new Bullet[state.getBullets().size()]);
+        this.tankCount = tanks.length;
+        this.bulletCount = bullets.length;
+
+        this.tankX = new int[tankCount];
+        this.tankY = new int[tankCount];
+        this.tankWidth = new int[tankCount];
+        this.tankHeight = new int[tankCount];
+        this.tankOrientation = new int[tankCount];
+        this.tankPlayer = new int[tankCount];
+        this.players = new ArrayList<>(tankCount);
+        this.playerIds = new HashMap<>();
+        for (int i = 0; i != tankCount; i++) {
+            Tank tank = tanks[i];
+            tankX[i] = tank.getX();
+            tankY[i] = tank.getY();
+            tankWidth[i] = tank.getWidth();
+            tankHeight[i] = tank.getHeight();
+            if (tank.getLastKnownOrientation() == null) {
+                tankOrientation[i] = UNKNOWN_ORIENTATION;
+            } else {
+                tankOrientation[i] = tank.getLastKnownOrientation().ordinal();
+            }
+            Integer id = playerIds.get(tank.getPlayer());
+            if (id == null) {
+                id = Integer.valueOf(players.size());
+                players.add(tank.getPlayer());
+                playerIds.put(tank.getPlayer(), id);
+            }
+            tankPlayer[i] = id.intValue();
+        }
+
+        this.bulletX = new int[bulletCount];
+        this.bulletY = new int[bulletCount];
+        this.bulletWidth = new int[bulletCount];
+        this.bulletHeight = new int[bulletCount];
+        for (int i = 0; i != bulletCount; i++) {
+            Bullet bullet = bullets[i];
+            bulletX[i] = bullet.getX();
+            bulletY[i] = bullet.getY();
+            bulletWidth[i] = bullet.getWidth();
+            bulletHeight[i] = bullet.getHeight();
+        }
+    }
+
+    /**
+     * Returns the tank with the given index.
+     * 
+     * @param index
+     *            index, between 0 (inclusive) and the number of tanks (exclusive)
+     * @return tank
+     */
+    public Tank getTank(int index) {
+        return tanks[index];
+    }
+
+    /**
+     * Returns the bullet with the given index.
+     * 
+     * @param index
+     *            index, between 0 (inclusive) and the number of bullets (exclusive)
+     * @return bullet
+     */
+    public Bullet getBullet(int index) {
+        return bullets[index];
+    }
+
+    /**
+     * Returns the player id of the tank with the given index.
+     * 
+     * @param index
+     *            tank index
+     * @return player id
+     */
+    public int getTankPlayer(int index) {
+        return tankPlayer[index];
+    }
+
+    /**
+     * Returns the orientation of the tank with the given index.
+     * 
+     * @param index
+     *            tank index
+     * @return orientation ordinal, or {@link #UNKNOWN_ORIENTATION}
+     */
+    public int getTankOrientation(int index) {
+        return tankOrientation[index];
+    }
+
+    /**
+     * Looks up the id of the given player.
+     * 
+     * @param name
+     *            player name
+     * @return player id, or {@link #UNKNOWN_PLAYER} if the player does not own a tank
+     */
+    public int retrievePlayerId(String name) {
+        Integer id = playerIds.get(name);
+        int result;
+        if (id == null) {
+            result = UNKNOWN_PLAYER;
+        } else {
+            result = id.intValue();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the name of the player with the given id.
+     * 
+     * @param id
+     *            player id
+     * @return player name
+     */
+    public String retrievePlayerName(int id) {
+        return players.get(id);
+    }
+
+    /**
+     * Finds the tanks which overlap the given rectangle.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @param result
+     *            array to store the indices of the overlapping tanks in, in increasing order; must have room for all
+     *            tanks
+     * @return number of overlapping tanks
+     */
+    public int findOverlappingTanks(int x, int y, int width, int height, int[] result) {
+        return findOverlapping(tankX, tankY, tankWidth, tankHeight, tankCount, x, y, width, height, result);
+    }
+
+    /**
+     * Finds the bullets which overlap the given rectangle.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @param result
+     *            array to store the indices of the overlapping bullets in, in increasing order; must have room for all
+     *            bullets
+     * @return number of overlapping bullets
+     */
+    public int findOverlappingBullets(int x, int y, int width, int height, int[] result) {
+        return findOverlapping(bulletX, bulletY, bulletWidth, bulletHeight, bulletCount, x, y, width, height, result);
+    }
+
+    /**
+     * Determines whether the given rectangle overlaps any tank which does not belong to the given player.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @param player
+     *            id of the player whose tanks are to be ignored; may be {@link #UNKNOWN_PLAYER}
+     * @return whether there is an overlapping enemy tank
+     */
+    public boolean overlapsEnemyTank(int x, int y, int width, int height, int player) {
+        int maxX = x + width;
+        int maxY = y + height;
+        boolean result = false;
+        for (int i = 0; i != tankCount; i++) {
+            result |= (tankX[i] < maxX) & (x < tankX[i] + tankWidth[i]) & (tankY[i] < maxY)
+                    & (y < tankY[i] + tankHeight[i]) & (tankPlayer[i] != player);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the tanks which are aiming at the given rectangle, that is, the tanks whose bullet would hit the rectangle
+     * if it were the only object in the level and the level had no boundary.
+     * 
+     * This is a necessary condition for a tank to have a shot at the rectangle; whether there are walls, other tanks or
+     * the level boundary in between is not checked. Tanks of an unknown orientation are not aiming at anything.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @param result
+     *            array to store the indices of the tanks in, in increasing order; must have room for all tanks
+     * @return number of tanks aiming at the rectangle
+     */
+    public int findTanksAimingAt(int x, int y, int width, int height, int[] result) {
+        int maxX = x + width;
+        int maxY = y + height;
+        int bw = Bullet.getBulletWidth();
+        int bh = Bullet.getBulletHeight();
+        int north = Orientation.NORTH.ordinal();
+        int east = Orientation.EAST.ordinal();
+        int south = Orientation.SOUTH.ordinal();
+        int west = Orientation.WEST.ordinal();
+        int count = 0;
+        for (int i = 0; i != tankCount; i++) {
+            // Same spawn location as Tank.computeBulletSpawnLocation().
+            int bulletX = tankX[i] + tankWidth[i] / 2 - bw / 2;
+            int bulletY = tankY[i] + tankHeight[i] / 2 - bh / 2;
+            boolean inColumn = (x < bulletX + bw) & (bulletX < maxX);
+            boolean inRow = (y < bulletY + bh) & (bulletY < maxY);
+            int orientation = tankOrientation[i];
+            // The rectangle must be in the bullet's path, and not entirely behind the bullet.
+            boolean aiming = (orientation == north) & inColumn & (y < bulletY + bh)
+                    | (orientation == south) & inColumn & (bulletY < maxY)
+                    | (orientation == east) & inRow & (bulletX < maxX)
+                    | (orientation == west) & inRow & (x < bulletX + bw);
+            result[count] = i;
+            count += aiming ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the rectangles which overlap a given rectangle.
+     * 
+     * The rectangles are given as parallel arrays. The indices of the overlapping ones are stored without branching:
+     * every index is written, but only counted if its rectangle overlaps.
+     * 
+     * @param xs
+     *            x coordinates of the rectangles
+     * @param ys
+     *            y coordinates of the rectangles
+     * @param widths
+     *            widths of the rectangles
+     * @param heights
+     *            heights of the rectangles
+     * @param count
+     *            number of rectangles
+     * @param x
+     *            x coordinate of the given rectangle
+     * @param y
+     *            y coordinate of the given rectangle
+     * @param width
+     *            width of the given rectangle
+     * @param height
+     *            height of the given rectangle
+     * @param result
+     *            array to store the indices of the overlapping rectangles in, in increasing order; must have room for
+     *            count indices
+     * @return number of overlapping rectangles
+     */
+    public static int findOverlapping(int[] xs, int[] ys, int[] widths, int[] heights, int count, int x, int y,
+            int width, int height, int[] result) {
+        int maxX = x + width;
+        int maxY = y + height;
+        int found = 0;
+        for (int i = 0; i != count; i++) {
+            // Same condition as GameObject.overlaps(GameObject).
+            boolean overlap = (xs[i] < maxX) & (x < xs[i] + widths[i]) & (ys[i] < maxY) & (y < ys[i] + heights[i]);
+            result[found] = i;
+            found += overlap ? 1 : 0;
+        }
+        return found;
+    }
+}
@@ -1,6 +1,5 @@
 package nl.mvdr.devnobot.model;
 
-import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
@@ -14,7 +13,7 @@ import com.cgi.devnobot.api.GamePlayer;
  */
 @ToString
 @Getter
-@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@RequiredArgsConstructor
 public class Player {
     /** Player name. */
     private final String name;
@@ -0,0 +1,415 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Uniform grid index over a collection of game objects, for fast overlap and bullet trajectory queries.
+ * 
+ * The area covered by the index is divided into square cells. Every object is registered in each of the cells it
+ * covers. A query only looks at the objects registered in the cells covered by the query object, instead of at every
+ * object in the collection. Objects and queries outside of the covered area are clamped to the cells along its edge, so
+ * results are always correct; they are merely slower for objects far outside the area.
+ * 
+ * The contents of the cells are stored in two flat arrays: for every cell, the offset of its first entry, and for every
+ * entry, the index of the object in the original collection. Indexes are immutable. Building an index takes time
+ * linear in the number of objects, so an index over walls should be built once per level; an index over tanks can be
+ * built every tick as an overlay with the same cell geometry, see {@link #createOverlay(Collection)}.
+ * 
+ * @param <T>
+ *            type of the objects in the index
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "cellSize", "columns", "rows" })
+public class SpatialIndex<T extends GameObject> {
+    /** Smallest cell size. */
+    private static final int MIN_CELL_SIZE = 8;
+    /** Largest number of cells in either direction. */
+    private static final int MAX_CELLS = 1024;
+
+    /** X coordinate of the top left corner of the covered area. */
+    private final int originX;
+    /** Y coordinate of the top left corner of the covered area. */
+    private final int originY;
+    /** Width and height of a cell. */
+    @Getter
+    private final int cellSize;
+    /** Number of columns of cells. */
+    private final int columns;
+    /** Number of rows of cells. */
+    private final int rows;
+    /** Indexed objects, in the order of the original collection. */
+    private final List<T> objects;
+    /**
+     * For every cell, the offset in {@link #entries} of its first entry. Has one extra element at the end, so the
+     * entries for cell c are at offsets cellStart[c] up to (excluding) cellStart[c + 1].
+     */
+    private final int[] cellStart;
+    /** Indexes in {@link #objects} of the objects registered in each cell, grouped by cell, in ascending order. */
+    private final int[] entries;
+
+    /**
+     * Creates an index with a cell size suited to the given objects: the average of their larger dimension.
+     * 
+     * @param objects
+     *            objects to be indexed
+     * @param area
+     *            area to be covered by the index, typically the level boundary
+     * @return index
+     */
+    public static <T extends GameObject> SpatialIndex<T> create(Collection<? extends T> objects, GameObject area) {
+        long totalSize = 0;
+        for (GameObject object : objects) {
+            totalSize = totalSize + Math.max(object.getWidth(), object.getHeight());
+        }
+        int cellSize = MIN_CELL_SIZE;
+        if (!objects.isEmpty()) {
+            cellSize = Math.max(cellSize, (int) (totalSize / objects.size()));
+        }
+        return new SpatialIndex<>(objects, area.getX(), area.getY(), area.getWidth(), area.getHeight(), cellSize);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param objects
+     *            objects to be indexed
+     * @param originX
+     *            x coordinate of the top left corner of the covered area
+     * @param originY
+     *            y coordinate of the top left corner of the covered area
+     * @param width
+     *            width of the covered area
+     * @param height
+     *            height of the covered area
+     * @param cellSize
+     *            requested cell size; may be increased to limit the number of cells
+     */
+    private SpatialIndex(Collection<? extends T> objects, int originX, int originY, int width, int height,
+            int cellSize) {
+        super();
+        this.originX = originX;
+        this.originY = originY;
+        int size = Math.max(Math.max(cellSize, MIN_CELL_SIZE), divideRoundingUp(Math.max(width, height), MAX_CELLS));
+        this.cellSize = size;
+        this.columns = Math.max(1, divideRoundingUp(width, size));
+        this.rows = Math.max(1, divideRoundingUp(height, size));
+        this.objects = new ArrayList<>(objects);
+
+        // First pass: count the entries per cell. Second pass: fill them in.
+        int cellCount = columns * rows;
+        this.cellStart = new int[cellCount + 1];
+        for (T object : this.objects) {
+            int minColumn = computeColumn(Math.min(object.getX(), object.computeMaxX() - 1));
+            int maxColumn = computeColumn(Math.max(object.getX(), object.computeMaxX() - 1));
+            int minRow = computeRow(Math.min(object.getY(), object.computeMaxY() - 1));
+            int maxRow = computeRow(Math.max(object.getY(), object.computeMaxY() - 1));
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    cellStart[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell != cellCount; cell++) {
+            cellStart[cell + 1] = cellStart[cell + 1] + cellStart[cell];
+        }
+        this.entries = new int[cellStart[cellCount]];
+        int[] fill = new int[cellCount];
+        for (int i = 0; i != this.objects.size(); i++) {
+            T object = this.objects.get(i);
+            int minColumn = computeColumn(Math.min(object.getX(), object.computeMaxX() - 1));
+            int maxColumn = computeColumn(Math.max(object.getX(), object.computeMaxX() - 1));
+            int minRow = computeRow(Math.min(object.getY(), object.computeMaxY() - 1));
+            int maxRow = computeRow(Math.max(object.getY(), object.computeMaxY() - 1));
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    int cell = row * columns + column;
+                    entries[cellStart[cell] + fill[cell]] = i;
+                    fill[cell]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Divides, rounding up.
+     * 
+     * @param dividend
+     *            dividend; must not be negative
+     * @param divisor
+     *            divisor; must be positive
+     * @return quotient, rounded up
+     */
+    private static int divideRoundingUp(int dividend, int divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * Creates an index over other objects, with the same cell geometry as this one. This is cheap enough to do every
+     * tick, for instance for the tanks.
+     * 
+     * @param others
+     *            objects to be indexed
+     * @return index
+     */
+    public <U extends GameObject> SpatialIndex<U> createOverlay(Collection<? extends U> others) {
+        return new SpatialIndex<>(others, originX, originY, columns * cellSize, rows * cellSize, cellSize);
+    }
+
+    /**
+     * Computes the column of cells containing the given x coordinate, clamped to the grid.
+     * 
+     * @param x
+     *            x coordinate
+     * @return column
+     */
+    private int computeColumn(int x) {
+        int result = Math.max(x - originX, 0) / cellSize;
+        return Math.min(result, columns - 1);
+    }
+
+    /**
+     * Computes the row of cells containing the given y coordinate, clamped to the grid.
+     * 
+     * @param y
+     *            y coordinate
+     * @return row
+     */
+    private int computeRow(int y) {
+        int result = Math.max(y - originY, 0) / cellSize;
+        return Math.min(result, rows - 1);
+    }
+
+    /**
+     * Determines whether the given object overlaps with any of the objects in this index.
+     * 
+     * Equivalent to {@link GameObject#overlaps(Collection)} on the original collection.
+     * 
+     * @param object
+     *            object
+     * @return whether there is an overlapping object
+     */
+    public boolean overlaps(GameObject object) {
+        return findIndexOfOverlapping(object) != -1;
+    }
+
+    /**
+     * Determines whether the given rectangle overlaps with any of the objects in this index.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @return whether there is an overlapping object
+     */
+    public boolean overlaps(int x, int y, int width, int height) {
+        return findIndexOfOverlapping(x, y, width, height) != -1;
+    }
+
+    /**
+     * Finds an object in this index which overlaps with the given object. If there are several, the one which comes
+     * last in the original collection is returned.
+     * 
+     * @param object
+     *            object
+     * @return overlapping object, or null if there is none
+     */
+    public T findOverlapping(GameObject object) {
+        int index = findIndexOfOverlapping(object);
+        T result;
+        if (index == -1) {
+            result = null;
+        } else {
+            result = objects.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the index of the object in this index which overlaps with the given object and comes last in the original
+     * collection.
+     * 
+     * @param object
+     *            object
+     * @return index in {@link #objects}, or -1 if there is no overlapping object
+     */
+    private int findIndexOfOverlapping(GameObject object) {
+        return findIndexOfOverlapping(object.getX(), object.getY(), object.getWidth(), object.getHeight());
+    }
+
+    /**
+     * Finds the index of the object in this index which overlaps with the given rectangle and comes last in the
+     * original collection.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle
+     * @param height
+     *            height of the rectangle
+     * @return index in {@link #objects}, or -1 if there is no overlapping object
+     */
+    private int findIndexOfOverlapping(int x, int y, int width, int height) {
+        int result = -1;
+        int maxX = x + width;
+        int maxY = y + height;
+        int minColumn = computeColumn(Math.min(x, maxX - 1));
+        int maxColumn = computeColumn(Math.max(x, maxX - 1));
+        int minRow = computeRow(Math.min(y, maxY - 1));
+        int maxRow = computeRow(Math.max(y, maxY - 1));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                int cell = row * columns + column;
+                // Entries are in ascending order, so search backwards; objects with a lower index than the current
+                // result need not be checked.
+                int offset = cellStart[cell + 1] - 1;
+                while (cellStart[cell] <= offset && result < entries[offset]) {
+                    T other = objects.get(entries[offset]);
+                    if (x < other.computeMaxX() && other.getX() < maxX && y < other.computeMaxY()
+                            && other.getY() < maxY) {
+                        result = entries[offset];
+                    }
+                    offset--;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the object in this index which the given bullet would hit first.
+     * 
+     * Only the cells along the bullet's path are visited, nearest first, until the bullet's position at the best step
+     * found so far has been passed. If the bullet would hit several objects at the same step, the one which comes last
+     * in the original collection is returned.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @param maxStep
+     *            last step to consider
+     * @return object which would be hit, or null if there is none
+     */
+    T findFirstHit(BulletRay ray, int maxStep) {
+        int index = findIndexOfFirstHit(ray, maxStep);
+        T result;
+        if (index == -1) {
+            result = null;
+        } else {
+            result = objects.get(index);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the index of the object in this index which the given bullet would hit first.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @param maxStep
+     *            last step to consider
+     * @return index in the original collection, or -1 if no object would be hit
+     * @see #findFirstHit(BulletRay, int)
+     */
+    int findIndexOfFirstHit(BulletRay ray, int maxStep) {
+        int result = -1;
+        // Steps after this one need not be considered.
+        int resultStep = Math.min(maxStep, ray.getMaxStep());
+        if (0 <= resultStep) {
+            boolean horizontal = ray.isHorizontal();
+            int crossEnd = ray.getCrossStart() + ray.getCrossLength() - 1;
+            int minCross = computeCell(!horizontal, Math.min(ray.getCrossStart(), crossEnd));
+            int maxCross = computeCell(!horizontal, Math.max(ray.getCrossStart(), crossEnd));
+            int sign = ray.getSign();
+            int cell = computeCell(horizontal, computeEdge(ray, 0, -sign));
+            while (sign * cell <= sign * computeCell(horizontal, computeEdge(ray, resultStep, sign))) {
+                for (int cross = minCross; cross <= maxCross; cross++) {
+                    int gridCell;
+                    if (horizontal) {
+                        gridCell = cross * columns + cell;
+                    } else {
+                        gridCell = cell * columns + cross;
+                    }
+                    for (int offset = cellStart[gridCell]; offset != cellStart[gridCell + 1]; offset++) {
+                        int index = entries[offset];
+                        int step = ray.computeFirstStep(objects.get(index));
+                        if (step != -1 && (step < resultStep || step == resultStep && result < index)) {
+                            result = index;
+                            resultStep = step;
+                        }
+                    }
+                }
+                cell = cell + sign;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the coordinate of the bullet's front or back edge along its moving axis, at the given step.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @param step
+     *            step
+     * @param side
+     *            1 for the edge with the highest coordinate, -1 for the edge with the lowest coordinate
+     * @return coordinate of the first or last pixel of the bullet
+     */
+    private static int computeEdge(BulletRay ray, int step, int side) {
+        int position = ray.computePosition(step);
+        int end = position + ray.getLength() - 1;
+        int result;
+        if (0 < side) {
+            result = Math.max(position, end);
+        } else {
+            result = Math.min(position, end);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the column or row of cells containing the given coordinate, clamped to the grid.
+     * 
+     * @param horizontal
+     *            true to compute a column from an x coordinate, false to compute a row from a y coordinate
+     * @param coordinate
+     *            coordinate
+     * @return column or row
+     */
+    private int computeCell(boolean horizontal, int coordinate) {
+        int result;
+        if (horizontal) {
+            result = computeColumn(coordinate);
+        } else {
+            result = computeRow(coordinate);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves an object by its position in the original collection.
+     * 
+     * @param index
+     *            index in the original collection
+     * @return object
+     */
+    T get(int index) {
+        return objects.get(index);
+    }
+
+    /** @return indexed objects, in the order of the original collection */
+    public List<T> getObjects() {
+        return Collections.unmodifiableList(objects);
+    }
+}
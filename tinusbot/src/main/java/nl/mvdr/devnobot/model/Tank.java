@@ -45,7 +45,7 @@ public class Tank extends GameObject {
     }
 
     /**
-     * Constructor. Intended for use in unit tests.
+     * Constructor.
      * 
      * @param x
      *            x coordinate
@@ -66,7 +66,7 @@ public class Tank extends GameObject {
      * @param queueLength
      *            action queue length
      */
-    Tank(int x, int y, int width, int height, Orientation orientation, int actionDuration, int distancePerStep,
+    public Tank(int x, int y, int width, int height, Orientation orientation, int actionDuration, int distancePerStep,
             String player, int queueLength) {
         super(x, y, width, height);
         this.lastKnownOrientation = orientation;
@@ -48,7 +48,8 @@ public class TankPosition {
         result = prime * result + tank.getWidth();
         result = prime * result + tank.getX();
         result = prime * result + tank.getY();
-        result = prime * result + tank.getLastKnownOrientation().hashCode();
+        // Use the ordinal rather than the enum's identity hash code, so that iteration order is reproducible.
+        result = prime * result + tank.getLastKnownOrientation().ordinal();
         return result;
     }
 
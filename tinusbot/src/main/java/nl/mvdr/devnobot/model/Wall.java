@@ -22,7 +22,7 @@ public class Wall extends GameObject {
     }
 
     /**
-     * Constructor. Intended for use in unit tests.
+     * Constructor.
      * 
      * @param x
      *            x coordinate
@@ -33,7 +33,7 @@ public class Wall extends GameObject {
      * @param height
      *            height
      */
-    Wall(int x, int y, int width, int height) {
+    public Wall(int x, int y, int width, int height) {
         super(x, y, width, height);
     }
 }
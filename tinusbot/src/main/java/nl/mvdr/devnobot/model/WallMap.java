@@ -0,0 +1,131 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.Collection;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Precomputed structures for collision queries against the walls of a level.
+ * 
+ * Walls never change during a game, so a wall map is built once, when the level is read, and reused for every turn.
+ * Overlap queries are answered in constant time by an {@link OccupancyGrid}. When an object does overlap a wall, the
+ * {@link SpatialIndex} determines which one. If the occupancy grid is disabled because the walls are not aligned to
+ * a coarse enough grid, overlap queries use the spatial index as well. The first wall in a bullet's path is looked up
+ * in a {@link LineOfFireTable}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "index", "occupancy", "lineOfFire" })
+public class WallMap {
+    /** Walls. */
+    @Getter
+    private final Collection<Wall> walls;
+    /** Level boundary for the walls alone; see {@link LevelBoundary#include(Collection)} for adding the tanks. */
+    @Getter
+    private final LevelBoundary boundary;
+    /** Spatial index of the walls. */
+    @Getter
+    private final SpatialIndex<Wall> index;
+    /** Occupancy grid of the walls. */
+    @Getter
+    private final OccupancyGrid occupancy;
+    /** First wall in the line of fire, per bullet spawn location and direction. */
+    private final LineOfFireTable lineOfFire;
+
+    /**
+     * Constructor.
+     * 
+     * @param walls
+     *            walls in the level
+     */
+    public WallMap(Collection<Wall> walls) {
+        super();
+        this.walls = walls;
+        this.boundary = LevelBoundary.buildLevelBoundary(walls);
+        this.index = SpatialIndex.create(walls, boundary);
+        this.occupancy = new OccupancyGrid(walls, boundary);
+        this.lineOfFire = new LineOfFireTable(index, boundary);
+    }
+
+    /**
+     * Determines whether the given object overlaps with any of the walls.
+     * 
+     * @param object
+     *            object with a positive width and height
+     * @return whether there is an overlapping wall
+     */
+    public boolean overlaps(GameObject object) {
+        boolean result;
+        if (occupancy.isEnabled()) {
+            result = occupancy.overlaps(object);
+        } else {
+            result = index.overlaps(object);
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given rectangle overlaps with any of the walls.
+     * 
+     * @param x
+     *            x coordinate of the rectangle
+     * @param y
+     *            y coordinate of the rectangle
+     * @param width
+     *            width of the rectangle; must be positive
+     * @param height
+     *            height of the rectangle; must be positive
+     * @return whether there is an overlapping wall
+     */
+    public boolean overlaps(int x, int y, int width, int height) {
+        boolean result;
+        if (occupancy.isEnabled()) {
+            result = occupancy.overlaps(x, y, width, height);
+        } else {
+            result = index.overlaps(x, y, width, height);
+        }
+        return result;
+    }
+
+    /**
+     * Finds a wall which overlaps with the given object. If there are several, the one which comes last in the
+     * collection of walls is returned.
+     * 
+     * @param object
+     *            object with a positive width and height
+     * @return overlapping wall, or null if there is none
+     */
+    public Wall findOverlapping(GameObject object) {
+        Wall result;
+        if (!occupancy.isEnabled() || occupancy.overlaps(object)) {
+            result = index.findOverlapping(object);
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the wall which the given bullet would hit first.
+     * 
+     * @param ray
+     *            bullet trajectory
+     * @return wall which would be hit, or null if there is none
+     */
+    Wall findFirstHit(BulletRay ray) {
+        return lineOfFire.findFirstHit(ray);
+    }
+
+    /**
+     * Creates a spatial index over other objects, such as the tanks in the current turn, with the same cell geometry
+     * as the index of the walls.
+     * 
+     * @param objects
+     *            objects to be indexed
+     * @return index
+     */
+    public <T extends GameObject> SpatialIndex<T> createOverlay(Collection<? extends T> objects) {
+        return index.createOverlay(objects);
+    }
+}
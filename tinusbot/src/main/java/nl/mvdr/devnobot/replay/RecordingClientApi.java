@@ -0,0 +1,149 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Decorator for a {@link ClientApi} which records every call and its result in a replay log.
+ * 
+ * Recording is best-effort: if the log cannot be written, the error is logged and recording stops, but the calls to
+ * the underlying API are not affected.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RecordingClientApi implements ClientApi {
+    /** Underlying client API. */
+    @NonNull
+    private final ClientApi api;
+    /** Replay log. This object does not take ownership of the log; the caller is responsible for closing it. */
+    @NonNull
+    private final ReplayLogWriter writer;
+
+    /** Whether recording has been stopped due to an error. */
+    private volatile boolean failed;
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<Wall> readLevel() {
+        Collection<Wall> result = api.readLevel();
+        if (!failed && result != null) {
+            try {
+                writer.writeLevel(System.currentTimeMillis(), result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean createPlayer(String name, String color, String id) {
+        boolean result = api.createPlayer(name, color, id);
+        if (!failed) {
+            try {
+                writer.writeCreatePlayer(System.currentTimeMillis(), name, color, id, result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<Player> readPlayers() {
+        Collection<Player> result = api.readPlayers();
+        if (!failed && result != null) {
+            try {
+                writer.writePlayers(System.currentTimeMillis(), result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean addAction(Action action, String playerId) {
+        boolean result = api.addAction(action, playerId);
+        recordAction(playerId, action, result);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Boolean> addActions(List<Action> actions, String playerId) {
+        List<Boolean> result = api.addActions(actions, playerId);
+        for (int i = 0; i != actions.size(); i++) {
+            recordAction(playerId, actions.get(i), result.get(i).booleanValue());
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GameState readWorldStatus() {
+        GameState result = api.readWorldStatus();
+        if (!failed && result != null) {
+            try {
+                writer.writeGameState(System.currentTimeMillis(), result);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean suicide(String playerId) {
+        boolean result = api.suicide(playerId);
+        recordAction(playerId, Action.SUICIDE, result);
+        return result;
+    }
+
+    /**
+     * Records a submitted action.
+     * 
+     * @param playerId
+     *            player id
+     * @param action
+     *            action
+     * @param success
+     *            whether the action was accepted
+     */
+    private void recordAction(String playerId, Action action, boolean success) {
+        if (!failed && action != null) {
+            try {
+                writer.writeAction(System.currentTimeMillis(), playerId, action, success);
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+    }
+
+    /**
+     * Stops recording after an error.
+     * 
+     * @param e
+     *            cause
+     */
+    private void stopRecording(IOException e) {
+        failed = true;
+        log.error("Unable to write to the replay log; recording stopped.", e);
+    }
+}
@@ -0,0 +1,57 @@
+package nl.mvdr.devnobot.replay;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Constants describing the binary replay log format.
+ * 
+ * A replay log starts with a header: the magic number, a format version byte and the start time of the recording as an
+ * eight-byte big-endian timestamp in milliseconds. The header is followed by a sequence of records. Each record
+ * consists of:
+ * <ul>
+ * <li>a record type byte;</li>
+ * <li>the time since the previous record (or since the start time, for the first record) in milliseconds, as a
+ * varint;</li>
+ * <li>the length of the payload in bytes, as a varint;</li>
+ * <li>the payload.</li>
+ * </ul>
+ * 
+ * Since every record is length-prefixed, a reader can skip over records without decoding them.
+ * 
+ * Varints are unsigned LEB128: seven bits per byte, least significant group first, with the high bit set on all but
+ * the last byte. Signed values (coordinates) are zigzag-encoded first, so small negative values stay small.
+ * 
+ * Strings (player names, ids and colours) are stored only once per log, in a {@link #STRING} record, and referred to
+ * by their index. The first string record in a log has index 0, the second has index 1, and so on. In other records,
+ * string references are stored as the index plus one; 0 represents null. A string record is always written before the
+ * first record that refers to it.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class ReplayFormat {
+    /** Magic number at the start of each replay log: "DNRL" in ASCII. */
+    static final int MAGIC = 0x444E524C;
+    /** Current format version. */
+    static final byte VERSION = 1;
+    /** Length of the header in bytes. */
+    static final int HEADER_LENGTH = 4 + 1 + 8;
+
+    /** String definition. Payload: UTF-8 bytes. */
+    static final byte STRING = 0;
+    /** Level. Payload: wall count, followed by x, y, width and height of each wall. */
+    static final byte LEVEL = 1;
+    /**
+     * World status. Payload: tank count, followed by each tank's player name reference, orientation (ordinal plus one;
+     * 0 for unknown), x, y, width, height, action duration, distance per step and queue length; then bullet count,
+     * followed by x, y, width and height of each bullet.
+     */
+    static final byte GAME_STATE = 2;
+    /** Players, as read for the leaderboard. Payload: player count, followed by name, colour, kills and deaths. */
+    static final byte PLAYERS = 3;
+    /** Player creation. Payload: name, colour and id references, then a success byte. */
+    static final byte CREATE_PLAYER = 4;
+    /** Submitted action. Payload: player id reference, action ordinal and a success byte. */
+    static final byte ACTION = 5;
+}
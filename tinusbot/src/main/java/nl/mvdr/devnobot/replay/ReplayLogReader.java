@@ -0,0 +1,416 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Random-access reader for replay logs written by {@link ReplayLogWriter}.
+ * 
+ * The file is memory-mapped. When the reader is created, it makes a single pass over the record headers, skipping the
+ * payloads, to build the string table and a sparse index containing the position of every {@value #INDEX_INTERVAL}th
+ * world status record. A tick is the index of a world status record in the log: tick 0 is the first world status
+ * recorded, tick 1 the second, and so on. Reading the game state at a given tick seeks to the nearest preceding index
+ * entry and skips at most {@value #INDEX_INTERVAL} records from there; only the requested game state is decoded.
+ * 
+ * Instances are thread-safe: every read uses its own view of the mapped file. A long range of ticks can therefore be
+ * processed in parallel by splitting it into subranges, see {@link #readGameStates(int, int)}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class ReplayLogReader {
+    /** Number of world status records between entries in the tick index. */
+    static final int INDEX_INTERVAL = 64;
+    /** Character set for strings. */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Contents of the log. Never modified; reads go through duplicates. */
+    private final ByteBuffer buffer;
+    /** Start time of the recording, in milliseconds since the epoch. */
+    @Getter
+    private final long startTime;
+    /** Number of world status records in the log. */
+    @Getter
+    private final int tickCount;
+    /** The first level recorded in the log, or null if the log does not contain a level. */
+    @Getter
+    private final Collection<Wall> level;
+    /** String table. */
+    private final List<String> strings;
+    /** For every index entry: position of the world status record. */
+    private final int[] indexPositions;
+    /** For every index entry: time of the record preceding the world status record. */
+    private final long[] indexTimes;
+
+    /**
+     * Constructor.
+     * 
+     * @param buffer
+     *            contents of a replay log, from position 0 up to its limit
+     * @throws IOException
+     *             if the buffer does not contain a replay log
+     */
+    public ReplayLogReader(ByteBuffer buffer) throws IOException {
+        super();
+        this.buffer = buffer.duplicate();
+        this.buffer.position(0);
+
+        ByteBuffer view = this.buffer.duplicate();
+        if (view.remaining() < ReplayFormat.HEADER_LENGTH || view.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("Not a replay log.");
+        }
+        byte version = view.get();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay log version: " + version);
+        }
+        this.startTime = view.getLong();
+
+        // Scan the record headers.
+        List<String> stringTable = new ArrayList<>();
+        Collection<Wall> firstLevel = null;
+        int[] positions = new int[16];
+        long[] times = new long[16];
+        int ticks = 0;
+        long time = startTime;
+        boolean done = false;
+        while (!done && view.hasRemaining()) {
+            int position = view.position();
+            try {
+                byte type = view.get();
+                long delta = readVarint(view);
+                int length = (int) readVarint(view);
+                if (view.remaining() < length) {
+                    throw new BufferUnderflowException();
+                }
+                if (type == ReplayFormat.GAME_STATE) {
+                    if (ticks % INDEX_INTERVAL == 0) {
+                        int entry = ticks / INDEX_INTERVAL;
+                        if (entry == positions.length) {
+                            positions = Arrays.copyOf(positions, 2 * entry);
+                            times = Arrays.copyOf(times, 2 * entry);
+                        }
+                        positions[entry] = position;
+                        times[entry] = time;
+                    }
+                    ticks++;
+                } else if (type == ReplayFormat.STRING) {
+                    byte[] bytes = new byte[length];
+                    view.duplicate().get(bytes);
+                    stringTable.add(new String(bytes, UTF_8));
+                } else if (type == ReplayFormat.LEVEL && firstLevel == null) {
+                    firstLevel = readWalls(slice(view.duplicate(), length));
+                }
+                time = time + delta;
+                view.position(view.position() + length);
+            } catch (BufferUnderflowException e) {
+                // The last record is incomplete, for instance because the recording process was killed while writing.
+                log.warn("Replay log ends with an incomplete record at position {}; ignoring it.", "" + position);
+                done = true;
+            }
+        }
+
+        this.strings = stringTable;
+        this.level = firstLevel;
+        this.tickCount = ticks;
+        this.indexPositions = positions;
+        this.indexTimes = times;
+    }
+
+    /**
+     * Opens a replay log file.
+     * 
+     * @param file
+     *            replay log
+     * @return reader
+     * @throws IOException
+     *             if the file cannot be read, is too large to map, or does not contain a replay log
+     */
+    public static ReplayLogReader open(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (Integer.MAX_VALUE < channel.size()) {
+                throw new IOException("Replay log too large to be mapped: " + file);
+            }
+            // The mapping stays valid after the channel has been closed.
+            mapped = channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new ReplayLogReader(mapped);
+    }
+
+    /**
+     * Reads the game state at the given tick.
+     * 
+     * @param tick
+     *            tick, between 0 (inclusive) and the tick count (exclusive)
+     * @return game state
+     */
+    public GameState readGameState(int tick) {
+        Cursor cursor = new Cursor(tick);
+        return cursor.next();
+    }
+
+    /**
+     * Reads the time at which the game state at the given tick was recorded.
+     * 
+     * @param tick
+     *            tick, between 0 (inclusive) and the tick count (exclusive)
+     * @return timestamp, in milliseconds since the epoch
+     */
+    public long readTime(int tick) {
+        Cursor cursor = new Cursor(tick);
+        cursor.skip();
+        return cursor.time;
+    }
+
+    /**
+     * Returns the game states in the given range of ticks.
+     * 
+     * The game states are decoded lazily, one at a time, while iterating. Each iterator moves through the log
+     * sequentially, so iterating over a range is cheaper than reading each of its ticks separately. Iterators are
+     * independent of one another, so disjoint subranges can be processed on different threads.
+     * 
+     * @param fromTick
+     *            first tick (inclusive)
+     * @param toTick
+     *            last tick (exclusive)
+     * @return game states
+     */
+    public Iterable<GameState> readGameStates(final int fromTick, final int toTick) {
+        if (fromTick < 0 || toTick < fromTick || tickCount < toTick) {
+            throw new IndexOutOfBoundsException("Invalid range: " + fromTick + " - " + toTick + ", tick count: "
+                    + tickCount);
+        }
+        return new Iterable<GameState>() {
+            /** {@inheritDoc} */
+            @Override
+            public Iterator<GameState> iterator() {
+                return new Iterator<GameState>() {
+                    /** Cursor; created on the first call to next(). */
+                    private Cursor cursor;
+                    /** Next tick to be returned. */
+                    private int tick = fromTick;
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public boolean hasNext() {
+                        return tick < toTick;
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public GameState next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        if (cursor == null) {
+                            cursor = new Cursor(tick);
+                        }
+                        tick++;
+                        return cursor.next();
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Creates a buffer containing the next bytes of the given buffer, and moves the given buffer's position past them.
+     * 
+     * @param view
+     *            buffer
+     * @param length
+     *            number of bytes
+     * @return slice
+     */
+    private static ByteBuffer slice(ByteBuffer view, int length) {
+        ByteBuffer result = view.duplicate();
+        result.limit(view.position() + length);
+        view.position(view.position() + length);
+        return result;
+    }
+
+    /**
+     * Reads a varint.
+     * 
+     * @param view
+     *            buffer
+     * @return value
+     */
+    private static long readVarint(ByteBuffer view) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = view.get();
+            result = result | ((long) (b & 0x7F) << shift);
+            shift = shift + 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    /**
+     * Reads a zigzag-encoded varint.
+     * 
+     * @param view
+     *            buffer
+     * @return value
+     */
+    private static int readSignedVarint(ByteBuffer view) {
+        int value = (int) readVarint(view);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads the payload of a level record.
+     * 
+     * @param payload
+     *            payload
+     * @return walls
+     */
+    private static Collection<Wall> readWalls(ByteBuffer payload) {
+        int count = (int) readVarint(payload);
+        List<Wall> result = new ArrayList<>(count);
+        for (int i = 0; i != count; i++) {
+            result.add(new Wall(readSignedVarint(payload), readSignedVarint(payload), (int) readVarint(payload),
+                    (int) readVarint(payload)));
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Reads a string reference.
+     * 
+     * @param payload
+     *            payload
+     * @return string; may be null
+     */
+    private String readString(ByteBuffer payload) {
+        int reference = (int) readVarint(payload);
+        String result;
+        if (reference == 0) {
+            result = null;
+        } else {
+            result = strings.get(reference - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the payload of a world status record.
+     * 
+     * @param payload
+     *            payload
+     * @return game state
+     */
+    private GameState readGameState(ByteBuffer payload) {
+        Orientation[] orientations = Orientation.values();
+        int tankCount = (int) readVarint(payload);
+        List<Tank> tanks = new ArrayList<>(tankCount);
+        for (int i = 0; i != tankCount; i++) {
+            String player = readString(payload);
+            int orientationValue = (int) readVarint(payload);
+            Orientation orientation;
+            if (orientationValue == 0) {
+                orientation = null;
+            } else {
+                orientation = orientations[orientationValue - 1];
+            }
+            int x = readSignedVarint(payload);
+            int y = readSignedVarint(payload);
+            int width = (int) readVarint(payload);
+            int height = (int) readVarint(payload);
+            int actionDuration = (int) readVarint(payload);
+            int distancePerStep = (int) readVarint(payload);
+            int queueLength = (int) readVarint(payload);
+            tanks.add(new Tank(x, y, width, height, orientation, actionDuration, distancePerStep, player,
+                    queueLength));
+        }
+        int bulletCount = (int) readVarint(payload);
+        List<Bullet> bullets = new ArrayList<>(bulletCount);
+        for (int i = 0; i != bulletCount; i++) {
+            bullets.add(new Bullet(readSignedVarint(payload), readSignedVarint(payload), (int) readVarint(payload),
+                    (int) readVarint(payload)));
+        }
+        return new GameState(tanks, bullets);
+    }
+
+    /** Sequential position in the log, used to move forward from one world status record to the next. */
+    private class Cursor {
+        /** View of the log, positioned at the start of a record. */
+        private final ByteBuffer view;
+        /** Time of the last record passed. */
+        private long time;
+
+        /**
+         * Constructor.
+         * 
+         * @param tick
+         *            tick of the first world status record to be read
+         */
+        private Cursor(int tick) {
+            super();
+            if (tick < 0 || tickCount <= tick) {
+                throw new IndexOutOfBoundsException("Tick: " + tick + ", tick count: " + tickCount);
+            }
+            int entry = tick / INDEX_INTERVAL;
+            this.view = buffer.duplicate();
+            this.view.position(indexPositions[entry]);
+            this.time = indexTimes[entry];
+            for (int i = entry * INDEX_INTERVAL; i != tick; i++) {
+                skip();
+            }
+        }
+
+        /**
+         * Moves past the next world status record without decoding it.
+         * 
+         * @return the record's payload
+         */
+        private ByteBuffer skip() {
+            ByteBuffer result = null;
+            while (result == null) {
+                byte type = view.get();
+                time = time + readVarint(view);
+                int length = (int) readVarint(view);
+                if (type == ReplayFormat.GAME_STATE) {
+                    result = slice(view, length);
+                } else {
+                    view.position(view.position() + length);
+                }
+            }
+            return result;
+        }
+
+        /** @return the next game state */
+        private GameState next() {
+            return readGameState(skip());
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameObject;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Writes a binary replay log, in the format described in {@link ReplayFormat}.
+ * 
+ * Records are encoded into an in-memory buffer, which is written to the file channel once it fills up, and when the
+ * writer is flushed or closed. This keeps the cost of recording a record down to encoding a few dozen varints, so the
+ * writer can be called from the game loop. Records which have not been flushed yet are lost if the process is killed.
+ * 
+ * Instances are thread-safe, so a single log can be shared by multiple bots.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ReplayLogWriter implements Closeable {
+    /** Size of the write buffer. The buffer is written to the channel once it contains at least this many bytes. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Character set for strings. */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** File channel. */
+    private final FileChannel channel;
+    /** Indices of the strings written so far. */
+    private final Map<String, Integer> strings;
+    /** Buffer for complete records which have not been written to the channel yet. */
+    private ByteBuffer buffer;
+    /** Buffer for the payload of the record currently being encoded. */
+    private ByteBuffer payload;
+    /** Timestamp of the previous record. */
+    private long previousTime;
+
+    /**
+     * Constructor.
+     * 
+     * @param channel
+     *            file channel, positioned at the start of an empty file; this writer takes ownership of the channel
+     * @param startTime
+     *            start time of the recording, in milliseconds since the epoch
+     * @throws IOException
+     *             if the header cannot be written
+     */
+    public ReplayLogWriter(FileChannel channel, long startTime) throws IOException {
+        super();
+        this.channel = channel;
+        this.strings = new HashMap<>();
+        this.buffer = ByteBuffer.allocate(2 * BUFFER_SIZE);
+        this.payload = ByteBuffer.allocate(BUFFER_SIZE);
+        this.previousTime = startTime;
+
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.put(ReplayFormat.VERSION);
+        buffer.putLong(startTime);
+        flush();
+    }
+
+    /**
+     * Creates a new replay log file.
+     * 
+     * @param file
+     *            path of the file to be created; the file may not exist yet
+     * @return writer
+     * @throws IOException
+     *             if the file already exists or cannot be created
+     */
+    public static ReplayLogWriter create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        ReplayLogWriter result;
+        try {
+            result = new ReplayLogWriter(channel, System.currentTimeMillis());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Records the level.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param walls
+     *            walls
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void writeLevel(long time, Collection<Wall> walls) throws IOException {
+        payload.clear();
+        putVarint(walls.size());
+        for (Wall wall : walls) {
+            putBounds(wall);
+        }
+        writeRecord(ReplayFormat.LEVEL, time);
+    }
+
+    /**
+     * Records a world status.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param state
+     *            game state
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void writeGameState(long time, GameState state) throws IOException {
+        // Define any new strings first, since that uses the payload buffer as well.
+        for (Tank tank : state.getTanks()) {
+            defineString(time, tank.getPlayer());
+        }
+
+        payload.clear();
+        putVarint(state.getTanks().size());
+        for (Tank tank : state.getTanks()) {
+            putString(tank.getPlayer());
+            if (tank.getLastKnownOrientation() == null) {
+                putVarint(0);
+            } else {
+                putVarint(tank.getLastKnownOrientation().ordinal() + 1);
+            }
+            putBounds(tank);
+            putVarint(tank.getActionDuration());
+            putVarint(tank.getDistancePerStep());
+            putVarint(tank.getQueueLength());
+        }
+        putVarint(state.getBullets().size());
+        for (Bullet bullet : state.getBullets()) {
+            putBounds(bullet);
+        }
+        writeRecord(ReplayFormat.GAME_STATE, time);
+    }
+
+    /**
+     * Records the players, as read for the leaderboard.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param players
+     *            players
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void writePlayers(long time, Collection<Player> players) throws IOException {
+        for (Player player : players) {
+            defineString(time, player.getName());
+            defineString(time, player.getColor());
+        }
+
+        payload.clear();
+        putVarint(players.size());
+        for (Player player : players) {
+            putString(player.getName());
+            putString(player.getColor());
+            putVarint(player.getKills());
+            putVarint(player.getDeaths());
+        }
+        writeRecord(ReplayFormat.PLAYERS, time);
+    }
+
+    /**
+     * Records the creation of a player.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param name
+     *            player name
+     * @param color
+     *            tank colour
+     * @param id
+     *            player id
+     * @param success
+     *            whether the player was created successfully
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void writeCreatePlayer(long time, String name, String color, String id, boolean success)
+            throws IOException {
+        defineString(time, name);
+        defineString(time, color);
+        defineString(time, id);
+
+        payload.clear();
+        putString(name);
+        putString(color);
+        putString(id);
+        putBoolean(success);
+        writeRecord(ReplayFormat.CREATE_PLAYER, time);
+    }
+
+    /**
+     * Records a submitted action.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param playerId
+     *            player id
+     * @param action
+     *            action, including {@link Action#SUICIDE}
+     * @param success
+     *            whether the action was accepted by the server
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void writeAction(long time, String playerId, Action action, boolean success)
+            throws IOException {
+        defineString(time, playerId);
+
+        payload.clear();
+        putString(playerId);
+        putVarint(action.ordinal());
+        putBoolean(success);
+        writeRecord(ReplayFormat.ACTION, time);
+    }
+
+    /**
+     * Writes any buffered records to the file.
+     * 
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes any buffered records to the file and closes it.
+     * 
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a string record for the given string, unless it has been written before.
+     * 
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @param string
+     *            string; may be null, in which case nothing is written
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    private void defineString(long time, String string) throws IOException {
+        if (string != null && !strings.containsKey(string)) {
+            payload.clear();
+            byte[] bytes = string.getBytes(UTF_8);
+            ensurePayloadCapacity(bytes.length);
+            payload.put(bytes);
+            writeRecord(ReplayFormat.STRING, time);
+            strings.put(string, Integer.valueOf(strings.size()));
+        }
+    }
+
+    /**
+     * Copies the current payload to the buffer as a complete record, and writes the buffer to the channel if it is full
+     * enough.
+     * 
+     * @param type
+     *            record type
+     * @param time
+     *            timestamp in milliseconds since the epoch
+     * @throws IOException
+     *             if the log cannot be written
+     */
+    private void writeRecord(byte type, long time) throws IOException {
+        payload.flip();
+        // A record header takes at most 1 + 10 + 5 bytes.
+        int recordLength = 16 + payload.remaining();
+        if (buffer.remaining() < recordLength) {
+            flush();
+            if (buffer.capacity() < recordLength) {
+                buffer = ByteBuffer.allocate(recordLength);
+            }
+        }
+        // The clock may jump backwards; never store a negative delta.
+        long delta = Math.max(0, time - previousTime);
+        previousTime = Math.max(previousTime, time);
+
+        buffer.put(type);
+        putVarint(buffer, delta);
+        putVarint(buffer, payload.remaining());
+        buffer.put(payload);
+        if (BUFFER_SIZE <= buffer.position()) {
+            flush();
+        }
+    }
+
+    /**
+     * Adds a string reference to the payload. The string must have been defined already.
+     * 
+     * @param string
+     *            string; may be null
+     */
+    private void putString(String string) {
+        if (string == null) {
+            putVarint(0);
+        } else {
+            putVarint(strings.get(string).intValue() + 1);
+        }
+    }
+
+    /**
+     * Adds the position and size of a game object to the payload.
+     * 
+     * @param object
+     *            game object
+     */
+    private void putBounds(GameObject object) {
+        putSignedVarint(object.getX());
+        putSignedVarint(object.getY());
+        putVarint(object.getWidth());
+        putVarint(object.getHeight());
+    }
+
+    /**
+     * Adds a boolean to the payload, as a single byte.
+     * 
+     * @param value
+     *            value
+     */
+    private void putBoolean(boolean value) {
+        ensurePayloadCapacity(1);
+        if (value) {
+            payload.put((byte) 1);
+        } else {
+            payload.put((byte) 0);
+        }
+    }
+
+    /**
+     * Adds a zigzag-encoded varint to the payload.
+     * 
+     * @param value
+     *            value
+     */
+    private void putSignedVarint(int value) {
+        putVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Adds a varint to the payload.
+     * 
+     * @param value
+     *            value, treated as unsigned
+     */
+    private void putVarint(int value) {
+        ensurePayloadCapacity(5);
+        putVarint(payload, value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Makes sure the payload buffer has room for the given number of additional bytes.
+     * 
+     * @param length
+     *            number of bytes
+     */
+    private void ensurePayloadCapacity(int length) {
+        if (payload.remaining() < length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * payload.capacity(), payload.position() + length));
+            payload.flip();
+            larger.put(payload);
+            payload = larger;
+        }
+    }
+
+    /**
+     * Puts a varint into the given buffer.
+     * 
+     * @param target
+     *            buffer, with enough room for the varint (at most ten bytes)
+     * @param value
+     *            value; must not be negative
+     */
+    private static void putVarint(ByteBuffer target, long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            target.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining = remaining >>> 7;
+        }
+        target.put((byte) remaining);
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains the binary replay log, used to record matches for offline analysis and benchmarks.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.devnobot.replay;
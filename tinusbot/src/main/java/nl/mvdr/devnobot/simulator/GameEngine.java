@@ -0,0 +1,447 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * In-process implementation of the Devnobot game rules.
+ * 
+ * The engine does not keep track of real time. Instead, time only passes when {@link #step()} is called, so a game can
+ * be simulated as fast as the CPU allows. All randomness (spawn locations and orientations) comes from a random
+ * generator with a given seed, so given the same seed and the same sequence of calls, the outcome is always the same.
+ * 
+ * The rules are an approximation of those of the contest server:
+ * <ul>
+ * <li>each player has a queue of actions; the first action in the queue is executed as soon as the previous action has
+ * finished, and blocks the queue for the action's duration;</li>
+ * <li>moving or turning fails silently if the tank would end up overlapping a wall or another tank, or outside of the
+ * level;</li>
+ * <li>bullets fly in a straight line until they hit a wall or a tank, or leave the level;</li>
+ * <li>a tank that is hit is destroyed, its player's action queue is cleared and it immediately respawns in a random
+ * free location;</li>
+ * <li>hitting another tank counts as a kill for the shooter and a death for the victim; a suicide only counts as a
+ * death.</li>
+ * </ul>
+ * 
+ * All public methods are synchronized, so the engine can safely be used by multiple threads.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class GameEngine {
+    /** Maximum number of attempts at finding a free spawn location. */
+    private static final int MAX_SPAWN_ATTEMPTS = 10000;
+
+    /** Walls. */
+    @Getter
+    private final Collection<Wall> walls;
+    /** Level boundary, based on the walls. */
+    private final LevelBoundary boundary;
+    /** Game rule parameters. */
+    @Getter
+    private final SimulationSettings settings;
+    /** Random generator. */
+    private final Random random;
+    /** Players, indexed by their ids. Iteration order is the order in which the players were created. */
+    private final Map<String, SimulatedPlayer> players;
+    /** Bullets in flight, in the order in which they were fired. */
+    private final List<SimulatedBullet> bullets;
+
+    /** Simulated time in milliseconds since the start of the game. */
+    private long time;
+
+    /**
+     * Constructor.
+     * 
+     * @param walls
+     *            walls in the level; may not be empty, since the walls determine the size of the level
+     * @param settings
+     *            game rule parameters
+     * @param seed
+     *            seed for the random generator
+     */
+    public GameEngine(Collection<Wall> walls, SimulationSettings settings, long seed) {
+        super();
+        if (walls.isEmpty()) {
+            throw new IllegalArgumentException("Level must contain at least one wall.");
+        }
+        this.walls = Collections.unmodifiableCollection(new ArrayList<>(walls));
+        this.boundary = LevelBoundary.buildLevelBoundary(this.walls);
+        this.settings = settings;
+        this.random = new Random(seed);
+        this.players = new LinkedHashMap<>();
+        this.bullets = new ArrayList<>();
+        this.time = 0;
+    }
+
+    /** @return simulated time in milliseconds since the start of the game */
+    public synchronized long getTime() {
+        return time;
+    }
+
+    /**
+     * Registers a new player and spawns its tank.
+     * 
+     * @param name
+     *            name; must be unique
+     * @param color
+     *            tank color, as a hex string
+     * @param id
+     *            unique id of the player
+     * @return whether creation was succesful
+     */
+    public synchronized boolean createPlayer(String name, String color, String id) {
+        boolean result;
+        if (name == null || id == null || players.containsKey(id) || retrievePlayerByName(name) != null) {
+            result = false;
+        } else {
+            SimulatedPlayer player = new SimulatedPlayer(name, color);
+            player.tank = spawnTank(name);
+            players.put(id, player);
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Adds the given action to the given player's queue.
+     * 
+     * @param action
+     *            action; may not be {@link Action#SUICIDE}
+     * @param playerId
+     *            player id
+     * @return whether the action was succesfully added to the queue
+     */
+    public synchronized boolean addAction(Action action, String playerId) {
+        SimulatedPlayer player = players.get(playerId);
+        boolean result;
+        if (player == null || action == null || action == Action.SUICIDE) {
+            result = false;
+        } else {
+            player.queue.add(action);
+            result = true;
+        }
+        return result;
+    }
+
+    /**
+     * Destroys the given player's tank, causing it to respawn in a random location.
+     * 
+     * @param playerId
+     *            player id
+     * @return whether the tank was suicided succesfully
+     */
+    public synchronized boolean suicide(String playerId) {
+        SimulatedPlayer player = players.get(playerId);
+        boolean result;
+        if (player == null) {
+            result = false;
+        } else {
+            destroy(player);
+            result = true;
+        }
+        return result;
+    }
+
+    /** Advances the game by a single tick. */
+    public synchronized void step() {
+        time = time + settings.getTickDuration();
+        for (SimulatedPlayer player : players.values()) {
+            executeNextAction(player);
+        }
+        moveBullets();
+    }
+
+    /**
+     * Advances the game by the given amount of time.
+     * 
+     * @param duration
+     *            duration in milliseconds; rounded up to a whole number of ticks
+     */
+    public synchronized void run(long duration) {
+        long endTime = time + duration;
+        while (time < endTime) {
+            step();
+        }
+    }
+
+    /** @return snapshot of the current game state */
+    public synchronized GameState createGameState() {
+        List<Tank> tanks = new ArrayList<>(players.size());
+        for (SimulatedPlayer player : players.values()) {
+            Tank tank = player.tank;
+            tanks.add(new Tank(tank.getX(), tank.getY(), tank.getWidth(), tank.getHeight(), tank
+                    .getLastKnownOrientation(), tank.getActionDuration(), tank.getDistancePerStep(), tank.getPlayer(),
+                    player.queue.size()));
+        }
+        List<Bullet> bulletSnapshot = new ArrayList<>(bullets.size());
+        for (SimulatedBullet bullet : bullets) {
+            bulletSnapshot.add(bullet.bullet);
+        }
+        return new GameState(tanks, bulletSnapshot);
+    }
+
+    /** @return snapshot of the current players, including their kills and deaths */
+    public synchronized Collection<Player> createPlayers() {
+        List<Player> result = new ArrayList<>(players.size());
+        for (SimulatedPlayer player : players.values()) {
+            result.add(new Player(player.name, player.kills, player.deaths, player.color));
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Retrieves a player by name.
+     * 
+     * @param name
+     *            player name
+     * @return player, or null if there is no player with the given name
+     */
+    private SimulatedPlayer retrievePlayerByName(String name) {
+        SimulatedPlayer result = null;
+        Iterator<SimulatedPlayer> iterator = players.values().iterator();
+        while (result == null && iterator.hasNext()) {
+            SimulatedPlayer player = iterator.next();
+            if (name.equals(player.name)) {
+                result = player;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Executes the next action in the player's queue, if the previous action has finished.
+     * 
+     * @param player
+     *            player
+     */
+    private void executeNextAction(SimulatedPlayer player) {
+        if (player.busyUntil <= time && !player.queue.isEmpty()) {
+            Action action = player.queue.remove();
+            if (action == Action.FIRE) {
+                player.busyUntil = time + settings.getFireDuration();
+                fire(player);
+            } else {
+                player.busyUntil = time + settings.getActionDuration();
+                Tank newTank = player.tank.computeNextPosition(action);
+                if (isFree(newTank, player)) {
+                    player.tank = newTank;
+                } else if (log.isDebugEnabled()) {
+                    log.debug("{} is blocked, unable to execute {}", player.name, action);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fires a bullet from the player's tank.
+     * 
+     * @param player
+     *            player
+     */
+    private void fire(SimulatedPlayer player) {
+        Tank tank = player.tank;
+        int size = settings.getBulletSize();
+        int x = tank.getX() + tank.getWidth() / 2 - size / 2;
+        int y = tank.getY() + tank.getHeight() / 2 - size / 2;
+        bullets.add(new SimulatedBullet(player, new Bullet(x, y, size, size), tank.getLastKnownOrientation()));
+    }
+
+    /** Moves all bullets and resolves any hits. */
+    private void moveBullets() {
+        Iterator<SimulatedBullet> iterator = bullets.iterator();
+        while (iterator.hasNext()) {
+            SimulatedBullet bullet = iterator.next();
+            boolean hit = false;
+            int remainingDistance = settings.getBulletDistancePerTick();
+            // Move one bullet length at a time, so bullets cannot skip over thin walls.
+            while (!hit && 0 < remainingDistance) {
+                int distance = Math.min(remainingDistance, settings.getBulletSize());
+                bullet.bullet = bullet.bullet.move(distance, bullet.direction);
+                remainingDistance = remainingDistance - distance;
+                hit = resolveHit(bullet);
+            }
+            if (hit) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Determines whether the given bullet hits anything at its current location. If it hits a tank, that tank is
+     * destroyed.
+     * 
+     * @param bullet
+     *            bullet
+     * @return whether the bullet hit anything (or left the level) and should be removed
+     */
+    private boolean resolveHit(SimulatedBullet bullet) {
+        boolean result = !bullet.bullet.overlaps(boundary) || bullet.bullet.overlaps(walls);
+        Iterator<SimulatedPlayer> playerIterator = players.values().iterator();
+        while (!result && playerIterator.hasNext()) {
+            SimulatedPlayer victim = playerIterator.next();
+            if (victim != bullet.owner && bullet.bullet.overlaps(victim.tank)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("{} destroyed {}", bullet.owner.name, victim.name);
+                }
+                bullet.owner.kills++;
+                destroy(victim);
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Destroys the given player's tank and respawns it.
+     * 
+     * @param player
+     *            player
+     */
+    private void destroy(SimulatedPlayer player) {
+        player.deaths++;
+        player.queue.clear();
+        player.busyUntil = time;
+        player.tank = null;
+        player.tank = spawnTank(player.name);
+    }
+
+    /**
+     * Creates a tank for the given player in a random free location.
+     * 
+     * @param playerName
+     *            player name
+     * @return new tank
+     */
+    private Tank spawnTank(String playerName) {
+        Orientation[] orientations = Orientation.values();
+        Tank result = null;
+        int attempts = 0;
+        while (result == null && attempts < MAX_SPAWN_ATTEMPTS) {
+            Orientation orientation = orientations[random.nextInt(orientations.length)];
+            int width;
+            int height;
+            if (orientation == Orientation.NORTH || orientation == Orientation.SOUTH) {
+                width = settings.getTankWidth();
+                height = settings.getTankHeight();
+            } else {
+                width = settings.getTankHeight();
+                height = settings.getTankWidth();
+            }
+            int x = boundary.getX() + random.nextInt(Math.max(1, boundary.getWidth() - width));
+            int y = boundary.getY() + random.nextInt(Math.max(1, boundary.getHeight() - height));
+            Tank candidate = new Tank(x, y, width, height, orientation, settings.getActionDuration(),
+                    settings.getDistancePerStep(), playerName, 0);
+            if (isFree(candidate, null)) {
+                result = candidate;
+            }
+            attempts++;
+        }
+        if (result == null) {
+            throw new IllegalStateException("Unable to find a free spawn location for " + playerName);
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given tank fits in the level without overlapping any walls or other tanks.
+     * 
+     * @param tank
+     *            tank
+     * @param self
+     *            player owning the tank, whose current tank is ignored; may be null
+     * @return whether the location is free
+     */
+    private boolean isFree(Tank tank, SimulatedPlayer self) {
+        boolean result = boundary.getX() <= tank.getX() && tank.computeMaxX() <= boundary.computeMaxX()
+                && boundary.getY() <= tank.getY() && tank.computeMaxY() <= boundary.computeMaxY()
+                && !tank.overlaps(walls);
+        Iterator<SimulatedPlayer> iterator = players.values().iterator();
+        while (result && iterator.hasNext()) {
+            SimulatedPlayer other = iterator.next();
+            if (other != self && other.tank != null) {
+                result = !tank.overlaps(other.tank);
+            }
+        }
+        return result;
+    }
+
+    /** Mutable state of a single player. */
+    private static class SimulatedPlayer {
+        /** Player name. */
+        private final String name;
+        /** Tank color, as a hex string. */
+        private final String color;
+        /** Action queue. */
+        private final Queue<Action> queue;
+        /** Current tank. Null only while respawning. */
+        private Tank tank;
+        /** Simulated time until which the current action blocks the queue. */
+        private long busyUntil;
+        /** Number of kills. */
+        private int kills;
+        /** Number of deaths. */
+        private int deaths;
+
+        /**
+         * Constructor.
+         * 
+         * @param name
+         *            player name
+         * @param color
+         *            tank color
+         */
+        private SimulatedPlayer(String name, String color) {
+            super();
+            this.name = name;
+            this.color = color;
+            this.queue = new ArrayDeque<>();
+        }
+    }
+
+    /** Mutable state of a bullet in flight. */
+    private static class SimulatedBullet {
+        /** Player who fired the bullet. */
+        private final SimulatedPlayer owner;
+        /** Direction in which the bullet is flying. */
+        private final Orientation direction;
+        /** Current location. */
+        private Bullet bullet;
+
+        /**
+         * Constructor.
+         * 
+         * @param owner
+         *            player who fired the bullet
+         * @param bullet
+         *            initial location
+         * @param direction
+         *            direction in which the bullet is flying
+         */
+        private SimulatedBullet(SimulatedPlayer owner, Bullet bullet, Orientation direction) {
+            super();
+            this.owner = owner;
+            this.bullet = bullet;
+            this.direction = direction;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameObject;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Streaming encoder for the JSON documents sent by the server. This is the counterpart of
+ * {@link nl.mvdr.devnobot.clientapi.JsonModelReader}: it writes our own data model in the same format as the contest
+ * server writes the com.cgi.devnobot.api objects.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+class JsonModelWriter {
+    /**
+     * Writes a world status document.
+     * 
+     * @param state
+     *            game state
+     * @param out
+     *            writer; this method does not close it
+     * @throws IOException
+     *             if the writer fails
+     */
+    static void writeGameState(GameState state, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("bots");
+        writer.beginArray();
+        for (Tank tank : state.getTanks()) {
+            writer.beginObject();
+            writeBounds(tank, writer);
+            writer.name("lastKnownOrientation").value(tank.getLastKnownOrientation().toAPIOrientation().name());
+            writer.name("actionDurationInMs").value(tank.getActionDuration());
+            writer.name("distancePerStep").value(tank.getDistancePerStep());
+            writer.name("player").value(tank.getPlayer());
+            writer.name("queueLength").value(tank.getQueueLength());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.name("bullets");
+        writer.beginArray();
+        for (Bullet bullet : state.getBullets()) {
+            writer.beginObject();
+            writeBounds(bullet, writer);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Writes a level document.
+     * 
+     * @param walls
+     *            walls
+     * @param out
+     *            writer; this method does not close it
+     * @throws IOException
+     *             if the writer fails
+     */
+    static void writeWalls(Collection<Wall> walls, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (Wall wall : walls) {
+            writer.beginObject();
+            writeBounds(wall, writer);
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    /**
+     * Writes a players document.
+     * 
+     * @param players
+     *            players
+     * @param out
+     *            writer; this method does not close it
+     * @throws IOException
+     *             if the writer fails
+     */
+    static void writePlayers(Collection<Player> players, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginArray();
+        for (Player player : players) {
+            writer.beginObject();
+            writer.name("name").value(player.getName());
+            writer.name("color").value(player.getColor());
+            writer.name("kills").value(player.getKills());
+            writer.name("deads").value(player.getDeaths());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.flush();
+    }
+
+    /**
+     * Writes the position and size of a game object.
+     * 
+     * @param object
+     *            game object
+     * @param writer
+     *            JSON writer, positioned inside an object
+     * @throws IOException
+     *             if the writer fails
+     */
+    private static void writeBounds(GameObject object, JsonWriter writer) throws IOException {
+        writer.name("x").value(object.getX());
+        writer.name("y").value(object.getY());
+        writer.name("width").value(object.getWidth());
+        writer.name("height").value(object.getHeight());
+    }
+}
@@ -0,0 +1,94 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Factory methods for levels to be used in simulations.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class Levels {
+    /** Character representing a wall in an ASCII map. */
+    private static final char WALL = '#';
+
+    /**
+     * Creates an empty rectangular arena, surrounded by walls.
+     * 
+     * @param width
+     *            outer width of the arena
+     * @param height
+     *            outer height of the arena
+     * @param wallThickness
+     *            thickness of the surrounding walls
+     * @return walls
+     */
+    public static Collection<Wall> createArena(int width, int height, int wallThickness) {
+        List<Wall> result = new ArrayList<>(4);
+        // top and bottom
+        result.add(new Wall(0, 0, width, wallThickness));
+        result.add(new Wall(0, height - wallThickness, width, wallThickness));
+        // left and right
+        result.add(new Wall(0, wallThickness, wallThickness, height - 2 * wallThickness));
+        result.add(new Wall(width - wallThickness, wallThickness, wallThickness, height - 2 * wallThickness));
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Creates a level from an ASCII map.
+     * 
+     * Every character in the map represents a square cell of the given size. A '#' is a wall, anything else is open
+     * space. Horizontally adjacent wall cells are merged into a single wall.
+     * 
+     * @param rows
+     *            rows of the map, from top to bottom
+     * @param cellSize
+     *            width and height of a single cell
+     * @return walls
+     */
+    public static Collection<Wall> parseAsciiMap(List<String> rows, int cellSize) {
+        List<Wall> result = new ArrayList<>();
+        for (int row = 0; row != rows.size(); row++) {
+            String line = rows.get(row);
+            int column = 0;
+            while (column < line.length()) {
+                if (line.charAt(column) == WALL) {
+                    int start = column;
+                    while (column < line.length() && line.charAt(column) == WALL) {
+                        column++;
+                    }
+                    result.add(new Wall(start * cellSize, row * cellSize, (column - start) * cellSize, cellSize));
+                } else {
+                    column++;
+                }
+            }
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * Reads a level from a text file containing an ASCII map, as described in {@link #parseAsciiMap(List, int)}.
+     * 
+     * @param file
+     *            UTF-8 encoded text file
+     * @param cellSize
+     *            width and height of a single cell
+     * @return walls
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public static Collection<Wall> readAsciiMap(Path file, int cellSize) throws IOException {
+        return parseAsciiMap(Files.readAllLines(file, Charset.forName("UTF-8")), cellSize);
+    }
+}
@@ -0,0 +1,513 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Wall;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for the contest server, backed by a {@link GameEngine}.
+ * 
+ * Serves the same REST/JSON resources as the contest server, as used by
+ * {@link nl.mvdr.devnobot.clientapi.ClientApiImpl}:
+ * <ul>
+ * <li>GET /devnobot/rest/level</li>
+ * <li>GET /devnobot/rest/world</li>
+ * <li>GET /devnobot/rest/players</li>
+ * <li>POST /devnobot/rest/player</li>
+ * <li>PUT /devnobot/rest/player/{id}</li>
+ * <li>DELETE /devnobot/rest/player/{id}</li>
+ * </ul>
+ * 
+ * The server is built on the JDK's {@link HttpServer}, which accepts and reads connections using non-blocking I/O and
+ * hands each request to a small pool of worker threads. Since handling a request only takes a snapshot of the engine
+ * state, a few workers are enough to serve hundreds of bots.
+ * 
+ * The game advances in real time: the engine is stepped once every tick duration, as configured in the engine's
+ * {@link SimulationSettings}. Optionally, every response is delayed by a fixed latency, to mimic a remote server. The
+ * delay is implemented by scheduling the response rather than by sleeping, so it does not tie up a worker thread. The
+ * delayed responses are sent from a scheduler of their own, so they do not queue up behind the game ticks or vice
+ * versa.
+ * 
+ * The default port is the same as the default server port in {@link nl.mvdr.devnobot.launcher.Launcher}, so the
+ * launcher and the tester can be run against a local server without further configuration.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class LocalServer {
+    /** Name of the system property containing the port to listen on. */
+    public static final String PORT_SYSTEM_PROPERTY = "devnobot.localserver.port";
+    /** Name of the system property containing the number of worker threads. */
+    public static final String THREADS_SYSTEM_PROPERTY = "devnobot.localserver.threads";
+    /** Name of the system property containing the latency to add to each response, in milliseconds. */
+    public static final String LATENCY_SYSTEM_PROPERTY = "devnobot.localserver.latency";
+    /** Name of the system property containing the duration of a single tick, in milliseconds. */
+    public static final String TICK_DURATION_SYSTEM_PROPERTY = "devnobot.localserver.tickDuration";
+    /**
+     * Name of the system property containing the path to an ASCII map file, as read by
+     * {@link Levels#readAsciiMap(java.nio.file.Path, int)}.
+     */
+    public static final String MAP_SYSTEM_PROPERTY = "devnobot.localserver.map";
+    /** Name of the system property containing the cell size for the ASCII map. */
+    public static final String CELL_SIZE_SYSTEM_PROPERTY = "devnobot.localserver.cellSize";
+    /** Name of the system property containing the random seed. */
+    public static final String SEED_SYSTEM_PROPERTY = "devnobot.localserver.seed";
+
+    /** Default port; the same as the default in {@link nl.mvdr.devnobot.launcher.Launcher}. */
+    public static final int DEFAULT_PORT = 7080;
+    /** Default number of worker threads. */
+    public static final int DEFAULT_THREADS = 8;
+    /** Default latency in milliseconds. */
+    public static final int DEFAULT_LATENCY = 0;
+    /** Default cell size for ASCII maps. */
+    public static final int DEFAULT_CELL_SIZE = 20;
+
+    /** Context path of the REST resources. */
+    private static final String CONTEXT_PATH = "/devnobot/rest";
+    /** Maximum number of queued incoming connections. */
+    private static final int BACKLOG = 1000;
+    /** Character set for requests and responses. */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** Game engine. */
+    private final GameEngine engine;
+    /** Latency added to every response, in milliseconds. */
+    private final int latency;
+    /** HTTP server. */
+    private final HttpServer server;
+    /** Worker threads handling the requests. */
+    private final ExecutorService workers;
+    /** Scheduler for game ticks. */
+    private final ScheduledExecutorService scheduler;
+    /** Scheduler for delayed responses, separate from the ticks so that neither can hold up the other. */
+    private final ScheduledExecutorService responder;
+
+    /**
+     * Constructor. Binds the server socket, but does not start serving requests yet.
+     * 
+     * @param engine
+     *            game engine
+     * @param address
+     *            address to listen on; use port 0 for an arbitrary free port
+     * @param threads
+     *            number of worker threads, and of threads sending delayed responses
+     * @param latency
+     *            latency to add to every response, in milliseconds
+     * @throws IOException
+     *             if the server socket cannot be bound
+     */
+    public LocalServer(GameEngine engine, InetSocketAddress address, int threads, int latency) throws IOException {
+        super();
+        this.engine = engine;
+        this.latency = latency;
+        this.workers = Executors.newFixedThreadPool(threads, createThreadFactory("LocalServer worker"));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(createThreadFactory("LocalServer scheduler"));
+        this.responder = Executors.newScheduledThreadPool(threads, createThreadFactory("LocalServer responder"));
+        this.server = HttpServer.create(address, BACKLOG);
+        this.server.setExecutor(workers);
+        this.server.createContext(CONTEXT_PATH + "/level", new LevelHandler());
+        this.server.createContext(CONTEXT_PATH + "/world", new WorldHandler());
+        this.server.createContext(CONTEXT_PATH + "/players", new PlayersHandler());
+        this.server.createContext(CONTEXT_PATH + "/player", new PlayerHandler());
+    }
+
+    /**
+     * Main method. Starts a server and keeps running until the process is killed.
+     * 
+     * The server is configured using the system properties "devnobot.localserver.port",
+     * "devnobot.localserver.threads", "devnobot.localserver.latency", "devnobot.localserver.tickDuration",
+     * "devnobot.localserver.map", "devnobot.localserver.cellSize" and "devnobot.localserver.seed". If no map is
+     * specified, the level is an empty 800 x 600 arena.
+     * 
+     * @param args
+     *            command-line parameters; these are ignored
+     * @throws IOException
+     *             if the map cannot be read or the server socket cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.getInteger(PORT_SYSTEM_PROPERTY, DEFAULT_PORT).intValue();
+        int threads = Integer.getInteger(THREADS_SYSTEM_PROPERTY, DEFAULT_THREADS).intValue();
+        int latency = Integer.getInteger(LATENCY_SYSTEM_PROPERTY, DEFAULT_LATENCY).intValue();
+        long seed = Long.getLong(SEED_SYSTEM_PROPERTY, System.currentTimeMillis()).longValue();
+
+        SimulationSettings defaults = SimulationSettings.createDefault();
+        int tickDuration = Integer.getInteger(TICK_DURATION_SYSTEM_PROPERTY, defaults.getTickDuration()).intValue();
+        SimulationSettings settings = new SimulationSettings(tickDuration, defaults.getTankWidth(),
+                defaults.getTankHeight(), defaults.getDistancePerStep(), defaults.getActionDuration(),
+                defaults.getFireDuration(), defaults.getBulletSize(), defaults.getBulletDistancePerTick());
+
+        String map = System.getProperty(MAP_SYSTEM_PROPERTY);
+        Collection<Wall> walls;
+        if (map == null) {
+            walls = Levels.createArena(800, 600, 10);
+        } else {
+            int cellSize = Integer.getInteger(CELL_SIZE_SYSTEM_PROPERTY, DEFAULT_CELL_SIZE).intValue();
+            walls = Levels.readAsciiMap(Paths.get(map), cellSize);
+        }
+
+        LocalServer server = new LocalServer(new GameEngine(walls, settings, seed), new InetSocketAddress(port),
+                threads, latency);
+        server.start();
+        log.info("Local server listening on port {}. Settings: {}, seed: {}, latency: {} ms, worker threads: {}",
+                new Object[] { "" + server.getPort(), settings, "" + seed, "" + latency, "" + threads });
+    }
+
+    /**
+     * Creates a thread factory for daemon threads, so that the server does not keep the JVM alive by itself.
+     * 
+     * @param threadName
+     *            base name for the threads
+     * @return thread factory
+     */
+    private static ThreadFactory createThreadFactory(final String threadName) {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            /** {@inheritDoc} */
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread result = new Thread(runnable, threadName + " " + count.incrementAndGet());
+                result.setDaemon(true);
+                return result;
+            }
+        };
+    }
+
+    /** Starts serving requests and advancing the game. */
+    public void start() {
+        int tickDuration = engine.getSettings().getTickDuration();
+        scheduler.scheduleAtFixedRate(new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                try {
+                    engine.step();
+                } catch (RuntimeException e) {
+                    // Keep ticking; an exception would cancel all future ticks.
+                    log.error("Unexpected exception while advancing the game", e);
+                }
+            }
+        }, tickDuration, tickDuration, TimeUnit.MILLISECONDS);
+        server.start();
+    }
+
+    /** Stops the server. Requests which are still being handled get one second to finish. */
+    public void stop() {
+        server.stop(1);
+        scheduler.shutdownNow();
+        responder.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /** @return port the server is listening on */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Sends a response, after the configured latency.
+     * 
+     * @param exchange
+     *            exchange
+     * @param status
+     *            HTTP status code
+     * @param body
+     *            response body; may be null for responses without a body
+     */
+    private void respond(final HttpExchange exchange, final int status, final byte[] body) {
+        if (latency <= 0) {
+            send(exchange, status, body);
+        } else {
+            responder.schedule(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    send(exchange, status, body);
+                }
+            }, latency, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends a response immediately and closes the exchange.
+     * 
+     * @param exchange
+     *            exchange
+     * @param status
+     *            HTTP status code
+     * @param body
+     *            response body; may be null for responses without a body
+     */
+    private static void send(HttpExchange exchange, int status, byte[] body) {
+        try {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+                exchange.sendResponseHeaders(status, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // Most likely the client has disconnected.
+            log.warn("Unable to send response to " + exchange.getRemoteAddress(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Reads and discards the request body, so the connection can be reused.
+     * 
+     * @param exchange
+     *            exchange
+     * @throws IOException
+     *             if the request body cannot be read
+     */
+    private static void drainRequestBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        byte[] buffer = new byte[1024];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    /**
+     * Parses the request body as JSON.
+     * 
+     * @param exchange
+     *            exchange
+     * @return parsed body
+     * @throws IOException
+     *             if the request body cannot be read
+     * @throws JsonParseException
+     *             if the request body does not contain valid JSON
+     */
+    private static JsonElement parseRequestBody(HttpExchange exchange) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(exchange.getRequestBody(), UTF_8));
+        reader.setLenient(true);
+        JsonElement result = new JsonParser().parse(reader);
+        drainRequestBody(exchange);
+        return result;
+    }
+
+    /**
+     * Looks up a string property in the given JSON object. Depending on the JSON provider, the client may wrap the
+     * object in another object with the root element name, so the property is also looked up in a nested object.
+     * 
+     * @param element
+     *            JSON element
+     * @param name
+     *            property name
+     * @return property value, or null if not present
+     */
+    private static String retrieveString(JsonElement element, String name) {
+        String result = null;
+        if (element.isJsonObject()) {
+            JsonObject object = element.getAsJsonObject();
+            JsonElement value = object.get(name);
+            if (value != null && value.isJsonPrimitive()) {
+                result = value.getAsString();
+            } else if (object.entrySet().size() == 1) {
+                result = retrieveString(object.entrySet().iterator().next().getValue(), name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads an action from the given JSON element. Accepts both a plain JSON string and, depending on the JSON
+     * provider used by the client, a string wrapped in an object.
+     * 
+     * @param element
+     *            JSON element
+     * @return action, or null if the element does not contain a valid action
+     */
+    private static Action readAction(JsonElement element) {
+        Action result = null;
+        if (element.isJsonPrimitive()) {
+            JsonPrimitive primitive = element.getAsJsonPrimitive();
+            if (primitive.isString()) {
+                try {
+                    result = Action.fromAPIAction(com.cgi.devnobot.api.Action.valueOf(primitive.getAsString()));
+                } catch (IllegalArgumentException e) {
+                    result = null;
+                }
+            }
+        } else if (element.isJsonObject()) {
+            for (Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                if (result == null) {
+                    result = readAction(entry.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts a boolean result from the engine into a response status.
+     * 
+     * @param success
+     *            whether the operation succeeded
+     * @param failureStatus
+     *            status to use in case of failure
+     * @return status code
+     */
+    private static int toStatus(boolean success, int failureStatus) {
+        int result;
+        if (success) {
+            result = HttpURLConnection.HTTP_NO_CONTENT;
+        } else {
+            result = failureStatus;
+        }
+        return result;
+    }
+
+    /** Base class for the handlers. Takes care of error handling. */
+    private abstract class AbstractHandler implements HttpHandler {
+        /** {@inheritDoc} */
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            try {
+                handleRequest(exchange);
+            } catch (JsonParseException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Invalid request body for " + exchange.getRequestURI(), e);
+                }
+                respond(exchange, HttpURLConnection.HTTP_BAD_REQUEST, null);
+            } catch (RuntimeException e) {
+                log.error("Unexpected exception while handling " + exchange.getRequestURI(), e);
+                respond(exchange, HttpURLConnection.HTTP_INTERNAL_ERROR, null);
+            }
+        }
+
+        /**
+         * Handles a request. Implementations must call {@link LocalServer#respond(HttpExchange, int, byte[])} exactly
+         * once.
+         * 
+         * @param exchange
+         *            exchange
+         * @throws IOException
+         *             if the request cannot be read or the response cannot be written
+         */
+        protected abstract void handleRequest(HttpExchange exchange) throws IOException;
+    }
+
+    /** Base class for handlers which serve a JSON document on GET. */
+    private abstract class AbstractGetHandler extends AbstractHandler {
+        /** {@inheritDoc} */
+        @Override
+        protected void handleRequest(HttpExchange exchange) throws IOException {
+            drainRequestBody(exchange);
+            if ("GET".equals(exchange.getRequestMethod())) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                Writer writer = new OutputStreamWriter(body, UTF_8);
+                write(writer);
+                writer.flush();
+                respond(exchange, HttpURLConnection.HTTP_OK, body.toByteArray());
+            } else {
+                respond(exchange, HttpURLConnection.HTTP_BAD_METHOD, null);
+            }
+        }
+
+        /**
+         * Writes the document.
+         * 
+         * @param writer
+         *            writer
+         * @throws IOException
+         *             if the writer fails
+         */
+        protected abstract void write(Writer writer) throws IOException;
+    }
+
+    /** Handler for the level resource. */
+    private class LevelHandler extends AbstractGetHandler {
+        /** {@inheritDoc} */
+        @Override
+        protected void write(Writer writer) throws IOException {
+            JsonModelWriter.writeWalls(engine.getWalls(), writer);
+        }
+    }
+
+    /** Handler for the world resource. */
+    private class WorldHandler extends AbstractGetHandler {
+        /** {@inheritDoc} */
+        @Override
+        protected void write(Writer writer) throws IOException {
+            JsonModelWriter.writeGameState(engine.createGameState(), writer);
+        }
+    }
+
+    /** Handler for the players resource. */
+    private class PlayersHandler extends AbstractGetHandler {
+        /** {@inheritDoc} */
+        @Override
+        protected void write(Writer writer) throws IOException {
+            JsonModelWriter.writePlayers(engine.createPlayers(), writer);
+        }
+    }
+
+    /** Handler for the player resource: creating players, adding actions and suicides. */
+    private class PlayerHandler extends AbstractHandler {
+        /** {@inheritDoc} */
+        @Override
+        protected void handleRequest(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getPath();
+            String prefix = CONTEXT_PATH + "/player/";
+            String id;
+            if (path.startsWith(prefix) && prefix.length() < path.length()) {
+                id = path.substring(prefix.length());
+            } else {
+                id = null;
+            }
+            String method = exchange.getRequestMethod();
+
+            if (id == null && "POST".equals(method)) {
+                JsonElement body = parseRequestBody(exchange);
+                boolean success = engine.createPlayer(retrieveString(body, "name"), retrieveString(body, "color"),
+                        retrieveString(body, "id"));
+                respond(exchange, toStatus(success, HttpURLConnection.HTTP_BAD_REQUEST), null);
+            } else if (id != null && "PUT".equals(method)) {
+                Action action = readAction(parseRequestBody(exchange));
+                boolean success = action != null && engine.addAction(action, id);
+                respond(exchange, toStatus(success, HttpURLConnection.HTTP_BAD_REQUEST), null);
+            } else if (id != null && "DELETE".equals(method)) {
+                drainRequestBody(exchange);
+                respond(exchange, toStatus(engine.suicide(id), HttpURLConnection.HTTP_NOT_FOUND), null);
+            } else {
+                drainRequestBody(exchange);
+                respond(exchange, HttpURLConnection.HTTP_BAD_METHOD, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+/**
+ * Implementation of {@link ClientApi} which talks to an in-process {@link GameEngine} instead of a game server.
+ * 
+ * Note that this class does not advance the game; that is up to whoever owns the engine.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+public class SimulatedClientApi implements ClientApi {
+    /** Game engine. */
+    @NonNull
+    private final GameEngine engine;
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<Wall> readLevel() {
+        return engine.getWalls();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean createPlayer(String name, String color, String id) {
+        return engine.createPlayer(name, color, id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Collection<Player> readPlayers() {
+        return engine.createPlayers();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean addAction(Action action, String playerId) {
+        return engine.addAction(action, playerId);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<Boolean> addActions(List<Action> actions, String playerId) {
+        List<Boolean> result = new ArrayList<>(actions.size());
+        boolean success = true;
+        for (Action action : actions) {
+            if (success && action == Action.SUICIDE) {
+                success = engine.suicide(playerId);
+            } else if (success) {
+                success = engine.addAction(action, playerId);
+            }
+            // else: a previous action failed; do not execute this one
+            result.add(Boolean.valueOf(success));
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GameState readWorldStatus() {
+        return engine.createGameState();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean suicide(String playerId) {
+        return engine.suicide(playerId);
+    }
+}
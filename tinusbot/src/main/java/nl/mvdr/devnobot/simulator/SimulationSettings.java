@@ -0,0 +1,41 @@
+package nl.mvdr.devnobot.simulator;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Game rule parameters for the {@link GameEngine}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public class SimulationSettings {
+    /** Duration of a single simulation step in milliseconds. */
+    private final int tickDuration;
+    /** Width of a tank facing north or south. */
+    private final int tankWidth;
+    /** Height of a tank facing north or south. */
+    private final int tankHeight;
+    /** The distance a tank moves when moving forward or backward. */
+    private final int distancePerStep;
+    /** The time it takes to move forward/backward/turn left/turn right in milliseconds. */
+    private final int actionDuration;
+    /** The time it takes to fire in milliseconds. */
+    private final int fireDuration;
+    /** Width and height of a bullet. */
+    private final int bulletSize;
+    /** The distance a bullet travels during a single simulation step. */
+    private final int bulletDistancePerTick;
+
+    /**
+     * Creates settings which approximate those of the contest server.
+     * 
+     * @return default settings
+     */
+    public static SimulationSettings createDefault() {
+        return new SimulationSettings(10, 30, 40, 10, 250, 500, 4, 8);
+    }
+}
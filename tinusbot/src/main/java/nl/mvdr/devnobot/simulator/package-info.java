@@ -0,0 +1,6 @@
+/**
+ * Contains an in-process simulation of the game, which can be used to run bots without a game server.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.devnobot.simulator;
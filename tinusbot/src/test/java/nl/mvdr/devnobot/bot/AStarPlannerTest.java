@@ -0,0 +1,154 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.SpatialIndex;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+import nl.mvdr.devnobot.model.WallMap;
+import nl.mvdr.devnobot.simulator.Levels;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link AStarPlanner}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class AStarPlannerTest {
+    /** Set up. */
+    @Before
+    public void setUp() {
+        Bullet.resetBulletSize();
+    }
+
+    /** Test method for {@link AStarPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)}. */
+    @Test
+    public void testTurnToFire() {
+        List<Wall> walls = new ArrayList<>(Levels.createArena(400, 300, 10));
+        Tank ownTank = BreadthFirstPlannerTest.createTank(100, 100, Orientation.NORTH, "Aad");
+        Tank enemy = BreadthFirstPlannerTest.createTank(300, 100, Orientation.NORTH, "Sjaak");
+        AStarPlanner planner = new AStarPlanner();
+
+        List<Action> result = plan(planner, walls, ownTank, Arrays.asList(enemy), EnumSet.allOf(Action.class));
+
+        // Positions are only tested as firing positions from the second move on, so turning right is not enough.
+        Assert.assertEquals(Arrays.asList(Action.FORWARD, Action.TURN_RIGHT), result);
+        Assert.assertEquals(2, planner.getPathLength());
+    }
+
+    /**
+     * Test method for {@link AStarPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)} in case no
+     * first move is allowed.
+     */
+    @Test
+    public void testNoFirstMoves() {
+        List<Wall> walls = new ArrayList<>(Levels.createArena(400, 300, 10));
+        Tank ownTank = BreadthFirstPlannerTest.createTank(100, 100, Orientation.NORTH, "Aad");
+        Tank enemy = BreadthFirstPlannerTest.createTank(300, 100, Orientation.NORTH, "Sjaak");
+        AStarPlanner planner = new AStarPlanner();
+
+        List<Action> result = plan(planner, walls, ownTank, Arrays.asList(enemy), EnumSet.noneOf(Action.class));
+
+        Assert.assertTrue(result.isEmpty());
+        Assert.assertEquals(0, planner.getPathLength());
+    }
+
+    /**
+     * Test method for {@link AStarPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)}. Compares
+     * the results and path lengths to those of {@link BreadthFirstPlanner}, in random levels.
+     */
+    @Test
+    public void testCompareToBreadthFirst() {
+        Random random = new Random(24);
+        AStarPlanner planner = new AStarPlanner();
+        BreadthFirstPlanner reference = new BreadthFirstPlanner();
+        int paths = 0;
+        for (int i = 0; i != 100; i++) {
+            List<Wall> walls = BreadthFirstPlannerTest.createRandomLevel(random);
+            Tank ownTank = BreadthFirstPlannerTest.createRandomTank(random, walls, "Aad");
+            List<Tank> enemies = new ArrayList<>();
+            int enemyCount = 1 + random.nextInt(3);
+            for (int j = 0; j != enemyCount; j++) {
+                enemies.add(BreadthFirstPlannerTest.createRandomTank(random, walls, "Enemy " + j));
+            }
+            Set<Action> firstMoves = EnumSet.noneOf(Action.class);
+            for (Action action : Arrays.asList(Action.FORWARD, Action.BACKWARD, Action.TURN_RIGHT, Action.TURN_LEFT)) {
+                if (random.nextInt(4) != 0) {
+                    firstMoves.add(action);
+                }
+            }
+
+            List<Action> expected = plan(reference, walls, ownTank, enemies, firstMoves);
+            List<Action> result = plan(planner, walls, ownTank, enemies, firstMoves);
+
+            String message = ownTank + " " + enemies;
+            Assert.assertEquals(message, expected, result);
+            Assert.assertEquals(message, reference.getPathLength(), planner.getPathLength());
+            if (!result.isEmpty()) {
+                paths++;
+            }
+        }
+        // Make sure the test covers some successful searches.
+        Assert.assertTrue("" + paths, 0 < paths);
+    }
+
+    /**
+     * Test method for {@link AStarPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)} in an open
+     * level, where the heuristic should keep the search from expanding in all directions.
+     */
+    @Test
+    public void testOpenLevel() {
+        List<Wall> walls = new ArrayList<>(Levels.createArena(1000, 800, 10));
+        Tank ownTank = BreadthFirstPlannerTest.createTank(100, 600, Orientation.NORTH, "Aad");
+        Tank enemy = BreadthFirstPlannerTest.createTank(800, 100, Orientation.NORTH, "Sjaak");
+        AStarPlanner planner = new AStarPlanner();
+        BreadthFirstPlanner reference = new BreadthFirstPlanner();
+
+        List<Action> expected = plan(reference, walls, ownTank, Arrays.asList(enemy), EnumSet.allOf(Action.class));
+        List<Action> result = plan(planner, walls, ownTank, Arrays.asList(enemy), EnumSet.allOf(Action.class));
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(reference.getPathLength(), planner.getPathLength());
+        Assert.assertTrue(planner.getNodeCount() + " " + reference.getNodeCount(),
+                10 * planner.getNodeCount() < reference.getNodeCount());
+    }
+
+    /**
+     * Plans using the given planner.
+     * 
+     * @param planner
+     *            planner
+     * @param walls
+     *            walls
+     * @param ownTank
+     *            own tank
+     * @param enemies
+     *            enemies
+     * @param firstMoves
+     *            allowed first moves
+     * @return planned actions
+     */
+    private static List<Action> plan(FiringPositionPlanner planner, List<Wall> walls, Tank ownTank,
+            List<Tank> enemies, Set<Action> firstMoves) {
+        List<Tank> tanks = new ArrayList<>(enemies);
+        tanks.add(ownTank);
+        GameState state = new GameState(tanks, new ArrayList<Bullet>());
+        WallMap wallMap = new WallMap(walls);
+        return planner.plan(ownTank, firstMoves, state, wallMap.createOverlay(enemies), wallMap,
+                LevelBoundary.buildLevelBoundary(walls, tanks));
+    }
+}
@@ -0,0 +1,120 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.Collections;
+
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Tank;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link AdaptiveTickScheduler}.
+ * 
+ * The tests simulate a server which publishes a new world status every {@value #SERVER_PERIOD} ms.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class AdaptiveTickSchedulerTest {
+    /** Publication period of the simulated server. */
+    private static final int SERVER_PERIOD = 500;
+    /** Time of the first publication of the simulated server. */
+    private static final int SERVER_PHASE = 123;
+    /** Round trip time. */
+    private static final int ROUND_TRIP_TIME = 40;
+    /** Number of requests to simulate. */
+    private static final int REQUESTS = 400;
+    /** Number of requests to ignore at the start of the simulation, while the scheduler calibrates. */
+    private static final int WARMUP = 100;
+
+    /** Tests that the scheduler finds the server's period. */
+    @Test
+    public void testPeriod() {
+        AdaptiveTickScheduler scheduler = new AdaptiveTickScheduler(550);
+
+        simulate(scheduler, SERVER_PERIOD);
+
+        Assert.assertTrue(scheduler.isCalibrated());
+        Assert.assertEquals(SERVER_PERIOD, scheduler.getPeriod(), 10);
+    }
+
+    /** Tests that new world statuses are seen sooner than with the fixed scheduler, without many wasted requests. */
+    @Test
+    public void testAge() {
+        double[] adaptive = simulate(new AdaptiveTickScheduler(550), SERVER_PERIOD);
+        double[] fixed = simulate(new FixedPeriodTickScheduler(550), SERVER_PERIOD);
+
+        Assert.assertTrue("Average age: " + adaptive[0], adaptive[0] < 50);
+        Assert.assertTrue(adaptive[0] < fixed[0] / 4);
+        Assert.assertTrue("Wasted requests: " + adaptive[1], adaptive[1] < 0.25);
+    }
+
+    /** Tests that the scheduler adapts when the server's period changes. */
+    @Test
+    public void testPeriodChange() {
+        AdaptiveTickScheduler scheduler = new AdaptiveTickScheduler(550);
+        simulate(scheduler, SERVER_PERIOD);
+
+        double[] result = simulate(scheduler, 300);
+
+        Assert.assertEquals(300, scheduler.getPeriod(), 10);
+        Assert.assertTrue("Average age: " + result[0], result[0] < 50);
+    }
+
+    /** Test method for {@link FixedPeriodTickScheduler}. */
+    @Test
+    public void testFixed() {
+        TickScheduler scheduler = new FixedPeriodTickScheduler(550);
+
+        Assert.assertEquals(1550, scheduler.computeNextRequestTime(1000, 1040));
+    }
+
+    /**
+     * Simulates a series of requests, timed by the given scheduler.
+     * 
+     * @param scheduler
+     *            scheduler
+     * @param serverPeriod
+     *            publication period of the server
+     * @return average age in milliseconds of each new world status when it is first seen, and the fraction of
+     *         requests that returned an unchanged status, after the warmup
+     */
+    private double[] simulate(TickScheduler scheduler, int serverPeriod) {
+        long time = 1000000;
+        long previousVersion = -1;
+        long totalAge = 0;
+        int seen = 0;
+        int wasted = 0;
+        for (int i = 0; i != REQUESTS; i++) {
+            long serverTime = time + ROUND_TRIP_TIME / 2;
+            long version = (serverTime - SERVER_PHASE) / serverPeriod;
+            long responseTime = time + ROUND_TRIP_TIME;
+            scheduler.update(time, responseTime, createGameState(version));
+            if (WARMUP <= i) {
+                if (version == previousVersion) {
+                    wasted++;
+                } else {
+                    totalAge = totalAge + serverTime - (SERVER_PHASE + version * serverPeriod);
+                    seen++;
+                }
+            }
+            previousVersion = version;
+            time = Math.max(responseTime, scheduler.computeNextRequestTime(time, responseTime));
+        }
+        return new double[] { (double) totalAge / seen, (double) wasted / (REQUESTS - WARMUP) };
+    }
+
+    /**
+     * Creates a game state which is different for every version.
+     * 
+     * @param version
+     *            version
+     * @return game state
+     */
+    private GameState createGameState(long version) {
+        Tank tank = new Tank((int) version, 0, 30, 40, Orientation.NORTH, 300, 8, "Aad", 0);
+        return new GameState(Collections.singleton(tank), Collections.<Bullet> emptyList());
+    }
+}
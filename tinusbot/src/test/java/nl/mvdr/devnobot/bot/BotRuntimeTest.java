@@ -0,0 +1,96 @@
+package nl.mvdr.devnobot.bot;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.metrics.Phase;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.simulator.GameEngine;
+import nl.mvdr.devnobot.simulator.Levels;
+import nl.mvdr.devnobot.simulator.SimulatedClientApi;
+import nl.mvdr.devnobot.simulator.SimulationSettings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link BotRuntime}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BotRuntimeTest {
+    /** Number of bots. */
+    private static final int NUM_BOTS = 40;
+
+    /** Tests that many bots can run on a couple of threads. */
+    @Test(timeout = 30000)
+    public void testManyBots() throws InterruptedException {
+        GameEngine engine = new GameEngine(Levels.createArena(800, 600, 10), SimulationSettings.createDefault(), 0);
+        ClientApi api = new SimulatedClientApi(engine);
+        List<DummyBot> bots = new ArrayList<>();
+        for (int i = 0; i != NUM_BOTS; i++) {
+            bots.add(new DummyBot(api, DummyBot.DEFAULT_NAME + i, Color.RED));
+        }
+        BotRuntime runtime = new BotRuntime(2, 4);
+
+        for (DummyBot bot : bots) {
+            runtime.add(bot);
+        }
+        for (DummyBot bot : bots) {
+            while (bot.getPhaseTimings().retrieve(Phase.ITERATION).snapshot().getCount() < 2) {
+                Thread.sleep(10);
+            }
+        }
+        runtime.shutdown();
+
+        Assert.assertTrue(runtime.awaitTermination(5000));
+        Assert.assertEquals(NUM_BOTS, runtime.getBotCount());
+        Assert.assertEquals(NUM_BOTS, engine.createPlayers().size());
+    }
+
+    /**
+     * Tests that players requests which do not return do not stop the game loop, even if there are at least as many
+     * bots as threads performing the steps.
+     */
+    @Test(timeout = 30000)
+    public void testSlowLeaderboard() throws InterruptedException {
+        GameEngine engine = new GameEngine(Levels.createArena(800, 600, 10), SimulationSettings.createDefault(), 0);
+        final CountDownLatch release = new CountDownLatch(1);
+        ClientApi api = new SimulatedClientApi(engine) {
+            /** {@inheritDoc} */
+            @Override
+            public Collection<Player> readPlayers() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readPlayers();
+            }
+        };
+        List<DummyBot> bots = new ArrayList<>();
+        for (int i = 0; i != 4; i++) {
+            bots.add(new DummyBot(api, DummyBot.DEFAULT_NAME + i, Color.RED));
+        }
+        BotRuntime runtime = new BotRuntime(2, 2);
+
+        try {
+            for (DummyBot bot : bots) {
+                runtime.add(bot);
+            }
+            for (DummyBot bot : bots) {
+                while (bot.getPhaseTimings().retrieve(Phase.ITERATION).snapshot().getCount() < 3) {
+                    Thread.sleep(10);
+                }
+                Assert.assertEquals(0, bot.getPhaseTimings().retrieve(Phase.LEADERBOARD).snapshot().getCount());
+            }
+        } finally {
+            release.countDown();
+            runtime.shutdown();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.LevelBoundary;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.SpatialIndex;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.TankPosition;
+import nl.mvdr.devnobot.model.Wall;
+import nl.mvdr.devnobot.model.WallMap;
+import nl.mvdr.devnobot.simulator.Levels;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link BreadthFirstPlanner}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BreadthFirstPlannerTest {
+    /** Set up. */
+    @Before
+    public void setUp() {
+        Bullet.resetBulletSize();
+    }
+
+    /** Test method for {@link BreadthFirstPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)}. */
+    @Test
+    public void testTurnToFire() {
+        List<Wall> walls = new ArrayList<>(Levels.createArena(400, 300, 10));
+        Tank ownTank = createTank(100, 100, Orientation.NORTH, "Aad");
+        Tank enemy = createTank(300, 100, Orientation.NORTH, "Sjaak");
+
+        List<Action> result = plan(walls, ownTank, Arrays.asList(enemy), EnumSet.allOf(Action.class));
+
+        // Positions are only tested as firing positions from the second move on, so turning right is not enough.
+        Assert.assertEquals(Arrays.asList(Action.FORWARD, Action.TURN_RIGHT), result);
+    }
+
+    /**
+     * Test method for {@link BreadthFirstPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)} in
+     * case no first move is allowed.
+     */
+    @Test
+    public void testNoFirstMoves() {
+        List<Wall> walls = new ArrayList<>(Levels.createArena(400, 300, 10));
+        Tank ownTank = createTank(100, 100, Orientation.NORTH, "Aad");
+        Tank enemy = createTank(300, 100, Orientation.NORTH, "Sjaak");
+
+        List<Action> result = plan(walls, ownTank, Arrays.asList(enemy), EnumSet.noneOf(Action.class));
+
+        Assert.assertTrue(result.isEmpty());
+    }
+
+    /**
+     * Test method for {@link BreadthFirstPlanner#plan(Tank, Set, GameState, SpatialIndex, WallMap, LevelBoundary)}.
+     * Compares the results to a straightforward breadth-first search over tank positions, in random levels.
+     */
+    @Test
+    public void testCompareToReference() {
+        Random random = new Random(18);
+        BreadthFirstPlanner planner = new BreadthFirstPlanner();
+        int paths = 0;
+        for (int i = 0; i != 40; i++) {
+            List<Wall> walls = createRandomLevel(random);
+            Tank ownTank = createRandomTank(random, walls, "Aad");
+            List<Tank> enemies = new ArrayList<>();
+            int enemyCount = 1 + random.nextInt(3);
+            for (int j = 0; j != enemyCount; j++) {
+                enemies.add(createRandomTank(random, walls, "Enemy " + j));
+            }
+            Set<Action> firstMoves = EnumSet.noneOf(Action.class);
+            for (Action action : Arrays.asList(Action.FORWARD, Action.BACKWARD, Action.TURN_RIGHT, Action.TURN_LEFT)) {
+                if (random.nextInt(4) != 0) {
+                    firstMoves.add(action);
+                }
+            }
+            List<Tank> tanks = new ArrayList<>(enemies);
+            tanks.add(ownTank);
+            GameState state = new GameState(tanks, new ArrayList<Bullet>());
+            LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
+            WallMap wallMap = new WallMap(walls);
+
+            List<Action> expected = planReference(walls, state, ownTank, enemies, firstMoves, boundary);
+            List<Action> result = planner.plan(ownTank, firstMoves, state, wallMap.createOverlay(enemies), wallMap,
+                    boundary);
+
+            Assert.assertEquals(ownTank + " " + enemies, expected, result);
+            if (!result.isEmpty()) {
+                paths++;
+            }
+        }
+        // Make sure the test covers some successful searches.
+        Assert.assertTrue("" + paths, 0 < paths);
+    }
+
+    /**
+     * Plans using a new planner.
+     * 
+     * @param walls
+     *            walls
+     * @param ownTank
+     *            own tank
+     * @param enemies
+     *            enemies
+     * @param firstMoves
+     *            allowed first moves
+     * @return planned actions
+     */
+    private static List<Action> plan(List<Wall> walls, Tank ownTank, List<Tank> enemies, Set<Action> firstMoves) {
+        List<Tank> tanks = new ArrayList<>(enemies);
+        tanks.add(ownTank);
+        GameState state = new GameState(tanks, new ArrayList<Bullet>());
+        WallMap wallMap = new WallMap(walls);
+        return new BreadthFirstPlanner().plan(ownTank, firstMoves, state, wallMap.createOverlay(enemies), wallMap,
+                LevelBoundary.buildLevelBoundary(walls, tanks));
+    }
+
+    /**
+     * Reference implementation: breadth-first search using tanks and unindexed collision checks.
+     * 
+     * @param walls
+     *            walls
+     * @param state
+     *            game state
+     * @param ownTank
+     *            own tank
+     * @param targets
+     *            targets
+     * @param firstMoves
+     *            allowed first moves
+     * @param boundary
+     *            level boundary
+     * @return planned actions
+     */
+    private static List<Action> planReference(List<Wall> walls, GameState state, Tank ownTank,
+            Collection<Tank> targets, Set<Action> firstMoves, LevelBoundary boundary) {
+        Map<TankPosition, List<Action>> visited = new HashMap<>();
+        List<TankPosition> queue = new ArrayList<>();
+        TankPosition start = new TankPosition(ownTank);
+        visited.put(start, new ArrayList<Action>());
+        queue.add(start);
+        List<Action> result = new ArrayList<>();
+        for (int i = 0; result.isEmpty() && i != queue.size(); i++) {
+            TankPosition position = queue.get(i);
+            for (Entry<Action, TankPosition> entry : position.computeReachablePositions().entrySet()) {
+                Tank tank = entry.getValue().getTank();
+                boolean move = entry.getKey() == Action.FORWARD || entry.getKey() == Action.BACKWARD;
+                if (result.isEmpty() && (i != 0 || firstMoves.contains(entry.getKey())) && tank.overlaps(boundary)
+                        && !visited.containsKey(entry.getValue()) && (!move || !tank.overlaps(walls))) {
+                    List<Action> path = new ArrayList<>(visited.get(position));
+                    path.add(entry.getKey());
+                    visited.put(entry.getValue(), path);
+                    queue.add(entry.getValue());
+                    if (i != 0 && state.wouldHitEnemy(tank, targets, walls, boundary)) {
+                        result.add(path.get(0));
+                        if ((path.get(0) == Action.FORWARD || path.get(0) == Action.BACKWARD)
+                                && (path.get(1) == Action.TURN_LEFT || path.get(1) == Action.TURN_RIGHT)) {
+                            result.add(path.get(1));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a random level of 400 by 300 pixels.
+     * 
+     * @param random
+     *            random number generator
+     * @return walls
+     */
+    static List<Wall> createRandomLevel(Random random) {
+        List<String> rows = new ArrayList<>();
+        for (int row = 0; row != 15; row++) {
+            StringBuilder line = new StringBuilder();
+            for (int column = 0; column != 20; column++) {
+                if (row == 0 || row == 14 || column == 0 || column == 19 || random.nextInt(8) == 0) {
+                    line.append('#');
+                } else {
+                    line.append(' ');
+                }
+            }
+            rows.add(line.toString());
+        }
+        return new ArrayList<>(Levels.parseAsciiMap(rows, 20));
+    }
+
+    /**
+     * Creates a tank in a random position which does not overlap any walls.
+     * 
+     * @param random
+     *            random number generator
+     * @param walls
+     *            walls
+     * @param name
+     *            player name
+     * @return tank
+     */
+    static Tank createRandomTank(Random random, List<Wall> walls, String name) {
+        Tank result;
+        do {
+            Orientation orientation = Orientation.values()[random.nextInt(Orientation.values().length)];
+            result = createTank(random.nextInt(400), random.nextInt(300), orientation, name);
+        } while (result.overlaps(walls));
+        return result;
+    }
+
+    /**
+     * Creates a tank with the default size from the simulator.
+     * 
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @param orientation
+     *            orientation
+     * @param name
+     *            player name
+     * @return tank
+     */
+    static Tank createTank(int x, int y, Orientation orientation, String name) {
+        int width;
+        int height;
+        if (orientation == Orientation.NORTH || orientation == Orientation.SOUTH) {
+            width = 30;
+            height = 40;
+        } else {
+            width = 40;
+            height = 30;
+        }
+        return new Tank(x, y, width, height, orientation, 250, 10, name, 0);
+    }
+}
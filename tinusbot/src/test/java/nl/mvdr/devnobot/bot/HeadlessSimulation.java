@@ -0,0 +1,125 @@
+package nl.mvdr.devnobot.bot;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Leaderboard;
+import nl.mvdr.devnobot.model.Wall;
+import nl.mvdr.devnobot.simulator.GameEngine;
+
+/**
+ * Runs bots against an in-process {@link GameEngine}, in simulated time.
+ * 
+ * Instead of running each bot's game loop on its own thread, this class drives the bots' decision logic directly from
+ * a single thread. Each bot is asked for its next actions at the same interval as in its real game loop, but measured
+ * in simulated time, so a game runs as fast as the bots can make their decisions. Given the same engine seed and
+ * deterministic bots, the outcome of a simulation is always the same.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class HeadlessSimulation {
+    /** Interval between leaderboard refreshes, in simulated milliseconds. */
+    private static final int LEADERBOARD_INTERVAL = 1000;
+
+    /** Game engine. */
+    @NonNull
+    private final GameEngine engine;
+    /** Bots taking part in the simulation. */
+    private final List<BotArtificialIntelligence> bots = new ArrayList<>();
+    /** Player ids of the bots, in the same order as the bots. */
+    private final List<String> ids = new ArrayList<>();
+    /** Simulated time at which each bot makes its next decision, in the same order as the bots. */
+    private final List<Long> nextDecisionTimes = new ArrayList<>();
+
+    /** Latest leaderboard; null until the simulation has started. */
+    private Leaderboard leaderboard;
+
+    /**
+     * Adds a bot to the simulation.
+     * 
+     * @param bot
+     *            bot; its name must be unique within the simulation
+     * @throws IllegalArgumentException
+     *             if the bot cannot join the game
+     */
+    public void add(BotArtificialIntelligence bot) {
+        String id = bot.getName() + '-' + bots.size();
+        if (!engine.createPlayer(bot.getName(), bot.getColor(), id)) {
+            throw new IllegalArgumentException("Unable to add bot " + bot.getName());
+        }
+        bots.add(bot);
+        ids.add(id);
+        nextDecisionTimes.add(Long.valueOf(engine.getTime()));
+    }
+
+    /**
+     * Runs the simulation for the given amount of simulated time.
+     * 
+     * @param duration
+     *            duration in simulated milliseconds
+     * @return leaderboard at the end of the simulation
+     */
+    public Leaderboard run(long duration) {
+        Collection<Wall> walls = engine.getWalls();
+        long endTime = engine.getTime() + duration;
+        while (engine.getTime() < endTime) {
+            long now = engine.getTime();
+            if (leaderboard == null || leaderboard.getCreationTime() + LEADERBOARD_INTERVAL <= now) {
+                leaderboard = new Leaderboard(now, engine.createPlayers());
+            }
+            GameState state = null;
+            for (int i = 0; i != bots.size(); i++) {
+                if (nextDecisionTimes.get(i).longValue() <= now) {
+                    if (state == null) {
+                        state = engine.createGameState();
+                    }
+                    decide(bots.get(i), ids.get(i), walls, state);
+                    nextDecisionTimes.set(i, Long.valueOf(now + bots.get(i).getThreadSleepDuration()));
+                }
+            }
+            engine.step();
+        }
+        leaderboard = new Leaderboard(engine.getTime(), engine.createPlayers());
+        return leaderboard;
+    }
+
+    /**
+     * Shows the given game state to the bot and, if its queue is empty, lets it determine its next actions and adds
+     * them to its queue.
+     * 
+     * @param bot
+     *            bot
+     * @param id
+     *            player id
+     * @param walls
+     *            walls
+     * @param state
+     *            current game state
+     */
+    private void decide(BotArtificialIntelligence bot, String id, Collection<Wall> walls, GameState state) {
+        try {
+            bot.observe(walls, state, leaderboard);
+            if (state.retrieveTankForPlayerName(bot.getName()).getQueueLength() < 1) {
+                List<Action> actions = bot.determineNextAction(walls, state, leaderboard);
+                for (Action action : actions) {
+                    if (action == Action.SUICIDE) {
+                        engine.suicide(id);
+                    } else if (action != null) {
+                        engine.addAction(action, id);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Same as in the real game loop: log the exception, but keep going.
+            log.error("Unexpected exception in " + bot.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package nl.mvdr.devnobot.bot;
+
+import java.awt.Color;
+
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.model.Leaderboard;
+import nl.mvdr.devnobot.simulator.GameEngine;
+import nl.mvdr.devnobot.simulator.Levels;
+import nl.mvdr.devnobot.simulator.SimulatedClientApi;
+import nl.mvdr.devnobot.simulator.SimulationSettings;
+
+/**
+ * Main class. Runs a series of simulated games of a {@link Tinusbot} against a bunch of {@link DummyBot}s, without a
+ * game server.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class SimulationTester {
+    /** Number of games to simulate. */
+    private static final int NUM_GAMES = 20;
+    /** Duration of a single game in simulated milliseconds. */
+    private static final long GAME_DURATION = 5 * 60 * 1000;
+    /** Number of dummies. */
+    private static final int NUM_DUMMIES = 7;
+    /** Colours for dummy bots. There should be at least NUM_DUMMIES colours in here. */
+    private static final Color[] COLOURS = new Color[] { Color.MAGENTA, Color.RED, Color.BLACK, Color.GREEN,
+            Color.DARK_GRAY, Color.CYAN, Color.YELLOW };
+
+    /**
+     * Main method.
+     * 
+     * @param args
+     *            commandline parameters; unused
+     */
+    public static void main(String[] args) {
+        long startTime = System.currentTimeMillis();
+        for (int game = 0; game != NUM_GAMES; game++) {
+            GameEngine engine = new GameEngine(Levels.createArena(800, 600, 10), SimulationSettings.createDefault(),
+                    game);
+            ClientApi api = new SimulatedClientApi(engine);
+            HeadlessSimulation simulation = new HeadlessSimulation(engine);
+            for (int i = 0; i < NUM_DUMMIES; i++) {
+                simulation.add(new DummyBot(api, DummyBot.DEFAULT_NAME + i, COLOURS[i]));
+            }
+            simulation.add(new Tinusbot(api));
+
+            Leaderboard leaderboard = simulation.run(GAME_DURATION);
+
+            log.info("Game {} with seed {}:\n{}", new Object[] { "" + game, "" + game, leaderboard });
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Simulated {} games in {} ms.", "" + NUM_GAMES, "" + duration);
+    }
+}
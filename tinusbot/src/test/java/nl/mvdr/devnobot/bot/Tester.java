@@ -4,20 +4,26 @@ import java.awt.Color;
 import java.util.ArrayList;
 import java.util.List;
 
-import nl.mvdr.devnobot.clientapi.ClientApi;
 import nl.mvdr.devnobot.clientapi.ClientApiImpl;
+import nl.mvdr.devnobot.clientapi.SnapshotHub;
 import nl.mvdr.devnobot.launcher.Launcher;
 import nl.mvdr.devnobot.model.LeaderboardDisplay;
 
 /**
- * Main class. Spawns a bunch of bots.
+ * Main class. Spawns a bunch of bots in a single {@link BotRuntime}. The bots and the leaderboard display share a single
+ * {@link SnapshotHub}, so the server is polled the same amount regardless of the number of bots.
+ * 
+ * The number of dummies can be set using the system property "devnobot.tester.dummies", for instance to put load on a
+ * server.
  * 
  * @author Martijn van de Rijdt
  */
 public class Tester {
-    /** Number of dummies. */
+    /** Name of the system property containing the number of dummies. */
+    private static final String NUM_DUMMIES_SYSTEM_PROPERTY = "devnobot.tester.dummies";
+    /** Default number of dummies. */
     private static final int NUM_DUMMIES = 7;
-    /** Colours for dummy bots. There should be at least NUM_DUMMIES colours in here. */
+    /** Colours for dummy bots. If there are more dummies than colours, colours are reused. */
     private static final Color[] COLOURS = new Color[] { Color.MAGENTA, Color.RED, Color.BLACK, Color.GREEN,
             Color.DARK_GRAY, Color.CYAN, Color.YELLOW };
 
@@ -29,28 +35,25 @@ public class Tester {
      */
     public static void main(final String[] args) {
         String serverBaseURL = System.getProperty(Launcher.BASE_URL_SYSTEM_PROPERTY, Launcher.DEFAULT_BASE_URL);
-        ClientApi api = new ClientApiImpl(serverBaseURL);
+        SnapshotHub hub = SnapshotHub.create(new ClientApiImpl(serverBaseURL));
+        hub.start();
 
-        List<Runnable> bots = new ArrayList<>();
+        List<BotArtificialIntelligence> bots = new ArrayList<>();
 
         // dummies
-        for (int i = 0; i < NUM_DUMMIES; i++) {
-            bots.add(new DummyBot(api, DummyBot.DEFAULT_NAME + i, COLOURS[i]));
+        int numDummies = Integer.getInteger(NUM_DUMMIES_SYSTEM_PROPERTY, NUM_DUMMIES).intValue();
+        for (int i = 0; i < numDummies; i++) {
+            bots.add(new DummyBot(hub.createClientApi(), DummyBot.DEFAULT_NAME + i, COLOURS[i % COLOURS.length]));
         }
 
         // Tinusbot
-        bots.add(new Tinusbot(api));
-
-        for (Runnable bot : bots) {
-            String name;
-            if (bot instanceof BotArtificialIntelligence) {
-                name = ((BotArtificialIntelligence) bot).getName();
-            } else {
-                name = bot.getClass().getSimpleName();
-            }
-            new Thread(bot, name).start();
+        bots.add(new Tinusbot(hub.createClientApi()));
+
+        BotRuntime runtime = BotRuntime.createDefault();
+        for (BotArtificialIntelligence bot : bots) {
+            runtime.add(bot);
         }
-        
-        new LeaderboardDisplay(api).start();
+
+        new LeaderboardDisplay(hub.createClientApi()).start();
     }
 }
@@ -0,0 +1,111 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link JsonModelReader}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class JsonModelReaderTest {
+    /** Test method for {@link JsonModelReader#readGameState(java.io.Reader)}. */
+    @Test
+    public void testReadGameState() throws IOException {
+        String json = "{\"bots\":[{\"x\":10,\"y\":20,\"width\":30,\"height\":40,\"lastKnownOrientation\":\"RIGHT\","
+                + "\"actionDurationInMs\":300,\"distancePerStep\":8,\"player\":\"Aad\",\"queueLength\":2,"
+                + "\"color\":\"#FF0000\"}],"
+                + "\"bullets\":[{\"x\":1,\"y\":2,\"width\":4,\"height\":4,\"direction\":{\"unknown\":true}}]}";
+
+        GameState state = JsonModelReader.readGameState(new StringReader(json));
+
+        Assert.assertEquals(1, state.getTanks().size());
+        Tank tank = state.getTanks().iterator().next();
+        Assert.assertEquals(10, tank.getX());
+        Assert.assertEquals(20, tank.getY());
+        Assert.assertEquals(30, tank.getWidth());
+        Assert.assertEquals(40, tank.getHeight());
+        Assert.assertSame(Orientation.EAST, tank.getLastKnownOrientation());
+        Assert.assertEquals(300, tank.getActionDuration());
+        Assert.assertEquals(8, tank.getDistancePerStep());
+        Assert.assertEquals("Aad", tank.getPlayer());
+        Assert.assertEquals(2, tank.getQueueLength());
+        Assert.assertEquals(1, state.getBullets().size());
+        Bullet bullet = state.getBullets().iterator().next();
+        Assert.assertEquals(1, bullet.getX());
+        Assert.assertEquals(2, bullet.getY());
+        Assert.assertEquals(4, bullet.getWidth());
+        Assert.assertEquals(4, bullet.getHeight());
+    }
+
+    /** Test method for {@link JsonModelReader#readGameState(java.io.Reader)} with a tank without orientation. */
+    @Test
+    public void testReadGameStateNullOrientation() throws IOException {
+        String json = "{\"bots\":[{\"x\":10,\"y\":20,\"lastKnownOrientation\":null,\"player\":\"Aad\"}],"
+                + "\"bullets\":null}";
+
+        GameState state = JsonModelReader.readGameState(new StringReader(json));
+
+        Assert.assertNull(state.getTanks().iterator().next().getLastKnownOrientation());
+        Assert.assertTrue(state.getBullets().isEmpty());
+    }
+
+    /** Test method for {@link JsonModelReader#readGameState(java.io.Reader)} with an empty document. */
+    @Test
+    public void testReadGameStateEmpty() throws IOException {
+        Assert.assertNull(JsonModelReader.readGameState(new StringReader("")));
+    }
+
+    /** Test method for {@link JsonModelReader#readGameState(java.io.Reader)} with a null document. */
+    @Test
+    public void testReadGameStateNull() throws IOException {
+        Assert.assertNull(JsonModelReader.readGameState(new StringReader("null")));
+    }
+
+    /** Test method for {@link JsonModelReader#readGameState(java.io.Reader)} with invalid JSON. */
+    @Test(expected = IOException.class)
+    public void testReadGameStateInvalid() throws IOException {
+        JsonModelReader.readGameState(new StringReader("{\"bots\":[{\"x\":"));
+    }
+
+    /** Test method for {@link JsonModelReader#readWalls(java.io.Reader)}. */
+    @Test
+    public void testReadWalls() throws IOException {
+        String json = "[{\"x\":0,\"y\":0,\"width\":800,\"height\":10},{\"x\":0,\"y\":10,\"width\":10,\"height\":590}]";
+
+        List<Wall> walls = new ArrayList<>(JsonModelReader.readWalls(new StringReader(json)));
+
+        Assert.assertEquals(2, walls.size());
+        Assert.assertEquals(800, walls.get(0).getWidth());
+        Assert.assertEquals(10, walls.get(1).getY());
+        Assert.assertEquals(590, walls.get(1).getHeight());
+    }
+
+    /** Test method for {@link JsonModelReader#readPlayers(java.io.Reader)}. */
+    @Test
+    public void testReadPlayers() throws IOException {
+        String json = "[{\"name\":\"Aad\",\"kills\":3,\"deads\":2,\"color\":\"#FF0000\",\"id\":null}]";
+
+        Collection<Player> players = JsonModelReader.readPlayers(new StringReader(json));
+
+        Assert.assertEquals(1, players.size());
+        Player player = players.iterator().next();
+        Assert.assertEquals("Aad", player.getName());
+        Assert.assertEquals(3, player.getKills());
+        Assert.assertEquals(2, player.getDeaths());
+        Assert.assertEquals("#FF0000", player.getColor());
+    }
+}
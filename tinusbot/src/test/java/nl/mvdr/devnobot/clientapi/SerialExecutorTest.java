@@ -0,0 +1,146 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SerialExecutor}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SerialExecutorTest {
+    /** Number of tasks per executor. */
+    private static final int NUM_TASKS = 1000;
+
+    /** Tests that tasks are executed in order and one at a time, even though they share a thread pool. */
+    @Test
+    public void testOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Integer> first = new ArrayList<>();
+            final List<Integer> second = new ArrayList<>();
+            final AtomicInteger running = new AtomicInteger();
+            final CountDownLatch done = new CountDownLatch(2 * NUM_TASKS);
+            SerialExecutor firstExecutor = new SerialExecutor(pool);
+            SerialExecutor secondExecutor = new SerialExecutor(pool);
+
+            for (int i = 0; i != NUM_TASKS; i++) {
+                firstExecutor.execute(createTask(first, i, running, done));
+                secondExecutor.execute(createTask(second, i, null, done));
+            }
+
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i != NUM_TASKS; i++) {
+                Assert.assertEquals(i, first.get(i).intValue());
+                Assert.assertEquals(i, second.get(i).intValue());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Tests that a failing task does not prevent the next one from running. */
+    @Test
+    public void testFailure() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch done = new CountDownLatch(1);
+            SerialExecutor executor = new SerialExecutor(pool);
+
+            executor.execute(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    throw new IllegalStateException("Expected failure in unit test.");
+                }
+            });
+            executor.execute(new Runnable() {
+                /** {@inheritDoc} */
+                @Override
+                public void run() {
+                    done.countDown();
+                }
+            });
+
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Tests that a task rejected by the underlying executor does not prevent later tasks from running. */
+    @Test
+    public void testRejected() {
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger executed = new AtomicInteger();
+        SerialExecutor executor = new SerialExecutor(new Executor() {
+            /** {@inheritDoc} */
+            @Override
+            public void execute(Runnable command) {
+                if (submitted.incrementAndGet() == 1) {
+                    throw new RejectedExecutionException("Expected rejection in unit test.");
+                }
+                command.run();
+            }
+        });
+        Runnable task = new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                executed.incrementAndGet();
+            }
+        };
+
+        try {
+            executor.execute(task);
+            Assert.fail();
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        executor.execute(task);
+
+        Assert.assertEquals(2, submitted.get());
+        Assert.assertEquals(1, executed.get());
+    }
+
+    /**
+     * Creates a task which adds the given value to the given list.
+     * 
+     * @param list
+     *            list; not synchronized, so tasks adding to the same list must not run concurrently
+     * @param value
+     *            value
+     * @param running
+     *            number of running tasks, used to check that tasks do not overlap; may be null
+     * @param done
+     *            latch to count down when the task is done
+     * @return task
+     */
+    private Runnable createTask(final List<Integer> list, final int value, final AtomicInteger running,
+            final CountDownLatch done) {
+        return new Runnable() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                if (running != null && running.incrementAndGet() != 1) {
+                    throw new IllegalStateException("Tasks overlap.");
+                }
+                list.add(Integer.valueOf(value));
+                if (running != null) {
+                    running.decrementAndGet();
+                }
+                done.countDown();
+            }
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package nl.mvdr.devnobot.clientapi;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.RequiredArgsConstructor;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+import nl.mvdr.devnobot.simulator.GameEngine;
+import nl.mvdr.devnobot.simulator.Levels;
+import nl.mvdr.devnobot.simulator.SimulatedClientApi;
+import nl.mvdr.devnobot.simulator.SimulationSettings;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SnapshotHub} and {@link SnapshotChannel}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SnapshotHubTest {
+    /** Test method for {@link SnapshotChannel#publish(Object)}. */
+    @Test
+    public void testPublish() {
+        SnapshotChannel<String> channel = new SnapshotChannel<>();
+        final List<String> received = new ArrayList<>();
+        channel.subscribe(new SnapshotListener<String>() {
+            /** {@inheritDoc} */
+            @Override
+            public void snapshotPublished(Snapshot<String> snapshot) {
+                received.add(snapshot.getValue());
+            }
+        });
+
+        Assert.assertNull(channel.retrieve());
+        Snapshot<String> first = channel.publish("first");
+        Snapshot<String> second = channel.publish("second");
+
+        Assert.assertEquals(1, first.getVersion());
+        Assert.assertEquals(2, second.getVersion());
+        Assert.assertSame(second, channel.retrieve());
+        Assert.assertEquals("[first, second]", received.toString());
+    }
+
+    /** Test method for {@link SnapshotChannel#awaitNewer(long, long)}. */
+    @Test
+    public void testAwaitNewer() throws InterruptedException {
+        final SnapshotChannel<String> channel = new SnapshotChannel<>();
+        channel.publish("first");
+
+        Assert.assertEquals("first", channel.awaitNewer(0, 0).getValue());
+        // times out
+        Assert.assertEquals("first", channel.awaitNewer(1, 10).getValue());
+
+        Thread publisher = new Thread() {
+            /** {@inheritDoc} */
+            @Override
+            public void run() {
+                channel.publish("second");
+            }
+        };
+        publisher.start();
+        Assert.assertEquals("second", channel.awaitNewer(1, 10000).getValue());
+    }
+
+    /** Tests that the server is polled by the hub only, regardless of the number of bots reading from it. */
+    @Test(timeout = 30000)
+    public void testSharedPolling() throws InterruptedException {
+        GameEngine engine = new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), 0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+        CountingClientApi server = new CountingClientApi(new SimulatedClientApi(engine));
+        SnapshotHub hub = new SnapshotHub(server, Executors.newScheduledThreadPool(2), 10, 10);
+        List<ClientApi> views = new ArrayList<>();
+        for (int i = 0; i != 20; i++) {
+            views.add(hub.createClientApi());
+        }
+        hub.start();
+        try {
+            while (hub.getWorldStatus().retrieve() == null) {
+                Thread.sleep(1);
+            }
+            for (int i = 0; i != 5; i++) {
+                for (ClientApi view : views) {
+                    Assert.assertNotNull(view.readWorldStatus());
+                    Assert.assertEquals(1, view.readPlayers().size());
+                    Assert.assertFalse(view.readLevel().isEmpty());
+                }
+            }
+        } finally {
+            hub.stop();
+        }
+
+        // 100 world status reads, but at most one poll per snapshot handed out
+        Assert.assertTrue(server.worldReads.get() <= hub.getWorldStatus().retrieve().getVersion() + 1);
+        Assert.assertEquals(1, server.levelReads.get());
+        Assert.assertTrue(views.get(0).addAction(Action.FIRE, "aad-id"));
+    }
+
+    /** Tests that the world status view returns the latest snapshot without waiting for a newer one. */
+    @Test(timeout = 30000)
+    public void testWorldStatusView() {
+        GameEngine engine = new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), 0);
+        CountingClientApi server = new CountingClientApi(new SimulatedClientApi(engine));
+        // not started, so the snapshots are only the ones published by this test
+        SnapshotHub hub = new SnapshotHub(server, Executors.newScheduledThreadPool(1), 60000, 60000);
+        ClientApi view = hub.createClientApi();
+        try {
+            // nothing published yet, so the view reads from the server
+            Assert.assertNotNull(view.readWorldStatus());
+            Assert.assertEquals(1, server.worldReads.get());
+
+            GameState first = engine.createGameState();
+            hub.getWorldStatus().publish(first);
+            Assert.assertSame(first, view.readWorldStatus());
+            // no newer snapshot: returns the same one again rather than waiting
+            Assert.assertSame(first, view.readWorldStatus());
+
+            GameState second = engine.createGameState();
+            hub.getWorldStatus().publish(second);
+            Assert.assertSame(second, view.readWorldStatus());
+            Assert.assertEquals(1, server.worldReads.get());
+        } finally {
+            hub.stop();
+        }
+    }
+
+    /** Client API which counts the read calls. */
+    @RequiredArgsConstructor
+    private static class CountingClientApi implements ClientApi {
+        /** Client API which actually handles the calls. */
+        private final ClientApi api;
+        /** Number of calls to {@link #readWorldStatus()}. */
+        private final AtomicInteger worldReads = new AtomicInteger();
+        /** Number of calls to {@link #readLevel()}. */
+        private final AtomicInteger levelReads = new AtomicInteger();
+
+        /** {@inheritDoc} */
+        @Override
+        public Collection<Wall> readLevel() {
+            levelReads.incrementAndGet();
+            return api.readLevel();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean createPlayer(String name, String color, String id) {
+            return api.createPlayer(name, color, id);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Collection<Player> readPlayers() {
+            return api.readPlayers();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean addAction(Action action, String playerId) {
+            return api.addAction(action, playerId);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public List<Boolean> addActions(List<Action> actions, String playerId) {
+            return api.addActions(actions, playerId);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public GameState readWorldStatus() {
+            worldReads.incrementAndGet();
+            return api.readWorldStatus();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean suicide(String playerId) {
+            return api.suicide(playerId);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package nl.mvdr.devnobot.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LatencyHistogramTest {
+    /** Tests that every value falls within the bounds of its bucket, and that the buckets are contiguous. */
+    @Test
+    public void testBuckets() {
+        for (long value : new long[] { 0, 1, 63, 64, 127, 128, 129, 1000, 999999, 1000000, 123456789,
+                Long.MAX_VALUE / 3, Long.MAX_VALUE }) {
+            int index = LatencyHistogram.computeBucketIndex(value);
+            Assert.assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+            Assert.assertTrue(LatencyHistogram.computeLowestValue(index) <= value);
+            Assert.assertTrue(value <= LatencyHistogram.computeHighestValue(index));
+        }
+        for (int index = 0; index != LatencyHistogram.BUCKET_COUNT - 1; index++) {
+            Assert.assertEquals(LatencyHistogram.computeHighestValue(index) + 1,
+                    LatencyHistogram.computeLowestValue(index + 1));
+        }
+        Assert.assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.computeBucketIndex(Long.MAX_VALUE));
+    }
+
+    /** Tests that the relative error of a bucket is small. */
+    @Test
+    public void testPrecision() {
+        for (int index = 128; index != LatencyHistogram.BUCKET_COUNT; index++) {
+            long lowest = LatencyHistogram.computeLowestValue(index);
+            long highest = LatencyHistogram.computeHighestValue(index);
+            Assert.assertTrue((double) (highest - lowest) / lowest < 0.016);
+        }
+    }
+
+    /** Test method for {@link LatencyHistogram#snapshot()}. */
+    @Test
+    public void testSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assert.assertEquals(1000, snapshot.getCount());
+        Assert.assertEquals(1000L, snapshot.getMin());
+        Assert.assertEquals(1000000L, snapshot.getMax());
+        Assert.assertEquals(500500.0, snapshot.computeMean(), 0.001);
+        Assert.assertEquals(500000.0, snapshot.computePercentile(50), 500000 * 0.016);
+        Assert.assertEquals(990000.0, snapshot.computePercentile(99), 990000 * 0.016);
+        Assert.assertEquals(1000000L, snapshot.computePercentile(100));
+    }
+
+    /** Test method for {@link LatencyHistogram#snapshot()} on an empty histogram. */
+    @Test
+    public void testSnapshotEmpty() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+
+        Assert.assertEquals(0, snapshot.getCount());
+        Assert.assertEquals(0L, snapshot.getMin());
+        Assert.assertEquals(0L, snapshot.getMax());
+        Assert.assertEquals(0L, snapshot.computePercentile(99));
+    }
+
+    /** Test method for {@link LatencyHistogram#reset()}. */
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1000);
+        histogram.record(-5);
+
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.snapshot().getCount());
+        histogram.record(42);
+        Assert.assertEquals(42L, histogram.snapshot().getMin());
+    }
+}
@@ -47,4 +47,18 @@ public class ActionTest {
         Action.SUICIDE.toAPIAction();
     }
 
+    /** Tests {@link Action#fromAPIAction(com.cgi.devnobot.api.Action)}. */
+    @Test
+    public void testFromAPIAction() {
+        for (com.cgi.devnobot.api.Action action : com.cgi.devnobot.api.Action.values()) {
+            Assert.assertEquals(action, Action.fromAPIAction(action).toAPIAction());
+        }
+    }
+
+    /** Tests {@link Action#fromAPIAction(com.cgi.devnobot.api.Action)}. */
+    @Test
+    public void testFromAPIActionNull() {
+        Assert.assertNull(Action.fromAPIAction(null));
+    }
+
 }
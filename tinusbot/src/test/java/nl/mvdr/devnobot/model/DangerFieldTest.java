@@ -0,0 +1,182 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DangerField}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class DangerFieldTest {
+    /** Own tank, facing north, far away from everything else. */
+    private static final Tank OWN_TANK = new Tank(800, 600, 30, 40, Orientation.NORTH, 250, 10, "Aad", 0);
+    /** Enemy tank, facing east. */
+    private static final Tank ENEMY = new Tank(100, 400, 40, 30, Orientation.EAST, 250, 10, "Sjaak", 0);
+
+    /** Walls: the border of a 1000 by 800 level, and a wall at x = 500. */
+    private List<Wall> walls;
+    /** Level boundary. */
+    private LevelBoundary boundary;
+    /** Danger field. */
+    private DangerField field;
+
+    /** Set up. */
+    @Before
+    public void setUp() {
+        walls = SpatialIndexTest.createRandomWalls(new Random(0), 0);
+        walls.add(new Wall(500, 100, 20, 200));
+        boundary = LevelBoundary.buildLevelBoundary(walls, Arrays.asList(OWN_TANK, ENEMY));
+        field = new DangerField(new WallMap(walls));
+    }
+
+    /** Test method for {@link DangerField#toString()}. */
+    @Test
+    public void testToString() {
+        String string = field.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link DangerField#computeDistance(int, int, int, int)} without any bullets. */
+    @Test
+    public void testEmpty() {
+        update(Collections.<Bullet> emptyList(), Collections.<Tank> emptyList());
+
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(0, 0, 1000, 800));
+        Assert.assertEquals(0, field.getBulletSpeed());
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)} for a bullet
+     * which is seen moving east in two consecutive snapshots.
+     */
+    @Test
+    public void testMovingBullet() {
+        update(Arrays.asList(new Bullet(100, 150, 4, 4)), Collections.<Tank> emptyList());
+        update(Arrays.asList(new Bullet(120, 150, 4, 4)), Collections.<Tank> emptyList());
+
+        Assert.assertEquals(20, field.getBulletSpeed());
+        // The bullet's front is at x = 124.
+        Assert.assertEquals(76, field.computeDistance(200, 140, 30, 30));
+        Assert.assertEquals(0, field.computeDistance(110, 140, 30, 30));
+        // Behind the bullet.
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(50, 140, 30, 30));
+        // Not in line with the bullet.
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(200, 200, 30, 30));
+        // Behind the wall at x = 500.
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(600, 140, 30, 30));
+        Assert.assertTrue(field.isSafe(new Bullet(200, 140, 30, 30), 75));
+        Assert.assertFalse(field.isSafe(new Bullet(200, 140, 30, 30), 76));
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)}: two bullets
+     * in line with a single earlier bullet are not both paired with it.
+     */
+    @Test
+    public void testPairedOnce() {
+        update(Arrays.asList(new Bullet(100, 150, 4, 4)), Collections.<Tank> emptyList());
+        update(Arrays.asList(new Bullet(120, 150, 4, 4), new Bullet(300, 150, 4, 4)), Collections.<Tank> emptyList());
+
+        Assert.assertEquals(20, field.getBulletSpeed());
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)}: the bullet
+     * speed is not thrown off by a skipped snapshot or by an unrelated bullet in line with an earlier one.
+     */
+    @Test
+    public void testSpeed() {
+        for (int i = 0; i != 5; i++) {
+            update(Arrays.asList(new Bullet(100 + 20 * i, 150, 4, 4)), Collections.<Tank> emptyList());
+        }
+        Assert.assertEquals(20, field.getBulletSpeed());
+
+        // skipped snapshot
+        update(Arrays.asList(new Bullet(220, 150, 4, 4)), Collections.<Tank> emptyList());
+        Assert.assertEquals(20, field.getBulletSpeed());
+
+        // The old bullet has disappeared; a new bullet far away in the same row is not paired with it.
+        update(Arrays.asList(new Bullet(400, 150, 4, 4)), Collections.<Tank> emptyList());
+        Assert.assertEquals(20, field.getBulletSpeed());
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(0, 0, 1000, 800));
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)} for bullets
+     * which have just been fired, by an enemy and by the player.
+     */
+    @Test
+    public void testNewBullets() {
+        // Enemy's bullet spawns at (118, 413); own bullet spawns at (813, 618).
+        update(Arrays.asList(new Bullet(150, 413, 4, 4), new Bullet(813, 500, 4, 4)), Collections.<Tank> emptyList());
+
+        int distance = field.computeDistance(300, 400, 30, 30);
+        Assert.assertTrue("" + distance, 0 < distance && distance < DangerField.SAFE);
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(50, 400, 30, 30));
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(800, 300, 30, 30));
+        Assert.assertEquals(2, field.getBulletCount());
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)} for a bullet
+     * which is not in line with any tank or earlier bullet.
+     */
+    @Test
+    public void testUnknownDirection() {
+        update(Arrays.asList(new Bullet(300, 701, 4, 4)), Collections.<Tank> emptyList());
+
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(0, 0, 1000, 800));
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)} for a tank
+     * which is considered to fire right now.
+     */
+    @Test
+    public void testShooter() {
+        update(Collections.<Bullet> emptyList(), Arrays.asList(ENEMY));
+
+        int distance = field.computeDistance(300, 400, 30, 30);
+        Assert.assertTrue("" + distance, 0 < distance && distance < DangerField.SAFE);
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(300, 300, 30, 30));
+    }
+
+    /**
+     * Test method for {@link DangerField#update(GameState, String, java.util.Collection, LevelBoundary)}: the cells
+     * marked for earlier snapshots are cleared.
+     */
+    @Test
+    public void testClear() {
+        update(Arrays.asList(new Bullet(150, 413, 4, 4)), Arrays.asList(ENEMY));
+        update(Collections.<Bullet> emptyList(), Collections.<Tank> emptyList());
+
+        Assert.assertEquals(DangerField.SAFE, field.computeDistance(0, 0, 1000, 800));
+    }
+
+    /**
+     * Updates the field with a snapshot containing the own tank, the enemy and the given bullets.
+     * 
+     * @param bullets
+     *            bullets
+     * @param shooters
+     *            tanks which are considered to fire right now
+     */
+    private void update(List<Bullet> bullets, List<Tank> shooters) {
+        GameState state = new GameState(Arrays.asList(OWN_TANK, ENEMY), new ArrayList<>(bullets));
+        field.update(state, OWN_TANK.getPlayer(), shooters, boundary);
+    }
+}
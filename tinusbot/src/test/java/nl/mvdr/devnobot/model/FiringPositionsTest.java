@@ -0,0 +1,201 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link FiringPositions}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class FiringPositionsTest {
+    /** Set up. */
+    @Before
+    public void setUp() {
+        Bullet.resetBulletSize();
+    }
+
+    /** Test method for {@link FiringPositions#toString()}. */
+    @Test
+    public void testToString() {
+        FiringPositions positions = new FiringPositions();
+
+        String string = positions.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link FiringPositions#update(Tank, SpatialIndex, WallMap, LevelBoundary)} in an empty arena. */
+    @Test
+    public void testOpenLevel() {
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(new Random(0), 0);
+        Tank tank = new Tank(100, 100, 30, 40, Orientation.NORTH, 250, 10, "Aad", 0);
+        Tank target = new Tank(500, 400, 30, 40, Orientation.NORTH, 250, 10, "Sjaak", 0);
+        WallMap wallMap = new WallMap(walls);
+        FiringPositions positions = new FiringPositions();
+
+        positions.update(tank, wallMap.createOverlay(Arrays.asList(target)), wallMap,
+                LevelBoundary.buildLevelBoundary(walls, Arrays.asList(tank, target)));
+
+        Assert.assertTrue(positions.isEnabled());
+        // The own tank's spawn location is at (113, 118). Firing east from (523, 418) hits the target at step 0.
+        Assert.assertTrue(positions.contains(113, 418, Orientation.EAST.ordinal()));
+        Assert.assertTrue(positions.contains(523, 418, Orientation.EAST.ordinal()));
+        Assert.assertFalse(positions.contains(533, 418, Orientation.EAST.ordinal()));
+        Assert.assertFalse(positions.contains(113, 418, Orientation.WEST.ordinal()));
+        Assert.assertTrue(positions.contains(513, 118, Orientation.SOUTH.ordinal()));
+        Assert.assertFalse(positions.contains(113, 118, Orientation.SOUTH.ordinal()));
+        // Not on the lattice.
+        Assert.assertFalse(positions.contains(114, 418, Orientation.EAST.ordinal()));
+        Assert.assertTrue(0 < positions.getCount());
+    }
+
+    /**
+     * Test method for {@link FiringPositions#update(Tank, SpatialIndex, WallMap, LevelBoundary)} for a tank which
+     * cannot move.
+     */
+    @Test
+    public void testStationaryTank() {
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(new Random(0), 0);
+        Tank tank = new Tank(100, 100, 30, 40, Orientation.NORTH, 250, 0, "Aad", 0);
+        WallMap wallMap = new WallMap(walls);
+        FiringPositions positions = new FiringPositions();
+
+        positions.update(tank, wallMap.createOverlay(Arrays.asList(tank)), wallMap, wallMap.getBoundary());
+
+        Assert.assertFalse(positions.isEnabled());
+    }
+
+    /**
+     * Test method for {@link FiringPositions#contains(int, int, int)}. Compares the results to
+     * {@link GameState#wouldHitEnemy(int, int, int, int, Orientation, SpatialIndex, WallMap, LevelBoundary)} for every
+     * position on the lattice, in random levels.
+     */
+    @Test
+    public void testCompareToHitTest() {
+        Random random = new Random(25);
+        FiringPositions positions = new FiringPositions();
+        for (int i = 0; i != 20; i++) {
+            List<Wall> walls = SpatialIndexTest.createRandomWalls(random, 30);
+            if (random.nextBoolean()) {
+                // No walls along the border; the level boundary is determined by the walls and tanks inside.
+                walls = walls.subList(4, walls.size());
+            }
+            Tank tank = createRandomTank(random, walls, "Aad");
+            List<Tank> targets = new ArrayList<>();
+            int targetCount = 1 + random.nextInt(3);
+            for (int j = 0; j != targetCount; j++) {
+                targets.add(createRandomTank(random, walls, "Enemy " + j));
+            }
+
+            assertSameAsHitTest(positions, tank, targets, walls);
+        }
+    }
+
+    /**
+     * Test method for {@link FiringPositions#contains(int, int, int)}, for walls which border a target on the side and
+     * start less than a bullet length past the target's near edge. A bullet which overlaps both the target and such a
+     * wall can hit either, depending on where along the row it was fired from.
+     */
+    @Test
+    public void testWallNextToTarget() {
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(new Random(0), 0);
+        // Below the first target, starting 2 past its west edge.
+        walls.add(new Wall(502, 440, 60, 20));
+        // East of the second target, starting 2 past its north edge.
+        walls.add(new Wall(225, 502, 20, 60));
+        Tank tank = new Tank(100, 100, 30, 40, Orientation.NORTH, 250, 10, "Aad", 0);
+        List<Tank> targets = Arrays.asList(new Tank(500, 400, 30, 40, Orientation.NORTH, 250, 10, "Sjaak", 0),
+                new Tank(195, 500, 30, 40, Orientation.NORTH, 250, 10, "Henk", 0));
+        FiringPositions positions = new FiringPositions();
+
+        assertSameAsHitTest(positions, tank, targets, walls);
+        // The own tank's spawn location is at (113, 118). A bullet fired east at y = 438 overlaps the first target and
+        // the wall below it; its steps start 4 further east when it is fired 10 further west.
+        Assert.assertTrue(positions.contains(493, 438, Orientation.EAST.ordinal()));
+        Assert.assertFalse(positions.contains(483, 438, Orientation.EAST.ordinal()));
+        Assert.assertTrue(positions.contains(473, 438, Orientation.EAST.ordinal()));
+    }
+
+    /**
+     * Updates the given set and compares it to
+     * {@link GameState#wouldHitEnemy(int, int, int, int, Orientation, SpatialIndex, WallMap, LevelBoundary)} for every
+     * position on the lattice, within a 1100 by 900 area.
+     * 
+     * @param positions
+     *            firing positions
+     * @param tank
+     *            tank which is to fire
+     * @param targets
+     *            targets
+     * @param walls
+     *            walls
+     */
+    private static void assertSameAsHitTest(FiringPositions positions, Tank tank, List<Tank> targets,
+            List<Wall> walls) {
+        int bulletWidth = Bullet.getBulletWidth();
+        int bulletHeight = Bullet.getBulletHeight();
+        WallMap wallMap = new WallMap(walls);
+        List<Tank> tanks = new ArrayList<>(targets);
+        tanks.add(tank);
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
+        SpatialIndex<Tank> targetIndex = wallMap.createOverlay(targets);
+        GameState state = new GameState(tanks, new ArrayList<Bullet>());
+
+        positions.update(tank, targetIndex, wallMap, boundary);
+
+        Assert.assertTrue(positions.isEnabled());
+        int distance = tank.getDistancePerStep();
+        Bullet spawn = tank.computeBulletSpawnLocation();
+        int expectedCount = 0;
+        // All lattice points from just outside the top left corner of the level to beyond the furthest walls.
+        int minX = spawn.getX() - distance * (spawn.getX() / distance + 1);
+        int minY = spawn.getY() - distance * (spawn.getY() / distance + 1);
+        for (int x = minX; x < 1100; x += distance) {
+            for (int y = minY; y < 900; y += distance) {
+                for (Orientation orientation : Orientation.values()) {
+                    boolean expected = state.wouldHitEnemy(x, y, bulletWidth, bulletHeight, orientation, targetIndex,
+                            wallMap, boundary);
+                    Assert.assertEquals(x + ", " + y + ", " + orientation + ", " + tank + ", " + targets,
+                            Boolean.valueOf(expected), Boolean.valueOf(positions.contains(x, y,
+                                    orientation.ordinal())));
+                    if (expected) {
+                        expectedCount++;
+                    }
+                }
+            }
+        }
+        Assert.assertEquals(expectedCount, positions.getCount());
+    }
+
+    /**
+     * Creates a tank in a random position within a 1000 by 800 level, which does not overlap any walls.
+     * 
+     * @param random
+     *            random number generator
+     * @param walls
+     *            walls
+     * @param name
+     *            player name
+     * @return tank
+     */
+    private static Tank createRandomTank(Random random, List<Wall> walls, String name) {
+        Tank result;
+        do {
+            result = new Tank(10 + random.nextInt(950), 10 + random.nextInt(750), 30, 40, Orientation.NORTH, 250,
+                    7 + random.nextInt(6), name, 0);
+        } while (result.overlaps(walls));
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameStateDiff}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class GameStateDiffTest {
+    /** Test method for {@link GameStateDiff#toString()}. */
+    @Test
+    public void testToString() {
+        GameState state = new GameState(Arrays.asList(createTank(0, 0, Orientation.NORTH, "Aad", 0)),
+                Arrays.asList(new Bullet(10, 10, 4, 4)));
+        GameStateDiff diff = new GameStateDiff(null, state);
+
+        String string = diff.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link GameStateDiff#GameStateDiff(GameState, GameState)} without a previous state. */
+    @Test
+    public void testNoPreviousState() {
+        Tank tank = createTank(0, 0, Orientation.NORTH, "Aad", 0);
+        Bullet bullet = new Bullet(10, 10, 4, 4);
+        GameState state = new GameState(Arrays.asList(tank), Arrays.asList(bullet));
+
+        GameStateDiff diff = new GameStateDiff(null, state);
+
+        Assert.assertEquals(Arrays.asList(tank), diff.getSpawnedTanks());
+        Assert.assertEquals(Arrays.asList(bullet), diff.getAppearedBullets());
+        Assert.assertTrue(diff.getDiedTanks().isEmpty());
+        Assert.assertTrue(diff.getDisappearedBullets().isEmpty());
+        Assert.assertFalse(diff.isTankPositionsUnchanged());
+        Assert.assertFalse(diff.isEmpty());
+    }
+
+    /** Test method for {@link GameStateDiff#GameStateDiff(GameState, GameState)} for two equal states. */
+    @Test
+    public void testUnchanged() {
+        GameState previous = new GameState(Arrays.asList(createTank(0, 0, Orientation.NORTH, "Aad", 0),
+                createTank(100, 0, Orientation.EAST, "Sjaak", 1)), Arrays.asList(new Bullet(10, 10, 4, 4),
+                new Bullet(10, 10, 4, 4)));
+        GameState current = new GameState(Arrays.asList(createTank(100, 0, Orientation.EAST, "Sjaak", 1),
+                createTank(0, 0, Orientation.NORTH, "Aad", 0)), Arrays.asList(new Bullet(10, 10, 4, 4),
+                new Bullet(10, 10, 4, 4)));
+
+        GameStateDiff diff = new GameStateDiff(previous, current);
+
+        Assert.assertTrue(diff.toString(), diff.isEmpty());
+        Assert.assertTrue(diff.isTankPositionsUnchanged());
+    }
+
+    /** Test method for {@link GameStateDiff#GameStateDiff(GameState, GameState)} for changed tanks. */
+    @Test
+    public void testTanks() {
+        Tank diedTank = createTank(0, 0, Orientation.NORTH, "Died", 0);
+        Tank spawnedTank = createTank(0, 0, Orientation.NORTH, "Spawned", 0);
+        Tank movedTank = createTank(100, 10, Orientation.NORTH, "Moved", 0);
+        Tank turnedTank = createTank(200, 0, Orientation.EAST, "Turned", 0);
+        Tank queuedTank = createTank(300, 0, Orientation.NORTH, "Queued", 2);
+        Tank unchangedTank = createTank(400, 0, Orientation.NORTH, "Unchanged", 1);
+        GameState previous = new GameState(Arrays.asList(diedTank, createTank(100, 0, Orientation.NORTH, "Moved", 0),
+                createTank(200, 0, Orientation.NORTH, "Turned", 0), createTank(300, 0, Orientation.NORTH, "Queued", 1),
+                createTank(400, 0, Orientation.NORTH, "Unchanged", 1)));
+        GameState current = new GameState(Arrays.asList(movedTank, turnedTank, queuedTank, unchangedTank,
+                spawnedTank));
+
+        GameStateDiff diff = new GameStateDiff(previous, current);
+
+        Assert.assertEquals(Arrays.asList(spawnedTank), diff.getSpawnedTanks());
+        Assert.assertEquals(Arrays.asList(diedTank), diff.getDiedTanks());
+        Assert.assertEquals(Arrays.asList(movedTank), diff.getMovedTanks());
+        Assert.assertEquals(Arrays.asList(turnedTank), diff.getTurnedTanks());
+        Assert.assertEquals(Arrays.asList(queuedTank), diff.getQueueLengthChangedTanks());
+        Assert.assertTrue(diff.getAppearedBullets().isEmpty());
+        Assert.assertTrue(diff.getDisappearedBullets().isEmpty());
+        Assert.assertFalse(diff.isTankPositionsUnchanged());
+    }
+
+    /**
+     * Test method for {@link GameStateDiff#GameStateDiff(GameState, GameState)} for a change in queue length only,
+     * which does not count as a change in position.
+     */
+    @Test
+    public void testQueueLengthOnly() {
+        GameState previous = new GameState(Arrays.asList(createTank(0, 0, Orientation.NORTH, "Aad", 0)));
+        GameState current = new GameState(Arrays.asList(createTank(0, 0, Orientation.NORTH, "Aad", 3)));
+
+        GameStateDiff diff = new GameStateDiff(previous, current);
+
+        Assert.assertTrue(diff.isTankPositionsUnchanged());
+        Assert.assertFalse(diff.isEmpty());
+    }
+
+    /** Test method for {@link GameStateDiff#GameStateDiff(GameState, GameState)} for changed bullets. */
+    @Test
+    public void testBullets() {
+        Bullet stationary = new Bullet(10, 10, 4, 4);
+        Bullet duplicate = new Bullet(10, 10, 4, 4);
+        Bullet before = new Bullet(50, 10, 4, 4);
+        Bullet after = new Bullet(54, 10, 4, 4);
+        Bullet appeared = new Bullet(0, 100, 4, 4);
+        GameState previous = new GameState(Collections.<Tank> emptyList(), Arrays.asList(stationary, duplicate,
+                before));
+        GameState current = new GameState(Collections.<Tank> emptyList(), Arrays.asList(new Bullet(10, 10, 4, 4),
+                after, appeared));
+
+        GameStateDiff diff = new GameStateDiff(previous, current);
+
+        Assert.assertEquals(Arrays.asList(after, appeared), diff.getAppearedBullets());
+        Assert.assertEquals(2, diff.getDisappearedBullets().size());
+        Assert.assertSame(before, diff.getDisappearedBullets().get(1));
+        Assert.assertTrue(diff.isTankPositionsUnchanged());
+    }
+
+    /**
+     * Creates a tank.
+     * 
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @param orientation
+     *            orientation
+     * @param player
+     *            player name
+     * @param queueLength
+     *            queue length
+     * @return tank
+     */
+    private static Tank createTank(int x, int y, Orientation orientation, String player, int queueLength) {
+        return new Tank(x, y, 30, 40, orientation, 250, 10, player, queueLength);
+    }
+}
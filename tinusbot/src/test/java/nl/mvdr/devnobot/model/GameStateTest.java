@@ -1,8 +1,11 @@
 package nl.mvdr.devnobot.model;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -202,4 +205,79 @@ public class GameStateTest {
 
         Assert.assertTrue(gameState.wouldHitEnemy(tank0, Arrays.asList(tank1), Collections.<Wall>emptyList()));
     }
+
+    /**
+     * Test method for {@link GameState#wouldHit(Tank, SpatialIndex, WallMap, LevelBoundary)} and
+     * {@link GameState#wouldHit(Tank, Collection, WallMap, LevelBoundary)}. Compares the results to
+     * {@link GameState#wouldHit(Tank, Collection, Collection, LevelBoundary)}.
+     */
+    @Test
+    public void testWouldHit() {
+        Random random = new Random(16);
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(random, 100);
+        List<Tank> tanks = SpatialIndexTest.createRandomTanks(random, 20);
+        GameState state = new GameState(tanks);
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
+        WallMap wallMap = new WallMap(walls);
+        SpatialIndex<Tank> overlay = wallMap.createOverlay(tanks);
+
+        int hits = 0;
+        for (Orientation orientation : Orientation.values()) {
+            for (int i = 0; i != 500; i++) {
+                Tank tank = new Tank(random.nextInt(1000), random.nextInt(800), 20, 20, orientation, 100, 4, "Aad",
+                        0);
+
+                GameObject expected = state.wouldHit(tank, tanks, walls, boundary);
+
+                Assert.assertSame(expected, state.wouldHit(tank, overlay, wallMap, boundary));
+                Assert.assertSame(expected, state.wouldHit(tank, tanks, wallMap, boundary));
+                if (expected instanceof Tank) {
+                    hits++;
+                }
+            }
+        }
+        // Make sure the test actually covers some hits on tanks.
+        Assert.assertTrue("" + hits, 0 < hits);
+    }
+
+    /**
+     * Test method for {@link GameState#wouldHit(Tank, SpatialIndex, WallMap, LevelBoundary)} and
+     * {@link GameState#wouldHit(Tank, Collection, WallMap, LevelBoundary)} in a sparse level, with tanks of different
+     * sizes, overlapping tanks, and firing tanks partially outside of the level. Compares the results to
+     * {@link GameState#wouldHit(Tank, Collection, Collection, LevelBoundary)}.
+     */
+    @Test
+    public void testWouldHitSparse() {
+        Random random = new Random(17);
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(random, 10);
+        List<Tank> tanks = new ArrayList<>();
+        for (int i = 0; i != 30; i++) {
+            tanks.add(new Tank(random.nextInt(1000), random.nextInt(800), 5 + random.nextInt(40),
+                    5 + random.nextInt(40), Orientation.NORTH, 100, 4, "Tank " + i, 0));
+        }
+        // Same position as another tank, so the bullet hits both at the same step.
+        tanks.add(new Tank(tanks.get(0).getX(), tanks.get(0).getY(), 10, 10, Orientation.NORTH, 100, 4, "Copy", 0));
+        GameState state = new GameState(tanks);
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
+        WallMap wallMap = new WallMap(walls);
+        SpatialIndex<Tank> overlay = wallMap.createOverlay(tanks);
+
+        int hits = 0;
+        for (Orientation orientation : Orientation.values()) {
+            for (int i = 0; i != 1000; i++) {
+                Tank tank = new Tank(random.nextInt(1100) - 50, random.nextInt(900) - 50, 1 + random.nextInt(40),
+                        1 + random.nextInt(40), orientation, 100, 4, "Aad", 0);
+
+                GameObject expected = state.wouldHit(tank, tanks, walls, boundary);
+
+                Assert.assertSame(expected, state.wouldHit(tank, overlay, wallMap, boundary));
+                Assert.assertSame(expected, state.wouldHit(tank, tanks, wallMap, boundary));
+                if (expected instanceof Tank) {
+                    hits++;
+                }
+            }
+        }
+        // Make sure the test actually covers some hits on tanks.
+        Assert.assertTrue("" + hits, 0 < hits);
+    }
 }
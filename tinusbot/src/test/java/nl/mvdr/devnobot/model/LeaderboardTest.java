@@ -126,4 +126,45 @@ public class LeaderboardTest {
         Assert.assertEquals(new PlayerAndPosition(piet, 8), leaderboard.retrievePosition(piet.getName()));
         Assert.assertNull(leaderboard.retrievePosition("sjaak"));
     }
+
+    /** Tests the {@link Leaderboard#retrievePositions()} method. */
+    @Test
+    public void testRetrievePositions() {
+        Player jan = new Player("Jan", 38, 0, "color");    // score:   76
+        Player aad = new Player("Aad", 3, 2, "color");     // score:    4
+        Player wim = new Player("Wim", 3, 2, "color");     // score:    4
+        Player piet = new Player("Piet", 0, 324, "color"); // score: -324
+        Collection<Player> players = Arrays.asList(piet, aad, jan, wim);
+
+        Leaderboard leaderboard = new Leaderboard(System.currentTimeMillis(), players);
+
+        Assert.assertEquals(Arrays.asList(Integer.valueOf(1), Integer.valueOf(2), Integer.valueOf(4)),
+                leaderboard.retrievePositions());
+    }
+
+    /** Tests the {@link Leaderboard#retrievePosition(String)} method in case of duplicate player names. */
+    @Test
+    public void testRetrievePositionDuplicateName() {
+        Player jan = new Player("Jan", 38, 0, "color");          // score:   76
+        Player anotherJan = new Player("Jan", 0, 324, "color");  // score: -324
+        Player aad = new Player("Aad", 3, 2, "color");           // score:    4
+        Collection<Player> players = Arrays.asList(anotherJan, aad, jan);
+
+        Leaderboard leaderboard = new Leaderboard(System.currentTimeMillis(), players);
+
+        Assert.assertEquals(new PlayerAndPosition(jan, 1), leaderboard.retrievePosition("Jan"));
+    }
+
+    /** Tests that the {@link Leaderboard#toString()} method renders the table only once. */
+    @Test
+    public void testToStringCached() {
+        Collection<Player> players = Arrays.asList(new Player("Jan", 38, 0, "color"), new Player("Aad", 3, 2,
+                "color"));
+
+        Leaderboard leaderboard = new Leaderboard(System.currentTimeMillis(), players);
+
+        String string = leaderboard.toString();
+        Assert.assertTrue(string, string.contains("Jan"));
+        Assert.assertSame(string, leaderboard.toString());
+    }
 }
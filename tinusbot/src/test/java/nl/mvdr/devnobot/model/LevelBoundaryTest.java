@@ -0,0 +1,141 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LevelBoundary}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class LevelBoundaryTest {
+    /** Test method for {@link LevelBoundary#toString()}. */
+    @Test
+    public void testToString() {
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(Arrays.asList(new Wall(0, 0, 10, 10)));
+
+        String string = boundary.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link LevelBoundary#buildLevelBoundary(java.util.Collection)}. */
+    @Test
+    public void testWalls() {
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(Arrays.asList(new Wall(10, 20, 5, 5), new Wall(90,
+                50, 10, 30)));
+
+        assertBounds(10, 20, 90, 60, boundary);
+    }
+
+    /** Test method for {@link LevelBoundary#include(java.util.Collection)} for tanks within the walls' boundary. */
+    @Test
+    public void testIncludeWithinBounds() {
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(SpatialIndexTest.createRandomWalls(new Random(0),
+                0));
+
+        LevelBoundary result = boundary.include(Arrays.asList(createTank(100, 100), createTank(500, 300)));
+
+        Assert.assertSame(boundary, result);
+    }
+
+    /** Test method for {@link LevelBoundary#include(java.util.Collection)} for a tank outside the walls' boundary. */
+    @Test
+    public void testIncludeOutOfBounds() {
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(Arrays.asList(new Wall(0, 0, 100, 100)));
+
+        LevelBoundary result = boundary.include(Arrays.asList(createTank(-10, 90)));
+
+        assertBounds(-10, 0, 110, 130, result);
+        assertBounds(0, 0, 100, 100, boundary);
+    }
+
+    /** Test method for {@link LevelBoundary#include(java.util.Collection)} in a level without walls. */
+    @Test
+    public void testIncludeWithoutWalls() {
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(Collections.<Wall> emptyList());
+
+        LevelBoundary result = boundary.include(Arrays.asList(createTank(10, 20), createTank(100, 50)));
+
+        assertBounds(10, 20, 120, 70, result);
+    }
+
+    /**
+     * Test method for {@link LevelBoundary#buildLevelBoundary(java.util.Collection, java.util.Collection)}. Compares
+     * the results to the bounding box of all walls and tanks, for random levels with and without border walls.
+     */
+    @Test
+    public void testCompareToBoundingBox() {
+        Random random = new Random(1);
+        for (int i = 0; i != 100; i++) {
+            List<Wall> walls = SpatialIndexTest.createRandomWalls(random, random.nextInt(10));
+            if (random.nextBoolean()) {
+                walls = walls.subList(4, walls.size());
+            }
+            List<Tank> tanks = Arrays.asList(createTank(random.nextInt(1200) - 100, random.nextInt(1000) - 100),
+                    createTank(random.nextInt(1200) - 100, random.nextInt(1000) - 100));
+            List<GameObject> objects = new ArrayList<>();
+            objects.addAll(walls);
+            objects.addAll(tanks);
+            int minX = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for (GameObject object : objects) {
+                minX = Math.min(minX, object.getX());
+                maxX = Math.max(maxX, object.computeMaxX());
+                minY = Math.min(minY, object.getY());
+                maxY = Math.max(maxY, object.computeMaxY());
+            }
+
+            LevelBoundary boundary = LevelBoundary.buildLevelBoundary(walls, tanks);
+
+            assertBounds(minX, minY, maxX - minX, maxY - minY, boundary);
+        }
+    }
+
+    /**
+     * Asserts that the given boundary has the given position and size.
+     * 
+     * @param x
+     *            expected x coordinate
+     * @param y
+     *            expected y coordinate
+     * @param width
+     *            expected width
+     * @param height
+     *            expected height
+     * @param boundary
+     *            boundary
+     */
+    private static void assertBounds(int x, int y, int width, int height, LevelBoundary boundary) {
+        Assert.assertEquals(boundary.toString(), x, boundary.getX());
+        Assert.assertEquals(boundary.toString(), y, boundary.getY());
+        Assert.assertEquals(boundary.toString(), width, boundary.getWidth());
+        Assert.assertEquals(boundary.toString(), height, boundary.getHeight());
+    }
+
+    /**
+     * Creates a tank.
+     * 
+     * @param x
+     *            x coordinate
+     * @param y
+     *            y coordinate
+     * @return tank of 30 by 40 pixels
+     */
+    private static Tank createTank(int x, int y) {
+        return new Tank(x, y, 30, 40, Orientation.NORTH, 250, 10, "Aad", 0);
+    }
+}
@@ -0,0 +1,96 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LineOfFireTable}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class LineOfFireTableTest {
+    /** Test method for {@link LineOfFireTable#toString()}. */
+    @Test
+    public void testToString() {
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(new Random(1), 10);
+        LineOfFireTable table = createTable(walls);
+
+        String string = table.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /**
+     * Test method for {@link LineOfFireTable#findFirstHit(BulletRay)}. Compares the results to a ray cast through the
+     * spatial index, for bullets inside and outside of the level, within a level boundary which is smaller than the
+     * walls' bounding box. Every bullet is looked up twice, to check both computed and stored entries.
+     */
+    @Test
+    public void testCompareToRayCast() {
+        Random random = new Random(17);
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(random, 100);
+        SpatialIndex<Wall> index = createIndex(walls);
+        LineOfFireTable table = new LineOfFireTable(index, createArea(walls));
+        List<Wall> boundaryWalls = Collections.singletonList(new Wall(100, 50, 700, 650));
+        LevelBoundary boundary = LevelBoundary.buildLevelBoundary(boundaryWalls, Collections.<Tank> emptyList());
+
+        int hits = 0;
+        for (int i = 0; i != 20000; i++) {
+            Bullet bullet = new Bullet(random.nextInt(1100) - 50, random.nextInt(900) - 50, 4, 4);
+            Orientation orientation = Orientation.values()[random.nextInt(Orientation.values().length)];
+            BulletRay ray = new BulletRay(bullet, orientation, boundary);
+
+            Wall expected = index.findFirstHit(ray, ray.getMaxStep());
+
+            Assert.assertSame(ray.toString(), expected, table.findFirstHit(ray));
+            Assert.assertSame(ray.toString(), expected, table.findFirstHit(ray));
+            if (expected != null) {
+                hits++;
+            }
+        }
+        // Make sure the test actually covers some hits.
+        Assert.assertTrue("" + hits, 0 < hits);
+    }
+
+    /**
+     * Creates a line of fire table for the given walls.
+     * 
+     * @param walls
+     *            walls
+     * @return table
+     */
+    private static LineOfFireTable createTable(List<Wall> walls) {
+        return new LineOfFireTable(createIndex(walls), createArea(walls));
+    }
+
+    /**
+     * Creates a spatial index for the given walls.
+     * 
+     * @param walls
+     *            walls
+     * @return index
+     */
+    private static SpatialIndex<Wall> createIndex(List<Wall> walls) {
+        return SpatialIndex.create(walls, createArea(walls));
+    }
+
+    /**
+     * Computes the bounding box of the given walls.
+     * 
+     * @param walls
+     *            walls
+     * @return bounding box
+     */
+    private static LevelBoundary createArea(List<Wall> walls) {
+        return LevelBoundary.buildLevelBoundary(walls, Collections.<Tank> emptyList());
+    }
+}
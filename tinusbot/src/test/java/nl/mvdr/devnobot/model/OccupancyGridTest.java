@@ -0,0 +1,163 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link OccupancyGrid}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class OccupancyGridTest {
+    /** Test method for {@link OccupancyGrid#toString()}. */
+    @Test
+    public void testToString() {
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(new Random(1), 10);
+        OccupancyGrid grid = createGrid(walls);
+
+        String string = grid.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link OccupancyGrid#overlaps(GameObject)} without any walls. */
+    @Test
+    public void testEmpty() {
+        OccupancyGrid grid = createGrid(Collections.<Wall> emptyList());
+
+        Assert.assertFalse(grid.overlaps(new DummyGameObject(0, 0, 10, 10)));
+    }
+
+    /** Test method for {@link OccupancyGrid#getResolution()} for walls aligned to a grid. */
+    @Test
+    public void testResolution() {
+        List<Wall> walls = createAlignedWalls(new Random(2), 100);
+        OccupancyGrid grid = createGrid(walls);
+
+        Assert.assertEquals(20, grid.getResolution());
+        Assert.assertTrue(grid.isEnabled());
+    }
+
+    /**
+     * Test method for {@link OccupancyGrid#overlaps(GameObject)} for walls aligned to a grid. Compares the results to a
+     * linear scan.
+     */
+    @Test
+    public void testCompareToLinearScanAligned() {
+        Random random = new Random(3);
+        List<Wall> walls = createAlignedWalls(random, 100);
+
+        checkCompareToLinearScan(random, walls);
+    }
+
+    /**
+     * Test method for {@link OccupancyGrid#overlaps(GameObject)} for walls in arbitrary positions. Compares the results
+     * to a linear scan.
+     */
+    @Test
+    public void testCompareToLinearScanUnaligned() {
+        Random random = new Random(4);
+        List<Wall> walls = SpatialIndexTest.createRandomWalls(random, 100);
+
+        checkCompareToLinearScan(random, walls);
+    }
+
+    /**
+     * Test method for {@link OccupancyGrid#isEnabled()} and {@link WallMap#overlaps(GameObject)} for a large level
+     * whose walls are not aligned to a grid. The raster would need a cell per pixel, so it is disabled and the wall map
+     * falls back to its spatial index.
+     */
+    @Test
+    public void testLargeUnalignedLevel() {
+        Random random = new Random(5);
+        List<Wall> walls = new ArrayList<>();
+        walls.add(new Wall(0, 0, 50000, 20));
+        walls.add(new Wall(0, 39980, 50000, 20));
+        walls.add(new Wall(0, 0, 20, 40000));
+        walls.add(new Wall(49980, 0, 20, 40000));
+        walls.add(new Wall(1001, 2003, 37, 41));
+        for (int i = 0; i != 100; i++) {
+            walls.add(new Wall(random.nextInt(49000), random.nextInt(39000), 1 + random.nextInt(60),
+                    1 + random.nextInt(60)));
+        }
+
+        OccupancyGrid grid = createGrid(walls);
+        WallMap map = new WallMap(walls);
+
+        Assert.assertEquals(1, grid.getResolution());
+        Assert.assertFalse(grid.isEnabled());
+        Assert.assertTrue(map.overlaps(new DummyGameObject(1030, 2040, 10, 10)));
+        Assert.assertFalse(map.overlaps(new DummyGameObject(1038, 2040, 10, 10)));
+        for (int i = 0; i != 10000; i++) {
+            GameObject query = new DummyGameObject(random.nextInt(50200) - 100, random.nextInt(40200) - 100,
+                    1 + random.nextInt(60), 1 + random.nextInt(60));
+
+            Assert.assertEquals(query.toString(), query.overlaps(walls), map.overlaps(query));
+            Assert.assertEquals(query.toString(), query.overlaps(walls),
+                    map.overlaps(query.getX(), query.getY(), query.getWidth(), query.getHeight()));
+        }
+    }
+
+    /**
+     * Compares the results of {@link OccupancyGrid#overlaps(GameObject)} to a linear scan, for random queries
+     * including queries outside of the level.
+     * 
+     * @param random
+     *            random number generator
+     * @param walls
+     *            walls
+     */
+    private void checkCompareToLinearScan(Random random, List<Wall> walls) {
+        OccupancyGrid grid = createGrid(walls);
+        for (int i = 0; i != 10000; i++) {
+            GameObject query = new DummyGameObject(random.nextInt(1200) - 100, random.nextInt(1000) - 100,
+                    1 + random.nextInt(60), 1 + random.nextInt(60));
+
+            Assert.assertEquals(query.toString(), query.overlaps(walls), grid.overlaps(query));
+        }
+    }
+
+    /**
+     * Creates an occupancy grid over the level boundary of the given walls.
+     * 
+     * @param walls
+     *            walls
+     * @return occupancy grid
+     */
+    private static OccupancyGrid createGrid(List<Wall> walls) {
+        return new OccupancyGrid(walls, LevelBoundary.buildLevelBoundary(walls, Collections.<Tank> emptyList()));
+    }
+
+    /**
+     * Creates random walls, with all coordinates and sizes multiples of 20, surrounded by walls along the edges of the
+     * level.
+     * 
+     * @param random
+     *            random number generator
+     * @param count
+     *            number of random walls
+     * @return walls
+     */
+    private static List<Wall> createAlignedWalls(Random random, int count) {
+        List<Wall> result = new ArrayList<>(count + 4);
+        result.add(new Wall(0, 0, 1000, 20));
+        result.add(new Wall(0, 780, 1000, 20));
+        result.add(new Wall(0, 0, 20, 800));
+        result.add(new Wall(980, 0, 20, 800));
+        for (int i = 0; i != count; i++) {
+            result.add(new Wall(20 * random.nextInt(50), 20 * random.nextInt(40), 20 + 20 * random.nextInt(3),
+                    20 + 20 * random.nextInt(3)));
+        }
+        return result;
+    }
+}
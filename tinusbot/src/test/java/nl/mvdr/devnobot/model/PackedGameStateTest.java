@@ -0,0 +1,183 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link PackedGameState}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class PackedGameStateTest {
+    /** Test method for {@link PackedGameState#toString()}. */
+    @Test
+    public void testToString() {
+        PackedGameState state = new PackedGameState(createRandomState(new Random(1), 5, 5));
+
+        String string = state.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for the object view: {@link PackedGameState#getTank(int)} and related methods. */
+    @Test
+    public void testView() {
+        Tank aad = new Tank(0, 0, 30, 40, Orientation.NORTH, 250, 10, "Aad", 0);
+        Tank sjaak = new Tank(100, 0, 40, 30, null, 250, 10, "Sjaak", 0);
+        Tank anotherAad = new Tank(200, 0, 30, 40, Orientation.WEST, 250, 10, "Aad", 0);
+        Bullet bullet = new Bullet(50, 50, 4, 4);
+        GameState gameState = new GameState(Arrays.asList(aad, sjaak, anotherAad), Arrays.asList(bullet));
+
+        PackedGameState state = new PackedGameState(gameState);
+
+        Assert.assertSame(gameState, state.getState());
+        Assert.assertEquals(3, state.getTankCount());
+        Assert.assertEquals(1, state.getBulletCount());
+        Assert.assertSame(sjaak, state.getTank(1));
+        Assert.assertSame(bullet, state.getBullet(0));
+        Assert.assertEquals(state.getTankPlayer(0), state.getTankPlayer(2));
+        Assert.assertNotEquals(state.getTankPlayer(0), state.getTankPlayer(1));
+        Assert.assertEquals(state.getTankPlayer(1), state.retrievePlayerId("Sjaak"));
+        Assert.assertEquals("Sjaak", state.retrievePlayerName(state.getTankPlayer(1)));
+        Assert.assertEquals(PackedGameState.UNKNOWN_PLAYER, state.retrievePlayerId("Henk"));
+        Assert.assertEquals(PackedGameState.UNKNOWN_ORIENTATION, state.getTankOrientation(1));
+        Assert.assertEquals(Orientation.WEST.ordinal(), state.getTankOrientation(2));
+    }
+
+    /**
+     * Test method for {@link PackedGameState#findOverlappingTanks(int, int, int, int, int[])},
+     * {@link PackedGameState#findOverlappingBullets(int, int, int, int, int[])} and
+     * {@link PackedGameState#overlapsEnemyTank(int, int, int, int, int)}. Compares the results to the object model.
+     */
+    @Test
+    public void testOverlapsCompareToObjects() {
+        Random random = new Random(2);
+        PackedGameState state = new PackedGameState(createRandomState(random, 40, 40));
+        int[] tankIndices = new int[state.getTankCount()];
+        int[] bulletIndices = new int[state.getBulletCount()];
+
+        for (int i = 0; i != 1000; i++) {
+            DummyGameObject query = new DummyGameObject(random.nextInt(500) - 50, random.nextInt(500) - 50,
+                    1 + random.nextInt(60), 1 + random.nextInt(60));
+            int player = random.nextInt(6) - 1;
+
+            List<Integer> expectedTanks = new ArrayList<>();
+            boolean expectedEnemy = false;
+            for (int j = 0; j != state.getTankCount(); j++) {
+                if (query.overlaps(state.getTank(j))) {
+                    expectedTanks.add(Integer.valueOf(j));
+                    expectedEnemy = expectedEnemy || state.getTankPlayer(j) != player;
+                }
+            }
+            List<Integer> expectedBullets = new ArrayList<>();
+            for (int j = 0; j != state.getBulletCount(); j++) {
+                if (query.overlaps(state.getBullet(j))) {
+                    expectedBullets.add(Integer.valueOf(j));
+                }
+            }
+
+            int tankCount = state.findOverlappingTanks(query.getX(), query.getY(), query.getWidth(),
+                    query.getHeight(), tankIndices);
+            int bulletCount = state.findOverlappingBullets(query.getX(), query.getY(), query.getWidth(),
+                    query.getHeight(), bulletIndices);
+            boolean enemy = state.overlapsEnemyTank(query.getX(), query.getY(), query.getWidth(), query.getHeight(),
+                    player);
+
+            Assert.assertEquals(query.toString(), expectedTanks, toList(tankIndices, tankCount));
+            Assert.assertEquals(query.toString(), expectedBullets, toList(bulletIndices, bulletCount));
+            Assert.assertEquals(query.toString(), Boolean.valueOf(expectedEnemy), Boolean.valueOf(enemy));
+        }
+    }
+
+    /**
+     * Test method for {@link PackedGameState#findTanksAimingAt(int, int, int, int, int[])}. Compares the results to a
+     * bullet trajectory in a level without walls and with a boundary far away.
+     */
+    @Test
+    public void testAimingCompareToRay() {
+        Random random = new Random(3);
+        PackedGameState state = new PackedGameState(createRandomState(random, 40, 0));
+        GameObject boundary = new DummyGameObject(-10000, -10000, 20000, 20000);
+        int[] indices = new int[state.getTankCount()];
+
+        for (int i = 0; i != 1000; i++) {
+            DummyGameObject query = new DummyGameObject(random.nextInt(500) - 50, random.nextInt(500) - 50,
+                    8 + random.nextInt(60), 8 + random.nextInt(60));
+
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j != state.getTankCount(); j++) {
+                Tank tank = state.getTank(j);
+                if (tank.getLastKnownOrientation() != null) {
+                    BulletRay ray = new BulletRay(tank.computeBulletSpawnLocation(), tank.getLastKnownOrientation(),
+                            boundary);
+                    if (ray.computeFirstStep(query) != -1) {
+                        expected.add(Integer.valueOf(j));
+                    }
+                }
+            }
+
+            int count = state.findTanksAimingAt(query.getX(), query.getY(), query.getWidth(), query.getHeight(),
+                    indices);
+
+            Assert.assertEquals(query.toString(), expected, toList(indices, count));
+        }
+    }
+
+    /**
+     * Converts the first elements of an array to a list.
+     * 
+     * @param array
+     *            array
+     * @param count
+     *            number of elements
+     * @return list
+     */
+    private static List<Integer> toList(int[] array, int count) {
+        List<Integer> result = new ArrayList<>(count);
+        for (int i = 0; i != count; i++) {
+            result.add(Integer.valueOf(array[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Creates a game state with random tanks and bullets in an area of 400 by 400 pixels. The tanks belong to five
+     * players; some of them have an unknown orientation.
+     * 
+     * @param random
+     *            random number generator
+     * @param tankCount
+     *            number of tanks
+     * @param bulletCount
+     *            number of bullets
+     * @return game state
+     */
+    private static GameState createRandomState(Random random, int tankCount, int bulletCount) {
+        List<Tank> tanks = new ArrayList<>(tankCount);
+        for (int i = 0; i != tankCount; i++) {
+            Orientation orientation;
+            if (random.nextInt(10) == 0) {
+                orientation = null;
+            } else {
+                orientation = Orientation.values()[random.nextInt(Orientation.values().length)];
+            }
+            tanks.add(new Tank(random.nextInt(400), random.nextInt(400), 20 + random.nextInt(20),
+                    20 + random.nextInt(20), orientation, 250, 10, "Player " + random.nextInt(5), 0));
+        }
+        List<Bullet> bullets = new ArrayList<>(bulletCount);
+        for (int i = 0; i != bulletCount; i++) {
+            bullets.add(new Bullet(random.nextInt(400), random.nextInt(400), 4, 4));
+        }
+        return new GameState(tanks, bullets);
+    }
+}
@@ -0,0 +1,133 @@
+package nl.mvdr.devnobot.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SpatialIndex}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+public class SpatialIndexTest {
+    /** Test method for {@link SpatialIndex#toString()}. */
+    @Test
+    public void testToString() {
+        List<Wall> walls = Arrays.asList(new Wall(0, 0, 10, 10), new Wall(90, 90, 10, 10));
+        SpatialIndex<Wall> index = SpatialIndex.create(walls, LevelBoundary.buildLevelBoundary(walls,
+                Collections.<Tank> emptyList()));
+
+        String string = index.toString();
+
+        log.info(string);
+        Assert.assertNotNull(string);
+        Assert.assertNotEquals("", string);
+    }
+
+    /** Test method for {@link SpatialIndex#findOverlapping(GameObject)} on an empty index. */
+    @Test
+    public void testEmpty() {
+        List<Wall> walls = Collections.emptyList();
+        SpatialIndex<Wall> index = SpatialIndex.create(walls, LevelBoundary.buildLevelBoundary(walls,
+                Collections.<Tank> emptyList()));
+
+        Assert.assertNull(index.findOverlapping(new DummyGameObject(0, 0, 10, 10)));
+        Assert.assertFalse(index.overlaps(new DummyGameObject(0, 0, 10, 10)));
+    }
+
+    /**
+     * Test method for {@link SpatialIndex#findOverlapping(GameObject)} and {@link SpatialIndex#overlaps(GameObject)}.
+     * Compares the results to a linear scan, for random walls and random queries, including queries outside of the
+     * level.
+     */
+    @Test
+    public void testCompareToLinearScan() {
+        Random random = new Random(14);
+        List<Wall> walls = createRandomWalls(random, 200);
+        SpatialIndex<Wall> index = SpatialIndex.create(walls, LevelBoundary.buildLevelBoundary(walls,
+                Collections.<Tank> emptyList()));
+
+        for (int i = 0; i != 10000; i++) {
+            GameObject query = new DummyGameObject(random.nextInt(1200) - 100, random.nextInt(1000) - 100,
+                    random.nextInt(60), random.nextInt(60));
+            Wall expected = null;
+            for (Wall wall : walls) {
+                if (query.overlaps(wall)) {
+                    expected = wall;
+                }
+            }
+
+            Assert.assertSame(query.toString(), expected, index.findOverlapping(query));
+            Assert.assertEquals(query.toString(), query.overlaps(walls), index.overlaps(query));
+        }
+    }
+
+    /** Test method for {@link SpatialIndex#createOverlay(Collection)}. */
+    @Test
+    public void testOverlay() {
+        Random random = new Random(15);
+        List<Wall> walls = createRandomWalls(random, 100);
+        SpatialIndex<Wall> index = SpatialIndex.create(walls, LevelBoundary.buildLevelBoundary(walls,
+                Collections.<Tank> emptyList()));
+        List<Tank> tanks = createRandomTanks(random, 20);
+
+        SpatialIndex<Tank> overlay = index.createOverlay(tanks);
+
+        Assert.assertEquals(index.getCellSize(), overlay.getCellSize());
+        Assert.assertEquals(tanks, overlay.getObjects());
+        for (int i = 0; i != 10000; i++) {
+            GameObject query = new DummyGameObject(random.nextInt(1000), random.nextInt(800), 1 + random.nextInt(40),
+                    1 + random.nextInt(40));
+            Assert.assertEquals(query.toString(), query.overlaps(tanks), overlay.overlaps(query));
+        }
+    }
+
+    /**
+     * Creates random walls, surrounded by walls along the edges of the level.
+     * 
+     * @param random
+     *            random number generator
+     * @param count
+     *            number of random walls
+     * @return walls
+     */
+    static List<Wall> createRandomWalls(Random random, int count) {
+        List<Wall> result = new ArrayList<>(count + 4);
+        result.add(new Wall(0, 0, 1000, 10));
+        result.add(new Wall(0, 790, 1000, 10));
+        result.add(new Wall(0, 0, 10, 800));
+        result.add(new Wall(990, 0, 10, 800));
+        for (int i = 0; i != count; i++) {
+            result.add(new Wall(random.nextInt(1000), random.nextInt(800), 1 + random.nextInt(50),
+                    1 + random.nextInt(50)));
+        }
+        return result;
+    }
+
+    /**
+     * Creates tanks in random locations.
+     * 
+     * @param random
+     *            random number generator
+     * @param count
+     *            number of tanks
+     * @return tanks
+     */
+    static List<Tank> createRandomTanks(Random random, int count) {
+        List<Tank> result = new ArrayList<>(count);
+        for (int i = 0; i != count; i++) {
+            result.add(new Tank(random.nextInt(980), random.nextInt(780), 20, 20, Orientation.NORTH, 100, 4, "Tank "
+                    + i, 0));
+        }
+        return result;
+    }
+}
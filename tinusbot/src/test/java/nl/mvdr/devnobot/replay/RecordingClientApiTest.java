@@ -0,0 +1,74 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.simulator.GameEngine;
+import nl.mvdr.devnobot.simulator.Levels;
+import nl.mvdr.devnobot.simulator.SimulatedClientApi;
+import nl.mvdr.devnobot.simulator.SimulationSettings;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link RecordingClientApi}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class RecordingClientApiTest {
+    /** Temporary folder for the log files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that calls are passed on to the underlying API and recorded.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testRecording() throws IOException {
+        File file = new File(folder.getRoot(), "test.replay");
+        GameEngine engine = new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), 0);
+        ReplayLogWriter writer = ReplayLogWriter.create(file.toPath());
+        ClientApi api = new RecordingClientApi(new SimulatedClientApi(engine), writer);
+
+        Assert.assertEquals(4, api.readLevel().size());
+        Assert.assertTrue(api.createPlayer("Aad", "#FF0000", "aad-id"));
+        Assert.assertEquals(1, api.readWorldStatus().getTanks().size());
+        List<Boolean> results = api.addActions(Arrays.asList(Action.FIRE, Action.SUICIDE), "aad-id");
+        Assert.assertEquals(Arrays.asList(Boolean.TRUE, Boolean.TRUE), results);
+        Assert.assertFalse(api.addAction(Action.FIRE, "unknown-id"));
+        Assert.assertEquals(1, api.readPlayers().iterator().next().getDeaths());
+        writer.close();
+
+        Assert.assertTrue(ReplayFormat.HEADER_LENGTH < file.length());
+    }
+
+    /**
+     * Tests that calls still work once the log can no longer be written.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testRecordingFailure() throws IOException {
+        GameEngine engine = new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), 0);
+        ReplayLogWriter writer = ReplayLogWriter.create(new File(folder.getRoot(), "test.replay").toPath());
+        ClientApi api = new RecordingClientApi(new SimulatedClientApi(engine), writer);
+        writer.close();
+
+        Assert.assertTrue(api.createPlayer("Aad", "#FF0000", "aad-id"));
+        // Fill up the write buffer, so the writer attempts to write to the closed channel.
+        for (int i = 0; i != 10000; i++) {
+            Assert.assertEquals(1, api.readWorldStatus().getTanks().size());
+        }
+    }
+}
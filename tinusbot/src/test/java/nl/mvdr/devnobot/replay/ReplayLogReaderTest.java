@@ -0,0 +1,202 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link ReplayLogReader}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ReplayLogReaderTest {
+    /** Number of game states in the test log; enough for a few index entries. */
+    private static final int TICKS = 3 * ReplayLogReader.INDEX_INTERVAL + 5;
+    /** Start time of the test log. */
+    private static final long START_TIME = 1000000L;
+
+    /** Temporary folder for the log files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** Log file. */
+    private File file;
+    /** Level in the log. */
+    private Collection<Wall> level;
+
+    /**
+     * Writes a test log.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "test.replay");
+        level = Arrays.asList(new Wall(0, 0, 800, 10), new Wall(0, 590, 800, 10));
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try (ReplayLogWriter writer = new ReplayLogWriter(channel, START_TIME)) {
+            writer.writeLevel(START_TIME, level);
+            for (int tick = 0; tick != TICKS; tick++) {
+                writer.writeGameState(createTime(tick), createGameState(tick));
+                writer.writeAction(createTime(tick) + 1, "player" + tick % 7, Action.FIRE, true);
+                if (tick % 10 == 0) {
+                    writer.writePlayers(createTime(tick) + 2, Collections.singleton(new Player("player" + tick, 1,
+                            2, null)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the data read while opening the log.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testOpen() throws IOException {
+        ReplayLogReader reader = ReplayLogReader.open(file.toPath());
+
+        Assert.assertEquals(START_TIME, reader.getStartTime());
+        Assert.assertEquals(TICKS, reader.getTickCount());
+        Assert.assertEquals(level.toString(), reader.getLevel().toString());
+    }
+
+    /**
+     * Test method for {@link ReplayLogReader#readGameState(int)} and {@link ReplayLogReader#readTime(int)}.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testRandomAccess() throws IOException {
+        ReplayLogReader reader = ReplayLogReader.open(file.toPath());
+
+        for (int tick : new int[] { TICKS - 1, 0, ReplayLogReader.INDEX_INTERVAL, ReplayLogReader.INDEX_INTERVAL - 1,
+                100, 1 }) {
+            Assert.assertEquals(createGameState(tick).toString(), reader.readGameState(tick).toString());
+            Assert.assertEquals(createTime(tick), reader.readTime(tick));
+        }
+    }
+
+    /**
+     * Test method for {@link ReplayLogReader#readGameState(int)} with an invalid tick.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadGameStateOutOfBounds() throws IOException {
+        ReplayLogReader.open(file.toPath()).readGameState(TICKS);
+    }
+
+    /**
+     * Test method for {@link ReplayLogReader#readGameStates(int, int)}.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testReadGameStates() throws IOException {
+        ReplayLogReader reader = ReplayLogReader.open(file.toPath());
+        List<String> expected = new ArrayList<>();
+        for (int tick = 50; tick != 150; tick++) {
+            expected.add(createGameState(tick).toString());
+        }
+
+        List<String> result = new ArrayList<>();
+        for (GameState state : reader.readGameStates(50, 150)) {
+            result.add(state.toString());
+        }
+
+        Assert.assertEquals(expected, result);
+    }
+
+    /**
+     * Tests that an incomplete last record is ignored.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // Remove the final action record and part of the final game state.
+        ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 12));
+
+        ReplayLogReader reader = new ReplayLogReader(truncated);
+
+        Assert.assertEquals(TICKS - 1, reader.getTickCount());
+        Assert.assertEquals(createGameState(TICKS - 2).toString(), reader.readGameState(TICKS - 2).toString());
+    }
+
+    /**
+     * Tests that a file which is not a replay log is rejected.
+     * 
+     * @throws IOException
+     *             expected
+     */
+    @Test(expected = IOException.class)
+    public void testNotAReplayLog() throws IOException {
+        new ReplayLogReader(ByteBuffer.wrap("Hello, world! This is not a replay log.".getBytes("UTF-8")));
+    }
+
+    /**
+     * Creates the timestamp for the given tick.
+     * 
+     * @param tick
+     *            tick
+     * @return timestamp
+     */
+    private static long createTime(int tick) {
+        return START_TIME + 500L * tick + tick % 3;
+    }
+
+    /**
+     * Creates a game state for the given tick.
+     * 
+     * @param tick
+     *            tick
+     * @return game state
+     */
+    private static GameState createGameState(int tick) {
+        List<Tank> tanks = new ArrayList<>();
+        for (int i = 0; i != 1 + tick % 7; i++) {
+            Orientation orientation;
+            if (i == 3) {
+                orientation = null;
+            } else {
+                orientation = Orientation.values()[(tick + i) % 4];
+            }
+            tanks.add(new Tank(tick + 10 * i, 600 - tick, 30, 40, orientation, 300, 8, "player" + i, tick % 5));
+        }
+        List<Bullet> bullets = new ArrayList<>();
+        for (int i = 0; i != tick % 4; i++) {
+            bullets.add(new Bullet(tick * i - 20, 2 * tick, 4, 4));
+        }
+        return new GameState(tanks, bullets);
+    }
+}
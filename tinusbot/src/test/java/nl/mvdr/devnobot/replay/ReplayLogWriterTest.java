@@ -0,0 +1,117 @@
+package nl.mvdr.devnobot.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link ReplayLogWriter}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ReplayLogWriterTest {
+    /** Temporary folder for the log files. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests the header of a new log.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testHeader() throws IOException {
+        File file = new File(folder.getRoot(), "test.replay");
+
+        ReplayLogWriter.create(file.toPath()).close();
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        Assert.assertEquals(ReplayFormat.HEADER_LENGTH, bytes.remaining());
+        Assert.assertEquals(ReplayFormat.MAGIC, bytes.getInt());
+        Assert.assertEquals(ReplayFormat.VERSION, bytes.get());
+    }
+
+    /**
+     * Tests that an existing file is not overwritten.
+     * 
+     * @throws IOException
+     *             expected
+     */
+    @Test(expected = IOException.class)
+    public void testCreateExisting() throws IOException {
+        ReplayLogWriter.create(folder.newFile().toPath());
+    }
+
+    /**
+     * Tests the sequence of records written, and that strings are only written once.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testRecords() throws IOException {
+        File file = new File(folder.getRoot(), "test.replay");
+        GameState state = new GameState(Arrays.asList(new Tank(10, 20, 30, 40, Orientation.EAST, 300, 8, "Aad", 2),
+                new Tank(-5, 200, 40, 30, null, 300, 8, "Wim", 0)), Collections.singleton(new Bullet(1, 2, 4, 4)));
+
+        try (ReplayLogWriter writer = ReplayLogWriter.create(file.toPath())) {
+            writer.writeLevel(1000, Collections.singleton(new Wall(0, 0, 800, 10)));
+            writer.writeCreatePlayer(1000, "Aad", "#FF0000", "aad-id", true);
+            writer.writeGameState(1010, state);
+            writer.writeGameState(1020, state);
+            writer.writeAction(1030, "aad-id", Action.FIRE, true);
+            writer.writePlayers(1040, Collections.singleton(new Player("Aad", 1, 0, "#FF0000")));
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        bytes.position(ReplayFormat.HEADER_LENGTH);
+        List<Byte> types = new ArrayList<>();
+        while (bytes.hasRemaining()) {
+            types.add(Byte.valueOf(bytes.get()));
+            readVarint(bytes);
+            int length = (int) readVarint(bytes);
+            bytes.position(bytes.position() + length);
+        }
+        Assert.assertEquals(Arrays.asList(ReplayFormat.LEVEL, ReplayFormat.STRING, ReplayFormat.STRING,
+                ReplayFormat.STRING, ReplayFormat.CREATE_PLAYER, ReplayFormat.STRING, ReplayFormat.GAME_STATE,
+                ReplayFormat.GAME_STATE, ReplayFormat.ACTION, ReplayFormat.PLAYERS), types);
+    }
+
+    /**
+     * Reads a varint.
+     * 
+     * @param bytes
+     *            buffer
+     * @return value
+     */
+    private long readVarint(ByteBuffer bytes) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes.get();
+            result = result | ((long) (b & 0x7F) << shift);
+            shift = shift + 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,211 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import nl.mvdr.devnobot.model.Action;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameEngine}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class GameEngineTest {
+    /** Tests that a level without walls is rejected. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorNoWalls() {
+        new GameEngine(Collections.<Wall> emptyList(), SimulationSettings.createDefault(), 0);
+    }
+
+    /** Tests {@link GameEngine#createPlayer(String, String, String)}. */
+    @Test
+    public void testCreatePlayer() {
+        GameEngine engine = createEngine(0);
+
+        Assert.assertTrue(engine.createPlayer("Aad", "#FF0000", "aad-id"));
+        Assert.assertFalse(engine.createPlayer("Aad", "#FF0000", "other-id"));
+        Assert.assertFalse(engine.createPlayer("Wim", "#FF0000", "aad-id"));
+
+        GameState state = engine.createGameState();
+        Assert.assertEquals(1, state.getTanks().size());
+        Tank tank = state.retrieveTankForPlayerName("Aad");
+        Assert.assertNotNull(tank.getLastKnownOrientation());
+        Assert.assertFalse(tank.overlaps(engine.getWalls()));
+    }
+
+    /** Tests that actions are queued and executed one at a time, each taking the action duration. */
+    @Test
+    public void testActionQueue() {
+        GameEngine engine = createEngine(0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+        Tank start = engine.createGameState().retrieveTankForPlayerName("Aad");
+
+        Assert.assertTrue(engine.addAction(Action.TURN_LEFT, "aad-id"));
+        Assert.assertTrue(engine.addAction(Action.TURN_LEFT, "aad-id"));
+        Assert.assertEquals(2, engine.createGameState().retrieveTankForPlayerName("Aad").getQueueLength());
+
+        engine.step();
+        Tank afterOneTurn = engine.createGameState().retrieveTankForPlayerName("Aad");
+        Assert.assertEquals(1, afterOneTurn.getQueueLength());
+        Assert.assertSame(start.getLastKnownOrientation().turnLeft(), afterOneTurn.getLastKnownOrientation());
+
+        engine.run(SimulationSettings.createDefault().getActionDuration());
+        Tank afterTwoTurns = engine.createGameState().retrieveTankForPlayerName("Aad");
+        Assert.assertEquals(0, afterTwoTurns.getQueueLength());
+        Assert.assertSame(start.getLastKnownOrientation().turnLeft().turnLeft(),
+                afterTwoTurns.getLastKnownOrientation());
+    }
+
+    /** Tests that suicide is rejected as a queued action. */
+    @Test
+    public void testAddActionSuicide() {
+        GameEngine engine = createEngine(0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+
+        Assert.assertFalse(engine.addAction(Action.SUICIDE, "aad-id"));
+        Assert.assertFalse(engine.addAction(Action.FIRE, "unknown-id"));
+    }
+
+    /** Tests {@link GameEngine#suicide(String)}. */
+    @Test
+    public void testSuicide() {
+        GameEngine engine = createEngine(0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+
+        Assert.assertTrue(engine.suicide("aad-id"));
+
+        Player player = engine.createPlayers().iterator().next();
+        Assert.assertEquals(0, player.getKills());
+        Assert.assertEquals(1, player.getDeaths());
+    }
+
+    /** Tests that a tank keeps moving forward until it runs into a wall. */
+    @Test
+    public void testBlockedByWall() {
+        GameEngine engine = createEngine(0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+        for (int i = 0; i != 100; i++) {
+            engine.addAction(Action.FORWARD, "aad-id");
+        }
+
+        engine.run(100 * SimulationSettings.createDefault().getActionDuration());
+
+        Tank tank = engine.createGameState().retrieveTankForPlayerName("Aad");
+        Assert.assertFalse(tank.overlaps(engine.getWalls()));
+        Assert.assertTrue(tank.computeNextPosition(Action.FORWARD).overlaps(engine.getWalls()));
+    }
+
+    /** Tests that firing at another tank results in a kill and a death. */
+    @Test
+    public void testKill() {
+        // A corridor which is too low for tanks facing north or south, so both tanks end up in the same row.
+        GameEngine engine = new GameEngine(Levels.createArena(400, 55, 10), SimulationSettings.createDefault(), 0);
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+        engine.createPlayer("Wim", "#00FF00", "wim-id");
+        // Respawn Wim until he is in Aad's line of fire.
+        int attempts = 0;
+        while (!isInLineOfFire(engine, "Aad", "Wim") && attempts < 100) {
+            engine.suicide("wim-id");
+            attempts++;
+        }
+        Assert.assertTrue(isInLineOfFire(engine, "Aad", "Wim"));
+        int deaths = retrieve(engine, "Wim").getDeaths();
+
+        engine.addAction(Action.FIRE, "aad-id");
+        engine.run(1000);
+
+        Assert.assertEquals(1, retrieve(engine, "Aad").getKills());
+        Assert.assertEquals(0, retrieve(engine, "Aad").getDeaths());
+        Assert.assertEquals(0, retrieve(engine, "Wim").getKills());
+        Assert.assertEquals(deaths + 1, retrieve(engine, "Wim").getDeaths());
+    }
+
+    /**
+     * Determines whether the target is straight ahead of the shooter, in the corridor used by {@link #testKill()}.
+     * 
+     * @param engine
+     *            engine
+     * @param shooter
+     *            name of the shooting player
+     * @param target
+     *            name of the target
+     * @return whether the shooter faces the target
+     */
+    private boolean isInLineOfFire(GameEngine engine, String shooter, String target) {
+        GameState state = engine.createGameState();
+        Tank shooterTank = state.retrieveTankForPlayerName(shooter);
+        Tank targetTank = state.retrieveTankForPlayerName(target);
+        int direction = Integer.signum(targetTank.getX() - shooterTank.getX());
+        return direction != 0 && direction == shooterTank.getLastKnownOrientation().getXMultiplier();
+    }
+
+    /** Tests that two engines with the same seed behave the same. */
+    @Test
+    public void testDeterministic() {
+        Assert.assertEquals(play(42), play(42));
+    }
+
+    /**
+     * Plays a short game with some fixed actions.
+     * 
+     * @param seed
+     *            seed
+     * @return string representations of the game state at each step
+     */
+    private List<String> play(long seed) {
+        GameEngine engine = createEngine(seed);
+        List<String> result = new ArrayList<>();
+        for (String name : Arrays.asList("Aad", "Wim", "Sjaak")) {
+            engine.createPlayer(name, "#FFFFFF", name);
+        }
+        for (int i = 0; i != 200; i++) {
+            for (String name : Arrays.asList("Aad", "Wim", "Sjaak")) {
+                engine.addAction(Action.values()[(i + name.length()) % 5], name);
+            }
+            engine.run(100);
+            result.add(engine.createGameState().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves a player by name.
+     * 
+     * @param engine
+     *            engine
+     * @param name
+     *            player name
+     * @return player
+     */
+    private Player retrieve(GameEngine engine, String name) {
+        Collection<Player> players = engine.createPlayers();
+        Player result = null;
+        for (Player player : players) {
+            if (name.equals(player.getName())) {
+                result = player;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates an engine with a small, empty arena.
+     * 
+     * @param seed
+     *            seed
+     * @return engine
+     */
+    private GameEngine createEngine(long seed) {
+        return new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), seed);
+    }
+}
@@ -0,0 +1,65 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import nl.mvdr.devnobot.clientapi.JsonModelReader;
+import nl.mvdr.devnobot.model.Bullet;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Orientation;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Tank;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link JsonModelWriter}. Checks that the output can be read back using {@link JsonModelReader}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class JsonModelWriterTest {
+    /** Test method for {@link JsonModelWriter#writeGameState(GameState, java.io.Writer)}. */
+    @Test
+    public void testWriteGameState() throws IOException {
+        GameState state = new GameState(Arrays.asList(new Tank(10, 20, 30, 40, Orientation.EAST, 300, 8, "Aad", 2),
+                new Tank(100, 200, 40, 30, Orientation.NORTH, 300, 8, "Wim", 0)), Collections.singleton(new Bullet(1,
+                2, 4, 4)));
+        StringWriter writer = new StringWriter();
+
+        JsonModelWriter.writeGameState(state, writer);
+
+        GameState result = JsonModelReader.readGameState(new StringReader(writer.toString()));
+        Assert.assertEquals(state.toString(), result.toString());
+    }
+
+    /** Test method for {@link JsonModelWriter#writeWalls(Collection, java.io.Writer)}. */
+    @Test
+    public void testWriteWalls() throws IOException {
+        Collection<Wall> walls = Levels.createArena(800, 600, 10);
+        StringWriter writer = new StringWriter();
+
+        JsonModelWriter.writeWalls(walls, writer);
+
+        Collection<Wall> result = JsonModelReader.readWalls(new StringReader(writer.toString()));
+        Assert.assertEquals(walls.toString(), result.toString());
+    }
+
+    /** Test method for {@link JsonModelWriter#writePlayers(Collection, java.io.Writer)}. */
+    @Test
+    public void testWritePlayers() throws IOException {
+        Collection<Player> players = Arrays.asList(new Player("Aad", 3, 1, "#FF0000"), new Player("Wim", 0, 5,
+                "#00FF00"));
+        StringWriter writer = new StringWriter();
+
+        JsonModelWriter.writePlayers(players, writer);
+
+        Collection<Player> result = JsonModelReader.readPlayers(new StringReader(writer.toString()));
+        Assert.assertEquals(players.toString(), result.toString());
+    }
+}
@@ -0,0 +1,203 @@
+package nl.mvdr.devnobot.simulator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collection;
+
+import nl.mvdr.devnobot.clientapi.ClientApi;
+import nl.mvdr.devnobot.clientapi.ClientApiImpl;
+import nl.mvdr.devnobot.model.GameState;
+import nl.mvdr.devnobot.model.Player;
+import nl.mvdr.devnobot.model.Wall;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LocalServer}.
+ * 
+ * Reads go through {@link ClientApiImpl}. Modifying requests are sent as plain JSON, so that the test does not depend
+ * on the JSON provider used by the REST client.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LocalServerTest {
+    /** Game engine. */
+    private GameEngine engine;
+    /** Server under test. */
+    private LocalServer server;
+    /** REST client. */
+    private ResteasyClient client;
+    /** Client api. */
+    private ClientApi api;
+
+    /**
+     * Starts a server on an arbitrary free port.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Before
+    public void setUp() throws IOException {
+        engine = new GameEngine(Levels.createArena(400, 300, 10), SimulationSettings.createDefault(), 0);
+        server = new LocalServer(engine, new InetSocketAddress("localhost", 0), 2, 0);
+        server.start();
+        client = new ResteasyClientBuilder().build();
+        api = new ClientApiImpl(createBaseURL(), client);
+    }
+
+    /** Stops the server. */
+    @After
+    public void tearDown() {
+        client.close();
+        server.stop();
+    }
+
+    /** Tests reading the level. */
+    @Test
+    public void testReadLevel() {
+        Collection<Wall> walls = api.readLevel();
+
+        Assert.assertEquals(engine.getWalls().toString(), walls.toString());
+    }
+
+    /**
+     * Tests creating a player, and reading the players and world state.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testCreatePlayer() throws IOException {
+        int status = send("POST", "/player", "{\"name\":\"Aad\",\"color\":\"#FF0000\",\"id\":\"aad-id\"}");
+
+        Assert.assertEquals(HttpURLConnection.HTTP_NO_CONTENT, status);
+        Collection<Player> players = api.readPlayers();
+        Assert.assertEquals(1, players.size());
+        Assert.assertEquals("Aad", players.iterator().next().getName());
+        GameState state = api.readWorldStatus();
+        Assert.assertNotNull(state.retrieveTankForPlayerName("Aad"));
+    }
+
+    /**
+     * Tests that a second player with the same name is rejected.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testCreatePlayerDuplicate() throws IOException {
+        send("POST", "/player", "{\"name\":\"Aad\",\"color\":\"#FF0000\",\"id\":\"aad-id\"}");
+
+        int status = send("POST", "/player", "{\"name\":\"Aad\",\"color\":\"#FF0000\",\"id\":\"other-id\"}");
+
+        Assert.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, status);
+    }
+
+    /**
+     * Tests adding actions, both as a plain string and wrapped in an object.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testAddAction() throws IOException {
+        send("POST", "/player", "{\"gamePlayer\":{\"name\":\"Aad\",\"color\":\"#FF0000\",\"id\":\"aad-id\"}}");
+
+        Assert.assertEquals(HttpURLConnection.HTTP_NO_CONTENT, send("PUT", "/player/aad-id", "\"FIRE\""));
+        Assert.assertEquals(HttpURLConnection.HTTP_NO_CONTENT, send("PUT", "/player/aad-id", "{\"action\":\"FIRE\"}"));
+        Assert.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, send("PUT", "/player/aad-id", "\"DANCE\""));
+        Assert.assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, send("PUT", "/player/unknown-id", "\"FIRE\""));
+    }
+
+    /** Tests suicide. */
+    @Test
+    public void testSuicide() {
+        engine.createPlayer("Aad", "#FF0000", "aad-id");
+
+        Assert.assertTrue(api.suicide("aad-id"));
+        Assert.assertFalse(api.suicide("unknown-id"));
+        Assert.assertEquals(1, api.readPlayers().iterator().next().getDeaths());
+    }
+
+    /**
+     * Tests that the game advances on its own.
+     * 
+     * @throws InterruptedException
+     *             unexpected
+     */
+    @Test
+    public void testTicks() throws InterruptedException {
+        long start = engine.getTime();
+
+        Thread.sleep(200);
+
+        Assert.assertTrue(start < engine.getTime());
+    }
+
+    /**
+     * Tests that responses are delayed by the configured latency.
+     * 
+     * @throws IOException
+     *             unexpected
+     */
+    @Test
+    public void testLatency() throws IOException {
+        LocalServer slowServer = new LocalServer(engine, new InetSocketAddress("localhost", 0), 2, 100);
+        slowServer.start();
+        try {
+            ClientApi slowApi = new ClientApiImpl("http://localhost:" + slowServer.getPort(), client);
+            long start = System.currentTimeMillis();
+
+            slowApi.readPlayers();
+
+            Assert.assertTrue(100 <= System.currentTimeMillis() - start);
+        } finally {
+            slowServer.stop();
+        }
+    }
+
+    /** @return base URL of the server under test */
+    private String createBaseURL() {
+        return "http://localhost:" + server.getPort();
+    }
+
+    /**
+     * Sends a request with a JSON body.
+     * 
+     * @param method
+     *            HTTP method
+     * @param path
+     *            path, relative to the REST context path
+     * @param json
+     *            request body
+     * @return response status
+     * @throws IOException
+     *             unexpected
+     */
+    private int send(String method, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(createBaseURL() + "/devnobot/rest" + path)
+                .openConnection();
+        int result;
+        try {
+            connection.setRequestMethod(method);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            OutputStream out = connection.getOutputStream();
+            out.write(json.getBytes(Charset.forName("UTF-8")));
+            out.close();
+            result = connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+        return result;
+    }
+}